@@ -0,0 +1,109 @@
+#!/usr/bin/env python3
+"""Compares two JMH JSON result files, for example the committed baseline and
+a run of the current tree:
+
+    ./compare.py baseline.json results.json [--threshold 10]
+
+Prints the change in score and in bytes allocated per operation for every
+benchmark found in both files. Exits with status 1 if any benchmark got slower
+by more than the threshold (in percent) or started allocating more per
+operation, so it can be used as a check before committing.
+"""
+
+import argparse
+import json
+import sys
+
+# Older JMH versions prefix secondary metric names with a middle dot
+ALLOC_METRICS = ("gc.alloc.rate.norm", "\u00b7gc.alloc.rate.norm")
+
+
+def load(path):
+    results = {}
+    with open(path) as f:
+        for entry in json.load(f):
+            params = entry.get("params") or {}
+            key = entry["benchmark"].rsplit(".", 2)
+            name = ".".join(key[-2:])
+            if params:
+                name += " [" + ", ".join(
+                    "%s=%s" % item for item in sorted(params.items())) + "]"
+            primary = entry["primaryMetric"]
+            secondary = entry.get("secondaryMetrics") or {}
+            alloc = None
+            for metric in ALLOC_METRICS:
+                alloc = alloc or secondary.get(metric)
+            results[name] = {
+                "score": primary["score"],
+                "error": primary.get("scoreError") or 0.0,
+                "unit": primary["scoreUnit"],
+                "alloc": alloc["score"] if alloc else None,
+            }
+    return results
+
+
+def percent(old, new):
+    if old == 0:
+        return 0.0 if new == 0 else float("inf")
+    return (new - old) * 100.0 / old
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.split("\n\n")[0])
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0,
+                        help="allowed slowdown in percent (default 10)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+
+    regressions = 0
+    width = max([len(name) for name in current] + [9])
+    print("%-*s %14s %14s %8s %10s %10s" % (width, "benchmark", "baseline",
+                                           "current", "change", "B/op old",
+                                           "B/op new"))
+    for name in sorted(current):
+        new = current[name]
+        old = baseline.get(name)
+        if old is None:
+            print("%-*s %14s %14.3f %8s %10s %10s" % (
+                width, name, "-", new["score"], "new", "-",
+                format_alloc(new["alloc"])))
+            continue
+
+        change = percent(old["score"], new["score"])
+        # Higher is better for throughput, lower for time per operation
+        if "/op" not in new["unit"]:
+            change = -change
+        slower = change > args.threshold
+        more_alloc = (old["alloc"] is not None and new["alloc"] is not None
+                      and new["alloc"] > old["alloc"] + 0.5)
+        flag = ""
+        if slower or more_alloc:
+            regressions += 1
+            flag = "  <-- " + ("slower" if slower else "") + (
+                " " if slower and more_alloc else "") + (
+                "allocates more" if more_alloc else "")
+
+        print("%-*s %14.3f %14.3f %+7.1f%% %10s %10s%s" % (
+            width, name, old["score"], new["score"], change,
+            format_alloc(old["alloc"]), format_alloc(new["alloc"]), flag))
+
+    for name in sorted(set(baseline) - set(current)):
+        print("%-*s %14.3f %14s %8s" % (width, name, baseline[name]["score"],
+                                        "-", "removed"))
+
+    if regressions:
+        print("\n%d regression(s) against %s" % (regressions, args.baseline))
+        return 1
+    return 0
+
+
+def format_alloc(alloc):
+    return "-" if alloc is None else "%.1f" % alloc
+
+
+if __name__ == "__main__":
+    sys.exit(main())
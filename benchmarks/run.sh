@@ -0,0 +1,20 @@
+#!/bin/sh
+# Builds the benchmarks and runs them with the gc profiler, writing the JMH
+# results as JSON. Extra arguments are passed to JMH, for example a benchmark
+# name pattern or -wi 2 -i 3 for a quicker run.
+#
+#   ./run.sh [output.json] [jmh arguments...]
+
+set -e
+cd "$(dirname "$0")"
+
+OUTPUT=results.json
+case "$1" in
+	*.json)
+		OUTPUT=$1
+		shift
+		;;
+esac
+
+mvn -B -q package
+java -jar target/benchmarks.jar -prof gc -rf json -rff "$OUTPUT" "$@"
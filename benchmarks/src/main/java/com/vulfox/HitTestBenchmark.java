@@ -0,0 +1,132 @@
+package com.vulfox;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.graphics.Color;
+
+import com.vulfox.input.TouchEvent;
+import com.vulfox.input.TouchEvents;
+
+/**
+ * Measures {@link Screen#handleComponentInput(TouchEvent)} on a screen filled
+ * with a grid of buttons. Every invocation taps one of a fixed set of random
+ * points, so some taps hit a button and some land between them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HitTestBenchmark {
+
+	static final int SURFACE_WIDTH = 1280;
+
+	static final int SURFACE_HEIGHT = 720;
+
+	/**
+	 * Number of tap positions cycled through, a power of two
+	 */
+	private static final int POINT_COUNT = 1024;
+
+	/**
+	 * Number of buttons on the screen
+	 */
+	@Param({ "10", "100", "1000" })
+	public int componentCount;
+
+	/**
+	 * Screen holding the buttons
+	 */
+	private Screen mScreen;
+
+	/**
+	 * Tap positions, x and y interleaved
+	 */
+	private float[] mPoints;
+
+	/**
+	 * Index of the next tap position
+	 */
+	private int mNextPoint;
+
+	/**
+	 * Reused down event
+	 */
+	private TouchEvent mDown;
+
+	/**
+	 * Reused up event
+	 */
+	private TouchEvent mUp;
+
+	@Setup
+	public void setup() {
+		mScreen = new Screen() {
+		};
+		addButtonGrid(mScreen, componentCount, SURFACE_WIDTH, SURFACE_HEIGHT);
+		mScreen.initialize(SURFACE_WIDTH, SURFACE_HEIGHT, null, null);
+
+		Random random = new Random(42);
+		mPoints = new float[POINT_COUNT * 2];
+		for (int i = 0; i < POINT_COUNT; i++) {
+			mPoints[i * 2] = random.nextFloat() * SURFACE_WIDTH;
+			mPoints[i * 2 + 1] = random.nextFloat() * SURFACE_HEIGHT;
+		}
+
+		mDown = TouchEvents.create(TouchEvent.ACTION_DOWN, 0, 0, 0);
+		mUp = TouchEvents.create(TouchEvent.ACTION_UP, 0, 0, 0);
+	}
+
+	@Benchmark
+	public boolean tap() {
+		int point = mNextPoint;
+		mNextPoint = (point + 1) & (POINT_COUNT - 1);
+		float x = mPoints[point * 2];
+		float y = mPoints[point * 2 + 1];
+
+		TouchEvents.set(mDown, TouchEvent.ACTION_DOWN, 0, x, y);
+		TouchEvents.set(mUp, TouchEvent.ACTION_UP, 0, x, y);
+		mScreen.handleComponentInput(mDown);
+		return mScreen.handleComponentInput(mUp);
+	}
+
+	/**
+	 * Fills an area with a grid of buttons, leaving a gap between them
+	 * 
+	 * @param screen
+	 * @param count
+	 *            Number of buttons
+	 * @param width
+	 *            Width of the area
+	 * @param height
+	 *            Height of the area
+	 */
+	static void addButtonGrid(Screen screen, int count, int width, int height) {
+		int columns = (int) Math.ceil(Math.sqrt(count * (double) width / height));
+		int rows = (count + columns - 1) / columns;
+		int cellWidth = width / columns;
+		int cellHeight = height / rows;
+
+		for (int i = 0; i < count; i++) {
+			int x = (i % columns) * cellWidth;
+			int y = (i / columns) * cellHeight;
+			screen.addScreenComponent(new ButtonComponent("", Color.WHITE, 12,
+					Color.BLACK, Color.RED, Math.max(1, cellWidth - 2), Math
+							.max(1, cellHeight - 2), x + 1, y + 1));
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package com.vulfox;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.graphics.Canvas;
+
+import com.vulfox.input.TouchEvent;
+import com.vulfox.input.TouchEvents;
+import com.vulfox.render.DirtyRegion;
+
+/**
+ * Measures how the {@link ScreenManager} dispatches a frame through a stack
+ * of screens. The bottom screen is opaque and every screen above it is a
+ * translucent overlay that keeps updating while covered, so every screen is
+ * drawn and updated and the cost grows with the depth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScreenStackBenchmark {
+
+	/**
+	 * Number of buttons on every screen
+	 */
+	private static final int BUTTONS_PER_SCREEN = 20;
+
+	/**
+	 * Number of screens in the stack
+	 */
+	@Param({ "1", "4", "16" })
+	public int depth;
+
+	/**
+	 * A screen counting its updates
+	 */
+	static class BenchmarkScreen extends Screen {
+
+		/**
+		 * Number of updates
+		 */
+		int mUpdateCount;
+
+		BenchmarkScreen(boolean opaque) {
+			setOpaque(opaque);
+			setCoveredUpdatePolicy(UPDATE_NORMAL);
+			HitTestBenchmark.addButtonGrid(this, BUTTONS_PER_SCREEN,
+					HitTestBenchmark.SURFACE_WIDTH, HitTestBenchmark.SURFACE_HEIGHT);
+		}
+
+		@Override
+		public void update(float timeStep) {
+			mUpdateCount++;
+		}
+	}
+
+	private ScreenManager mScreenManager;
+
+	/**
+	 * Canvas that ignores draw calls
+	 */
+	private Canvas mCanvas;
+
+	/**
+	 * Overlay pushed and popped by {@link #pushPop()}
+	 */
+	private Screen mOverlay;
+
+	/**
+	 * Reused touch events
+	 */
+	private TouchEvent mDown;
+	private TouchEvent mUp;
+
+	@Setup
+	public void setup() {
+		mScreenManager = new ScreenManager(null);
+		for (int i = 0; i < depth; i++) {
+			mScreenManager.pushScreen(new BenchmarkScreen(i == 0));
+		}
+		mScreenManager.initialize(HitTestBenchmark.SURFACE_WIDTH,
+				HitTestBenchmark.SURFACE_HEIGHT);
+
+		mCanvas = new Canvas();
+		mOverlay = new BenchmarkScreen(false);
+
+		float x = HitTestBenchmark.SURFACE_WIDTH / 2;
+		float y = HitTestBenchmark.SURFACE_HEIGHT / 2;
+		mDown = TouchEvents.create(TouchEvent.ACTION_DOWN, 0, x, y);
+		mUp = TouchEvents.create(TouchEvent.ACTION_UP, 0, x, y);
+
+		// Builds the cached button states outside of the measurement
+		mScreenManager.draw(mCanvas);
+	}
+
+	@Benchmark
+	public void input() {
+		mScreenManager.handleInput(mDown);
+		mScreenManager.handleInput(mUp);
+	}
+
+	@Benchmark
+	public int update() {
+		mScreenManager.update(1.0f / 60.0f);
+		return ((BenchmarkScreen) mScreenManager.getTopScreen()).mUpdateCount;
+	}
+
+	@Benchmark
+	public void draw() {
+		mScreenManager.invalidate();
+		mScreenManager.draw(mCanvas, 1.0f);
+	}
+
+	@Benchmark
+	public DirtyRegion frame() {
+		mScreenManager.applyPendingOperations();
+		mScreenManager.handleInput(mDown);
+		mScreenManager.handleInput(mUp);
+		mScreenManager.update(1.0f / 60.0f);
+		DirtyRegion dirtyRegion = mScreenManager.getDirtyRegion();
+		mScreenManager.draw(mCanvas, 1.0f);
+		return dirtyRegion;
+	}
+
+	/**
+	 * Pushes an overlay and pops it again, applying both changes like two
+	 * frames would
+	 */
+	@Benchmark
+	public int pushPop() {
+		mScreenManager.pushScreen(mOverlay);
+		mScreenManager.applyPendingOperations();
+		mScreenManager.popScreen();
+		mScreenManager.applyPendingOperations();
+		return mScreenManager.getScreenCount();
+	}
+}
@@ -0,0 +1,155 @@
+package com.vulfox.collision;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how the broadphases scale with the number of bodies. The bodies
+ * are circles moving around an area that grows with their count, so the
+ * density and the number of overlaps per body stay the same and only the
+ * broadphase cost changes. The brute force broadphase is the reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadphaseBenchmark {
+
+	/**
+	 * Area per body in square pixels
+	 */
+	private static final float AREA_PER_BODY = 64 * 64;
+
+	/**
+	 * Number of region queries per query invocation
+	 */
+	private static final int QUERY_COUNT = 64;
+
+	/**
+	 * Width and height of a query region
+	 */
+	private static final float QUERY_SIZE = 128;
+
+	@Param({ "1000", "4000" })
+	public int bodyCount;
+
+	@Param({ "spatialHash", "sweepAndPrune", "bruteForce" })
+	public String broadphase;
+
+	private CollisionWorld mWorld;
+
+	private Body[] mBodies;
+
+	/**
+	 * Velocity of each body in pixels per step, x and y interleaved
+	 */
+	private float[] mVelocities;
+
+	/**
+	 * Width and height of the square the bodies move in
+	 */
+	private float mSize;
+
+	/**
+	 * Query regions, left and top interleaved
+	 */
+	private float[] mQueries;
+
+	private IdBuffer mQueryResult;
+
+	@Setup
+	public void setup() {
+		Broadphase phase;
+		if (broadphase.equals("spatialHash")) {
+			phase = new SpatialHashBroadphase(64);
+		} else if (broadphase.equals("sweepAndPrune")) {
+			phase = new SweepAndPruneBroadphase();
+		} else {
+			phase = new BruteForceBroadphase();
+		}
+		mWorld = new CollisionWorld(phase);
+		mSize = (float) Math.sqrt(bodyCount * AREA_PER_BODY);
+
+		Random random = new Random(42);
+		mBodies = new Body[bodyCount];
+		mVelocities = new float[bodyCount * 2];
+		for (int i = 0; i < bodyCount; i++) {
+			Body body = new Body(new Circle(8 + random.nextFloat() * 8),
+					random.nextFloat() * mSize, random.nextFloat() * mSize);
+			mWorld.addBody(body);
+			mBodies[i] = body;
+			mVelocities[i * 2] = random.nextFloat() * 4 - 2;
+			mVelocities[i * 2 + 1] = random.nextFloat() * 4 - 2;
+		}
+
+		mQueries = new float[QUERY_COUNT * 2];
+		for (int i = 0; i < mQueries.length; i++) {
+			mQueries[i] = random.nextFloat() * (mSize - QUERY_SIZE);
+		}
+		mQueryResult = new IdBuffer();
+		mWorld.update();
+	}
+
+	/**
+	 * Moves every body, then updates the broadphase and finds the contacts
+	 */
+	@Benchmark
+	public int step() {
+		Body[] bodies = mBodies;
+		float[] velocities = mVelocities;
+		float size = mSize;
+		for (int i = 0; i < bodies.length; i++) {
+			Body body = bodies[i];
+			float x = body.getX() + velocities[i * 2];
+			float y = body.getY() + velocities[i * 2 + 1];
+			if (x < 0 || x > size) {
+				velocities[i * 2] = -velocities[i * 2];
+			}
+			if (y < 0 || y > size) {
+				velocities[i * 2 + 1] = -velocities[i * 2 + 1];
+			}
+			body.setPosition(x, y);
+		}
+		return mWorld.update();
+	}
+
+	/**
+	 * Finds the pairs without moving anything, the broadphase cost alone
+	 */
+	@Benchmark
+	public int findPairs() {
+		return mWorld.update();
+	}
+
+	/**
+	 * Runs region queries like a screen looking up the bodies under touches
+	 */
+	@Benchmark
+	public int query() {
+		Broadphase phase = mWorld.getBroadphase();
+		float[] queries = mQueries;
+		int found = 0;
+		for (int i = 0; i < QUERY_COUNT; i++) {
+			float left = queries[i * 2];
+			float top = queries[i * 2 + 1];
+			phase.query(left, top, left + QUERY_SIZE, top + QUERY_SIZE,
+					mQueryResult);
+			found += mQueryResult.getCount();
+		}
+		return found;
+	}
+}
@@ -0,0 +1,48 @@
+package com.vulfox.collision;
+
+/**
+ * Broadphase testing every pair of proxies, the reference the other
+ * broadphases are measured against
+ */
+class BruteForceBroadphase extends AbstractBroadphase {
+
+	BruteForceBroadphase() {
+		super(64);
+	}
+
+	@Override
+	protected void onCreate(int proxy) {
+	}
+
+	@Override
+	protected void onMove(int proxy) {
+	}
+
+	@Override
+	protected void onDestroy(int proxy) {
+	}
+
+	public void findPairs(PairBuffer pairs) {
+		pairs.clear();
+		for (int a = 0; a < mProxyLimit; a++) {
+			if (!mActive[a]) {
+				continue;
+			}
+			for (int b = a + 1; b < mProxyLimit; b++) {
+				if (mActive[b] && overlaps(a, b)) {
+					pairs.add(a, b);
+				}
+			}
+		}
+	}
+
+	public void query(float left, float top, float right, float bottom,
+			IdBuffer result) {
+		result.clear();
+		for (int proxy = 0; proxy < mProxyLimit; proxy++) {
+			if (mActive[proxy] && overlaps(proxy, left, top, right, bottom)) {
+				result.add(proxy);
+			}
+		}
+	}
+}
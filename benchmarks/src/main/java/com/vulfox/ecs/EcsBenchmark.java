@@ -0,0 +1,194 @@
+package com.vulfox.ecs;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vulfox.math.Vector2f;
+
+/**
+ * Compares a {@link World} with position and velocity stores against one
+ * object per entity holding Vector2f fields, for moving every entity and for
+ * replacing a share of the entities every frame. A quarter of the entities
+ * have no velocity, like static scenery.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EcsBenchmark {
+
+	private static final float TIME_STEP = 1.0f / 60.0f;
+
+	/**
+	 * Number of entities replaced per churn invocation
+	 */
+	private static final int CHURN = 100;
+
+	/**
+	 * Number of entities
+	 */
+	@Param({ "10000" })
+	public int entityCount;
+
+	/**
+	 * An entity as a plain object
+	 */
+	private static class GameObject {
+		final Vector2f mPosition = new Vector2f();
+		Vector2f mVelocity;
+	}
+
+	private World mWorld;
+
+	private FloatComponentStore mPositions;
+
+	private FloatComponentStore mVelocities;
+
+	private Query mMovingQuery;
+
+	/**
+	 * Entities in creation order, replaced in turn by the churn benchmark
+	 */
+	private int[] mEntities;
+
+	private ArrayList<GameObject> mObjects;
+
+	/**
+	 * Next entity or object replaced by the churn benchmarks
+	 */
+	private int mNextChurn;
+
+	@Setup
+	public void setup() {
+		mWorld = new World(entityCount);
+		mPositions = new FloatComponentStore(mWorld, 2, entityCount);
+		mVelocities = new FloatComponentStore(mWorld, 2, entityCount);
+		mMovingQuery = new Query(mPositions, mVelocities);
+		mEntities = new int[entityCount];
+		mObjects = new ArrayList<GameObject>(entityCount);
+
+		for (int i = 0; i < entityCount; i++) {
+			mEntities[i] = createEntity(i);
+			mObjects.add(createObject(i));
+		}
+		mNextChurn = 0;
+	}
+
+	/**
+	 * Moves the entities found by a query over both stores
+	 */
+	@Benchmark
+	public FloatComponentStore moveEcsQuery() {
+		float[] positions = mPositions.getData();
+		float[] velocities = mVelocities.getData();
+		int count = mMovingQuery.run();
+		for (int i = 0; i < count; i++) {
+			int entity = mMovingQuery.getEntity(i);
+			int position = mPositions.getOffset(entity);
+			int velocity = mVelocities.getOffset(entity);
+			positions[position] += velocities[velocity] * TIME_STEP;
+			positions[position + 1] += velocities[velocity + 1] * TIME_STEP;
+		}
+		return mPositions;
+	}
+
+	/**
+	 * Moves the entities by walking the dense velocity store, the rarer of
+	 * the two components
+	 */
+	@Benchmark
+	public FloatComponentStore moveEcsStore() {
+		float[] positions = mPositions.getData();
+		float[] velocities = mVelocities.getData();
+		int size = mVelocities.size();
+		for (int i = 0; i < size; i++) {
+			int position = mPositions.getOffset(mVelocities.getEntity(i));
+			int velocity = i * 2;
+			positions[position] += velocities[velocity] * TIME_STEP;
+			positions[position + 1] += velocities[velocity + 1] * TIME_STEP;
+		}
+		return mPositions;
+	}
+
+	@Benchmark
+	public ArrayList<GameObject> moveObjects() {
+		ArrayList<GameObject> objects = mObjects;
+		int size = objects.size();
+		for (int i = 0; i < size; i++) {
+			GameObject object = objects.get(i);
+			Vector2f velocity = object.mVelocity;
+			if (velocity != null) {
+				Vector2f position = object.mPosition;
+				position.setX(position.getX() + velocity.getX() * TIME_STEP);
+				position.setY(position.getY() + velocity.getY() * TIME_STEP);
+			}
+		}
+		return objects;
+	}
+
+	/**
+	 * Destroys the oldest entities and creates new ones in their place
+	 */
+	@Benchmark
+	public World churnEcs() {
+		for (int i = 0; i < CHURN; i++) {
+			int slot = nextChurn();
+			mWorld.destroy(mEntities[slot]);
+			mEntities[slot] = createEntity(slot);
+		}
+		return mWorld;
+	}
+
+	/**
+	 * Replaces the oldest objects with new ones
+	 */
+	@Benchmark
+	public ArrayList<GameObject> churnObjects() {
+		for (int i = 0; i < CHURN; i++) {
+			int slot = nextChurn();
+			mObjects.set(slot, createObject(slot));
+		}
+		return mObjects;
+	}
+
+	private int createEntity(int i) {
+		int entity = mWorld.create();
+		int position = mPositions.add(entity);
+		mPositions.getData()[position] = i;
+		if (i % 4 != 0) {
+			int velocity = mVelocities.add(entity);
+			mVelocities.getData()[velocity] = 1.0f;
+			mVelocities.getData()[velocity + 1] = -1.0f;
+		}
+		return entity;
+	}
+
+	private static GameObject createObject(int i) {
+		GameObject object = new GameObject();
+		object.mPosition.setX(i);
+		if (i % 4 != 0) {
+			object.mVelocity = new Vector2f(1.0f, -1.0f);
+		}
+		return object;
+	}
+
+	private int nextChurn() {
+		int slot = mNextChurn;
+		mNextChurn = slot + 1 == entityCount ? 0 : slot + 1;
+		return slot;
+	}
+}
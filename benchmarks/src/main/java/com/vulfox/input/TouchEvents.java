@@ -0,0 +1,42 @@
+package com.vulfox.input;
+
+/**
+ * Creates touch event records for benchmarks, which have no
+ * {@link TouchEventQueue} feeding them motion events
+ */
+public final class TouchEvents {
+
+	private TouchEvents() {
+	}
+
+	/**
+	 * Creates a touch event
+	 * 
+	 * @param action
+	 *            One of the TouchEvent ACTION constants
+	 * @param pointerId
+	 * @param x
+	 * @param y
+	 * @return A new touch event
+	 */
+	public static TouchEvent create(int action, int pointerId, float x, float y) {
+		TouchEvent touchEvent = new TouchEvent();
+		touchEvent.set(action, pointerId, x, y, 0);
+		return touchEvent;
+	}
+
+	/**
+	 * Reuses a touch event record without allocating
+	 * 
+	 * @param touchEvent
+	 * @param action
+	 *            One of the TouchEvent ACTION constants
+	 * @param pointerId
+	 * @param x
+	 * @param y
+	 */
+	public static void set(TouchEvent touchEvent, int action, int pointerId,
+			float x, float y) {
+		touchEvent.set(action, pointerId, x, y, 0);
+	}
+}
@@ -0,0 +1,201 @@
+package com.vulfox.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures composing the world transforms of a node tree and transforming
+ * points one by one against the batch operations of {@link Transform2D}.
+ * Each node has four children, the way a scene of sprites attached to
+ * sprites would. The points are rotated around the origin so repeated
+ * invocations keep them in range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Transform2DBenchmark {
+
+	/**
+	 * Children per node of the tree
+	 */
+	private static final int BRANCHING = 4;
+
+	/**
+	 * Number of nodes and of points
+	 */
+	@Param({ "1000", "10000" })
+	public int count;
+
+	/**
+	 * Local position, rotation and scale of each node
+	 */
+	private float[] mX;
+	private float[] mY;
+	private float[] mRotation;
+	private float[] mScale;
+
+	/**
+	 * Local transform of each node
+	 */
+	private Transform2D[] mLocal;
+
+	/**
+	 * World transform of each node
+	 */
+	private Transform2D[] mWorld;
+
+	/**
+	 * Rotation applied to the points
+	 */
+	private Transform2D mRotate;
+
+	private Vector2f[] mPoints;
+
+	/**
+	 * The same points as x, y pairs
+	 */
+	private float[] mPointArray;
+
+	/**
+	 * The same points in a buffer
+	 */
+	private Vector2fBuffer mPointBuffer;
+
+	@Setup
+	public void setup() {
+		mX = new float[count];
+		mY = new float[count];
+		mRotation = new float[count];
+		mScale = new float[count];
+		mLocal = new Transform2D[count];
+		mWorld = new Transform2D[count];
+		mPoints = new Vector2f[count];
+		mPointArray = new float[count * 2];
+		mPointBuffer = new Vector2fBuffer(count);
+		mRotate = new Transform2D();
+		mRotate.rotate(0.01f);
+
+		for (int i = 0; i < count; i++) {
+			mX[i] = (i % 7) * 4 - 12;
+			mY[i] = (i % 5) * 4 - 8;
+			mRotation[i] = (i % 11) * 0.1f;
+			mScale[i] = 0.9f + (i % 3) * 0.1f;
+			mLocal[i] = new Transform2D();
+			mLocal[i].setTransform(mX[i], mY[i], mRotation[i], mScale[i], mScale[i]);
+			mWorld[i] = new Transform2D();
+
+			float x = i % 100;
+			float y = i / 100;
+			mPoints[i] = new Vector2f(x, y);
+			mPointArray[i * 2] = x;
+			mPointArray[i * 2 + 1] = y;
+			mPointBuffer.add(x, y);
+		}
+	}
+
+	/**
+	 * Builds every world transform from the parent world transform with
+	 * translate, rotate and scale, the way Canvas calls would
+	 */
+	@Benchmark
+	public Transform2D[] composeStepwise() {
+		Transform2D[] world = mWorld;
+		world[0].setIdentity();
+		for (int i = 0; i < count; i++) {
+			Transform2D transform = world[i];
+			if (i > 0) {
+				transform.set(world[(i - 1) / BRANCHING]);
+			}
+			transform.translate(mX[i], mY[i]);
+			transform.rotate(mRotation[i]);
+			transform.scale(mScale[i], mScale[i]);
+		}
+		return world;
+	}
+
+	/**
+	 * Sets every local transform and concatenates it with the parent world
+	 * transform
+	 */
+	@Benchmark
+	public Transform2D[] composeLocal() {
+		Transform2D[] local = mLocal;
+		Transform2D[] world = mWorld;
+		for (int i = 0; i < count; i++) {
+			local[i].setTransform(mX[i], mY[i], mRotation[i], mScale[i], mScale[i]);
+			if (i == 0) {
+				world[0].set(local[0]);
+			} else {
+				world[i].setConcat(world[(i - 1) / BRANCHING], local[i]);
+			}
+		}
+		return world;
+	}
+
+	/**
+	 * Concatenates cached local transforms with the parent world transforms,
+	 * the cost when only the tree has to be walked again
+	 */
+	@Benchmark
+	public Transform2D[] composeCached() {
+		Transform2D[] local = mLocal;
+		Transform2D[] world = mWorld;
+		world[0].set(local[0]);
+		for (int i = 1; i < count; i++) {
+			world[i].setConcat(world[(i - 1) / BRANCHING], local[i]);
+		}
+		return world;
+	}
+
+	/**
+	 * Inverts every world transform, as hit testing in local space needs
+	 */
+	@Benchmark
+	public Transform2D[] invert() {
+		Transform2D[] world = mWorld;
+		Transform2D[] local = mLocal;
+		for (int i = 0; i < count; i++) {
+			world[i].invert(local[i]);
+		}
+		return local;
+	}
+
+	/**
+	 * Transforms each point of a Vector2f array
+	 */
+	@Benchmark
+	public Vector2f[] transformEach() {
+		Vector2f[] points = mPoints;
+		Transform2D rotate = mRotate;
+		for (int i = 0; i < count; i++) {
+			rotate.transform(points[i]);
+		}
+		return points;
+	}
+
+	@Benchmark
+	public float[] transformPointArray() {
+		mRotate.transformPoints(mPointArray, 0, mPointArray, 0, count);
+		return mPointArray;
+	}
+
+	@Benchmark
+	public Vector2fBuffer transformPointBuffer() {
+		mRotate.transformPoints(mPointBuffer, 0, count);
+		return mPointBuffer;
+	}
+}
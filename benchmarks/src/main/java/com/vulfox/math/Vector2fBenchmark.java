@@ -0,0 +1,112 @@
+package com.vulfox.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the allocating vector operations with the ones writing to a result
+ * vector and the in place (T suffixed) ones. Run with the gc profiler to see
+ * the allocation rate of each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Vector2fBenchmark {
+
+	/**
+	 * Left operand
+	 */
+	private Vector2f mA;
+
+	/**
+	 * Right operand
+	 */
+	private Vector2f mB;
+
+	/**
+	 * Vector written by the non allocating operations
+	 */
+	private Vector2f mResult;
+
+	@Setup
+	public void setup() {
+		mA = new Vector2f(3.0f, 4.0f);
+		mB = new Vector2f(-1.5f, 2.5f);
+		mResult = new Vector2f();
+	}
+
+	@Benchmark
+	public Vector2f addAllocating() {
+		return mA.add(mB);
+	}
+
+	@Benchmark
+	public Vector2f addIntoResult() {
+		mA.add(mB, mResult);
+		return mResult;
+	}
+
+	@Benchmark
+	public Vector2f addInPlace() {
+		mResult.set(mA);
+		mResult.addT(mB);
+		return mResult;
+	}
+
+	@Benchmark
+	public Vector2f mulAllocating() {
+		return mA.mul(1.5f);
+	}
+
+	@Benchmark
+	public Vector2f mulInPlace() {
+		mResult.set(mA);
+		mResult.mulT(1.5f);
+		return mResult;
+	}
+
+	@Benchmark
+	public Vector2f normalizeAllocating() {
+		return mA.normalize();
+	}
+
+	@Benchmark
+	public Vector2f normalizeInPlace() {
+		mResult.set(mA);
+		mResult.normalizeT();
+		return mResult;
+	}
+
+	/**
+	 * A typical integration step, position += velocity * dt, written with
+	 * allocating operations
+	 */
+	@Benchmark
+	public Vector2f integrateAllocating() {
+		return mA.add(mB.mul(0.016f));
+	}
+
+	/**
+	 * The same integration step written with in place operations
+	 */
+	@Benchmark
+	public Vector2f integrateInPlace() {
+		mResult.set(mB);
+		mResult.mulT(0.016f);
+		mResult.addT(mA);
+		return mResult;
+	}
+}
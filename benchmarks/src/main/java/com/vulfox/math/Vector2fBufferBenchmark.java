@@ -0,0 +1,166 @@
+package com.vulfox.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares bulk operations on a {@link Vector2fBuffer} with the same loops
+ * over a Vector2f array using the in place operations. The array vectors are
+ * allocated one after another, which is the best case for the array since
+ * they end up next to each other in memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Vector2fBufferBenchmark {
+
+	/**
+	 * Time step of the integration
+	 */
+	private static final float TIME_STEP = 1.0f / 60.0f;
+
+	/**
+	 * Number of vectors
+	 */
+	@Param({ "1000", "10000" })
+	public int count;
+
+	private Vector2f[] mPositions;
+
+	private Vector2f[] mVelocities;
+
+	/**
+	 * Scratch vector of the array loops
+	 */
+	private Vector2f mTemp;
+
+	private Vector2fBuffer mPositionBuffer;
+
+	private Vector2fBuffer mVelocityBuffer;
+
+	/**
+	 * Cursor into the position buffer, created once since cursor() allocates
+	 */
+	private Vector2fBuffer.Cursor mCursor;
+
+	/**
+	 * Results of the bulk length operation
+	 */
+	private float[] mLengths;
+
+	@Setup
+	public void setup() {
+		mPositions = new Vector2f[count];
+		mVelocities = new Vector2f[count];
+		mTemp = new Vector2f();
+		mPositionBuffer = new Vector2fBuffer(count);
+		mVelocityBuffer = new Vector2fBuffer(count);
+		mCursor = mPositionBuffer.cursor();
+		mLengths = new float[count];
+
+		for (int i = 0; i < count; i++) {
+			float x = i % 100;
+			float y = i / 100;
+			float vx = (i % 7) - 3;
+			float vy = (i % 5) - 2 + 0.5f;
+			mPositions[i] = new Vector2f(x, y);
+			mVelocities[i] = new Vector2f(vx, vy);
+			mPositionBuffer.add(x, y);
+			mVelocityBuffer.add(vx, vy);
+		}
+	}
+
+	/**
+	 * position += velocity * dt over the array
+	 */
+	@Benchmark
+	public Vector2f[] integrateArray() {
+		Vector2f[] positions = mPositions;
+		Vector2f[] velocities = mVelocities;
+		Vector2f temp = mTemp;
+		for (int i = 0; i < count; i++) {
+			temp.set(velocities[i]);
+			temp.mulT(TIME_STEP);
+			positions[i].addT(temp);
+		}
+		return positions;
+	}
+
+	/**
+	 * position += velocity * dt over the buffer
+	 */
+	@Benchmark
+	public Vector2fBuffer integrateBuffer() {
+		mPositionBuffer.addScaled(0, count, mVelocityBuffer, TIME_STEP);
+		return mPositionBuffer;
+	}
+
+	@Benchmark
+	public Vector2f[] normalizeArray() {
+		Vector2f[] velocities = mVelocities;
+		for (int i = 0; i < count; i++) {
+			velocities[i].normalizeT();
+		}
+		return velocities;
+	}
+
+	@Benchmark
+	public Vector2fBuffer normalizeBuffer() {
+		mVelocityBuffer.normalize(0, count);
+		return mVelocityBuffer;
+	}
+
+	/**
+	 * Sums the squared lengths, reading every vector once
+	 */
+	@Benchmark
+	public float lengthSquaredArray() {
+		Vector2f[] positions = mPositions;
+		float sum = 0;
+		for (int i = 0; i < count; i++) {
+			sum += positions[i].getLengthSquared();
+		}
+		return sum;
+	}
+
+	/**
+	 * Computes the squared lengths in bulk and sums them
+	 */
+	@Benchmark
+	public float lengthSquaredBuffer() {
+		float[] lengths = mLengths;
+		mPositionBuffer.getLengthSquared(0, count, lengths);
+		float sum = 0;
+		for (int i = 0; i < count; i++) {
+			sum += lengths[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Sums the squared lengths through a buffer cursor
+	 */
+	@Benchmark
+	public float lengthSquaredBufferCursor() {
+		Vector2fBuffer.Cursor cursor = mCursor;
+		float sum = 0;
+		for (int i = 0; i < count; i++) {
+			sum += cursor.moveTo(i).getLengthSquared();
+		}
+		return sum;
+	}
+}
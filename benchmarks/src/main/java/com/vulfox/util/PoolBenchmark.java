@@ -0,0 +1,112 @@
+package com.vulfox.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vulfox.math.Vector2f;
+
+/**
+ * Measures acquiring and releasing pooled vectors against allocating them.
+ * Every invocation acquires a burst of vectors before releasing them all, like
+ * a frame using a few temporaries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PoolBenchmark {
+
+	/**
+	 * Number of vectors used at the same time
+	 */
+	@Param({ "1", "16" })
+	public int burst;
+
+	/**
+	 * The shared pool used by the engine
+	 */
+	private Vector2fPool mVector2fPool;
+
+	/**
+	 * Thread safe pool of vectors
+	 */
+	private ConcurrentObjectPool<Vector2f> mConcurrentPool;
+
+	/**
+	 * Vectors of the current burst
+	 */
+	private Vector2f[] mVectors;
+
+	@Setup
+	public void setup() {
+		mVector2fPool = Vector2fPool.getInstance();
+		mVector2fPool.setDebugEnabled(false);
+		mVector2fPool.prewarm(burst);
+
+		mConcurrentPool = new ConcurrentObjectPool<Vector2f>() {
+			@Override
+			protected Vector2f create() {
+				return new Vector2f();
+			}
+
+			@Override
+			protected void reset(Vector2f poolObject) {
+				poolObject.set(0.0f, 0.0f);
+			}
+		};
+		mConcurrentPool.prewarm(burst);
+
+		mVectors = new Vector2f[burst];
+	}
+
+	@Benchmark
+	public void allocate(Blackhole blackhole) {
+		for (int i = 0; i < burst; i++) {
+			Vector2f vector = new Vector2f();
+			vector.set(i, i);
+			blackhole.consume(vector);
+		}
+	}
+
+	@Benchmark
+	public void vector2fPool(Blackhole blackhole) {
+		Vector2f[] vectors = mVectors;
+		for (int i = 0; i < burst; i++) {
+			Vector2f vector = mVector2fPool.aquire();
+			vector.set(i, i);
+			blackhole.consume(vector);
+			vectors[i] = vector;
+		}
+		for (int i = 0; i < burst; i++) {
+			mVector2fPool.release(vectors[i]);
+		}
+	}
+
+	@Benchmark
+	public void concurrentPool(Blackhole blackhole) {
+		Vector2f[] vectors = mVectors;
+		for (int i = 0; i < burst; i++) {
+			Vector2f vector = mConcurrentPool.aquire();
+			vector.set(i, i);
+			blackhole.consume(vector);
+			vectors[i] = vector;
+		}
+		for (int i = 0; i < burst; i++) {
+			mConcurrentPool.release(vectors[i]);
+		}
+	}
+}
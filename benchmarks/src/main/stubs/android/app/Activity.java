@@ -0,0 +1,34 @@
+package android.app;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.view.View;
+import android.view.WindowManager;
+
+public class Activity extends Context {
+
+	protected void onCreate(Bundle savedInstanceState) {
+	}
+
+	protected void onPause() {
+	}
+
+	protected void onResume() {
+	}
+
+	protected void onDestroy() {
+	}
+
+	public void onLowMemory() {
+	}
+
+	public void onTrimMemory(int level) {
+	}
+
+	public void setContentView(View view) {
+	}
+
+	public WindowManager getWindowManager() {
+		return null;
+	}
+}
@@ -0,0 +1,37 @@
+package android.content;
+
+import java.io.File;
+
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+
+public abstract class Context {
+
+	public static final String WINDOW_SERVICE = "window";
+
+	public static final String ACTIVITY_SERVICE = "activity";
+
+	public Resources getResources() {
+		return null;
+	}
+
+	public Object getSystemService(String name) {
+		return null;
+	}
+
+	public Context getApplicationContext() {
+		return this;
+	}
+
+	public File getCacheDir() {
+		return null;
+	}
+
+	public String getPackageName() {
+		return null;
+	}
+
+	public PackageManager getPackageManager() {
+		return null;
+	}
+}
@@ -0,0 +1,8 @@
+package android.content.pm;
+
+public class PackageInfo {
+
+	public int versionCode;
+
+	public long lastUpdateTime;
+}
@@ -0,0 +1,28 @@
+package android.content.res;
+
+import java.io.InputStream;
+
+import android.util.TypedValue;
+
+public class Resources {
+
+	public static class NotFoundException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public NotFoundException() {
+		}
+
+		public NotFoundException(String name) {
+			super(name);
+		}
+	}
+
+	public InputStream openRawResource(int id) {
+		return null;
+	}
+
+	public InputStream openRawResource(int id, TypedValue value) {
+		return null;
+	}
+}
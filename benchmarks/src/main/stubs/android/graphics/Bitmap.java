@@ -0,0 +1,82 @@
+package android.graphics;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public final class Bitmap {
+
+	public enum Config {
+		ALPHA_8, RGB_565, ARGB_4444, ARGB_8888
+	}
+
+	public enum CompressFormat {
+		PNG, JPEG
+	}
+
+	private final int mWidth;
+
+	private final int mHeight;
+
+	private final Config mConfig;
+
+	private boolean mRecycled;
+
+	private Bitmap(int width, int height, Config config) {
+		mWidth = width;
+		mHeight = height;
+		mConfig = config;
+	}
+
+	public static Bitmap createBitmap(int width, int height, Config config) {
+		return new Bitmap(width, height, config);
+	}
+
+	public int getWidth() {
+		return mWidth;
+	}
+
+	public int getHeight() {
+		return mHeight;
+	}
+
+	public int getRowBytes() {
+		return mConfig == Config.ARGB_8888 ? mWidth * 4 : mWidth * 2;
+	}
+
+	public Config getConfig() {
+		return mConfig;
+	}
+
+	public void recycle() {
+		mRecycled = true;
+	}
+
+	public boolean isRecycled() {
+		return mRecycled;
+	}
+
+	public byte[] getNinePatchChunk() {
+		return null;
+	}
+
+	/**
+	 * Writes the width and height as two ints, which
+	 * {@link BitmapFactory#decodeStream} reads back
+	 */
+	public boolean compress(CompressFormat format, int quality,
+			OutputStream stream) {
+		try {
+			DataOutputStream data = new DataOutputStream(stream);
+			data.writeInt(mWidth);
+			data.writeInt(mHeight);
+			data.flush();
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	public void eraseColor(int color) {
+	}
+}
@@ -0,0 +1,87 @@
+package android.graphics;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import android.content.res.Resources;
+
+public class BitmapFactory {
+
+	public static class Options {
+		public int inSampleSize;
+		public Bitmap.Config inPreferredConfig;
+		public boolean inScaled = true;
+		public boolean inJustDecodeBounds;
+		public boolean inPurgeable;
+		public boolean inDither;
+		public int outWidth;
+		public int outHeight;
+	}
+
+	public static Bitmap decodeStream(InputStream stream) {
+		return decodeStream(stream, null, null);
+	}
+
+	/**
+	 * Decodes a stream holding the width and height of the bitmap as two
+	 * ints, the format {@link Bitmap#compress} writes. Returns null for any
+	 * other stream, like the real decoder does for data it cannot decode.
+	 */
+	public static Bitmap decodeStream(InputStream stream, Rect padding,
+			Options options) {
+		if (options != null) {
+			options.outWidth = -1;
+			options.outHeight = -1;
+		}
+		if (stream == null) {
+			return null;
+		}
+		try {
+			DataInputStream data = new DataInputStream(stream);
+			int width = data.readInt();
+			int height = data.readInt();
+			int sampleSize = options != null ? Math.max(1, options.inSampleSize) : 1;
+			width /= sampleSize;
+			height /= sampleSize;
+			if (options != null) {
+				options.outWidth = width;
+				options.outHeight = height;
+				if (options.inJustDecodeBounds) {
+					return null;
+				}
+			}
+			return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	public static Bitmap decodeFile(String path) {
+		return decodeFile(path, null);
+	}
+
+	public static Bitmap decodeFile(String path, Options options) {
+		InputStream stream = null;
+		try {
+			stream = new FileInputStream(path);
+			return decodeStream(stream, null, options);
+		} catch (IOException e) {
+			return null;
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// Nothing to do
+				}
+			}
+		}
+	}
+
+	public static Bitmap decodeResource(Resources resources, int id,
+			Options options) {
+		return null;
+	}
+}
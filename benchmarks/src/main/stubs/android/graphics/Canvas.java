@@ -0,0 +1,119 @@
+package android.graphics;
+
+/**
+ * Draw calls do nothing, so benchmarks measure the engine and not the
+ * rasterizer. Only the save count is tracked.
+ */
+public class Canvas {
+
+	public enum EdgeType {
+		BW, AA
+	}
+
+	private int mSaveCount = 1;
+
+	public Canvas() {
+	}
+
+	public Canvas(Bitmap bitmap) {
+	}
+
+	public void setBitmap(Bitmap bitmap) {
+	}
+
+	public int getWidth() {
+		return 0;
+	}
+
+	public int getHeight() {
+		return 0;
+	}
+
+	public int save() {
+		return mSaveCount++;
+	}
+
+	public void restore() {
+		if (mSaveCount > 1) {
+			mSaveCount--;
+		}
+	}
+
+	public void restoreToCount(int saveCount) {
+		mSaveCount = Math.max(1, saveCount);
+	}
+
+	public void translate(float dx, float dy) {
+	}
+
+	public void scale(float sx, float sy) {
+	}
+
+	public void rotate(float degrees) {
+	}
+
+	public void concat(Matrix matrix) {
+	}
+
+	public void setMatrix(Matrix matrix) {
+	}
+
+	public boolean clipRect(float left, float top, float right, float bottom) {
+		return true;
+	}
+
+	public boolean clipRect(int left, int top, int right, int bottom) {
+		return true;
+	}
+
+	public boolean clipRect(Rect rect) {
+		return true;
+	}
+
+	public boolean quickReject(float left, float top, float right,
+			float bottom, EdgeType type) {
+		return false;
+	}
+
+	public void drawColor(int color) {
+	}
+
+	public void drawRect(float left, float top, float right, float bottom,
+			Paint paint) {
+	}
+
+	public void drawRect(RectF rect, Paint paint) {
+	}
+
+	public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+	}
+
+	public void drawCircle(float cx, float cy, float radius, Paint paint) {
+	}
+
+	public void drawLine(float startX, float startY, float stopX,
+			float stopY, Paint paint) {
+	}
+
+	public void drawLines(float[] points, int offset, int count, Paint paint) {
+	}
+
+	public void drawPoints(float[] points, int offset, int count, Paint paint) {
+	}
+
+	public void drawText(String text, float x, float y, Paint paint) {
+	}
+
+	public void drawText(char[] text, int index, int count, float x, float y,
+			Paint paint) {
+	}
+
+	public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+	}
+
+	public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+	}
+
+	public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+	}
+}
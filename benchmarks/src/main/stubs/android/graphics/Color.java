@@ -0,0 +1,19 @@
+package android.graphics;
+
+public class Color {
+
+	public static final int BLACK = 0xff000000;
+	public static final int WHITE = 0xffffffff;
+	public static final int RED = 0xffff0000;
+	public static final int GREEN = 0xff00ff00;
+	public static final int YELLOW = 0xffffff00;
+	public static final int TRANSPARENT = 0;
+
+	public static int argb(int alpha, int red, int green, int blue) {
+		return (alpha << 24) | (red << 16) | (green << 8) | blue;
+	}
+
+	public static int alpha(int color) {
+		return color >>> 24;
+	}
+}
@@ -0,0 +1,34 @@
+package android.graphics;
+
+public class Matrix {
+
+	public static final int MSCALE_X = 0;
+	public static final int MSKEW_X = 1;
+	public static final int MTRANS_X = 2;
+	public static final int MSKEW_Y = 3;
+	public static final int MSCALE_Y = 4;
+	public static final int MTRANS_Y = 5;
+	public static final int MPERSP_0 = 6;
+	public static final int MPERSP_1 = 7;
+	public static final int MPERSP_2 = 8;
+
+	private final float[] mValues = new float[9];
+
+	public Matrix() {
+		reset();
+	}
+
+	public void reset() {
+		for (int i = 0; i < 9; i++) {
+			mValues[i] = i % 4 == 0 ? 1 : 0;
+		}
+	}
+
+	public void setValues(float[] values) {
+		System.arraycopy(values, 0, mValues, 0, 9);
+	}
+
+	public void getValues(float[] values) {
+		System.arraycopy(mValues, 0, values, 0, 9);
+	}
+}
@@ -0,0 +1,20 @@
+package android.graphics;
+
+public class NinePatch {
+
+	public NinePatch(Bitmap bitmap, byte[] chunk, String srcName) {
+	}
+
+	public static boolean isNinePatchChunk(byte[] chunk) {
+		return false;
+	}
+
+	public void setPaint(Paint paint) {
+	}
+
+	public void draw(Canvas canvas, RectF location) {
+	}
+
+	public void draw(Canvas canvas, Rect location) {
+	}
+}
@@ -0,0 +1,106 @@
+package android.graphics;
+
+/**
+ * Stores nothing but the color and stroke width. Text measures as zero
+ * width.
+ */
+public class Paint {
+
+	public static final int ANTI_ALIAS_FLAG = 1;
+
+	public static final int FILTER_BITMAP_FLAG = 2;
+
+	public enum Align {
+		LEFT, CENTER, RIGHT
+	}
+
+	public enum Style {
+		FILL, STROKE, FILL_AND_STROKE
+	}
+
+	public enum Cap {
+		BUTT, ROUND, SQUARE
+	}
+
+	private int mColor;
+
+	private float mStrokeWidth;
+
+	public Paint() {
+	}
+
+	public Paint(int flags) {
+	}
+
+	public void setColor(int color) {
+		mColor = color;
+	}
+
+	public int getColor() {
+		return mColor;
+	}
+
+	public void setAlpha(int alpha) {
+		mColor = (alpha << 24) | (mColor & 0xffffff);
+	}
+
+	public void setAntiAlias(boolean antiAlias) {
+	}
+
+	public void setFilterBitmap(boolean filter) {
+	}
+
+	public void setStyle(Style style) {
+	}
+
+	public void setStrokeWidth(float width) {
+		mStrokeWidth = width;
+	}
+
+	public float getStrokeWidth() {
+		return mStrokeWidth;
+	}
+
+	public void setStrokeCap(Cap cap) {
+	}
+
+	public void setColorFilter(ColorFilter filter) {
+	}
+
+	public void setTypeface(Typeface typeface) {
+	}
+
+	public void setTextSize(float textSize) {
+	}
+
+	public void setTextAlign(Align align) {
+	}
+
+	public float ascent() {
+		return 0;
+	}
+
+	public float descent() {
+		return 0;
+	}
+
+	public float measureText(String text) {
+		return 0;
+	}
+
+	public float measureText(char[] text, int index, int count) {
+		return 0;
+	}
+
+	public void getTextWidths(char[] text, int index, int count,
+			float[] widths) {
+	}
+
+	public void getTextBounds(String text, int start, int end, Rect bounds) {
+		bounds.setEmpty();
+	}
+
+	public void getTextBounds(char[] text, int index, int count, Rect bounds) {
+		bounds.setEmpty();
+	}
+}
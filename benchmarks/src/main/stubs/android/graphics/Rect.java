@@ -0,0 +1,65 @@
+package android.graphics;
+
+public final class Rect {
+
+	public int left;
+	public int top;
+	public int right;
+	public int bottom;
+
+	public Rect() {
+	}
+
+	public Rect(int left, int top, int right, int bottom) {
+		set(left, top, right, bottom);
+	}
+
+	public void set(int left, int top, int right, int bottom) {
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+
+	public void set(Rect src) {
+		set(src.left, src.top, src.right, src.bottom);
+	}
+
+	public void setEmpty() {
+		set(0, 0, 0, 0);
+	}
+
+	public boolean isEmpty() {
+		return left >= right || top >= bottom;
+	}
+
+	public int width() {
+		return right - left;
+	}
+
+	public int height() {
+		return bottom - top;
+	}
+
+	public void union(int left, int top, int right, int bottom) {
+		if (left >= right || top >= bottom) {
+			return;
+		}
+		if (isEmpty()) {
+			set(left, top, right, bottom);
+		} else {
+			set(Math.min(this.left, left), Math.min(this.top, top),
+					Math.max(this.right, right), Math.max(this.bottom, bottom));
+		}
+	}
+
+	public boolean intersect(int left, int top, int right, int bottom) {
+		if (this.left < right && left < this.right && this.top < bottom
+				&& top < this.bottom) {
+			set(Math.max(this.left, left), Math.max(this.top, top),
+					Math.min(this.right, right), Math.min(this.bottom, bottom));
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,12 @@
+package android.os;
+
+public class Build {
+
+	public static class VERSION {
+		public static final int SDK_INT = 16;
+	}
+
+	public static class VERSION_CODES {
+		public static final int JELLY_BEAN = 16;
+	}
+}
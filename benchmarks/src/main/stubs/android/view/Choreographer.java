@@ -0,0 +1,23 @@
+package android.view;
+
+public final class Choreographer {
+
+	public interface FrameCallback {
+		void doFrame(long frameTimeNanos);
+	}
+
+	private static final Choreographer sInstance = new Choreographer();
+
+	private Choreographer() {
+	}
+
+	public static Choreographer getInstance() {
+		return sInstance;
+	}
+
+	public void postFrameCallback(FrameCallback callback) {
+	}
+
+	public void removeFrameCallback(FrameCallback callback) {
+	}
+}
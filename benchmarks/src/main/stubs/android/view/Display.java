@@ -0,0 +1,8 @@
+package android.view;
+
+public class Display {
+
+	public float getRefreshRate() {
+		return 60;
+	}
+}
@@ -0,0 +1,122 @@
+package android.view;
+
+public final class MotionEvent {
+
+	public static final int ACTION_DOWN = 0;
+	public static final int ACTION_UP = 1;
+	public static final int ACTION_MOVE = 2;
+	public static final int ACTION_CANCEL = 3;
+	public static final int ACTION_OUTSIDE = 4;
+	public static final int ACTION_POINTER_DOWN = 5;
+	public static final int ACTION_POINTER_UP = 6;
+	public static final int ACTION_MASK = 0xff;
+	public static final int ACTION_POINTER_INDEX_MASK = 0xff00;
+	public static final int ACTION_POINTER_INDEX_SHIFT = 8;
+
+	public static final class PointerCoords {
+		public float x;
+		public float y;
+	}
+
+	private int mAction;
+
+	private long mEventTime;
+
+	private int[] mPointerIds = new int[0];
+
+	private float[] mXs = new float[0];
+
+	private float[] mYs = new float[0];
+
+	private MotionEvent() {
+	}
+
+	public static MotionEvent obtain(MotionEvent other) {
+		if (other == null) {
+			return null;
+		}
+		MotionEvent event = new MotionEvent();
+		event.mAction = other.mAction;
+		event.mEventTime = other.mEventTime;
+		event.mPointerIds = other.mPointerIds.clone();
+		event.mXs = other.mXs.clone();
+		event.mYs = other.mYs.clone();
+		return event;
+	}
+
+	public static MotionEvent obtain(long downTime, long eventTime, int action,
+			float x, float y, int metaState) {
+		MotionEvent event = new MotionEvent();
+		event.mAction = action;
+		event.mEventTime = eventTime;
+		event.mPointerIds = new int[] { 0 };
+		event.mXs = new float[] { x };
+		event.mYs = new float[] { y };
+		return event;
+	}
+
+	public static MotionEvent obtain(long downTime, long eventTime, int action,
+			int pointerCount, int[] pointerIds, PointerCoords[] pointerCoords,
+			int metaState, float xPrecision, float yPrecision, int deviceId,
+			int edgeFlags, int source, int flags) {
+		MotionEvent event = new MotionEvent();
+		event.mAction = action;
+		event.mEventTime = eventTime;
+		event.mPointerIds = new int[pointerCount];
+		event.mXs = new float[pointerCount];
+		event.mYs = new float[pointerCount];
+		for (int i = 0; i < pointerCount; i++) {
+			event.mPointerIds[i] = pointerIds[i];
+			event.mXs[i] = pointerCoords[i].x;
+			event.mYs[i] = pointerCoords[i].y;
+		}
+		return event;
+	}
+
+	public void recycle() {
+	}
+
+	public int getAction() {
+		return mAction;
+	}
+
+	public int getActionMasked() {
+		return mAction & ACTION_MASK;
+	}
+
+	public int getActionIndex() {
+		return (mAction & ACTION_POINTER_INDEX_MASK) >> ACTION_POINTER_INDEX_SHIFT;
+	}
+
+	public float getX() {
+		return getX(0);
+	}
+
+	public float getY() {
+		return getY(0);
+	}
+
+	public float getX(int pointerIndex) {
+		return mXs[pointerIndex];
+	}
+
+	public float getY(int pointerIndex) {
+		return mYs[pointerIndex];
+	}
+
+	public int getPointerCount() {
+		return mPointerIds.length;
+	}
+
+	public int getPointerId(int pointerIndex) {
+		return mPointerIds[pointerIndex];
+	}
+
+	public long getEventTime() {
+		return mEventTime;
+	}
+
+	public int getHistorySize() {
+		return 0;
+	}
+}
@@ -0,0 +1,28 @@
+package android.view;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+public interface SurfaceHolder {
+
+	int SURFACE_TYPE_NORMAL = 0;
+
+	interface Callback {
+		void surfaceCreated(SurfaceHolder holder);
+
+		void surfaceChanged(SurfaceHolder holder, int format, int width,
+				int height);
+
+		void surfaceDestroyed(SurfaceHolder holder);
+	}
+
+	void setType(int type);
+
+	void addCallback(Callback callback);
+
+	Canvas lockCanvas();
+
+	Canvas lockCanvas(Rect dirty);
+
+	void unlockCanvasAndPost(Canvas canvas);
+}
@@ -0,0 +1,6 @@
+package android.view;
+
+public interface WindowManager {
+
+	Display getDefaultDisplay();
+}
@@ -0,0 +1,245 @@
+package com.vulfox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+
+public class AssetLoaderTest {
+
+	private static final int SMALL = 1;
+
+	private static final int LARGE = 2;
+
+	private static final int MISSING = 404;
+
+	private static final int CORRUPT = 500;
+
+	/**
+	 * Resources encoding bitmap sizes the stub decoder understands, counting
+	 * how often a resource is opened and optionally holding decodes until
+	 * the gate opens
+	 */
+	private static class TestResources extends Resources {
+
+		final AtomicInteger mOpenCount = new AtomicInteger();
+
+		volatile CountDownLatch mGate;
+
+		@Override
+		public InputStream openRawResource(int id) {
+			mOpenCount.incrementAndGet();
+			CountDownLatch gate = mGate;
+			if (gate != null) {
+				try {
+					gate.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			switch (id) {
+			case SMALL:
+				return encode(16, 16);
+			case LARGE:
+				return encode(32, 32);
+			case CORRUPT:
+				return new ByteArrayInputStream(new byte[0]);
+			default:
+				throw new NotFoundException("Resource ID #" + id);
+			}
+		}
+
+		private static InputStream encode(int width, int height) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(bytes);
+			try {
+				data.writeInt(width);
+				data.writeInt(height);
+			} catch (IOException e) {
+				throw new AssertionError(e);
+			}
+			return new ByteArrayInputStream(bytes.toByteArray());
+		}
+	}
+
+	private TestResources mResources;
+
+	private Context mContext;
+
+	private BitmapCache mCache;
+
+	@Before
+	public void setUp() {
+		mResources = new TestResources();
+		mContext = new Context() {
+			@Override
+			public Resources getResources() {
+				return mResources;
+			}
+		};
+		mCache = new BitmapCache(1024 * 1024);
+	}
+
+	private static AssetManifest manifest(int... resourceIDs) {
+		AssetManifest manifest = new AssetManifest();
+		for (int resourceID : resourceIDs) {
+			manifest.addBitmap(resourceID);
+		}
+		return manifest;
+	}
+
+	private static void awaitLoaded(AssetManifest manifest)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!manifest.isLoaded()) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("Manifest did not load");
+			}
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	public void manifestLoadsOnTheDecoderThreads() throws InterruptedException {
+		AssetLoader loader = new AssetLoader(mContext, mCache);
+		AssetManifest manifest = manifest(SMALL, LARGE);
+		loader.load(manifest);
+		awaitLoaded(manifest);
+
+		assertEquals(16, manifest.getBitmap(SMALL).getWidth());
+		assertEquals(32, manifest.getBitmap(LARGE).getWidth());
+		assertEquals(16 * 16 * 4 + 32 * 32 * 4, manifest.getByteCount());
+		assertEquals(1.0f, manifest.getProgress(), 0);
+		assertEquals(0, loader.getPendingCount());
+	}
+
+	@Test
+	public void concurrentRequestsShareOneDecode() throws InterruptedException {
+		AssetLoader loader = new AssetLoader(mContext, mCache);
+		mResources.mGate = new CountDownLatch(1);
+		AssetManifest first = manifest(SMALL);
+		AssetManifest second = manifest(SMALL);
+		loader.load(first);
+		loader.load(second);
+
+		assertEquals(1, loader.getPendingCount());
+		assertFalse(first.isLoaded());
+		mResources.mGate.countDown();
+		awaitLoaded(first);
+		awaitLoaded(second);
+
+		assertEquals(1, mResources.mOpenCount.get());
+		assertSame(first.getBitmap(SMALL), second.getBitmap(SMALL));
+
+		// Both hold the bitmap, it is only evictable once both release it
+		first.release(mCache);
+		mCache.evictAll();
+		assertFalse(second.getBitmap(SMALL).isRecycled());
+		Bitmap bitmap = second.getBitmap(SMALL);
+		second.release(mCache);
+		mCache.evictAll();
+		assertTrue(bitmap.isRecycled());
+	}
+
+	@Test
+	public void cachedBitmapIsHandedOutWithoutDecoding()
+			throws InterruptedException {
+		AssetLoader loader = new AssetLoader(mContext, mCache);
+		AssetManifest first = manifest(SMALL);
+		loader.load(first);
+		awaitLoaded(first);
+
+		AssetManifest second = manifest(SMALL);
+		loader.load(second);
+
+		// Loaded synchronously from the cache
+		assertTrue(second.isLoaded());
+		assertSame(first.getBitmap(SMALL), second.getBitmap(SMALL));
+		assertEquals(1, mResources.mOpenCount.get());
+		assertEquals(0, loader.getPendingCount());
+	}
+
+	@Test
+	public void missingResourceCompletesWithoutABitmap()
+			throws InterruptedException {
+		AssetLoader loader = new AssetLoader(mContext, mCache);
+		AssetManifest manifest = manifest(MISSING, SMALL);
+		loader.load(manifest);
+		awaitLoaded(manifest);
+
+		assertNull(manifest.getBitmap(MISSING));
+		assertNotNull(manifest.getBitmap(SMALL));
+		assertEquals(1, mCache.size());
+		assertEquals(0, loader.getPendingCount());
+
+		// A failed decode is not cached, the next load tries again
+		AssetManifest retry = manifest(MISSING);
+		loader.load(retry);
+		awaitLoaded(retry);
+		assertEquals(3, mResources.mOpenCount.get());
+	}
+
+	@Test
+	public void undecodableResourceCompletesWithoutABitmap()
+			throws InterruptedException {
+		AssetLoader loader = new AssetLoader(mContext, mCache);
+		AssetManifest manifest = manifest(CORRUPT);
+		loader.load(manifest);
+		awaitLoaded(manifest);
+
+		assertNull(manifest.getBitmap(CORRUPT));
+		assertEquals(0, manifest.getByteCount());
+		assertEquals(0, mCache.size());
+	}
+
+	@Test
+	public void manifestReleasedWhileDecodingGivesTheBitmapBack()
+			throws InterruptedException {
+		// One thread, so the second manifest loads after the first decode
+		// has completely finished
+		AssetLoader loader = new AssetLoader(mContext, mCache, 1);
+		mResources.mGate = new CountDownLatch(1);
+		AssetManifest released = manifest(SMALL);
+		loader.load(released);
+		released.release(mCache);
+		assertFalse(released.isRequested());
+
+		AssetManifest next = manifest(LARGE);
+		loader.load(next);
+		mResources.mGate.countDown();
+		awaitLoaded(next);
+
+		assertNull(released.getBitmap(SMALL));
+		assertTrue(mCache.contains(BitmapCache.getKey(SMALL, null)));
+		mCache.evictAll();
+		assertFalse(mCache.contains(BitmapCache.getKey(SMALL, null)));
+		assertTrue(mCache.contains(BitmapCache.getKey(LARGE, null)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void assetsCannotBeAddedWhileLoading() {
+		AssetLoader loader = new AssetLoader(mContext, mCache);
+		AssetManifest manifest = manifest(SMALL);
+		loader.load(manifest);
+		manifest.addBitmap(LARGE);
+	}
+}
@@ -0,0 +1,28 @@
+package com.vulfox;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import android.graphics.Bitmap;
+
+public class BitmapCacheTest {
+
+	@Test
+	public void putOverBudgetWithoutAcquireKeepsNewBitmap() {
+		BitmapCache cache = new BitmapCache(100);
+		Bitmap old = Bitmap.createBitmap(4, 4, Bitmap.Config.ARGB_8888);
+		Bitmap added = Bitmap.createBitmap(8, 8, Bitmap.Config.ARGB_8888);
+
+		cache.put(1, old, false);
+		Bitmap result = cache.put(2, added, false);
+
+		assertSame(added, result);
+		assertFalse(added.isRecycled());
+		assertTrue(cache.contains(2));
+		assertTrue(old.isRecycled());
+		assertFalse(cache.contains(1));
+	}
+}
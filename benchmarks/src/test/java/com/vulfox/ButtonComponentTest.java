@@ -0,0 +1,79 @@
+package com.vulfox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Canvas;
+
+public class ButtonComponentTest {
+
+	private static final Context CONTEXT = new Context() {
+		@Override
+		public Object getSystemService(String name) {
+			return ACTIVITY_SERVICE.equals(name) ? new ActivityManager() : null;
+		}
+	};
+
+	/**
+	 * Bytes of the two ARGB_8888 state bitmaps of a 100x40 button
+	 */
+	private static final long STATE_BYTES = 2 * 100 * 40 * 4;
+
+	@Test
+	public void equalStylesAreShared() {
+		ButtonStyle style = ButtonStyle.obtain(0xffffffff, 12, 0xff000000,
+				0xff808080);
+		assertSame(style, ButtonStyle.obtain(0xffffffff, 12, 0xff000000,
+				0xff808080));
+		assertNotSame(style, ButtonStyle.obtain(0xffffffff, 14, 0xff000000,
+				0xff808080));
+	}
+
+	@Test
+	public void unusedStylesAreNotKept() throws InterruptedException {
+		WeakReference<ButtonStyle> reference = new WeakReference<ButtonStyle>(
+				ButtonStyle.obtain(0xff123456, 31, 0xff654321, 0xff000001));
+		for (int i = 0; i < 50 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(reference.get());
+	}
+
+	@Test
+	public void renderedStatesCountAgainstTheBudgetAndAreReleased() {
+		Screen hidden = new Screen() {
+		};
+		hidden.addScreenComponent(new ButtonComponent("Play", 0xffffffff, 12,
+				0xff000000, 0xff808080, 100, 40, 0, 0));
+		Screen top = new Screen() {
+		};
+
+		ScreenManager screenManager = new ScreenManager(CONTEXT);
+		screenManager.pushScreen(hidden);
+		screenManager.initialize(640, 480);
+		screenManager.draw(new Canvas());
+		assertEquals(STATE_BYTES, hidden.getResourceBytes());
+
+		screenManager.pushScreen(top);
+		screenManager.applyPendingOperations();
+		screenManager.setResourceBudget(STATE_BYTES / 2);
+		screenManager.trimResources();
+		assertEquals(0, hidden.getResourceBytes());
+
+		// Rendered again once visible
+		screenManager.popScreen();
+		screenManager.applyPendingOperations();
+		screenManager.setResourceBudget(0);
+		screenManager.draw(new Canvas());
+		assertEquals(STATE_BYTES, hidden.getResourceBytes());
+	}
+}
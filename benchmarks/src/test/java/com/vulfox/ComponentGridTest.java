@@ -0,0 +1,151 @@
+package com.vulfox;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.graphics.Canvas;
+
+import com.vulfox.input.TouchEvent;
+
+public class ComponentGridTest {
+
+	/**
+	 * Component that only has bounds
+	 */
+	private static class BoxComponent extends ScreenComponent {
+
+		BoxComponent(int x, int y, int width, int height, int zOrder) {
+			setPositionX(x);
+			setPositionY(y);
+			setWidth(width);
+			setHeight(height);
+			setScreen(null, zOrder);
+		}
+
+		@Override
+		void draw(Canvas canvas) {
+		}
+
+		@Override
+		void handleActionDown(TouchEvent touchEvent, boolean insideConponent) {
+		}
+
+		@Override
+		boolean handleActionUp(TouchEvent touchEvent, boolean insideConponent) {
+			return false;
+		}
+
+		@Override
+		void handleActionMove(TouchEvent touchEvent, boolean insideConponent) {
+		}
+	}
+
+	private ComponentGrid mGrid;
+
+	private List<ScreenComponent> mComponents;
+
+	@Before
+	public void setUp() {
+		mGrid = new ComponentGrid(64);
+		mComponents = new ArrayList<ScreenComponent>();
+		mGrid.resize(640, 480, mComponents);
+	}
+
+	private BoxComponent add(int x, int y, int width, int height, int zOrder) {
+		BoxComponent component = new BoxComponent(x, y, width, height, zOrder);
+		mComponents.add(component);
+		mGrid.insert(component);
+		return component;
+	}
+
+	@Test
+	public void pointOutsideEveryComponentHitsNothing() {
+		add(10, 10, 20, 20, 0);
+		assertNull(mGrid.hitTest(40, 40));
+		assertNull(mGrid.hitTest(300, 300));
+	}
+
+	@Test
+	public void rightAndBottomEdgesAreExclusive() {
+		BoxComponent box = add(10, 10, 20, 20, 0);
+		assertSame(box, mGrid.hitTest(10, 10));
+		assertSame(box, mGrid.hitTest(29.9f, 29.9f));
+		assertNull(mGrid.hitTest(30, 15));
+		assertNull(mGrid.hitTest(15, 30));
+	}
+
+	@Test
+	public void highestZOrderWins() {
+		BoxComponent top = add(0, 0, 100, 100, 2);
+		BoxComponent bottom = add(0, 0, 100, 100, 1);
+		BoxComponent small = add(40, 40, 10, 10, 0);
+
+		// Insertion order does not matter, only the z order
+		assertSame(top, mGrid.hitTest(45, 45));
+		assertSame(top, mGrid.hitTest(90, 90));
+
+		mGrid.remove(top);
+		assertSame(bottom, mGrid.hitTest(45, 45));
+
+		mGrid.remove(bottom);
+		assertSame(small, mGrid.hitTest(45, 45));
+	}
+
+	@Test
+	public void componentSpanningCellsIsHitInEachCell() {
+		BoxComponent wide = add(32, 32, 200, 100, 0);
+		assertSame(wide, mGrid.hitTest(40, 40));
+		assertSame(wide, mGrid.hitTest(150, 70));
+		assertSame(wide, mGrid.hitTest(231, 131));
+		assertNull(mGrid.hitTest(232, 131));
+	}
+
+	@Test
+	public void movedComponentIsFoundAtItsNewPosition() {
+		BoxComponent box = add(10, 10, 20, 20, 0);
+		box.setPositionX(300);
+		box.setPositionY(200);
+		mGrid.update(box);
+
+		assertNull(mGrid.hitTest(15, 15));
+		assertSame(box, mGrid.hitTest(310, 210));
+	}
+
+	@Test
+	public void componentsOutsideTheBoundsAreKeptInTheEdgeCells() {
+		BoxComponent left = add(-50, 100, 60, 20, 0);
+		BoxComponent right = add(620, 400, 100, 100, 0);
+
+		assertSame(left, mGrid.hitTest(5, 110));
+		assertSame(left, mGrid.hitTest(-20, 110));
+		assertSame(right, mGrid.hitTest(630, 470));
+		assertSame(right, mGrid.hitTest(700, 490));
+	}
+
+	@Test
+	public void resizeReinsertsTheComponents() {
+		BoxComponent box = add(500, 400, 20, 20, 0);
+		mGrid.resize(1280, 960, mComponents);
+
+		assertSame(box, mGrid.hitTest(510, 410));
+		assertNull(mGrid.hitTest(900, 900));
+	}
+
+	@Test
+	public void manyComponentsInOneCellGrowTheCell() {
+		BoxComponent last = null;
+		for (int i = 0; i < 10; i++) {
+			last = add(i, i, 30, 30, i);
+		}
+		assertSame(last, mGrid.hitTest(20, 20));
+
+		// Below the last one, the next highest containing the point wins
+		assertSame(mComponents.get(3), mGrid.hitTest(3, 3));
+	}
+}
@@ -0,0 +1,112 @@
+package com.vulfox;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import android.graphics.Canvas;
+
+import com.vulfox.render.DirtyRegion;
+import com.vulfox.render.DrawTarget;
+
+public class GameLoopTest {
+
+	/**
+	 * Screen recording its updates and the last interpolation factor
+	 */
+	private static class RecordingScreen extends Screen {
+
+		int mUpdateCount;
+
+		float mTimeStep;
+
+		float mInterpolation = -1;
+
+		@Override
+		public void update(float timeStep) {
+			mUpdateCount++;
+			mTimeStep = timeStep;
+		}
+
+		@Override
+		public void draw(Canvas canvas, float interpolation) {
+			mInterpolation = interpolation;
+		}
+	}
+
+	private static final DrawTarget CANVAS_TARGET = new DrawTarget() {
+		public Canvas lockCanvas(DirtyRegion dirtyRegion) {
+			return new Canvas();
+		}
+
+		public void unlockCanvasAndPost(Canvas canvas) {
+		}
+	};
+
+	private RecordingScreen mScreen;
+
+	private HeadlessGameRunner createRunner(float frameRate, int updateRate) {
+		mScreen = new RecordingScreen();
+		ScreenManager screenManager = new ScreenManager(null);
+		screenManager.pushScreen(mScreen);
+		HeadlessGameRunner runner = new HeadlessGameRunner(screenManager, 640,
+				480);
+		runner.setFrameRate(frameRate);
+		runner.setDrawTarget(CANVAS_TARGET);
+		GameLoop loop = runner.getGameLoop();
+		loop.setAccumulatedTimeStep(true);
+		loop.setUpdateRate(updateRate);
+		return runner;
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroUpdateRateIsRejected() {
+		createRunner(60, 60).getGameLoop().setUpdateRate(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeUpdateRateIsRejected() {
+		createRunner(60, 60).getGameLoop().setUpdateRate(-30);
+	}
+
+	@Test
+	public void fixedUpdatesFollowSimulatedTime() {
+		HeadlessGameRunner runner = createRunner(25, 50);
+		runner.run(25);
+
+		// Two updates of 1/50 s per frame at 25 fps
+		assertEquals(50, mScreen.mUpdateCount);
+		assertEquals(1.0f / 50, mScreen.mTimeStep, 1e-6f);
+	}
+
+	@Test
+	public void interpolationIsTheFractionOfAStepLeft() {
+		HeadlessGameRunner runner = createRunner(60, 40);
+		runner.run(1);
+		// 1/60 s accumulated, 2/3 of a 1/40 s step
+		assertEquals(0, mScreen.mUpdateCount);
+		assertEquals(2.0f / 3, mScreen.mInterpolation, 1e-3f);
+
+		runner.run(1);
+		// 2/60 s, one step taken and 1/3 of a step left
+		assertEquals(1, mScreen.mUpdateCount);
+		assertEquals(1.0f / 3, mScreen.mInterpolation, 1e-3f);
+	}
+
+	@Test
+	public void accumulatorIsClampedToTheMaximumSteps() {
+		HeadlessGameRunner runner = createRunner(60, 60);
+		runner.getGameLoop().setMaxUpdateSteps(3);
+		runner.run(1);
+		int updates = mScreen.mUpdateCount;
+
+		// A one second stall only catches up three steps
+		runner.getClock().advance(1000000000L);
+		runner.run(1);
+		assertEquals(updates + 3, mScreen.mUpdateCount);
+
+		// The dropped time is not caught up later either
+		runner.run(1);
+		assertEquals(updates + 4, mScreen.mUpdateCount);
+	}
+}
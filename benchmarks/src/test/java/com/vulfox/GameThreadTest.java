@@ -0,0 +1,77 @@
+package com.vulfox;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+public class GameThreadTest {
+
+	private static final Context CONTEXT = new Context() {
+		@Override
+		public Object getSystemService(String name) {
+			return ACTIVITY_SERVICE.equals(name) ? new ActivityManager() : null;
+		}
+	};
+
+	/**
+	 * Screen holding a kilobyte until its resources are released
+	 */
+	private static class HeavyScreen extends Screen {
+		@Override
+		public long getResourceBytes() {
+			return isResourcesReleased() ? 0 : 1024;
+		}
+	}
+
+	@Test
+	public void trimMemoryWhilePausedReleasesRightAway() {
+		Screen hidden = new HeavyScreen();
+		ScreenManager screenManager = createScreenManager(hidden);
+		GameThread thread = new GameThread(null, CONTEXT, screenManager);
+
+		thread.onPause();
+		thread.onTrimMemory(40);
+		assertTrue(hidden.isResourcesReleased());
+	}
+
+	@Test
+	public void trimMemoryWhileRunningWaitsForTheNextFrame() {
+		Screen hidden = new HeavyScreen();
+		ScreenManager screenManager = createScreenManager(hidden);
+		GameThread thread = new GameThread(null, CONTEXT, screenManager);
+
+		thread.onLowMemory();
+		assertFalse(hidden.isResourcesReleased());
+
+		thread.getGameLoop().step(1000000000L, null);
+		assertTrue(hidden.isResourcesReleased());
+	}
+
+	@Test
+	public void shutdownEndsTheThread() throws InterruptedException {
+		ScreenManager screenManager = new ScreenManager(CONTEXT);
+		GameThread thread = new GameThread(null, CONTEXT, screenManager);
+		thread.start();
+
+		// Waits for a surface until shut down
+		thread.join(50);
+		assertTrue(thread.isAlive());
+		thread.shutdown();
+		thread.join(1000);
+		assertFalse(thread.isAlive());
+	}
+
+	private static ScreenManager createScreenManager(Screen hidden) {
+		Screen top = new Screen() {
+		};
+		ScreenManager screenManager = new ScreenManager(CONTEXT);
+		screenManager.pushScreen(hidden);
+		screenManager.pushScreen(top);
+		screenManager.initialize(640, 480);
+		return screenManager;
+	}
+}
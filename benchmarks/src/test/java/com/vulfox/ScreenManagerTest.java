@@ -0,0 +1,163 @@
+package com.vulfox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Canvas;
+
+import com.vulfox.input.TouchEvent;
+import com.vulfox.input.TouchEvents;
+
+public class ScreenManagerTest {
+
+	/**
+	 * Component remembering if a pointer holds it and if its caches were released
+	 */
+	private static class HeldComponent extends ScreenComponent {
+
+		boolean mHeld;
+
+		boolean mCachesReleased;
+
+		HeldComponent() {
+			setWidth(100);
+			setHeight(100);
+		}
+
+		@Override
+		void draw(Canvas canvas) {
+		}
+
+		@Override
+		void releaseCaches() {
+			mCachesReleased = true;
+		}
+
+		@Override
+		void handleActionDown(TouchEvent touchEvent, boolean insideConponent) {
+			mHeld = true;
+		}
+
+		@Override
+		boolean handleActionUp(TouchEvent touchEvent, boolean insideConponent) {
+			mHeld = false;
+			return insideConponent;
+		}
+
+		@Override
+		void handleActionMove(TouchEvent touchEvent, boolean insideConponent) {
+		}
+	}
+
+	private static final Context CONTEXT = new Context() {
+		@Override
+		public Object getSystemService(String name) {
+			return ACTIVITY_SERVICE.equals(name) ? new ActivityManager() : null;
+		}
+	};
+
+	/**
+	 * Screen holding a kilobyte until its resources are released
+	 */
+	private static class HeavyScreen extends Screen {
+
+		private final boolean mDeclaresAssets;
+
+		HeavyScreen(boolean declaresAssets) {
+			mDeclaresAssets = declaresAssets;
+		}
+
+		@Override
+		protected void declareAssets(AssetManifest manifest) {
+			if (mDeclaresAssets) {
+				manifest.addBitmap(1);
+			}
+		}
+
+		@Override
+		public long getResourceBytes() {
+			return isResourcesReleased() ? 0 : 1024;
+		}
+	}
+
+	@Test
+	public void cancelPointersReleasesHeldComponents() {
+		Screen screen = new Screen() {
+		};
+		HeldComponent component = new HeldComponent();
+		screen.addScreenComponent(component);
+
+		ScreenManager screenManager = new ScreenManager(null);
+		screenManager.pushScreen(screen);
+		screenManager.initialize(640, 480);
+
+		screenManager.handleInput(TouchEvents.create(TouchEvent.ACTION_DOWN,
+				3, 50, 50));
+		assertTrue(component.mHeld);
+		assertEquals(1, screenManager.getPointerTracker().getActiveCount());
+
+		screenManager.cancelPointers();
+		assertFalse(component.mHeld);
+		assertEquals(0, screenManager.getPointerTracker().getActiveCount());
+	}
+
+	@Test
+	public void onTrimMemoryReleasesHiddenScreensAtTheNextFrame() {
+		HeavyScreen hidden = new HeavyScreen(false);
+		HeldComponent component = new HeldComponent();
+		hidden.addScreenComponent(component);
+		Screen top = new Screen() {
+		};
+
+		ScreenManager screenManager = new ScreenManager(CONTEXT);
+		screenManager.pushScreen(hidden);
+		screenManager.pushScreen(top);
+		screenManager.initialize(640, 480);
+		assertTrue(hidden.isInitialized());
+
+		// TRIM_MEMORY_BACKGROUND, handled at the start of the next frame
+		screenManager.onTrimMemory(40);
+		assertFalse(hidden.isResourcesReleased());
+		screenManager.trimResources();
+		assertTrue(hidden.isResourcesReleased());
+		assertTrue(component.mCachesReleased);
+		assertFalse(top.isResourcesReleased());
+	}
+
+	@Test
+	public void trimMemoryReleasesScreensStillLoading()
+			throws InterruptedException {
+		HeavyScreen hidden = new HeavyScreen(true);
+		Screen top = new Screen() {
+		};
+
+		ScreenManager screenManager = new ScreenManager(CONTEXT);
+		screenManager.pushScreen(hidden);
+		screenManager.initialize(640, 480);
+		screenManager.pushScreen(top);
+		screenManager.applyPendingOperations();
+		assertFalse(hidden.isInitialized());
+
+		screenManager.onLowMemory();
+		screenManager.trimResources();
+		assertTrue(hidden.isResourcesReleased());
+		assertFalse(hidden.getAssetManifest().isRequested());
+
+		// Loaded again and initialized once visible
+		screenManager.popScreen();
+		screenManager.applyPendingOperations();
+		screenManager.update(0);
+		assertTrue(hidden.getAssetManifest().isRequested());
+		for (int i = 0; i < 100 && !hidden.getAssetManifest().isLoaded(); i++) {
+			Thread.sleep(10);
+		}
+		screenManager.update(0);
+		assertTrue(hidden.isInitialized());
+		assertFalse(hidden.isResourcesReleased());
+	}
+}
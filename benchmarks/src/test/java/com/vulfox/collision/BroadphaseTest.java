@@ -0,0 +1,180 @@
+package com.vulfox.collision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BroadphaseTest {
+
+	private static final int PROXY_COUNT = 300;
+
+	/**
+	 * Bounding boxes mirrored outside the broadphase, null for removed
+	 * proxies
+	 */
+	private float[][] mBounds;
+
+	private Random mRandom;
+
+	private float[] randomBounds(float worldSize) {
+		float size = 1 + mRandom.nextFloat() * 40;
+		if (mRandom.nextInt(20) == 0) {
+			// A few large bodies span many cells
+			size *= 8;
+		}
+		float left = -worldSize / 2 + mRandom.nextFloat() * worldSize;
+		float top = -worldSize / 2 + mRandom.nextFloat() * worldSize;
+		return new float[] { left, top,
+				left + size * (0.5f + mRandom.nextFloat()), top + size };
+	}
+
+	private static boolean overlaps(float[] a, float[] b) {
+		return a[0] <= b[2] && b[0] <= a[2] && a[1] <= b[3] && b[1] <= a[3];
+	}
+
+	private static long key(int a, int b) {
+		return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+	}
+
+	private HashSet<Long> bruteForcePairs() {
+		HashSet<Long> pairs = new HashSet<Long>();
+		for (int i = 0; i < mBounds.length; i++) {
+			for (int j = i + 1; j < mBounds.length; j++) {
+				if (mBounds[i] != null && mBounds[j] != null
+						&& overlaps(mBounds[i], mBounds[j])) {
+					pairs.add(key(i, j));
+				}
+			}
+		}
+		return pairs;
+	}
+
+	private void assertPairs(Broadphase broadphase, PairBuffer pairs) {
+		broadphase.findPairs(pairs);
+		HashSet<Long> found = new HashSet<Long>();
+		for (int i = 0; i < pairs.getCount(); i++) {
+			int first = pairs.getFirst(i);
+			int second = pairs.getSecond(i);
+			assertTrue(first != second);
+			assertTrue("Pair reported twice: " + first + ", " + second,
+					found.add(key(first, second)));
+		}
+		assertEquals(bruteForcePairs(), found);
+	}
+
+	private void assertQuery(Broadphase broadphase, IdBuffer result) {
+		float[] region = randomBounds(600);
+		broadphase.query(region[0], region[1], region[2], region[3], result);
+		HashSet<Integer> found = new HashSet<Integer>();
+		for (int i = 0; i < result.getCount(); i++) {
+			assertTrue(found.add(result.get(i)));
+		}
+
+		HashSet<Integer> expected = new HashSet<Integer>();
+		for (int i = 0; i < mBounds.length; i++) {
+			if (mBounds[i] != null && overlaps(mBounds[i], region)) {
+				expected.add(i);
+			}
+		}
+		assertEquals(expected, found);
+	}
+
+	/**
+	 * Creates, moves and destroys random proxies and checks the pairs and
+	 * queries against brute force after every step
+	 */
+	private void checkAgainstBruteForce(Broadphase broadphase) {
+		mRandom = new Random(7);
+		// Room for the proxies created after the first ones
+		mBounds = new float[PROXY_COUNT + 64][];
+		PairBuffer pairs = new PairBuffer(4);
+		IdBuffer result = new IdBuffer();
+
+		for (int i = 0; i < PROXY_COUNT; i++) {
+			float[] bounds = randomBounds(600);
+			assertEquals(i, broadphase.createProxy(bounds[0], bounds[1],
+					bounds[2], bounds[3]));
+			mBounds[i] = bounds;
+		}
+		assertEquals(PROXY_COUNT, broadphase.getProxyCount());
+		assertPairs(broadphase, pairs);
+
+		for (int step = 0; step < 20; step++) {
+			// Small moves within a cell and teleports across the world
+			for (int i = 0; i < mBounds.length; i++) {
+				float[] bounds = mBounds[i];
+				if (bounds == null || mRandom.nextInt(3) != 0) {
+					continue;
+				}
+				if (mRandom.nextInt(10) == 0) {
+					bounds = randomBounds(600);
+				} else {
+					float dx = mRandom.nextFloat() * 6 - 3;
+					float dy = mRandom.nextFloat() * 6 - 3;
+					bounds = new float[] { bounds[0] + dx, bounds[1] + dy,
+							bounds[2] + dx, bounds[3] + dy };
+				}
+				broadphase.moveProxy(i, bounds[0], bounds[1], bounds[2],
+						bounds[3]);
+				mBounds[i] = bounds;
+			}
+
+			// Destroyed ids are reused by the next proxies
+			for (int i = 0; i < 5; i++) {
+				int proxy = mRandom.nextInt(mBounds.length);
+				if (mBounds[proxy] != null) {
+					broadphase.destroyProxy(proxy);
+					mBounds[proxy] = null;
+				}
+			}
+			for (int i = 0; i < 3; i++) {
+				float[] bounds = randomBounds(600);
+				int proxy = broadphase.createProxy(bounds[0], bounds[1],
+						bounds[2], bounds[3]);
+				assertNull(mBounds[proxy]);
+				mBounds[proxy] = bounds;
+			}
+
+			assertPairs(broadphase, pairs);
+			assertQuery(broadphase, result);
+		}
+	}
+
+	@Test
+	public void spatialHashMatchesBruteForce() {
+		checkAgainstBruteForce(new SpatialHashBroadphase(32));
+	}
+
+	@Test
+	public void spatialHashWithCollidingBucketsMatchesBruteForce() {
+		// Many cells share a bucket, which must not create false or
+		// duplicate pairs
+		checkAgainstBruteForce(new SpatialHashBroadphase(16, 8));
+	}
+
+	@Test
+	public void sweepAndPruneMatchesBruteForce() {
+		checkAgainstBruteForce(new SweepAndPruneBroadphase());
+	}
+
+	@Test
+	public void touchingEdgesArePairs() {
+		Broadphase[] broadphases = { new SpatialHashBroadphase(10),
+				new SweepAndPruneBroadphase() };
+		for (Broadphase broadphase : broadphases) {
+			int a = broadphase.createProxy(0, 0, 10, 10);
+			int b = broadphase.createProxy(10, 0, 20, 10);
+			broadphase.createProxy(20.5f, 0, 30, 10);
+
+			PairBuffer pairs = new PairBuffer();
+			broadphase.findPairs(pairs);
+			assertEquals(1, pairs.getCount());
+			assertEquals(key(a, b), key(pairs.getFirst(0), pairs.getSecond(0)));
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package com.vulfox.collision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class NarrowphaseTest {
+
+	private static final float EPSILON = 1e-4f;
+
+	private static final float SQRT_HALF = (float) Math.sqrt(0.5);
+
+	private Narrowphase mNarrowphase;
+
+	private Contact mContact;
+
+	/**
+	 * Right triangle with its right angle at the origin and the hypotenuse
+	 * on x + y = 10
+	 */
+	private Polygon mTriangle;
+
+	@Before
+	public void setUp() {
+		mNarrowphase = new Narrowphase();
+		mContact = new Contact();
+		mTriangle = new Polygon(new float[] { 0, 0, 10, 0, 0, 10 });
+	}
+
+	private void assertContact(float normalX, float normalY, float depth) {
+		assertEquals(normalX, mContact.getNormalX(), EPSILON);
+		assertEquals(normalY, mContact.getNormalY(), EPSILON);
+		assertEquals(depth, mContact.getDepth(), EPSILON);
+	}
+
+	@Test
+	public void circles() {
+		Circle a = new Circle(2);
+		Circle b = new Circle(3);
+		assertTrue(mNarrowphase.collide(a, 0, 0, b, 4, 0, mContact));
+		assertContact(1, 0, 1);
+
+		assertFalse(mNarrowphase.collide(a, 0, 0, b, 5.1f, 0, mContact));
+
+		// Coincident centers still get a valid normal
+		assertTrue(mNarrowphase.collide(a, 0, 0, b, 0, 0, mContact));
+		assertContact(1, 0, 5);
+	}
+
+	@Test
+	public void boxesSeparateAlongTheSmallestOverlap() {
+		Box a = new Box(10, 10);
+		Box b = new Box(10, 4);
+		assertTrue(mNarrowphase.collide(a, 0, 0, b, 8, 3, mContact));
+		assertContact(1, 0, 2);
+
+		assertTrue(mNarrowphase.collide(a, 0, 0, b, -8, 3, mContact));
+		assertContact(-1, 0, 2);
+
+		assertTrue(mNarrowphase.collide(a, 0, 0, b, 1, 6, mContact));
+		assertContact(0, 1, 1);
+
+		assertFalse(mNarrowphase.collide(a, 0, 0, b, 11, 0, null));
+	}
+
+	@Test
+	public void boxAndCircleInEitherOrder() {
+		Box box = new Box(10, 10);
+		Circle circle = new Circle(2);
+		assertTrue(mNarrowphase.collide(box, 0, 0, circle, 6, 0, mContact));
+		assertContact(1, 0, 1);
+
+		// The normal always points from the first to the second shape
+		assertTrue(mNarrowphase.collide(circle, 6, 0, box, 0, 0, mContact));
+		assertContact(-1, 0, 1);
+
+		// Near a corner the distance to the corner counts, not the bounds
+		assertFalse(mNarrowphase.collide(box, 0, 0, circle, 6.5f, 6.5f, null));
+
+		// A center inside the box is pushed out through the nearest side
+		assertTrue(mNarrowphase.collide(box, 0, 0, new Circle(1), 4, 0,
+				mContact));
+		assertContact(1, 0, 2);
+	}
+
+	@Test
+	public void polygonsAreSeparatedByAnyEdgeNormal() {
+		Polygon small = new Polygon(new float[] { 0, 0, 4, 0, 0, 4 });
+
+		// The bounding boxes overlap but the hypotenuse separates them
+		assertFalse(mNarrowphase.collide(mTriangle, 0, 0, small, 6, 6, null));
+
+		assertTrue(mNarrowphase.collide(mTriangle, 0, 0, small, 4, 4, mContact));
+		assertContact(SQRT_HALF, SQRT_HALF, (float) Math.sqrt(2));
+
+		assertTrue(mNarrowphase.collide(small, 4, 4, mTriangle, 0, 0, mContact));
+		assertContact(-SQRT_HALF, -SQRT_HALF, (float) Math.sqrt(2));
+	}
+
+	@Test
+	public void boxAgainstPolygonUsesTheBoxEdges() {
+		Box box = new Box(4, 4);
+		assertFalse(mNarrowphase.collide(mTriangle, 0, 0, box, 7.5f, 7.5f, null));
+
+		assertTrue(mNarrowphase.collide(mTriangle, 0, 0, box, 6, 6, mContact));
+		assertContact(SQRT_HALF, SQRT_HALF, (float) Math.sqrt(2));
+
+		assertTrue(mNarrowphase.collide(box, 6, 6, mTriangle, 0, 0, mContact));
+		assertContact(-SQRT_HALF, -SQRT_HALF, (float) Math.sqrt(2));
+	}
+
+	@Test
+	public void polygonAndCircle() {
+		Circle circle = new Circle(1);
+		assertFalse(mNarrowphase.collide(mTriangle, 0, 0, circle, 6, 6, null));
+
+		assertTrue(mNarrowphase.collide(mTriangle, 0, 0, circle, 5.5f, 5.5f,
+				mContact));
+		float depth = 1 - (11 * SQRT_HALF - 10 * SQRT_HALF);
+		assertContact(SQRT_HALF, SQRT_HALF, depth);
+
+		assertTrue(mNarrowphase.collide(circle, 5.5f, 5.5f, mTriangle, 0, 0,
+				mContact));
+		assertContact(-SQRT_HALF, -SQRT_HALF, depth);
+	}
+
+	@Test
+	public void circleBeyondAVertexIsSeparatedByTheVertexAxis() {
+		// No edge normal separates the shapes, only the axis from the vertex
+		// at (10, 0) to the circle center does
+		assertFalse(mNarrowphase.collide(mTriangle, 0, 0, new Circle(1), 11,
+				-1, null));
+		assertTrue(mNarrowphase.collide(mTriangle, 0, 0, new Circle(1.5f), 11,
+				-1, null));
+	}
+
+	@Test
+	public void raycastCircle() {
+		Circle circle = new Circle(2);
+		assertEquals(8, mNarrowphase.raycast(circle, 10, 0, 0, 0, 1, 0, 100),
+				EPSILON);
+		assertEquals(-1, mNarrowphase.raycast(circle, 10, 0, 0, 0, 1, 0, 5), 0);
+		assertEquals(-1, mNarrowphase.raycast(circle, 10, 0, 0, 0, -1, 0, 100), 0);
+		assertEquals(-1, mNarrowphase.raycast(circle, 10, 0, 0, 3, 1, 0, 100), 0);
+		assertEquals(0, mNarrowphase.raycast(circle, 10, 0, 10, 1, 1, 0, 100), 0);
+	}
+
+	@Test
+	public void raycastBox() {
+		Box box = new Box(4, 2);
+		assertEquals(8, mNarrowphase.raycast(box, 10, 0, 0, 0, 1, 0, 100),
+				EPSILON);
+		// Parallel to a face and outside the slab
+		assertEquals(-1, mNarrowphase.raycast(box, 10, 0, 0, 1.5f, 1, 0, 100), 0);
+		assertEquals(0, mNarrowphase.raycast(box, 10, 0, 10, 0, 0, 1, 100), 0);
+
+		// Enters through the bottom face, top in screen coordinates
+		float hit = mNarrowphase.raycast(box, 10, 0, 0, -10, SQRT_HALF,
+				SQRT_HALF, 100);
+		assertEquals(9 * (float) Math.sqrt(2), hit, EPSILON);
+	}
+
+	@Test
+	public void raycastPolygon() {
+		float hit = mNarrowphase.raycast(mTriangle, 0, 0, 10, 10, -SQRT_HALF,
+				-SQRT_HALF, 100);
+		assertEquals((float) Math.sqrt(50), hit, EPSILON);
+
+		// The shape position is applied
+		hit = mNarrowphase.raycast(mTriangle, 5, 0, 15, 10, -SQRT_HALF,
+				-SQRT_HALF, 100);
+		assertEquals((float) Math.sqrt(50), hit, EPSILON);
+
+		assertEquals(-1, mNarrowphase.raycast(mTriangle, 0, 0, 10, 10, 1, 0,
+				100), 0);
+		assertEquals(-1, mNarrowphase.raycast(mTriangle, 0, 0, 10, 10,
+				-SQRT_HALF, -SQRT_HALF, 5), 0);
+		assertEquals(0, mNarrowphase.raycast(mTriangle, 0, 0, 1, 1, 1, 0, 100),
+				0);
+	}
+
+	@Test
+	public void worldReportsContactsAndTheClosestRayHit() {
+		CollisionWorld world = new CollisionWorld(new SpatialHashBroadphase(16));
+		Body near = new Body(new Circle(2), 10, 0);
+		Body far = new Body(new Box(4, 4), 20, 0);
+		Body apart = new Body(new Circle(1), 100, 100);
+		world.addBody(near);
+		world.addBody(far);
+		world.addBody(apart);
+
+		assertEquals(0, world.update());
+		far.setPosition(13, 0);
+		assertEquals(1, world.update());
+		Contact contact = world.getContact(0);
+		assertTrue(contact.getBodyA() == near || contact.getBodyB() == near);
+		assertTrue(contact.getBodyA() == far || contact.getBodyB() == far);
+
+		RaycastHit hit = new RaycastHit();
+		assertTrue(world.raycast(0, 0, 5, 0, 50, hit));
+		assertSame(near, hit.getBody());
+		assertEquals(8, hit.getDistance(), EPSILON);
+		assertEquals(8, hit.getX(), EPSILON);
+
+		ArrayList<Body> bodies = new ArrayList<Body>();
+		world.queryRegion(90, 90, 110, 110, bodies);
+		assertEquals(1, bodies.size());
+		assertSame(apart, bodies.get(0));
+	}
+}
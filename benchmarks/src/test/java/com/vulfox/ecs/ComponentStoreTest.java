@@ -0,0 +1,155 @@
+package com.vulfox.ecs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ComponentStoreTest {
+
+	private World mWorld;
+
+	private FloatComponentStore mPositions;
+
+	@Before
+	public void setUp() {
+		mWorld = new World();
+		mPositions = new FloatComponentStore(mWorld, 2, 2);
+	}
+
+	private int createAt(float x, float y) {
+		int entity = mWorld.create();
+		mPositions.add(entity);
+		mPositions.set(entity, 0, x);
+		mPositions.set(entity, 1, y);
+		return entity;
+	}
+
+	@Test
+	public void removeMovesTheLastComponentIntoTheGap() {
+		int a = createAt(1, 10);
+		int b = createAt(2, 20);
+		int c = createAt(3, 30);
+
+		assertTrue(mPositions.remove(a));
+		assertEquals(2, mPositions.size());
+		assertEquals(c, mPositions.getEntity(0));
+		assertEquals(0, mPositions.getOffset(c));
+
+		// Every entity still reads its own data
+		assertEquals(2, mPositions.get(b, 0), 0);
+		assertEquals(20, mPositions.get(b, 1), 0);
+		assertEquals(3, mPositions.get(c, 0), 0);
+		assertEquals(30, mPositions.get(c, 1), 0);
+		assertFalse(mPositions.has(a));
+		assertEquals(-1, mPositions.getOffset(a));
+	}
+
+	@Test
+	public void removingTheLastComponentMovesNothing() {
+		int a = createAt(1, 10);
+		int b = createAt(2, 20);
+
+		assertTrue(mPositions.remove(b));
+		assertFalse(mPositions.remove(b));
+		assertEquals(1, mPositions.size());
+		assertEquals(a, mPositions.getEntity(0));
+		assertEquals(1, mPositions.get(a, 0), 0);
+	}
+
+	@Test
+	public void addingAgainKeepsTheValues() {
+		int a = createAt(1, 10);
+		assertEquals(0, mPositions.add(a));
+		assertEquals(1, mPositions.size());
+		assertEquals(1, mPositions.get(a, 0), 0);
+	}
+
+	@Test
+	public void reAddedComponentStartsAtZero() {
+		int a = createAt(1, 10);
+		int b = createAt(2, 20);
+		mPositions.remove(a);
+		mPositions.remove(b);
+
+		mPositions.add(b);
+		assertEquals(0, mPositions.get(b, 0), 0);
+		assertEquals(0, mPositions.get(b, 1), 0);
+	}
+
+	@Test
+	public void storeGrowsAndKeepsTheData() {
+		int[] entities = new int[50];
+		for (int i = 0; i < entities.length; i++) {
+			entities[i] = createAt(i, -i);
+		}
+		assertEquals(50, mPositions.size());
+		for (int i = 0; i < entities.length; i++) {
+			assertEquals(i, mPositions.get(entities[i], 0), 0);
+			assertEquals(-i, mPositions.get(entities[i], 1), 0);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void deadEntityCannotGetAComponent() {
+		int entity = mWorld.create();
+		mWorld.destroy(entity);
+		mPositions.add(entity);
+	}
+
+	@Test
+	public void staleIdDoesNotSeeTheRecycledEntity() {
+		int old = createAt(1, 10);
+		mWorld.destroy(old);
+		int recycled = createAt(2, 20);
+		assertEquals(World.getIndex(old), World.getIndex(recycled));
+
+		assertFalse(mPositions.has(old));
+		assertTrue(mPositions.has(recycled));
+		assertFalse(mPositions.remove(old));
+		assertEquals(1, mPositions.size());
+	}
+
+	@Test
+	public void objectStoreDropsRemovedReferences() {
+		ObjectComponentStore<String> names = new ObjectComponentStore<String>(
+				mWorld, 1);
+		int a = mWorld.create();
+		int b = mWorld.create();
+		names.add(a, "a");
+		names.add(b, "b");
+
+		names.remove(a);
+		assertEquals(1, names.size());
+		assertSame("b", names.getAt(0));
+		assertSame("b", names.get(b));
+		assertNull(names.get(a));
+		// The vacated slot no longer holds the moved reference
+		names.remove(b);
+		assertNull(names.getAt(0));
+	}
+
+	@Test
+	public void queryFindsEntitiesWithEveryComponent() {
+		ObjectComponentStore<String> names = new ObjectComponentStore<String>(
+				mWorld, 4);
+		int a = createAt(0, 0);
+		int b = createAt(0, 0);
+		int c = mWorld.create();
+		names.add(b, "b");
+		names.add(c, "c");
+
+		Query query = new Query(mPositions, names);
+		assertEquals(1, query.run());
+		assertEquals(b, query.getEntity(0));
+
+		names.add(a, "a");
+		mWorld.destroy(b);
+		assertEquals(1, query.run());
+		assertEquals(a, query.getEntity(0));
+	}
+}
@@ -0,0 +1,137 @@
+package com.vulfox.ecs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class WorldTest {
+
+	@Test
+	public void destroyedIndexIsReusedWithANewGeneration() {
+		World world = new World();
+		int first = world.create();
+		int second = world.create();
+		assertEquals(0, World.getIndex(first));
+		assertEquals(1, World.getIndex(second));
+		assertEquals(0, World.getGeneration(first));
+
+		assertTrue(world.destroy(first));
+		assertFalse(world.isAlive(first));
+		assertFalse(world.destroy(first));
+
+		int recycled = world.create();
+		assertEquals(0, World.getIndex(recycled));
+		assertEquals(1, World.getGeneration(recycled));
+		assertTrue(world.isAlive(recycled));
+		// The stale id still refers to the old, dead entity
+		assertFalse(world.isAlive(first));
+		assertEquals(2, world.getEntityCount());
+	}
+
+	@Test
+	public void generationWrapsWithoutNegativeIds() {
+		World world = new World(1);
+		int entity = world.create();
+		for (int i = 0; i < 2047; i++) {
+			world.destroy(entity);
+			entity = world.create();
+			assertTrue(entity >= 0);
+		}
+		assertEquals(2047, World.getGeneration(entity));
+
+		world.destroy(entity);
+		entity = world.create();
+		assertEquals(0, World.getGeneration(entity));
+		assertEquals(0, World.getIndex(entity));
+	}
+
+	@Test
+	public void worldGrowsPastItsInitialCapacity() {
+		World world = new World(2);
+		int[] entities = new int[100];
+		for (int i = 0; i < entities.length; i++) {
+			entities[i] = world.create();
+		}
+		for (int i = 0; i < entities.length; i += 2) {
+			world.destroy(entities[i]);
+		}
+
+		assertEquals(50, world.getEntityCount());
+		for (int i = 0; i < entities.length; i++) {
+			assertEquals(i % 2 == 1, world.isAlive(entities[i]));
+		}
+
+		// Freed indices are used before new ones
+		for (int i = 0; i < 50; i++) {
+			assertTrue(World.getIndex(world.create()) < 100);
+		}
+		assertEquals(100, World.getIndex(world.create()));
+	}
+
+	@Test
+	public void invalidIdsAreNotAlive() {
+		World world = new World();
+		assertFalse(world.isAlive(World.NULL_ENTITY));
+		assertFalse(world.isAlive(5));
+	}
+
+	@Test
+	public void destroyRemovesTheComponents() {
+		World world = new World();
+		FloatComponentStore positions = new FloatComponentStore(world, 2, 4);
+		ObjectComponentStore<String> names = new ObjectComponentStore<String>(
+				world, 4);
+		int entity = world.create();
+		positions.add(entity);
+		names.add(entity, "player");
+
+		world.destroy(entity);
+		assertEquals(0, positions.size());
+		assertEquals(0, names.size());
+
+		// The next entity on the same index does not inherit them
+		int recycled = world.create();
+		assertFalse(positions.has(recycled));
+		assertNull(names.get(recycled));
+	}
+
+	@Test
+	public void systemsRunInOrderAndDestroyLaterWaitsForAll() {
+		final World world = new World();
+		final int entity = world.create();
+		final ArrayList<String> log = new ArrayList<String>();
+
+		world.addSystem(new EntitySystem() {
+			@Override
+			public void update(World w, float timeStep) {
+				log.add("first");
+				w.destroyLater(entity);
+			}
+		});
+		EntitySystem disabled = new EntitySystem() {
+			@Override
+			public void update(World w, float timeStep) {
+				log.add("disabled");
+			}
+		};
+		disabled.setEnabled(false);
+		world.addSystem(disabled);
+		world.addSystem(new EntitySystem() {
+			@Override
+			public void update(World w, float timeStep) {
+				log.add("second " + w.isAlive(entity));
+			}
+		});
+
+		world.update(0.016f);
+		assertEquals(2, log.size());
+		assertEquals("first", log.get(0));
+		assertEquals("second true", log.get(1));
+		assertFalse(world.isAlive(entity));
+	}
+}
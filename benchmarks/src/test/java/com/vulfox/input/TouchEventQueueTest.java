@@ -0,0 +1,182 @@
+package com.vulfox.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import android.view.MotionEvent;
+
+public class TouchEventQueueTest {
+
+	/**
+	 * Creates a motion event with one pointer per id, all at x = id
+	 */
+	private static MotionEvent motionEvent(int action, int... pointerIds) {
+		MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerIds.length];
+		for (int i = 0; i < pointerIds.length; i++) {
+			coords[i] = new MotionEvent.PointerCoords();
+			coords[i].x = pointerIds[i];
+			coords[i].y = 10;
+		}
+		return MotionEvent.obtain(0, 5, action, pointerIds.length, pointerIds,
+				coords, 0, 1, 1, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Action of a secondary pointer at an index
+	 */
+	private static int pointerAction(int action, int pointerIndex) {
+		return action | pointerIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+	}
+
+	private static void assertNext(TouchEventQueue queue, int action,
+			int pointerId) {
+		TouchEvent event = queue.peek();
+		assertEquals(action, event.getAction());
+		assertEquals(pointerId, event.getPointerId());
+		assertEquals(pointerId, event.getX(), 0);
+		queue.remove();
+	}
+
+	@Test
+	public void capacityIsRoundedUpToAPowerOfTwo() {
+		assertEquals(8, new TouchEventQueue(5).getCapacity());
+		assertEquals(TouchEventQueue.DEFAULT_CAPACITY,
+				new TouchEventQueue().getCapacity());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void capacityMustBePositive() {
+		new TouchEventQueue(0);
+	}
+
+	@Test
+	public void secondaryPointersAreSplitIntoOwnRecords() {
+		TouchEventQueue queue = new TouchEventQueue(8);
+		queue.offer(motionEvent(MotionEvent.ACTION_DOWN, 0));
+		queue.offer(motionEvent(pointerAction(MotionEvent.ACTION_POINTER_DOWN,
+				1), 0, 1));
+		queue.offer(motionEvent(MotionEvent.ACTION_MOVE, 0, 1));
+		queue.offer(motionEvent(pointerAction(MotionEvent.ACTION_POINTER_UP, 0),
+				0, 1));
+		queue.offer(motionEvent(MotionEvent.ACTION_CANCEL, 1));
+
+		assertEquals(6, queue.getDepth());
+		assertNext(queue, TouchEvent.ACTION_DOWN, 0);
+		assertNext(queue, TouchEvent.ACTION_DOWN, 1);
+		assertNext(queue, TouchEvent.ACTION_MOVE, 0);
+		assertNext(queue, TouchEvent.ACTION_MOVE, 1);
+		assertNext(queue, TouchEvent.ACTION_UP, 0);
+		assertNext(queue, TouchEvent.ACTION_CANCEL, 1);
+		assertNull(queue.peek());
+	}
+
+	@Test
+	public void recordsWrapAround() {
+		TouchEventQueue queue = new TouchEventQueue(4);
+		queue.offer(motionEvent(MotionEvent.ACTION_DOWN, 0));
+		assertNext(queue, TouchEvent.ACTION_DOWN, 0);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(queue.offer(motionEvent(MotionEvent.ACTION_MOVE, 0)));
+			assertTrue(queue.offer(motionEvent(MotionEvent.ACTION_MOVE, 0)));
+			assertNext(queue, TouchEvent.ACTION_MOVE, 0);
+			assertNext(queue, TouchEvent.ACTION_MOVE, 0);
+		}
+		assertTrue(queue.offer(motionEvent(MotionEvent.ACTION_UP, 0)));
+		assertNext(queue, TouchEvent.ACTION_UP, 0);
+		assertEquals(0, queue.getDepth());
+		assertEquals(0, queue.getOverflowCount());
+		assertEquals(2, queue.getMaxDepth());
+	}
+
+	@Test
+	public void overflowDropsMovesButKeepsUps() {
+		TouchEventQueue queue = new TouchEventQueue(4);
+		queue.offer(motionEvent(MotionEvent.ACTION_DOWN, 0));
+		for (int i = 0; i < 5; i++) {
+			queue.offer(motionEvent(MotionEvent.ACTION_MOVE, 0));
+		}
+		// One record stays free for the up
+		assertEquals(3, queue.getDepth());
+		assertEquals(3, queue.getOverflowCount());
+
+		assertTrue(queue.offer(motionEvent(MotionEvent.ACTION_UP, 0)));
+		assertEquals(4, queue.getDepth());
+		assertEquals(4, queue.getMaxDepth());
+
+		assertNext(queue, TouchEvent.ACTION_DOWN, 0);
+		assertNext(queue, TouchEvent.ACTION_MOVE, 0);
+		assertNext(queue, TouchEvent.ACTION_MOVE, 0);
+		assertNext(queue, TouchEvent.ACTION_UP, 0);
+	}
+
+	@Test
+	public void overflowKeepsTheCancelOfEveryPointerThatIsDown() {
+		TouchEventQueue queue = new TouchEventQueue(4);
+		queue.offer(motionEvent(MotionEvent.ACTION_DOWN, 0));
+		queue.offer(motionEvent(pointerAction(MotionEvent.ACTION_POINTER_DOWN,
+				1), 0, 1));
+		queue.offer(motionEvent(MotionEvent.ACTION_MOVE, 0, 1));
+		assertEquals(2, queue.getDepth());
+		assertEquals(2, queue.getOverflowCount());
+
+		assertTrue(queue.offer(motionEvent(MotionEvent.ACTION_CANCEL, 0, 1)));
+		assertNext(queue, TouchEvent.ACTION_DOWN, 0);
+		assertNext(queue, TouchEvent.ACTION_DOWN, 1);
+		assertNext(queue, TouchEvent.ACTION_CANCEL, 0);
+		assertNext(queue, TouchEvent.ACTION_CANCEL, 1);
+	}
+
+	@Test
+	public void upOfADroppedDownIsDropped() {
+		TouchEventQueue queue = new TouchEventQueue(2);
+		queue.offer(motionEvent(MotionEvent.ACTION_DOWN, 0));
+		assertFalse(queue.offer(motionEvent(
+				pointerAction(MotionEvent.ACTION_POINTER_DOWN, 1), 0, 1)));
+		assertFalse(queue.offer(motionEvent(
+				pointerAction(MotionEvent.ACTION_POINTER_UP, 1), 0, 1)));
+		assertTrue(queue.offer(motionEvent(MotionEvent.ACTION_UP, 0)));
+		assertEquals(2, queue.getOverflowCount());
+
+		assertNext(queue, TouchEvent.ACTION_DOWN, 0);
+		assertNext(queue, TouchEvent.ACTION_UP, 0);
+		assertNull(queue.peek());
+	}
+
+	@Test
+	public void recordsAreReusedAcrossThreads() throws InterruptedException {
+		final TouchEventQueue queue = new TouchEventQueue(16);
+		final int moves = 100000;
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				queue.offer(motionEvent(MotionEvent.ACTION_DOWN, 0));
+				for (int i = 0; i < moves; i++) {
+					queue.offer(motionEvent(MotionEvent.ACTION_MOVE, 0));
+				}
+				queue.offer(motionEvent(MotionEvent.ACTION_UP, 0));
+			}
+		};
+		producer.start();
+
+		int received = 0;
+		boolean up = false;
+		while (!up) {
+			TouchEvent event = queue.peek();
+			if (event == null) {
+				Thread.yield();
+				continue;
+			}
+			up = event.getAction() == TouchEvent.ACTION_UP;
+			received++;
+			queue.remove();
+		}
+		producer.join();
+
+		assertEquals(moves + 2, received + queue.getOverflowCount());
+		assertTrue(queue.getMaxDepth() <= queue.getCapacity());
+	}
+}
@@ -0,0 +1,200 @@
+package com.vulfox.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import android.graphics.Matrix;
+
+public class Transform2DTest {
+
+	private static final float EPSILON = 1e-4f;
+
+	private static void assertPoint(float x, float y, Vector2f point) {
+		assertEquals(x, point.getX(), EPSILON);
+		assertEquals(y, point.getY(), EPSILON);
+	}
+
+	private static void assertTransform(Transform2D expected,
+			Transform2D actual) {
+		assertEquals(expected.getA(), actual.getA(), EPSILON);
+		assertEquals(expected.getB(), actual.getB(), EPSILON);
+		assertEquals(expected.getC(), actual.getC(), EPSILON);
+		assertEquals(expected.getD(), actual.getD(), EPSILON);
+		assertEquals(expected.getTranslateX(), actual.getTranslateX(), EPSILON);
+		assertEquals(expected.getTranslateY(), actual.getTranslateY(), EPSILON);
+	}
+
+	private static Transform2D sprite() {
+		Transform2D transform = new Transform2D();
+		transform.setTransform(30, -20, 0.7f, 2, 0.5f);
+		return transform;
+	}
+
+	@Test
+	public void rotationIsClockwiseOnScreen() {
+		Transform2D transform = new Transform2D();
+		transform.rotate((float) (Math.PI / 2));
+		Vector2f point = new Vector2f(1, 0);
+		transform.transform(point);
+		assertPoint(0, 1, point);
+	}
+
+	@Test
+	public void operationsApplyInLocalSpace() {
+		Transform2D transform = new Transform2D();
+		transform.translate(10, 0);
+		transform.scale(2, 2);
+		transform.translate(1, 0);
+
+		// The second translation is scaled by the scale before it
+		Vector2f point = new Vector2f(0, 0);
+		transform.transform(point);
+		assertPoint(12, 0, point);
+	}
+
+	@Test
+	public void setTransformMatchesTranslateRotateScale() {
+		Transform2D steps = new Transform2D();
+		steps.translate(30, -20);
+		steps.rotate(0.7f);
+		steps.scale(2, 0.5f);
+		assertTransform(steps, sprite());
+	}
+
+	@Test
+	public void rotateAroundAPivotKeepsThePivot() {
+		Transform2D transform = new Transform2D();
+		transform.rotate(1.2f, 5, 7);
+		Vector2f pivot = new Vector2f(5, 7);
+		transform.transform(pivot);
+		assertPoint(5, 7, pivot);
+	}
+
+	@Test
+	public void concatAppliesTheOtherTransformFirst() {
+		Transform2D parent = sprite();
+		Transform2D child = new Transform2D();
+		child.setTransform(3, 4, -0.3f, 1.5f, 1.5f);
+
+		Vector2f expected = new Vector2f(2, -1);
+		child.transform(expected);
+		parent.transform(expected);
+
+		Transform2D concat = new Transform2D(parent);
+		concat.concat(child);
+		Vector2f point = new Vector2f(2, -1);
+		concat.transform(point);
+		assertPoint(expected.getX(), expected.getY(), point);
+
+		// postConcat is the same product in the other order
+		Transform2D post = new Transform2D(child);
+		post.postConcat(parent);
+		assertTransform(concat, post);
+	}
+
+	@Test
+	public void setConcatMayAliasEitherOperand() {
+		Transform2D parent = sprite();
+		Transform2D child = new Transform2D();
+		child.setTransform(3, 4, -0.3f, 1.5f, 1.5f);
+		Transform2D expected = new Transform2D(parent);
+		expected.concat(child);
+
+		Transform2D left = new Transform2D(parent);
+		left.setConcat(left, child);
+		assertTransform(expected, left);
+
+		Transform2D right = new Transform2D(child);
+		right.setConcat(parent, right);
+		assertTransform(expected, right);
+	}
+
+	@Test
+	public void inverseUndoesTheTransform() {
+		Transform2D transform = sprite();
+		Transform2D inverse = new Transform2D();
+		assertTrue(transform.invert(inverse));
+
+		Vector2f point = new Vector2f(7, 11);
+		transform.transform(point);
+		inverse.transform(point);
+		assertPoint(7, 11, point);
+
+		Transform2D product = new Transform2D(transform);
+		product.concat(inverse);
+		assertTransform(new Transform2D(), product);
+
+		// Inverting in place gives the same result
+		assertTrue(transform.invert());
+		assertTransform(inverse, transform);
+	}
+
+	@Test
+	public void singularTransformIsNotInverted() {
+		Transform2D transform = new Transform2D();
+		transform.scale(0, 3);
+		transform.translate(5, 5);
+		assertEquals(0, transform.getDeterminant(), 0);
+
+		Transform2D result = sprite();
+		assertFalse(transform.invert(result));
+		assertTransform(sprite(), result);
+
+		Transform2D copy = new Transform2D(transform);
+		assertFalse(transform.invert());
+		assertTransform(copy, transform);
+	}
+
+	@Test
+	public void vectorsIgnoreTheTranslation() {
+		Transform2D transform = new Transform2D();
+		transform.translate(100, 100);
+		transform.scale(2, 3);
+		Vector2f vector = new Vector2f(1, 1);
+		transform.transformVector(vector);
+		assertPoint(2, 3, vector);
+	}
+
+	@Test
+	public void batchTransformsMatchSinglePoints() {
+		Transform2D transform = sprite();
+		float[] points = { 99, 1, 2, 3, 4, -5, 6 };
+		float[] copy = points.clone();
+		transform.transformPoints(points, 1, points, 1, 3);
+		assertEquals(99, points[0], 0);
+
+		Vector2fBuffer buffer = new Vector2fBuffer(3);
+		for (int i = 0; i < 3; i++) {
+			buffer.add(copy[1 + i * 2], copy[2 + i * 2]);
+		}
+		transform.transformPoints(buffer, 0, 3);
+
+		for (int i = 0; i < 3; i++) {
+			Vector2f point = new Vector2f(copy[1 + i * 2], copy[2 + i * 2]);
+			transform.transform(point);
+			assertPoint(point.getX(), point.getY(), new Vector2f(points[1 + i * 2],
+					points[2 + i * 2]));
+			assertPoint(point.getX(), point.getY(), new Vector2f(buffer.getX(i),
+					buffer.getY(i)));
+		}
+	}
+
+	@Test
+	public void androidMatrixRoundTrip() {
+		Transform2D transform = sprite();
+		Matrix matrix = new Matrix();
+		transform.toMatrix(matrix);
+
+		float[] values = new float[9];
+		matrix.getValues(values);
+		assertEquals(transform.getTranslateX(), values[Matrix.MTRANS_X], 0);
+		assertEquals(transform.getC(), values[Matrix.MSKEW_X], 0);
+
+		Transform2D copy = new Transform2D();
+		copy.setMatrix(matrix);
+		assertTransform(transform, copy);
+	}
+}
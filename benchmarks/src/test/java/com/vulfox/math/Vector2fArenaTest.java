@@ -0,0 +1,104 @@
+package com.vulfox.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class Vector2fArenaTest {
+
+	@Test
+	public void resetToAMarkReleasesTheNestedScope() {
+		Vector2fArena arena = new Vector2fArena(4);
+		Vector2f outer = arena.get(1, 2);
+		int mark = arena.mark();
+		Vector2f inner = arena.get(3, 4);
+		arena.get();
+		assertEquals(3, arena.getUsedCount());
+
+		arena.reset(mark);
+		assertEquals(1, arena.getUsedCount());
+		assertSame(inner, arena.get(5, 6));
+		assertEquals(1, outer.getX(), 0);
+		assertEquals(5, inner.getX(), 0);
+		assertEquals(3, arena.getHighWaterMark());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void markAboveTheTopIsRejected() {
+		Vector2fArena arena = new Vector2fArena(4);
+		arena.reset(1);
+	}
+
+	@Test
+	public void arenaGrowsWhenFull() {
+		Vector2fArena arena = new Vector2fArena(2);
+		for (int i = 0; i < 5; i++) {
+			arena.get(i, i);
+		}
+		assertEquals(8, arena.getCapacity());
+		assertEquals(5, arena.getUsedCount());
+	}
+
+	@Test
+	public void debugModePoisonsReleasedVectors() {
+		Vector2fArena arena = new Vector2fArena(4);
+		arena.setDebugEnabled(true);
+		Vector2f vector = arena.get(1, 2);
+		arena.reset();
+		assertTrue(Float.isNaN(vector.getX()));
+		assertTrue(Float.isNaN(vector.getY()));
+	}
+
+	@Test
+	public void writeToAnEscapedVectorIsDetectedOnReuse() {
+		Vector2fArena arena = new Vector2fArena(4);
+		arena.setDebugEnabled(true);
+		Vector2f escaped = arena.get();
+		arena.reset();
+		escaped.set(1, 1);
+		try {
+			arena.get();
+			fail("Escaped write not detected");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	@Test
+	public void writeToAnEscapedVectorIsDetectedOnReset() {
+		Vector2fArena arena = new Vector2fArena(4);
+		arena.setDebugEnabled(true);
+		arena.get();
+		Vector2f escaped = arena.get();
+		arena.reset();
+
+		// Only the first slot is handed out again, the escaped one is not
+		arena.get();
+		escaped.set(1, 1);
+		try {
+			arena.reset();
+			fail("Escaped write not detected");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	@Test
+	public void frameArenasAreConfinedToTheirThread()
+			throws InterruptedException {
+		final Vector2fArena[] other = new Vector2fArena[1];
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				other[0] = Vector2fArena.getFrameArena();
+			}
+		};
+		thread.start();
+		thread.join();
+
+		assertSame(Vector2fArena.getFrameArena(), Vector2fArena.getFrameArena());
+		assertNotSame(Vector2fArena.getFrameArena(), other[0]);
+	}
+}
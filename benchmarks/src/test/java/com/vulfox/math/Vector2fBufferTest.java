@@ -0,0 +1,175 @@
+package com.vulfox.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class Vector2fBufferTest {
+
+	private static final float EPSILON = 1e-6f;
+
+	@Test
+	public void addReturnsTheIndexUntilFull() {
+		Vector2fBuffer buffer = new Vector2fBuffer(2);
+		assertEquals(0, buffer.add(1, 2));
+		assertEquals(1, buffer.add(3, 4));
+		assertEquals(-1, buffer.add(5, 6));
+		assertEquals(2, buffer.size());
+		assertEquals(3, buffer.getX(1), 0);
+		assertEquals(4, buffer.getY(1), 0);
+	}
+
+	@Test
+	public void removeSwapMovesTheLastVectorIntoTheGap() {
+		Vector2fBuffer buffer = new Vector2fBuffer(4);
+		buffer.add(0, 0);
+		buffer.add(1, 10);
+		buffer.add(2, 20);
+		buffer.add(3, 30);
+
+		buffer.removeSwap(1);
+		assertEquals(3, buffer.size());
+		assertEquals(0, buffer.getX(0), 0);
+		assertEquals(3, buffer.getX(1), 0);
+		assertEquals(30, buffer.getY(1), 0);
+		assertEquals(2, buffer.getX(2), 0);
+
+		// Removing the last vector just shrinks the buffer
+		buffer.removeSwap(2);
+		assertEquals(2, buffer.size());
+		assertEquals(0, buffer.getX(0), 0);
+		assertEquals(3, buffer.getX(1), 0);
+
+		// The freed slot is reused
+		assertEquals(2, buffer.add(7, 70));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void sizeCannotExceedTheCapacity() {
+		new Vector2fBuffer(4).setSize(5);
+	}
+
+	@Test
+	public void cursorReadsAndWritesTheBuffer() {
+		Vector2fBuffer buffer = new Vector2fBuffer(4);
+		buffer.add(3, 4);
+		buffer.add(1, 1);
+		Vector2fBuffer.Cursor cursor = buffer.cursor();
+
+		assertEquals(0, cursor.getIndex());
+		assertEquals(5, cursor.getLength(), EPSILON);
+		assertEquals(25, cursor.getLengthSquared(), EPSILON);
+
+		assertSame(cursor, cursor.moveTo(1));
+		cursor.add(1, 2);
+		cursor.mul(2);
+		assertEquals(4, buffer.getX(1), 0);
+		assertEquals(6, buffer.getY(1), 0);
+
+		cursor.setX(-1);
+		cursor.setY(-2);
+		assertEquals(-1, buffer.getX(1), 0);
+		assertEquals(-2, buffer.getY(1), 0);
+
+		// Writes through the arrays are seen by the cursor
+		buffer.getXArray()[1] = 8;
+		Vector2f result = new Vector2f();
+		cursor.get(result);
+		assertEquals(8, result.getX(), 0);
+		assertEquals(-2, result.getY(), 0);
+
+		// The first vector is untouched
+		assertEquals(3, buffer.getX(0), 0);
+		assertEquals(4, buffer.getY(0), 0);
+	}
+
+	@Test
+	public void cursorFollowsRemoveSwap() {
+		Vector2fBuffer buffer = new Vector2fBuffer(4);
+		buffer.add(1, 1);
+		buffer.add(2, 2);
+		buffer.add(3, 3);
+		Vector2fBuffer.Cursor cursor = buffer.cursor().moveTo(0);
+
+		// The cursor points at an index, so it sees the swapped in vector
+		buffer.removeSwap(0);
+		assertEquals(3, cursor.getX(), 0);
+	}
+
+	@Test
+	public void bulkOperationsOnlyTouchTheRange() {
+		Vector2fBuffer buffer = new Vector2fBuffer(4);
+		buffer.setSize(4);
+		buffer.fill(0, 4, 1, 1);
+		buffer.add(1, 3, 2, 3);
+		buffer.mul(2, 4, 10);
+
+		assertEquals(1, buffer.getX(0), 0);
+		assertEquals(3, buffer.getX(1), 0);
+		assertEquals(4, buffer.getY(1), 0);
+		assertEquals(30, buffer.getX(2), 0);
+		assertEquals(40, buffer.getY(2), 0);
+		assertEquals(10, buffer.getX(3), 0);
+	}
+
+	@Test
+	public void addScaledAndLerpUseTheSameIndices() {
+		Vector2fBuffer positions = new Vector2fBuffer(2);
+		Vector2fBuffer velocities = new Vector2fBuffer(2);
+		positions.add(0, 0);
+		positions.add(10, 10);
+		velocities.add(1, 2);
+		velocities.add(-1, -2);
+
+		positions.addScaled(0, 2, velocities, 0.5f);
+		assertEquals(0.5f, positions.getX(0), EPSILON);
+		assertEquals(1, positions.getY(0), EPSILON);
+		assertEquals(9.5f, positions.getX(1), EPSILON);
+		assertEquals(9, positions.getY(1), EPSILON);
+
+		positions.lerp(0, 2, velocities, 1);
+		assertEquals(1, positions.getX(0), EPSILON);
+		assertEquals(-2, positions.getY(1), EPSILON);
+	}
+
+	@Test
+	public void normalizeLeavesZeroVectors() {
+		Vector2fBuffer buffer = new Vector2fBuffer(2);
+		buffer.add(3, 4);
+		buffer.add(0, 0);
+		buffer.normalize(0, 2);
+
+		assertEquals(0.6f, buffer.getX(0), EPSILON);
+		assertEquals(0.8f, buffer.getY(0), EPSILON);
+		assertEquals(0, buffer.getX(1), 0);
+		assertEquals(0, buffer.getY(1), 0);
+	}
+
+	@Test
+	public void clampLengthOnlyShortensLongVectors() {
+		Vector2fBuffer buffer = new Vector2fBuffer(2);
+		buffer.add(30, 40);
+		buffer.add(3, 4);
+		buffer.clampLength(0, 2, 10);
+
+		float[] lengths = new float[2];
+		buffer.getLengthSquared(0, 2, lengths);
+		assertEquals(100, lengths[0], 1e-3f);
+		assertEquals(6, buffer.getX(0), 1e-5f);
+		assertEquals(25, lengths[1], EPSILON);
+	}
+
+	@Test
+	public void clampKeepsVectorsInsideTheRectangle() {
+		Vector2fBuffer buffer = new Vector2fBuffer(2);
+		buffer.add(-5, 50);
+		buffer.add(5, 5);
+		buffer.clamp(0, 2, 0, 0, 10, 10);
+
+		assertEquals(0, buffer.getX(0), 0);
+		assertEquals(10, buffer.getY(0), 0);
+		assertEquals(5, buffer.getX(1), 0);
+		assertEquals(5, buffer.getY(1), 0);
+	}
+}
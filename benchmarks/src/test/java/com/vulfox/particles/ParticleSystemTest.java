@@ -0,0 +1,64 @@
+package com.vulfox.particles;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+public class ParticleSystemTest {
+
+	/**
+	 * Canvas recording the point count and stroke width of every drawPoints
+	 * call
+	 */
+	private static class PointCanvas extends Canvas {
+
+		List<float[]> mCalls = new ArrayList<float[]>();
+
+		@Override
+		public void drawPoints(float[] points, int offset, int count,
+				Paint paint) {
+			mCalls.add(new float[] { count / 2, paint.getStrokeWidth() });
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emitRejectsUnknownStyle() {
+		ParticleSystem system = new ParticleSystem(8, 1);
+		system.emit(0, 0, 0, 0, 1, 1, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emitRejectsNegativeStyle() {
+		ParticleSystem system = new ParticleSystem(8, 1);
+		system.emit(0, 0, 0, 0, 1, 1, -1);
+	}
+
+	@Test
+	public void drawBatchesPointsByParticleSize() {
+		ParticleSystem system = new ParticleSystem(8, 1);
+		int style = system.addStyle(0xffffffff, 3.0f, false);
+		system.emit(0, 0, 0, 0, 1, 1, style);
+		system.emit(0, 0, 0, 0, 1, 2, style);
+		system.emit(0, 0, 0, 0, 1, 1, style);
+		system.emit(0, 0, 0, 0, 1, 100, style);
+
+		PointCanvas canvas = new PointCanvas();
+		system.draw(canvas);
+
+		assertEquals(3, canvas.mCalls.size());
+		assertCall(canvas.mCalls.get(0), 2, 3);
+		assertCall(canvas.mCalls.get(1), 1, 6);
+		assertCall(canvas.mCalls.get(2), 1, ParticleSystem.MAX_POINT_WIDTH);
+	}
+
+	private static void assertCall(float[] call, int points, float width) {
+		assertEquals(points, call[0], 0);
+		assertEquals(width, call[1], 0);
+	}
+}
@@ -0,0 +1,245 @@
+package com.vulfox.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+import android.graphics.Rect;
+
+public class AtlasBuilderTest {
+
+	/**
+	 * Resources encoding bitmap sizes the stub decoder understands, counting
+	 * how often they are opened
+	 */
+	private static class TestResources extends Resources {
+
+		final HashMap<Integer, int[]> mSizes = new HashMap<Integer, int[]>();
+
+		int mOpenCount;
+
+		void put(int id, int width, int height) {
+			mSizes.put(id, new int[] { width, height });
+		}
+
+		@Override
+		public InputStream openRawResource(int id) {
+			mOpenCount++;
+			int[] size = mSizes.get(id);
+			if (size == null) {
+				throw new NotFoundException("Resource ID #" + id);
+			}
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(bytes);
+			try {
+				data.writeInt(size[0]);
+				data.writeInt(size[1]);
+			} catch (IOException e) {
+				throw new AssertionError(e);
+			}
+			return new ByteArrayInputStream(bytes.toByteArray());
+		}
+	}
+
+	@Rule
+	public TemporaryFolder mCacheDir = new TemporaryFolder();
+
+	private TestResources mResources;
+
+	private int mVersionCode;
+
+	private Context mContext;
+
+	@Before
+	public void setUp() {
+		mResources = new TestResources();
+		mResources.put(10, 60, 40);
+		mResources.put(11, 30, 30);
+		mResources.put(12, 50, 20);
+		mResources.put(13, 90, 90);
+		mResources.put(14, 8, 8);
+		mVersionCode = 1;
+
+		final PackageManager packageManager = new PackageManager() {
+			@Override
+			public PackageInfo getPackageInfo(String packageName, int flags) {
+				PackageInfo info = new PackageInfo();
+				info.versionCode = mVersionCode;
+				return info;
+			}
+		};
+		mContext = new Context() {
+			@Override
+			public Resources getResources() {
+				return mResources;
+			}
+
+			@Override
+			public File getCacheDir() {
+				return mCacheDir.getRoot();
+			}
+
+			@Override
+			public String getPackageName() {
+				return "com.vulfox.test";
+			}
+
+			@Override
+			public PackageManager getPackageManager() {
+				return packageManager;
+			}
+		};
+	}
+
+	private TextureAtlas build() {
+		return new AtlasBuilder(mContext, 128, 128).add(13).add(11).add(10)
+				.add(14).add(12).add(11).build();
+	}
+
+	private static void assertSameLayout(TextureAtlas expected,
+			TextureAtlas actual) {
+		assertEquals(expected.getPageCount(), actual.getPageCount());
+		assertEquals(expected.getSpriteCount(), actual.getSpriteCount());
+		for (int i = 0; i < expected.getSpriteCount(); i++) {
+			Sprite a = expected.getSpriteAt(i);
+			Sprite b = actual.getSpriteAt(i);
+			assertEquals(a.getResourceID(), b.getResourceID());
+			assertEquals(a.getPage(), b.getPage());
+			assertEquals(a.getSource().left, b.getSource().left);
+			assertEquals(a.getSource().top, b.getSource().top);
+			assertEquals(a.getSource().right, b.getSource().right);
+			assertEquals(a.getSource().bottom, b.getSource().bottom);
+		}
+		for (int page = 0; page < expected.getPageCount(); page++) {
+			assertEquals(expected.getPage(page).getHeight(), actual.getPage(page)
+					.getHeight());
+		}
+	}
+
+	@Test
+	public void spritesArePackedWithPaddingAndSortedById() {
+		TextureAtlas atlas = build();
+
+		// Resource 11 was added twice but is packed once
+		assertEquals(5, atlas.getSpriteCount());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(10 + i, atlas.getSpriteAt(i).getResourceID());
+		}
+		assertNull(atlas.getSprite(15));
+		assertEquals(60, atlas.getSprite(10).getWidth());
+		assertEquals(40, atlas.getSprite(10).getHeight());
+
+		// 90x90 fills most of a 128x128 page, the rest does not all fit
+		// beside it
+		assertEquals(2, atlas.getPageCount());
+
+		for (int i = 0; i < 5; i++) {
+			Sprite a = atlas.getSpriteAt(i);
+			Rect source = a.getSource();
+			assertTrue(source.left >= 1 && source.top >= 1);
+			assertTrue(source.right <= 127);
+			assertTrue(source.bottom <= atlas.getPage(a.getPage()).getHeight() - 1);
+
+			for (int j = i + 1; j < 5; j++) {
+				Sprite b = atlas.getSpriteAt(j);
+				if (a.getPage() != b.getPage()) {
+					continue;
+				}
+				// Padded rectangles may touch but not overlap
+				Rect other = b.getSource();
+				boolean overlap = source.left - 1 < other.right + 1
+						&& other.left - 1 < source.right + 1
+						&& source.top - 1 < other.bottom + 1
+						&& other.top - 1 < source.bottom + 1;
+				assertFalse(overlap);
+			}
+		}
+	}
+
+	@Test
+	public void cachedAtlasIsReadBackWithTheSameLayout() {
+		TextureAtlas built = build();
+		int openCount = mResources.mOpenCount;
+		assertTrue(new File(mCacheDir.getRoot(), mCacheDir.getRoot().list()[0])
+				.exists());
+
+		TextureAtlas cached = build();
+
+		// Nothing is decoded from the resources the second time
+		assertEquals(openCount, mResources.mOpenCount);
+		assertSameLayout(built, cached);
+		assertEquals(cached.getPage(cached.getSprite(13).getPage()),
+				cached.getSprite(13).getBitmap());
+	}
+
+	@Test
+	public void newVersionRebuildsTheAtlas() {
+		build();
+		int openCount = mResources.mOpenCount;
+
+		mVersionCode = 2;
+		build();
+		assertTrue(mResources.mOpenCount > openCount);
+	}
+
+	@Test
+	public void corruptIndexRebuildsTheAtlas() throws IOException {
+		TextureAtlas built = build();
+		int openCount = mResources.mOpenCount;
+
+		for (File file : mCacheDir.getRoot().listFiles()) {
+			if (file.getName().endsWith(".idx")) {
+				FileOutputStream out = new FileOutputStream(file);
+				out.write(new byte[] { 0x56, 0x46 });
+				out.close();
+			}
+		}
+
+		TextureAtlas rebuilt = build();
+		assertTrue(mResources.mOpenCount > openCount);
+		assertSameLayout(built, rebuilt);
+	}
+
+	@Test
+	public void diskCacheCanBeDisabled() {
+		TextureAtlas atlas = new AtlasBuilder(mContext, 128, 128).add(10)
+				.setDiskCacheEnabled(false).build();
+		assertNotNull(atlas.getSprite(10));
+		assertEquals(0, mCacheDir.getRoot().list().length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingResourceIsRejected() {
+		new AtlasBuilder(mContext, 128, 128).add(10).add(99)
+				.setDiskCacheEnabled(false).build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void imageLargerThanAPageIsRejected() {
+		mResources.put(20, 128, 10);
+		// With the padding the image is 130 pixels wide
+		new AtlasBuilder(mContext, 128, 128).add(20)
+				.setDiskCacheEnabled(false).build();
+	}
+}
@@ -0,0 +1,132 @@
+package com.vulfox.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.vulfox.math.Vector2f;
+
+public class CameraTest {
+
+	private static final float EPSILON = 1e-3f;
+
+	private static Vector2f screenToWorld(Camera camera, float x, float y) {
+		Vector2f point = new Vector2f(x, y);
+		camera.screenToWorld(point);
+		return point;
+	}
+
+	private static void assertPoint(float x, float y, Vector2f point) {
+		assertEquals(x, point.getX(), EPSILON);
+		assertEquals(y, point.getY(), EPSILON);
+	}
+
+	private static void assertVisible(Camera camera, float left, float top,
+			float right, float bottom) {
+		assertEquals(left, camera.getVisibleLeft(), EPSILON);
+		assertEquals(top, camera.getVisibleTop(), EPSILON);
+		assertEquals(right, camera.getVisibleRight(), EPSILON);
+		assertEquals(bottom, camera.getVisibleBottom(), EPSILON);
+	}
+
+	@Test
+	public void defaultCameraMapsVirtualPixelsOneToOne() {
+		Camera camera = new Camera(480, 320, Camera.SCALE_FIT);
+		assertPoint(100, 50, screenToWorld(camera, 100, 50));
+		assertVisible(camera, 0, 0, 480, 320);
+	}
+
+	@Test
+	public void fitLeavesBarsAndShowsTheWholeArea() {
+		Camera camera = new Camera(480, 320, Camera.SCALE_FIT);
+		camera.setSurfaceSize(960, 800);
+
+		// Scaled by 2, with 80 pixel bars above and below
+		assertPoint(0, 0, screenToWorld(camera, 0, 80));
+		assertPoint(480, 320, screenToWorld(camera, 960, 720));
+		assertVisible(camera, 0, 0, 480, 320);
+	}
+
+	@Test
+	public void fillCutsOffTheSides() {
+		Camera camera = new Camera(480, 320, Camera.SCALE_FILL);
+		camera.setSurfaceSize(960, 800);
+
+		// Scaled by 2.5, 384 of the 480 units fit across
+		assertPoint(48, 0, screenToWorld(camera, 0, 0));
+		assertVisible(camera, 48, 0, 432, 320);
+	}
+
+	@Test
+	public void stretchScalesEachAxis() {
+		Camera camera = new Camera(480, 320, Camera.SCALE_STRETCH);
+		camera.setSurfaceSize(960, 960);
+		assertPoint(480, 320, screenToWorld(camera, 960, 960));
+		assertPoint(240, 160, screenToWorld(camera, 480, 480));
+	}
+
+	@Test
+	public void zoomAndPanMoveTheVisibleArea() {
+		Camera camera = new Camera(480, 320, Camera.SCALE_FIT);
+		camera.setZoom(2);
+		assertVisible(camera, 120, 80, 360, 240);
+
+		camera.setPosition(0, 0);
+		assertVisible(camera, -120, -80, 120, 80);
+		assertPoint(0, 0, screenToWorld(camera, 240, 160));
+
+		camera.pan(10, 20);
+		assertPoint(10, 20, screenToWorld(camera, 240, 160));
+	}
+
+	@Test
+	public void rotationTurnsTheWorldCounterclockwise() {
+		Camera camera = new Camera(480, 320, Camera.SCALE_FIT);
+		camera.setRotation((float) (Math.PI / 2));
+
+		// A point right of the center ends up above it on screen
+		Vector2f point = new Vector2f(250, 160);
+		camera.worldToScreen(point);
+		assertPoint(240, 150, point);
+
+		// The visible bounds enclose the rotated viewport
+		assertVisible(camera, 80, -80, 400, 400);
+	}
+
+	@Test
+	public void screenToWorldInvertsWorldToScreen() {
+		Camera camera = new Camera(480, 320, Camera.SCALE_FILL);
+		camera.setSurfaceSize(1280, 720);
+		camera.setPosition(100, -40);
+		camera.setZoom(1.7f);
+		camera.setRotation(0.4f);
+
+		Vector2f point = new Vector2f(123, 45);
+		camera.worldToScreen(point);
+		camera.screenToWorld(point);
+		assertPoint(123, 45, point);
+	}
+
+	@Test
+	public void visibilityTestsUseTheVisibleBounds() {
+		Camera camera = new Camera(480, 320, Camera.SCALE_FIT);
+		assertTrue(camera.isVisible(100, 100, 120, 120));
+		assertTrue(camera.isVisible(-10, -10, 0, 0));
+		assertFalse(camera.isVisible(-10, -10, -1, -1));
+		assertFalse(camera.isVisible(481, 0, 500, 10));
+
+		assertTrue(camera.isVisible(-5, 100, 6));
+		assertFalse(camera.isVisible(-5, 100, 4));
+
+		// A wider surface only adds bars when fitting
+		camera.setSurfaceSize(960, 320);
+		assertFalse(camera.isVisible(-100, 100, -90, 110));
+
+		// Zooming out shows more of the world in the same viewport
+		camera.setZoom(0.5f);
+		assertVisible(camera, -240, -160, 720, 480);
+		assertTrue(camera.isVisible(-100, 100, -90, 110));
+	}
+}
@@ -0,0 +1,96 @@
+package com.vulfox.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DirtyRegionTest {
+
+	private static void assertBounds(DirtyRegion region, int left, int top,
+			int right, int bottom) {
+		assertFalse(region.isEmpty());
+		assertEquals(left, region.getLeft());
+		assertEquals(top, region.getTop());
+		assertEquals(right, region.getRight());
+		assertEquals(bottom, region.getBottom());
+	}
+
+	@Test
+	public void newRegionIsEmpty() {
+		assertTrue(new DirtyRegion().isEmpty());
+	}
+
+	@Test
+	public void firstAreaSetsTheBounds() {
+		DirtyRegion region = new DirtyRegion();
+		region.union(10, 20, 30, 40);
+		assertBounds(region, 10, 20, 30, 40);
+	}
+
+	@Test
+	public void unionIsTheBoundingRectangle() {
+		DirtyRegion region = new DirtyRegion();
+		region.union(10, 20, 30, 40);
+		region.union(50, 5, 60, 25);
+		assertBounds(region, 10, 5, 60, 40);
+
+		// An area inside the bounds changes nothing
+		region.union(15, 25, 20, 30);
+		assertBounds(region, 10, 5, 60, 40);
+	}
+
+	@Test
+	public void emptyAreasAreIgnored() {
+		DirtyRegion region = new DirtyRegion();
+		region.union(10, 10, 10, 20);
+		region.union(10, 10, 20, 10);
+		region.union(30, 30, 20, 20);
+		assertTrue(region.isEmpty());
+
+		region.union(0, 0, 5, 5);
+		region.union(100, 100, 100, 100);
+		assertBounds(region, 0, 0, 5, 5);
+	}
+
+	@Test
+	public void unionWithAnotherRegion() {
+		DirtyRegion region = new DirtyRegion();
+		DirtyRegion other = new DirtyRegion();
+		region.union(other);
+		assertTrue(region.isEmpty());
+
+		other.union(-5, 10, 15, 20);
+		region.union(0, 0, 10, 10);
+		region.union(other);
+		assertBounds(region, -5, 0, 15, 20);
+	}
+
+	@Test
+	public void clearStartsANewRegion() {
+		DirtyRegion region = new DirtyRegion();
+		region.union(0, 0, 100, 100);
+		region.clear();
+		assertTrue(region.isEmpty());
+
+		region.union(40, 40, 50, 50);
+		assertBounds(region, 40, 40, 50, 50);
+	}
+
+	@Test
+	public void clipLimitsTheRegionToTheSurface() {
+		DirtyRegion region = new DirtyRegion();
+		region.union(-10, -20, 700, 500);
+		region.clip(640, 480);
+		assertBounds(region, 0, 0, 640, 480);
+	}
+
+	@Test
+	public void regionOutsideTheSurfaceClipsToEmpty() {
+		DirtyRegion region = new DirtyRegion();
+		region.union(650, 10, 700, 20);
+		region.clip(640, 480);
+		assertTrue(region.isEmpty());
+	}
+}
@@ -0,0 +1,51 @@
+package com.vulfox.render;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class RenderCommandBufferTest {
+
+	@Test
+	public void sortsNegativeLayersBeforePositiveLayers() {
+		RenderCommandBuffer buffer = new RenderCommandBuffer(8);
+		buffer.drawRect(0, 0, 0, 0, 0, RenderCommandBuffer.NO_PAINT);
+		buffer.drawRect(-1, -1, 0, 0, 0, RenderCommandBuffer.NO_PAINT);
+		buffer.drawRect(5, 5, 0, 0, 0, RenderCommandBuffer.NO_PAINT);
+		buffer.drawRect(RenderCommandBuffer.MIN_LAYER,
+				RenderCommandBuffer.MIN_LAYER, 0, 0, 0,
+				RenderCommandBuffer.NO_PAINT);
+		buffer.drawRect(RenderCommandBuffer.MAX_LAYER,
+				RenderCommandBuffer.MAX_LAYER, 0, 0, 0,
+				RenderCommandBuffer.NO_PAINT);
+
+		RecordingRenderBackend backend = new RecordingRenderBackend(8);
+		buffer.flush(backend);
+
+		// The left edge of every rectangle holds its layer
+		float[] expected = { RenderCommandBuffer.MIN_LAYER, -1, 0, 5,
+				RenderCommandBuffer.MAX_LAYER };
+		assertEquals(expected.length, backend.getCount());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], backend.getDstLeft(i), 0);
+		}
+	}
+
+	@Test
+	public void sortsByBitmapWithinLayerAndKeepsOrderOfEqualState() {
+		RenderCommandBuffer buffer = new RenderCommandBuffer(8);
+		buffer.drawBitmap(-2, 7, 0, 0, 1, 1, 0, 0, 1, 1, 3);
+		buffer.drawBitmap(-2, 4, 0, 0, 1, 1, 1, 0, 1, 1, 3);
+		buffer.drawBitmap(-2, 7, 0, 0, 1, 1, 2, 0, 1, 1, 3);
+		buffer.drawBitmap(-3, 9, 0, 0, 1, 1, 3, 0, 1, 1, 3);
+
+		RecordingRenderBackend backend = new RecordingRenderBackend(8);
+		buffer.flush(backend);
+
+		float[] expected = { 3, 1, 0, 2 };
+		assertEquals(expected.length, backend.getCount());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], backend.getDstLeft(i), 0);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.vulfox.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SkylinePackerTest {
+
+	private static void assertPacked(SkylinePacker packer, int width,
+			int height, int x, int y) {
+		assertTrue(packer.pack(width, height));
+		assertEquals(x, packer.getPackedX());
+		assertEquals(y, packer.getPackedY());
+	}
+
+	@Test
+	public void rectanglesArePlacedWhereTheirTopIsLowest() {
+		SkylinePacker packer = new SkylinePacker(100, 100);
+		assertPacked(packer, 40, 30, 0, 0);
+		assertPacked(packer, 40, 20, 40, 0);
+		// Only 20 pixels left on the floor, so it goes on the lower of the
+		// two rectangles
+		assertPacked(packer, 30, 10, 40, 20);
+		assertPacked(packer, 20, 50, 80, 0);
+		assertEquals(50, packer.getUsedHeight());
+	}
+
+	@Test
+	public void rectangleSpanningSegmentsRestsOnTheHighest() {
+		SkylinePacker packer = new SkylinePacker(100, 100);
+		assertPacked(packer, 50, 10, 0, 0);
+		assertPacked(packer, 50, 30, 50, 0);
+		assertPacked(packer, 100, 5, 0, 30);
+		assertEquals(35, packer.getUsedHeight());
+	}
+
+	@Test
+	public void tooLargeRectanglesDoNotFit() {
+		SkylinePacker packer = new SkylinePacker(100, 100);
+		assertFalse(packer.pack(101, 1));
+		assertFalse(packer.pack(1, 101));
+
+		assertPacked(packer, 100, 100, 0, 0);
+		assertFalse(packer.pack(1, 1));
+	}
+
+	@Test
+	public void resetEmptiesTheArea() {
+		SkylinePacker packer = new SkylinePacker(64, 64);
+		assertPacked(packer, 64, 64, 0, 0);
+		packer.reset();
+		assertEquals(0, packer.getUsedHeight());
+		assertPacked(packer, 64, 64, 0, 0);
+	}
+
+	@Test
+	public void packedRectanglesNeverOverlap() {
+		Random random = new Random(42);
+		for (int round = 0; round < 20; round++) {
+			SkylinePacker packer = new SkylinePacker(128, 128);
+			int[] lefts = new int[500];
+			int[] tops = new int[500];
+			int[] rights = new int[500];
+			int[] bottoms = new int[500];
+			int count = 0;
+			int usedHeight = 0;
+
+			for (int i = 0; i < 500; i++) {
+				int width = 1 + random.nextInt(24);
+				int height = 1 + random.nextInt(24);
+				if (packer.pack(width, height)) {
+					lefts[count] = packer.getPackedX();
+					tops[count] = packer.getPackedY();
+					rights[count] = lefts[count] + width;
+					bottoms[count] = tops[count] + height;
+					usedHeight = Math.max(usedHeight, bottoms[count]);
+					count++;
+				}
+			}
+
+			assertTrue(count > 20);
+			assertEquals(usedHeight, packer.getUsedHeight());
+			for (int i = 0; i < count; i++) {
+				assertTrue(lefts[i] >= 0 && tops[i] >= 0);
+				assertTrue(rights[i] <= 128 && bottoms[i] <= 128);
+				for (int j = i + 1; j < count; j++) {
+					boolean overlap = lefts[i] < rights[j]
+							&& lefts[j] < rights[i] && tops[i] < bottoms[j]
+							&& tops[j] < bottoms[i];
+					assertFalse("Rectangles " + i + " and " + j + " overlap",
+							overlap);
+				}
+			}
+		}
+	}
+}
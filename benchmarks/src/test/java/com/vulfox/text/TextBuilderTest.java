@@ -0,0 +1,110 @@
+package com.vulfox.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class TextBuilderTest {
+
+	private static String format(long value) {
+		return new TextBuilder(4).append(value).toString();
+	}
+
+	private static String format(float value, int decimals) {
+		return new TextBuilder(4).append(value, decimals).toString();
+	}
+
+	@Test
+	public void integers() {
+		assertEquals("0", format(0));
+		assertEquals("7", format(7));
+		assertEquals("-42", format(-42));
+		assertEquals("1234567890", format(1234567890));
+		assertEquals(Long.toString(Long.MAX_VALUE), format(Long.MAX_VALUE));
+		assertEquals(Long.toString(Long.MIN_VALUE), format(Long.MIN_VALUE));
+		assertEquals(Integer.toString(Integer.MIN_VALUE),
+				new TextBuilder(1).append(Integer.MIN_VALUE).toString());
+	}
+
+	@Test
+	public void paddedIntegers() {
+		TextBuilder text = new TextBuilder(8);
+		text.appendPadded(3, 2).append(':').appendPadded(7, 2).append(':')
+				.appendPadded(123, 2);
+		assertEquals("03:07:123", text.toString());
+
+		// The sign does not count as a digit
+		assertEquals("-007", new TextBuilder(1).appendPadded(-7, 3).toString());
+	}
+
+	@Test
+	public void floatsAreRoundedToTheDecimals() {
+		assertEquals("3.14", format(3.14159f, 2));
+		assertEquals("3", format(3.14159f, 0));
+		assertEquals("0.13", format(0.125f, 2));
+		assertEquals("-0.13", format(-0.125f, 2));
+		assertEquals("10.00", format(9.999f, 2));
+		assertEquals("0.050", format(0.05f, 3));
+		assertEquals("-12.5", format(-12.5f, 1));
+	}
+
+	@Test
+	public void negativeValuesRoundingToZeroHaveNoSign() {
+		assertEquals("0.00", format(-0.004f, 2));
+		assertEquals("0", format(-0.4f, 0));
+	}
+
+	@Test
+	public void decimalsAreClamped() {
+		assertEquals("2", format(2.25f, -3));
+		assertEquals("0.500000000", format(0.5f, 20));
+
+		// Nine decimals of 1e10 do not fit in a long, eight do
+		assertEquals("10000000000.00000000", format(1e10f, 9));
+	}
+
+	@Test
+	public void specialFloatValues() {
+		assertEquals("NaN", format(Float.NaN, 2));
+		assertEquals("Infinity", format(Float.POSITIVE_INFINITY, 2));
+		assertEquals("-Infinity", format(Float.NEGATIVE_INFINITY, 2));
+	}
+
+	@Test
+	public void clearReusesTheBuffer() {
+		TextBuilder text = new TextBuilder(16);
+		char[] chars = text.getChars();
+		for (int frame = 0; frame < 100; frame++) {
+			text.clear().append("FPS ").append(frame * 0.5f, 1);
+		}
+		assertEquals("FPS 49.5", text.toString());
+		assertSame(chars, text.getChars());
+	}
+
+	@Test
+	public void growingKeepsTheText() {
+		TextBuilder text = new TextBuilder(2);
+		text.append("Score: ").append(1000000).append(' ')
+				.append(new StringBuilder("x2"));
+		assertEquals("Score: 1000000 x2", text.toString());
+		assertEquals(17, text.length());
+		assertEquals('S', text.charAt(0));
+		assertEquals("1000000", text.subSequence(7, 14).toString());
+
+		text.setLength(5);
+		assertEquals("Score", text.toString());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void charAtPastTheLengthThrows() {
+		TextBuilder text = new TextBuilder(16);
+		text.append("abc");
+		text.charAt(3);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void setLengthCannotGrowTheText() {
+		new TextBuilder(16).append("abc").setLength(4);
+	}
+}
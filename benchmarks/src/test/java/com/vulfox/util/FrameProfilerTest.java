@@ -0,0 +1,130 @@
+package com.vulfox.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FrameProfilerTest {
+
+	private static final long MILLISECOND = 1000000L;
+
+	/**
+	 * Profiles one frame whose update and sleep phases take at least the
+	 * given times
+	 */
+	private static void frame(FrameProfiler profiler, long updateMillis,
+			long sleepMillis) throws InterruptedException {
+		profiler.beginFrame();
+		profiler.begin(FrameProfiler.PHASE_UPDATE);
+		if (updateMillis > 0) {
+			Thread.sleep(updateMillis);
+		}
+		profiler.end(FrameProfiler.PHASE_UPDATE);
+		profiler.begin(FrameProfiler.PHASE_SLEEP);
+		if (sleepMillis > 0) {
+			Thread.sleep(sleepMillis);
+		}
+		profiler.end(FrameProfiler.PHASE_SLEEP);
+		profiler.endFrame();
+	}
+
+	@Test
+	public void nothingIsMeasuredWhileDisabled() throws InterruptedException {
+		FrameProfiler profiler = new FrameProfiler(8);
+		frame(profiler, 0, 0);
+
+		assertEquals(0, profiler.getFrameCount());
+		assertEquals(0, profiler.getHistoryCount());
+		assertEquals(0, profiler.getP50(FrameProfiler.PHASE_FRAME));
+	}
+
+	@Test
+	public void percentilesComeFromTheHistogram() throws InterruptedException {
+		FrameProfiler profiler = new FrameProfiler(20);
+		profiler.setEnabled(true);
+		for (int i = 0; i < 19; i++) {
+			frame(profiler, 0, 0);
+		}
+		frame(profiler, 20, 0);
+
+		assertEquals(20, profiler.getHistoryCount());
+		// The single slow frame is above the 95th percentile only
+		assertTrue(profiler.getP50(FrameProfiler.PHASE_UPDATE) < 5 * MILLISECOND);
+		assertTrue(profiler.getP95(FrameProfiler.PHASE_UPDATE) < 5 * MILLISECOND);
+		assertTrue(profiler.getP99(FrameProfiler.PHASE_UPDATE) >= 20 * MILLISECOND);
+		assertTrue(profiler.getMax(FrameProfiler.PHASE_UPDATE) >= 20 * MILLISECOND);
+		// Percentiles are rounded up to whole 0.1 ms buckets
+		assertEquals(0, profiler.getP50(FrameProfiler.PHASE_UPDATE) % 100000L);
+	}
+
+	@Test
+	public void oldFramesLeaveTheHistory() throws InterruptedException {
+		FrameProfiler profiler = new FrameProfiler(4);
+		profiler.setEnabled(true);
+		frame(profiler, 20, 0);
+		assertTrue(profiler.getMax(FrameProfiler.PHASE_UPDATE) >= 20 * MILLISECOND);
+
+		for (int i = 0; i < 4; i++) {
+			frame(profiler, 0, 0);
+		}
+
+		assertEquals(4, profiler.getHistoryCount());
+		assertEquals(5, profiler.getFrameCount());
+		assertTrue(profiler.getMax(FrameProfiler.PHASE_UPDATE) < 5 * MILLISECOND);
+		assertTrue(profiler.getP99(FrameProfiler.PHASE_UPDATE) < 5 * MILLISECOND);
+		assertTrue(profiler.getAverage(FrameProfiler.PHASE_UPDATE) < 5 * MILLISECOND);
+	}
+
+	@Test
+	public void samplesAreReturnedNewestFirst() throws InterruptedException {
+		FrameProfiler profiler = new FrameProfiler(4);
+		profiler.setEnabled(true);
+		frame(profiler, 20, 0);
+		frame(profiler, 0, 0);
+
+		assertTrue(profiler.getSample(FrameProfiler.PHASE_UPDATE, 0) < 5 * MILLISECOND);
+		assertTrue(profiler.getSample(FrameProfiler.PHASE_UPDATE, 1) >= 20 * MILLISECOND);
+	}
+
+	@Test
+	public void framesOverBudgetAreCountedAsDropped()
+			throws InterruptedException {
+		FrameProfiler profiler = new FrameProfiler(8);
+		profiler.setEnabled(true);
+		profiler.setFrameBudget(10 * MILLISECOND);
+		frame(profiler, 0, 0);
+		frame(profiler, 20, 0);
+
+		assertEquals(2, profiler.getFrameCount());
+		assertEquals(1, profiler.getDroppedFrameCount());
+	}
+
+	@Test
+	public void sleepDoesNotCountAgainstTheBudget() throws InterruptedException {
+		FrameProfiler profiler = new FrameProfiler(8);
+		profiler.setEnabled(true);
+		profiler.setFrameBudget(10 * MILLISECOND);
+		frame(profiler, 0, 20);
+
+		assertTrue(profiler.getP50(FrameProfiler.PHASE_FRAME) >= 20 * MILLISECOND);
+		assertEquals(0, profiler.getDroppedFrameCount());
+	}
+
+	@Test
+	public void resetForgetsTheStatistics() throws InterruptedException {
+		FrameProfiler profiler = new FrameProfiler(8);
+		profiler.setEnabled(true);
+		profiler.setFrameBudget(10 * MILLISECOND);
+		frame(profiler, 20, 0);
+		profiler.reset();
+
+		assertEquals(0, profiler.getFrameCount());
+		assertEquals(0, profiler.getDroppedFrameCount());
+		assertEquals(0, profiler.getHistoryCount());
+		assertEquals(0, profiler.getMax(FrameProfiler.PHASE_UPDATE));
+
+		frame(profiler, 0, 0);
+		assertTrue(profiler.getP99(FrameProfiler.PHASE_UPDATE) < 5 * MILLISECOND);
+	}
+}
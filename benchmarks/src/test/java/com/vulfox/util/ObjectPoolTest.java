@@ -0,0 +1,248 @@
+package com.vulfox.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class ObjectPoolTest {
+
+	private static class CounterPool extends ObjectPool<int[]> {
+
+		CounterPool(int maxRetained) {
+			super(maxRetained);
+		}
+
+		@Override
+		protected int[] create() {
+			return new int[1];
+		}
+
+		@Override
+		protected void reset(int[] poolObject) {
+			poolObject[0] = 0;
+		}
+	}
+
+	private static class BoundedCounterPool extends BoundedObjectPool<int[]> {
+
+		BoundedCounterPool(int maxLive) {
+			super(maxLive);
+		}
+
+		@Override
+		protected int[] create() {
+			return new int[1];
+		}
+
+		@Override
+		protected void reset(int[] poolObject) {
+			poolObject[0] = 0;
+		}
+	}
+
+	private static class ConcurrentCounterPool extends ConcurrentObjectPool<int[]> {
+
+		ConcurrentCounterPool(int maxRetained) {
+			super(maxRetained);
+		}
+
+		@Override
+		protected int[] create() {
+			return new int[1];
+		}
+
+		@Override
+		protected void reset(int[] poolObject) {
+			poolObject[0] = 0;
+		}
+	}
+
+	/**
+	 * Pool overriding setDebugEnabled with a field of its own
+	 */
+	private static class TrackingPool extends CounterPool {
+
+		private final StringBuilder mLog = new StringBuilder();
+
+		TrackingPool() {
+			super(4);
+		}
+
+		@Override
+		public void setDebugEnabled(boolean enabled) {
+			mLog.append(enabled);
+			super.setDebugEnabled(enabled);
+		}
+	}
+
+	@Test
+	public void releasedObjectsAreResetAndReused() {
+		CounterPool pool = new CounterPool(4);
+		int[] object = pool.aquire();
+		object[0] = 7;
+		pool.release(object);
+
+		assertEquals(1, pool.getPooledCount());
+		assertSame(object, pool.aquire());
+		assertEquals(0, object[0]);
+		assertEquals(2, pool.getAcquireCount());
+		assertEquals(1, pool.getHitCount());
+		assertEquals(1, pool.getMissCount());
+		assertEquals(1, pool.getHighWaterMark());
+	}
+
+	@Test
+	public void releasesOverTheRetainLimitAreDiscarded() {
+		CounterPool pool = new CounterPool(2);
+		int[][] objects = new int[5][];
+		for (int i = 0; i < objects.length; i++) {
+			objects[i] = pool.aquire();
+		}
+		for (int i = 0; i < objects.length; i++) {
+			pool.release(objects[i]);
+		}
+
+		assertEquals(2, pool.getPooledCount());
+		assertEquals(3, pool.getDiscardCount());
+		assertEquals(5, pool.getHighWaterMark());
+		assertEquals(0, pool.getAcquiredCount());
+
+		pool.setMaxRetained(1);
+		assertEquals(1, pool.getPooledCount());
+	}
+
+	@Test
+	public void prewarmStopsAtTheRetainLimit() {
+		CounterPool pool = new CounterPool(3);
+		pool.prewarm(10);
+		assertEquals(3, pool.getPooledCount());
+		assertEquals(0, pool.getAcquireCount());
+	}
+
+	@Test
+	public void raisingTheLimitOfAnEmptyPoolKeepsReleasedObjects() {
+		CounterPool pool = new CounterPool(0);
+		int[] first = pool.aquire();
+		pool.release(first);
+		assertEquals(0, pool.getPooledCount());
+		assertEquals(1, pool.getDiscardCount());
+
+		pool.setMaxRetained(4);
+		int[] second = pool.aquire();
+		pool.release(second);
+		assertEquals(1, pool.getPooledCount());
+		assertSame(second, pool.aquire());
+	}
+
+	@Test
+	public void debugModeDetectsDoubleRelease() {
+		CounterPool pool = new CounterPool(4);
+		pool.setDebugEnabled(true);
+		int[] object = pool.aquire();
+		pool.release(object);
+		try {
+			pool.release(object);
+			fail("Double release not detected");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	@Test
+	public void debugModeDetectsForeignObjects() {
+		CounterPool pool = new CounterPool(4);
+		pool.setDebugEnabled(true);
+		try {
+			pool.release(new int[1]);
+			fail("Release of a foreign object not detected");
+		} catch (IllegalStateException e) {
+		}
+		assertEquals(0, pool.getPooledCount());
+	}
+
+	@Test
+	public void doubleReleaseIsAllowedWithoutDebugMode() {
+		CounterPool pool = new CounterPool(4);
+		pool.setDebugEnabled(false);
+		int[] object = pool.aquire();
+		pool.release(object);
+		pool.release(object);
+		assertEquals(2, pool.getPooledCount());
+	}
+
+	@Test
+	public void constructorDoesNotCallOverriddenSetDebugEnabled() {
+		AbstractPool.setDefaultDebugEnabled(true);
+		try {
+			TrackingPool pool = new TrackingPool();
+			assertTrue(pool.isDebugEnabled());
+			assertEquals("", pool.mLog.toString());
+		} finally {
+			AbstractPool.setDefaultDebugEnabled(false);
+		}
+	}
+
+	@Test
+	public void boundedPoolReturnsNullWhenExhausted() {
+		BoundedCounterPool pool = new BoundedCounterPool(2);
+		int[] first = pool.aquire();
+		int[] second = pool.aquire();
+		assertNotSame(first, second);
+		assertNull(pool.aquire());
+		assertEquals(1, pool.getExhaustedCount());
+
+		pool.release(first);
+		assertSame(first, pool.aquire());
+	}
+
+	@Test
+	public void concurrentPoolReusesAndDiscards() {
+		ConcurrentCounterPool pool = new ConcurrentCounterPool(1);
+		pool.setDebugEnabled(true);
+		int[] first = pool.aquire();
+		int[] second = pool.aquire();
+		pool.release(first);
+		pool.release(second);
+
+		assertEquals(1, pool.getPooledCount());
+		assertEquals(1, pool.getDiscardCount());
+		assertEquals(2, pool.getHighWaterMark());
+		assertSame(first, pool.aquire());
+		assertEquals(1, pool.getHitCount());
+		try {
+			pool.release(second);
+			fail("Double release not detected");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	@Test
+	public void concurrentPoolKeepsEveryReleasedObjectAcrossThreads()
+			throws InterruptedException {
+		final ConcurrentCounterPool pool = new ConcurrentCounterPool(64);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 10000; i++) {
+						pool.release(pool.aquire());
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (int t = 0; t < threads.length; t++) {
+			threads[t].join();
+		}
+
+		assertEquals(40000, pool.getAcquireCount());
+		assertEquals(pool.getPooledCount(), pool.getMissCount()
+				- pool.getDiscardCount());
+		assertTrue(pool.getHighWaterMark() <= threads.length);
+	}
+}
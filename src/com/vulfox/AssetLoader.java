@@ -0,0 +1,185 @@
+package com.vulfox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+/**
+ * Decodes the bitmaps of asset manifests on a fixed number of background
+ * threads and puts them in a {@link BitmapCache}. Bitmaps that are already
+ * cached are handed out right away, and manifests requesting a bitmap that
+ * is already being decoded share that decode.
+ */
+public class AssetLoader {
+
+	/**
+	 * Default number of decoder threads
+	 */
+	public static final int DEFAULT_THREAD_COUNT = 2;
+
+	/**
+	 * A bitmap being decoded and the manifests waiting for it
+	 */
+	private class DecodeTask implements Runnable {
+		long key;
+		int resourceID;
+		BitmapFactory.Options options;
+		ArrayList<AssetManifest> manifests = new ArrayList<AssetManifest>();
+		ArrayList<Integer> indices = new ArrayList<Integer>();
+
+		@Override
+		public void run() {
+			Bitmap bitmap = null;
+			try {
+				bitmap = ImageLoader.loadFromResource(mContext, resourceID,
+						options);
+			} catch (RuntimeException e) {
+				Log.e("AssetLoader", "Failed to decode resource " + resourceID, e);
+			} catch (OutOfMemoryError e) {
+				Log.e("AssetLoader", "Out of memory decoding resource " + resourceID, e);
+			}
+
+			// The bitmap is cached before the task is removed, under the same
+			// lock, so a load in between cannot start a second decode
+			int count;
+			synchronized (mPendingTasks) {
+				count = manifests.size();
+				if (bitmap != null) {
+					bitmap = mCache.put(key, bitmap, count);
+				}
+				mPendingTasks.remove(key);
+			}
+
+			for (int i = 0; i < count; i++) {
+				AssetManifest manifest = manifests.get(i);
+				if (!manifest.setLoaded(indices.get(i), bitmap) && bitmap != null) {
+					mCache.release(bitmap);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Application context
+	 */
+	private Context mContext;
+
+	/**
+	 * Cache the decoded bitmaps are put in
+	 */
+	private BitmapCache mCache;
+
+	/**
+	 * Decoder threads
+	 */
+	private ExecutorService mExecutor;
+
+	/**
+	 * Decodes that have not finished, by cache key
+	 */
+	private HashMap<Long, DecodeTask> mPendingTasks = new HashMap<Long, DecodeTask>();
+
+	/**
+	 * Creates a loader with the default number of threads
+	 * 
+	 * @param context
+	 *            Application context
+	 * @param cache
+	 *            Cache to load into
+	 */
+	public AssetLoader(Context context, BitmapCache cache) {
+		this(context, cache, DEFAULT_THREAD_COUNT);
+	}
+
+	/**
+	 * Creates a loader
+	 * 
+	 * @param context
+	 *            Application context
+	 * @param cache
+	 *            Cache to load into
+	 * @param threadCount
+	 *            Number of decoder threads
+	 */
+	public AssetLoader(Context context, BitmapCache cache, int threadCount) {
+		mContext = context;
+		mCache = cache;
+		mExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0L,
+				TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					private int mThreadNumber;
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "AssetLoader-"
+								+ ++mThreadNumber);
+						thread.setDaemon(true);
+						thread.setPriority(Thread.MIN_PRIORITY);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Starts loading every asset of a manifest. Returns immediately, poll
+	 * {@link AssetManifest#isLoaded()} to find out when it is done.
+	 * 
+	 * @param manifest
+	 */
+	public void load(AssetManifest manifest) {
+		manifest.setRequested();
+
+		int size = manifest.size();
+		for (int i = 0; i < size; i++) {
+			long key = manifest.getKey(i);
+
+			Bitmap bitmap = mCache.acquire(key);
+			if (bitmap == null) {
+				synchronized (mPendingTasks) {
+					DecodeTask task = mPendingTasks.get(key);
+					if (task == null && mCache.contains(key)) {
+						// Decoded since the cache was checked
+						bitmap = mCache.acquire(key);
+					}
+					if (bitmap == null) {
+						if (task == null) {
+							task = new DecodeTask();
+							task.key = key;
+							task.resourceID = manifest.getResourceID(i);
+							task.options = manifest.getOptions(i);
+							mPendingTasks.put(key, task);
+							mExecutor.execute(task);
+						}
+						task.manifests.add(manifest);
+						task.indices.add(i);
+						continue;
+					}
+				}
+			}
+
+			if (!manifest.setLoaded(i, bitmap)) {
+				mCache.release(bitmap);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of decodes queued or running
+	 * 
+	 * @return Pending decode count
+	 */
+	public int getPendingCount() {
+		synchronized (mPendingTasks) {
+			return mPendingTasks.size();
+		}
+	}
+}
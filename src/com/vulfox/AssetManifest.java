@@ -0,0 +1,224 @@
+package com.vulfox;
+
+import java.util.ArrayList;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * List of the bitmap resources a screen needs. A screen declares its assets
+ * in {@link Screen#declareAssets(AssetManifest)} and the screen manager loads
+ * them on background threads before the screen is initialized. Loaded
+ * bitmaps are shared through the {@link BitmapCache}.
+ */
+public class AssetManifest {
+
+	/**
+	 * A declared bitmap
+	 */
+	private static class Asset {
+		int resourceID;
+		BitmapFactory.Options options;
+		long key;
+		Bitmap bitmap;
+		boolean done;
+	}
+
+	/**
+	 * Declared bitmaps
+	 */
+	private ArrayList<Asset> mAssets = new ArrayList<Asset>();
+
+	/**
+	 * Number of bitmaps that have been loaded or failed to load
+	 */
+	private int mDoneCount;
+
+	/**
+	 * Number of bytes used by the loaded bitmaps
+	 */
+	private long mByteCount;
+
+	/**
+	 * Indicates if loading has been requested
+	 */
+	private boolean mRequested;
+
+	/**
+	 * Declares a bitmap resource decoded with default options
+	 * 
+	 * @param resourceID
+	 *            Resource ID
+	 */
+	public void addBitmap(int resourceID) {
+		addBitmap(resourceID, null);
+	}
+
+	/**
+	 * Declares a bitmap resource
+	 * 
+	 * @param resourceID
+	 *            Resource ID
+	 * @param options
+	 *            Decode options or null for the defaults
+	 */
+	public synchronized void addBitmap(int resourceID,
+			BitmapFactory.Options options) {
+		if (mRequested) {
+			throw new IllegalStateException("Assets are already being loaded");
+		}
+
+		Asset asset = new Asset();
+		asset.resourceID = resourceID;
+		asset.options = options;
+		asset.key = BitmapCache.getKey(resourceID, options);
+		mAssets.add(asset);
+	}
+
+	/**
+	 * Returns a loaded bitmap. Bitmaps declared with several option sets
+	 * return the first match.
+	 * 
+	 * @param resourceID
+	 *            Resource ID
+	 * @return The bitmap or null if it is not loaded or failed to load
+	 */
+	public synchronized Bitmap getBitmap(int resourceID) {
+		for (int i = 0; i < mAssets.size(); i++) {
+			Asset asset = mAssets.get(i);
+			if (asset.resourceID == resourceID) {
+				return asset.bitmap;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a loaded bitmap
+	 * 
+	 * @param resourceID
+	 *            Resource ID
+	 * @param options
+	 *            The options it was declared with
+	 * @return The bitmap or null if it is not loaded or failed to load
+	 */
+	public synchronized Bitmap getBitmap(int resourceID,
+			BitmapFactory.Options options) {
+		long key = BitmapCache.getKey(resourceID, options);
+		for (int i = 0; i < mAssets.size(); i++) {
+			Asset asset = mAssets.get(i);
+			if (asset.key == key) {
+				return asset.bitmap;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of declared assets
+	 * 
+	 * @return Asset count
+	 */
+	public synchronized int size() {
+		return mAssets.size();
+	}
+
+	/**
+	 * Returns how much of the manifest has been loaded
+	 * 
+	 * @return Progress between 0 and 1
+	 */
+	public synchronized float getProgress() {
+		if (mAssets.isEmpty()) {
+			return 1.0f;
+		}
+		return (float) mDoneCount / mAssets.size();
+	}
+
+	/**
+	 * Returns the number of bytes used by the loaded bitmaps. Bitmaps shared
+	 * with other manifests are counted by each of them.
+	 * 
+	 * @return Size in bytes
+	 */
+	public synchronized long getByteCount() {
+		return mByteCount;
+	}
+
+	/**
+	 * Tells if every declared asset has been loaded or failed to load
+	 * 
+	 * @return True when done
+	 */
+	public synchronized boolean isLoaded() {
+		return mRequested && mDoneCount == mAssets.size();
+	}
+
+	/**
+	 * Tells if loading has been requested and the assets not released since
+	 * 
+	 * @return True if requested
+	 */
+	public synchronized boolean isRequested() {
+		return mRequested;
+	}
+
+	/**
+	 * Releases the loaded bitmaps to the cache so they can be evicted. The
+	 * manifest can be loaded again afterwards.
+	 * 
+	 * @param cache
+	 *            Cache the bitmaps were loaded into
+	 */
+	public synchronized void release(BitmapCache cache) {
+		for (int i = 0; i < mAssets.size(); i++) {
+			Asset asset = mAssets.get(i);
+			if (asset.bitmap != null) {
+				cache.release(asset.bitmap);
+				asset.bitmap = null;
+			}
+			asset.done = false;
+		}
+		mDoneCount = 0;
+		mByteCount = 0;
+		mRequested = false;
+	}
+
+	synchronized void setRequested() {
+		mRequested = true;
+	}
+
+	synchronized int getResourceID(int index) {
+		return mAssets.get(index).resourceID;
+	}
+
+	synchronized BitmapFactory.Options getOptions(int index) {
+		return mAssets.get(index).options;
+	}
+
+	synchronized long getKey(int index) {
+		return mAssets.get(index).key;
+	}
+
+	/**
+	 * Stores a loaded bitmap, already acquired from the cache for this
+	 * manifest
+	 * 
+	 * @return False if the manifest was released while loading and the bitmap
+	 *         should be released again
+	 */
+	synchronized boolean setLoaded(int index, Bitmap bitmap) {
+		Asset asset = mAssets.get(index);
+		if (!mRequested || asset.done) {
+			return false;
+		}
+
+		asset.bitmap = bitmap;
+		asset.done = true;
+		mDoneCount++;
+		if (bitmap != null) {
+			mByteCount += BitmapCache.getByteCount(bitmap);
+		}
+		return true;
+	}
+}
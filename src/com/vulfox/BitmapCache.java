@@ -0,0 +1,370 @@
+package com.vulfox;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * Cache of decoded resource bitmaps, bounded by the total number of bytes the
+ * bitmaps use. Bitmaps are reference counted: every acquire must be matched
+ * by a release, and a bitmap is never evicted or recycled while it is
+ * acquired. Unused bitmaps are evicted in least recently used order once the
+ * cache is over its budget.
+ * 
+ * The cache is thread safe. Decoding happens outside the lock, so several
+ * threads can decode different bitmaps at the same time.
+ */
+public class BitmapCache {
+
+	/**
+	 * Fraction of the application memory class used by the default cache
+	 */
+	public static final float DEFAULT_MEMORY_FRACTION = 0.25f;
+
+	/**
+	 * A cached bitmap
+	 */
+	private static class Entry {
+		long key;
+		Bitmap bitmap;
+		int byteCount;
+		int refCount;
+	}
+
+	/**
+	 * Entries by key in least recently used order
+	 */
+	private LinkedHashMap<Long, Entry> mEntries;
+
+	/**
+	 * Entries by bitmap, used when releasing
+	 */
+	private IdentityHashMap<Bitmap, Entry> mEntriesByBitmap;
+
+	/**
+	 * Number of bytes the cached bitmaps should use at most. Acquired bitmaps
+	 * can keep the cache over budget since they are never evicted.
+	 */
+	private long mMaxBytes;
+
+	/**
+	 * Number of bytes used by all cached bitmaps
+	 */
+	private long mBytes;
+
+	/**
+	 * Number of acquires served from the cache
+	 */
+	private int mHitCount;
+
+	/**
+	 * Number of acquires that had to decode
+	 */
+	private int mMissCount;
+
+	/**
+	 * Number of bitmaps evicted to stay within budget
+	 */
+	private int mEvictionCount;
+
+	/**
+	 * Creates an empty cache
+	 * 
+	 * @param maxBytes
+	 *            Budget in bytes
+	 */
+	public BitmapCache(long maxBytes) {
+		mMaxBytes = maxBytes;
+		mEntries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+		mEntriesByBitmap = new IdentityHashMap<Bitmap, Entry>();
+	}
+
+	/**
+	 * Calculates a budget relative to the memory available to the application
+	 * 
+	 * @param context
+	 *            Application context
+	 * @param fraction
+	 *            Fraction of the memory class, e.g. 0.25
+	 * @return Budget in bytes
+	 */
+	public static long getMemoryClassBudget(Context context, float fraction) {
+		ActivityManager activityManager = (ActivityManager) context
+				.getSystemService(Context.ACTIVITY_SERVICE);
+		long memoryClass = activityManager.getMemoryClass() * 1024L * 1024L;
+		return (long) (memoryClass * fraction);
+	}
+
+	/**
+	 * Returns the number of bytes used by a bitmap
+	 * 
+	 * @param bitmap
+	 * @return Size in bytes
+	 */
+	public static int getByteCount(Bitmap bitmap) {
+		return bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	/**
+	 * Returns a bitmap decoded from a resource with default options, decoding
+	 * it if it is not cached. Must be matched by a call to
+	 * {@link #release(Bitmap)}.
+	 * 
+	 * @param context
+	 *            Application context
+	 * @param resourceID
+	 *            Resource ID
+	 * @return The bitmap or null if it could not be decoded
+	 */
+	public Bitmap acquire(Context context, int resourceID) {
+		return acquire(context, resourceID, null);
+	}
+
+	/**
+	 * Returns a bitmap decoded from a resource, decoding it if it is not
+	 * cached. Bitmaps decoded with different sample size, config or scaling
+	 * are cached separately. Must be matched by a call to
+	 * {@link #release(Bitmap)}.
+	 * 
+	 * @param context
+	 *            Application context
+	 * @param resourceID
+	 *            Resource ID
+	 * @param options
+	 *            Decode options or null for the defaults
+	 * @return The bitmap or null if it could not be decoded
+	 */
+	public Bitmap acquire(Context context, int resourceID,
+			BitmapFactory.Options options) {
+		long key = getKey(resourceID, options);
+
+		Bitmap bitmap = acquire(key);
+		if (bitmap != null) {
+			return bitmap;
+		}
+
+		bitmap = ImageLoader.loadFromResource(context, resourceID, options);
+		if (bitmap == null) {
+			return null;
+		}
+		return put(key, bitmap, true);
+	}
+
+	/**
+	 * Returns a cached bitmap and increases its reference count
+	 * 
+	 * @param key
+	 *            Key from {@link #getKey(int, BitmapFactory.Options)}
+	 * @return The bitmap or null if it is not cached
+	 */
+	public synchronized Bitmap acquire(long key) {
+		Entry entry = mEntries.get(key);
+		if (entry == null) {
+			mMissCount++;
+			return null;
+		}
+
+		mHitCount++;
+		entry.refCount++;
+		return entry.bitmap;
+	}
+
+	/**
+	 * Tells if a bitmap is cached without counting a hit or miss
+	 * 
+	 * @param key
+	 *            Key from {@link #getKey(int, BitmapFactory.Options)}
+	 * @return True if cached
+	 */
+	public synchronized boolean contains(long key) {
+		return mEntries.containsKey(key);
+	}
+
+	/**
+	 * Adds a decoded bitmap to the cache. If another thread cached the same
+	 * key in the meantime, the new bitmap is recycled and the cached one is
+	 * used instead.
+	 * 
+	 * @param key
+	 *            Key from {@link #getKey(int, BitmapFactory.Options)}
+	 * @param bitmap
+	 *            Decoded bitmap
+	 * @param acquire
+	 *            True to return the bitmap acquired
+	 * @return The cached bitmap
+	 */
+	public Bitmap put(long key, Bitmap bitmap, boolean acquire) {
+		return put(key, bitmap, acquire ? 1 : 0);
+	}
+
+	/**
+	 * Adds a decoded bitmap to the cache and acquires it several times at
+	 * once, for example for every screen that waited for it to be decoded.
+	 * The added bitmap is never evicted by this call, even when it is not
+	 * acquired and the cache is over budget, so the returned bitmap can be
+	 * used. Without an acquire it may be evicted by the next trim.
+	 * 
+	 * @param key
+	 *            Key from {@link #getKey(int, BitmapFactory.Options)}
+	 * @param bitmap
+	 *            Decoded bitmap
+	 * @param acquireCount
+	 *            Number of releases that must follow
+	 * @return The cached bitmap
+	 */
+	public synchronized Bitmap put(long key, Bitmap bitmap, int acquireCount) {
+		Entry entry = mEntries.get(key);
+		if (entry != null) {
+			if (entry.bitmap != bitmap) {
+				bitmap.recycle();
+			}
+		} else {
+			entry = new Entry();
+			entry.key = key;
+			entry.bitmap = bitmap;
+			entry.byteCount = getByteCount(bitmap);
+			mEntries.put(key, entry);
+			mEntriesByBitmap.put(bitmap, entry);
+			mBytes += entry.byteCount;
+		}
+
+		entry.refCount += acquireCount;
+		trimToSize(mMaxBytes, entry);
+		return entry.bitmap;
+	}
+
+	/**
+	 * Releases a bitmap returned by acquire. Once no one holds the bitmap it
+	 * may be evicted and recycled, so it must not be drawn after this.
+	 * 
+	 * @param bitmap
+	 */
+	public synchronized void release(Bitmap bitmap) {
+		Entry entry = mEntriesByBitmap.get(bitmap);
+		if (entry == null || entry.refCount == 0) {
+			throw new IllegalStateException("Bitmap is not acquired from this cache");
+		}
+
+		entry.refCount--;
+		if (entry.refCount == 0) {
+			trimToSize(mMaxBytes);
+		}
+	}
+
+	/**
+	 * Evicts unused bitmaps, least recently used first, until the cache uses
+	 * at most the specified number of bytes or only acquired bitmaps are left
+	 * 
+	 * @param maxBytes
+	 */
+	public synchronized void trimToSize(long maxBytes) {
+		trimToSize(maxBytes, null);
+	}
+
+	/**
+	 * Evicts unused bitmaps, except one entry
+	 * 
+	 * @param maxBytes
+	 * @param keep
+	 *            Entry that is not evicted even if unused, or null
+	 */
+	private void trimToSize(long maxBytes, Entry keep) {
+		if (mBytes <= maxBytes) {
+			return;
+		}
+
+		Iterator<Entry> iterator = mEntries.values().iterator();
+		while (mBytes > maxBytes && iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.refCount == 0 && entry != keep) {
+				iterator.remove();
+				mEntriesByBitmap.remove(entry.bitmap);
+				mBytes -= entry.byteCount;
+				mEvictionCount++;
+				entry.bitmap.recycle();
+			}
+		}
+	}
+
+	/**
+	 * Evicts every bitmap that is not acquired
+	 */
+	public void evictAll() {
+		trimToSize(0);
+	}
+
+	/**
+	 * Changes the budget and evicts bitmaps if needed
+	 * 
+	 * @param maxBytes
+	 *            Budget in bytes
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		mMaxBytes = maxBytes;
+		trimToSize(maxBytes);
+	}
+
+	public synchronized long getMaxBytes() {
+		return mMaxBytes;
+	}
+
+	/**
+	 * Returns the number of bytes used by all cached bitmaps, acquired or not
+	 * 
+	 * @return Size in bytes
+	 */
+	public synchronized long getBytes() {
+		return mBytes;
+	}
+
+	public synchronized int getHitCount() {
+		return mHitCount;
+	}
+
+	public synchronized int getMissCount() {
+		return mMissCount;
+	}
+
+	public synchronized int getEvictionCount() {
+		return mEvictionCount;
+	}
+
+	/**
+	 * Returns the number of cached bitmaps
+	 * 
+	 * @return Entry count
+	 */
+	public synchronized int size() {
+		return mEntries.size();
+	}
+
+	/**
+	 * Builds the cache key of a resource decoded with the specified options
+	 * 
+	 * @param resourceID
+	 *            Resource ID
+	 * @param options
+	 *            Decode options or null for the defaults
+	 * @return Cache key
+	 */
+	public static long getKey(int resourceID, BitmapFactory.Options options) {
+		int sampleSize = 1;
+		int config = 0;
+		boolean scaled = true;
+		if (options != null) {
+			sampleSize = Math.max(1, options.inSampleSize);
+			if (options.inPreferredConfig != null) {
+				config = options.inPreferredConfig.ordinal() + 1;
+			}
+			scaled = options.inScaled;
+		}
+
+		return ((long) resourceID << 32) | ((sampleSize & 0xffffL) << 16)
+				| (config << 8) | (scaled ? 0 : 1);
+	}
+}
@@ -2,10 +2,12 @@ package com.vulfox;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.NinePatch;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.RectF;
-import android.view.MotionEvent;
+
+import com.vulfox.input.TouchEvent;
 
 /**
  * A class representing a button. If used the user should extend it and override
@@ -20,10 +22,15 @@ public class ButtonComponent extends ScreenComponent {
 	 */
 	private boolean pressed = false;
 
-	/** The text on the button. */
+	/**
+	 * The pointer pressing the button, other pointers are ignored while pressed.
+	 */
+	private int pressedPointerId;
+
+	/** The text on the button, null for none. */
 	private String text;
 
-	/** The background for the button. */
+	/** The background for the button, null to draw a rounded rect. */
 	private Bitmap background;
 
 	/**
@@ -31,90 +38,276 @@ public class ButtonComponent extends ScreenComponent {
 	 */
 	private Bitmap backgroundTouched;
 
-	/** Paints. */
-	private Paint textPaint;
-	private Paint backgroundColor;
-	private Paint backgroundTouchedColor;
-	
-	private int textHeightInPixels;
+	/** Nine-patches of the background images, null if not nine-patches. */
+	private NinePatch backgroundPatch;
+	private NinePatch backgroundTouchedPatch;
 
-	private RectF backgroundRect;
+	/** Shared colors, text size and paints. */
+	private ButtonStyle style;
+
+	/**
+	 * The button rendered in its normal and pressed state, so drawing is a
+	 * single blit.
+	 */
+	private Bitmap normalState;
+	private Bitmap pressedState;
+
+	/**
+	 * Tells if the state bitmaps must be rendered again before drawing.
+	 */
+	private boolean statesDirty = true;
 
 	public ButtonComponent(String text, int textColor, float textSize,
 			int backgroundColor, int backgroundTouchedColor, int width,
 			int height, int x, int y) {
-		
 		this.text = text;
-		this.textPaint = new Paint();
-		this.textPaint.setColor(textColor);
-		this.textPaint.setAntiAlias(true);
-		
-		textPaint.setTextSize(textSize);
-		this.textPaint.setTextAlign(Paint.Align.CENTER);
-		Rect rect = new Rect();
-		textPaint.getTextBounds(text, 0, text.length(), rect);
-		textHeightInPixels = Math.abs(rect.top);
-
-		backgroundRect = new RectF(x,y,x+width, y+height);
-		
-		this.backgroundColor = new Paint();
-		this.backgroundColor.setColor(backgroundColor);
-		this.backgroundColor.setAntiAlias(true);
-		this.backgroundTouchedColor = new Paint();
-		this.backgroundTouchedColor.setColor(backgroundTouchedColor);
-		this.backgroundTouchedColor.setAntiAlias(true);
+		this.style = ButtonStyle.obtain(textColor, textSize, backgroundColor,
+				backgroundTouchedColor);
 		setWidth(width);
 		setHeight(height);
 		setPositionX(x);
 		setPositionY(y);
 	}
 
+	/**
+	 * Creates a button with image backgrounds. Nine-patch images, such as
+	 * those decoded from .9.png resources, are stretched by their patches,
+	 * other images are scaled to the button size.
+	 * 
+	 * @param text
+	 *            The text on the button or null
+	 * @param textColor
+	 * @param textSize
+	 * @param background
+	 *            The background image
+	 * @param backgroundTouched
+	 *            The background image when touched, or null to use the
+	 *            normal background
+	 * @param width
+	 * @param height
+	 * @param x
+	 * @param y
+	 */
 	public ButtonComponent(String text, int textColor, float textSize,
 			Bitmap background, Bitmap backgroundTouched, int width, int height,
 			int x, int y) {
-		//TODO: IF WE WANT TO USE IMAGES AS BUTTON BACKGROUND IMPLEMENT THIS.
+		this.text = text;
+		this.style = ButtonStyle.obtain(textColor, textSize, 0, 0);
+		this.background = background;
+		this.backgroundTouched = backgroundTouched != null ? backgroundTouched
+				: background;
+		this.backgroundPatch = createNinePatch(this.background);
+		this.backgroundTouchedPatch = createNinePatch(this.backgroundTouched);
+		setWidth(width);
+		setHeight(height);
+		setPositionX(x);
+		setPositionY(y);
 	}
 
 	@Override
 	void draw(Canvas canvas) {
-		
+		if (statesDirty) {
+			renderStates();
+		}
+
+		Bitmap state = pressed ? pressedState : normalState;
+		if (state != null) {
+			canvas.drawBitmap(state, getPositionX(), getPositionY(), null);
+		} else {
+			// Not enough memory for the state bitmaps, draw the slow way
+			canvas.save();
+			canvas.translate(getPositionX(), getPositionY());
+			drawState(canvas, pressed);
+			canvas.restore();
+		}
+	}
+
+	@Override
+	void releaseCaches() {
+		recycle();
+	}
+
+	@Override
+	long getCacheBytes() {
+		long bytes = 0;
+		if (normalState != null) {
+			bytes += BitmapCache.getByteCount(normalState);
+		}
+		if (pressedState != null) {
+			bytes += BitmapCache.getByteCount(pressedState);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Renders both states into bitmaps of the button size.
+	 */
+	private void renderStates() {
+		// recycle() marks the states dirty, so clear the flag after it
+		recycle();
+		statesDirty = false;
+		if (getWidth() <= 0 || getHeight() <= 0) {
+			return;
+		}
+
+		try {
+			normalState = Bitmap.createBitmap(getWidth(), getHeight(),
+					Bitmap.Config.ARGB_8888);
+			drawState(new Canvas(normalState), false);
+			pressedState = Bitmap.createBitmap(getWidth(), getHeight(),
+					Bitmap.Config.ARGB_8888);
+			drawState(new Canvas(pressedState), true);
+		} catch (OutOfMemoryError e) {
+			recycle();
+		}
+	}
+
+	/**
+	 * Draws the button at the origin of a canvas.
+	 * @param canvas
+	 * @param pressed
+	 */
+	private void drawState(Canvas canvas, boolean pressed) {
+		int width = getWidth();
+		int height = getHeight();
+
 		if (background == null) {
-			// We don't have a background image. Draw rounded rects.
-			if (pressed) {
-				
-				canvas.drawRoundRect(backgroundRect, (float)getHeight() /4,(float)getHeight() /4, backgroundTouchedColor);
-				canvas.drawText(text, getPositionX() + getWidth() / 2,
-						getPositionY() + (getHeight() - textHeightInPixels)/2 + textHeightInPixels,
-						textPaint);
+			RectF rect = new RectF(0, 0, width, height);
+			canvas.drawRoundRect(rect, (float) height / 4, (float) height / 4,
+					pressed ? style.getBackgroundTouchedPaint() : style
+							.getBackgroundPaint());
+		} else {
+			Rect rect = new Rect(0, 0, width, height);
+			NinePatch patch = pressed ? backgroundTouchedPatch : backgroundPatch;
+			if (patch != null) {
+				patch.draw(canvas, rect);
 			} else {
-				canvas.drawRoundRect(backgroundRect, (float)getHeight() /4,(float)getHeight() /4, backgroundColor);
-				canvas.drawText(text, getPositionX() + getWidth() / 2,
-						getPositionY() + (getHeight() - textHeightInPixels)/2 + textHeightInPixels,
-						textPaint);
+				canvas.drawBitmap(pressed ? backgroundTouched : background, null,
+						rect, ButtonStyle.getBitmapPaint());
 			}
-		} else {
-			// TODO: draw background image.
+		}
+
+		if (text != null) {
+			Paint textPaint = style.getTextPaint();
+			Rect bounds = new Rect();
+			textPaint.getTextBounds(text, 0, text.length(), bounds);
+			int textHeightInPixels = Math.abs(bounds.top);
+			canvas.drawText(text, width / 2, (height - textHeightInPixels) / 2
+					+ textHeightInPixels, textPaint);
+		}
+	}
+
+	/**
+	 * Returns a nine-patch for an image if it has nine-patch data.
+	 * @param bitmap
+	 * @return The nine-patch or null
+	 */
+	private static NinePatch createNinePatch(Bitmap bitmap) {
+		if (bitmap == null) {
+			return null;
+		}
+		byte[] chunk = bitmap.getNinePatchChunk();
+		if (chunk == null || !NinePatch.isNinePatchChunk(chunk)) {
+			return null;
+		}
+		return new NinePatch(bitmap, chunk, null);
+	}
+
+	/**
+	 * Frees the rendered states. They are rendered again the next time the
+	 * button is drawn.
+	 */
+	public void recycle() {
+		if (normalState != null) {
+			normalState.recycle();
+			normalState = null;
+		}
+		if (pressedState != null) {
+			pressedState.recycle();
+			pressedState = null;
+		}
+		statesDirty = true;
+	}
+
+	/**
+	 * @return the text on the button
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Changes the text and renders the button again.
+	 * @param text
+	 *            the text to set, null for none
+	 */
+	public void setText(String text) {
+		if (text == null ? this.text != null : !text.equals(this.text)) {
+			this.text = text;
+			statesChanged();
+		}
+	}
+
+	/**
+	 * @return the style of the button
+	 */
+	public ButtonStyle getStyle() {
+		return style;
+	}
+
+	/**
+	 * Changes the colors and text size and renders the button again.
+	 * @param style
+	 *            a style from {@link ButtonStyle#obtain(int, float, int, int)}
+	 */
+	public void setStyle(ButtonStyle style) {
+		if (this.style != style) {
+			this.style = style;
+			statesChanged();
 		}
 	}
 
 	@Override
-	void handleActionDown(MotionEvent motionEvent, boolean insideConponent) {
-		if (insideConponent) {
-			pressed = true;
-		} else {
-			pressed = false;
+	public void setWidth(int width) {
+		if (width != getWidth()) {
+			super.setWidth(width);
+			statesChanged();
+		}
+	}
+
+	@Override
+	public void setHeight(int height) {
+		if (height != getHeight()) {
+			super.setHeight(height);
+			statesChanged();
+		}
+	}
+
+	/**
+	 * Renders the states again before the next draw.
+	 */
+	private void statesChanged() {
+		statesDirty = true;
+		invalidate();
+	}
+
+	@Override
+	void handleActionDown(TouchEvent touchEvent, boolean insideConponent) {
+		if (!pressed) {
+			pressedPointerId = touchEvent.getPointerId();
+			setPressed(insideConponent);
 		}
 	}
 
 	@Override
-	boolean handleActionUp(MotionEvent motionEvent, boolean insideConponent) {
+	boolean handleActionUp(TouchEvent touchEvent, boolean insideConponent) {
 		boolean consumed = false;
-		if (pressed) {
+		if (pressed && touchEvent.getPointerId() == pressedPointerId) {
 			if (insideConponent) {
 				buttonClicked();
 				consumed = true;
 			} 
-			pressed = false;
+			setPressed(false);
 		}
 
 		return consumed;
@@ -122,9 +315,21 @@ public class ButtonComponent extends ScreenComponent {
 	}
 
 	@Override
-	void handleActionMove(MotionEvent motionEvent, boolean insideConponent) {
-		if (!insideConponent && pressed) {
-			pressed = false;
+	void handleActionMove(TouchEvent touchEvent, boolean insideConponent) {
+		if (!insideConponent && pressed
+				&& touchEvent.getPointerId() == pressedPointerId) {
+			setPressed(false);
+		}
+	}
+
+	/**
+	 * Changes the pressed state and redraws the button if it changed
+	 * @param pressed
+	 */
+	private void setPressed(boolean pressed) {
+		if (this.pressed != pressed) {
+			this.pressed = pressed;
+			invalidate();
 		}
 	}
 
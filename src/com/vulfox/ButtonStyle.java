@@ -0,0 +1,159 @@
+package com.vulfox;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+import android.graphics.Paint;
+
+/**
+ * Colors and text size of a button, together with the paints used to render
+ * it. Styles are shared: every button created with the same values uses the
+ * same style and paints, so the paints must never be modified.
+ * 
+ * @author tobiblas
+ */
+public final class ButtonStyle {
+
+	/**
+	 * Styles in use, each mapped to itself. Keys and values are weak, so a
+	 * style is dropped once no button uses it.
+	 */
+	private static final WeakHashMap<ButtonStyle, WeakReference<ButtonStyle>> sStyles = new WeakHashMap<ButtonStyle, WeakReference<ButtonStyle>>();
+
+	/**
+	 * Paint for drawing scaled background images
+	 */
+	private static Paint sBitmapPaint;
+
+	/** The text color. */
+	private final int mTextColor;
+
+	/** The text size in pixels. */
+	private final float mTextSize;
+
+	/** The background color when not pressed. */
+	private final int mBackgroundColor;
+
+	/** The background color when pressed. */
+	private final int mBackgroundTouchedColor;
+
+	/** Paints, created when the style is first shared. */
+	private Paint mTextPaint;
+	private Paint mBackgroundPaint;
+	private Paint mBackgroundTouchedPaint;
+
+	private ButtonStyle(int textColor, float textSize, int backgroundColor,
+			int backgroundTouchedColor) {
+		mTextColor = textColor;
+		mTextSize = textSize;
+		mBackgroundColor = backgroundColor;
+		mBackgroundTouchedColor = backgroundTouchedColor;
+	}
+
+	/**
+	 * Returns the shared style with the specified values, creating it if no
+	 * button uses one
+	 * 
+	 * @param textColor
+	 * @param textSize
+	 *            Text size in pixels
+	 * @param backgroundColor
+	 *            Background color when not pressed, unused with background
+	 *            images
+	 * @param backgroundTouchedColor
+	 *            Background color when pressed, unused with background images
+	 * @return The style
+	 */
+	public static ButtonStyle obtain(int textColor, float textSize,
+			int backgroundColor, int backgroundTouchedColor) {
+		ButtonStyle key = new ButtonStyle(textColor, textSize, backgroundColor,
+				backgroundTouchedColor);
+		synchronized (sStyles) {
+			WeakReference<ButtonStyle> reference = sStyles.get(key);
+			ButtonStyle style = reference != null ? reference.get() : null;
+			if (style == null) {
+				style = key;
+				style.createPaints();
+				sStyles.put(style, new WeakReference<ButtonStyle>(style));
+			}
+			return style;
+		}
+	}
+
+	/**
+	 * Returns the paint for drawing scaled background images
+	 * 
+	 * @return The shared bitmap paint
+	 */
+	static synchronized Paint getBitmapPaint() {
+		if (sBitmapPaint == null) {
+			sBitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+		}
+		return sBitmapPaint;
+	}
+
+	private void createPaints() {
+		mTextPaint = new Paint();
+		mTextPaint.setColor(mTextColor);
+		mTextPaint.setAntiAlias(true);
+		mTextPaint.setTextSize(mTextSize);
+		mTextPaint.setTextAlign(Paint.Align.CENTER);
+
+		mBackgroundPaint = new Paint();
+		mBackgroundPaint.setColor(mBackgroundColor);
+		mBackgroundPaint.setAntiAlias(true);
+
+		mBackgroundTouchedPaint = new Paint();
+		mBackgroundTouchedPaint.setColor(mBackgroundTouchedColor);
+		mBackgroundTouchedPaint.setAntiAlias(true);
+	}
+
+	public int getTextColor() {
+		return mTextColor;
+	}
+
+	public float getTextSize() {
+		return mTextSize;
+	}
+
+	public int getBackgroundColor() {
+		return mBackgroundColor;
+	}
+
+	public int getBackgroundTouchedColor() {
+		return mBackgroundTouchedColor;
+	}
+
+	Paint getTextPaint() {
+		return mTextPaint;
+	}
+
+	Paint getBackgroundPaint() {
+		return mBackgroundPaint;
+	}
+
+	Paint getBackgroundTouchedPaint() {
+		return mBackgroundTouchedPaint;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (!(object instanceof ButtonStyle)) {
+			return false;
+		}
+		ButtonStyle other = (ButtonStyle) object;
+		return mTextColor == other.mTextColor
+				&& Float.floatToIntBits(mTextSize) == Float
+						.floatToIntBits(other.mTextSize)
+				&& mBackgroundColor == other.mBackgroundColor
+				&& mBackgroundTouchedColor == other.mBackgroundTouchedColor;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = mTextColor;
+		hash = hash * 31 + Float.floatToIntBits(mTextSize);
+		hash = hash * 31 + mBackgroundColor;
+		return hash * 31 + mBackgroundTouchedColor;
+	}
+}
@@ -0,0 +1,200 @@
+package com.vulfox;
+
+/**
+ * Uniform grid over a screen that keeps track of which components overlap
+ * each cell, so hit testing only looks at the components in one cell. The
+ * components outside the grid bounds are kept in the edge cells.
+ *
+ * Nothing is allocated when hit testing. Inserting may grow a cell.
+ */
+class ComponentGrid {
+
+	/**
+	 * Default cell width and height in pixels
+	 */
+	static final int DEFAULT_CELL_SIZE = 64;
+
+	/**
+	 * Initial number of components a cell can hold
+	 */
+	private static final int INITIAL_CELL_CAPACITY = 4;
+
+	/**
+	 * Cell width and height in pixels
+	 */
+	private int mCellSize;
+
+	/**
+	 * Number of cell columns
+	 */
+	private int mColumns;
+
+	/**
+	 * Number of cell rows
+	 */
+	private int mRows;
+
+	/**
+	 * Components overlapping each cell, indexed by row * columns + column
+	 */
+	private ScreenComponent[][] mCells;
+
+	/**
+	 * Number of components in each cell
+	 */
+	private int[] mCellCounts;
+
+	/**
+	 * Creates a grid with a single cell, to be resized once the screen size is
+	 * known
+	 *
+	 * @param cellSize
+	 *            Cell width and height in pixels
+	 */
+	ComponentGrid(int cellSize) {
+		mCellSize = cellSize;
+		allocate(0, 0);
+	}
+
+	/**
+	 * Changes the area covered by the grid and reinserts the components
+	 *
+	 * @param width
+	 * @param height
+	 * @param components
+	 *            All components of the screen
+	 */
+	void resize(int width, int height, Iterable<ScreenComponent> components) {
+		allocate(width, height);
+		for (ScreenComponent component : components) {
+			insert(component);
+		}
+	}
+
+	/**
+	 * Adds a component to every cell it overlaps
+	 *
+	 * @param component
+	 */
+	void insert(ScreenComponent component) {
+		int left = column(component.getPositionX());
+		int top = row(component.getPositionY());
+		int right = column(component.getPositionX() + component.getWidth() - 1);
+		int bottom = row(component.getPositionY() + component.getHeight() - 1);
+
+		component.setCells(left, top, right, bottom);
+		for (int row = top; row <= bottom; row++) {
+			for (int column = left; column <= right; column++) {
+				add(row * mColumns + column, component);
+			}
+		}
+	}
+
+	/**
+	 * Removes a component from the cells it was inserted into
+	 *
+	 * @param component
+	 */
+	void remove(ScreenComponent component) {
+		for (int row = component.getCellTop(); row <= component.getCellBottom(); row++) {
+			for (int column = component.getCellLeft(); column <= component
+					.getCellRight(); column++) {
+				remove(row * mColumns + column, component);
+			}
+		}
+	}
+
+	/**
+	 * Moves a component to the cells matching its current bounds
+	 *
+	 * @param component
+	 */
+	void update(ScreenComponent component) {
+		int left = column(component.getPositionX());
+		int top = row(component.getPositionY());
+		int right = column(component.getPositionX() + component.getWidth() - 1);
+		int bottom = row(component.getPositionY() + component.getHeight() - 1);
+
+		if (left != component.getCellLeft() || top != component.getCellTop()
+				|| right != component.getCellRight()
+				|| bottom != component.getCellBottom()) {
+			remove(component);
+			insert(component);
+		}
+	}
+
+	/**
+	 * Finds the topmost component containing a point
+	 *
+	 * @param x
+	 * @param y
+	 * @return The component with the highest z order containing the point or
+	 *         null
+	 */
+	ScreenComponent hitTest(float x, float y) {
+		int cell = row((int) Math.floor(y)) * mColumns
+				+ column((int) Math.floor(x));
+		ScreenComponent[] components = mCells[cell];
+		ScreenComponent hit = null;
+		for (int i = mCellCounts[cell] - 1; i >= 0; i--) {
+			ScreenComponent component = components[i];
+			if ((hit == null || component.getZOrder() > hit.getZOrder())
+					&& component.contains(x, y)) {
+				hit = component;
+			}
+		}
+		return hit;
+	}
+
+	private void allocate(int width, int height) {
+		mColumns = Math.max(1, (width + mCellSize - 1) / mCellSize);
+		mRows = Math.max(1, (height + mCellSize - 1) / mCellSize);
+		mCells = new ScreenComponent[mColumns * mRows][];
+		mCellCounts = new int[mColumns * mRows];
+	}
+
+	private void add(int cell, ScreenComponent component) {
+		ScreenComponent[] components = mCells[cell];
+		int count = mCellCounts[cell];
+		if (components == null) {
+			components = new ScreenComponent[INITIAL_CELL_CAPACITY];
+			mCells[cell] = components;
+		} else if (count == components.length) {
+			ScreenComponent[] grown = new ScreenComponent[count * 2];
+			System.arraycopy(components, 0, grown, 0, count);
+			components = grown;
+			mCells[cell] = components;
+		}
+		components[count] = component;
+		mCellCounts[cell] = count + 1;
+	}
+
+	private void remove(int cell, ScreenComponent component) {
+		ScreenComponent[] components = mCells[cell];
+		int count = mCellCounts[cell];
+		for (int i = 0; i < count; i++) {
+			if (components[i] == component) {
+				components[i] = components[count - 1];
+				components[count - 1] = null;
+				mCellCounts[cell] = count - 1;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the column containing an x coordinate, clamped to the grid
+	 */
+	private int column(int x) {
+		int column = x < 0 ? 0 : x / mCellSize;
+		return column < mColumns ? column : mColumns - 1;
+	}
+
+	/**
+	 * Returns the row containing a y coordinate, clamped to the grid
+	 */
+	private int row(int y) {
+		int row = y < 0 ? 0 : y / mCellSize;
+		return row < mRows ? row : mRows - 1;
+	}
+}
@@ -33,6 +33,12 @@ public class GameActivity extends Activity implements OnTouchListener, SurfaceHo
     }
 
     
+    @Override
+    protected void onDestroy() {
+    	super.onDestroy();
+    	mGameThread.shutdown();
+    }
+
     @Override
     protected void onPause() {
     	super.onPause(); 	
@@ -46,6 +52,23 @@ public class GameActivity extends Activity implements OnTouchListener, SurfaceHo
     	mGameThread.onResume();
     }
 
+    @Override
+    public void onLowMemory() {
+    	super.onLowMemory();
+    	mGameThread.onLowMemory();
+    }
+
+    /**
+     * Called by the system on API level 14 and up when memory should be
+     * trimmed. Older platforms never call it, so the super call is safe.
+     * @param level Trim level
+     */
+    @Override
+    public void onTrimMemory(int level) {
+    	super.onTrimMemory(level);
+    	mGameThread.onTrimMemory(level);
+    }
+
 	@Override
 	public void surfaceChanged(SurfaceHolder holder, int format, int width,
 			int height) {
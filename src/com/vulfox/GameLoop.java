@@ -0,0 +1,294 @@
+package com.vulfox;
+
+import android.graphics.Canvas;
+
+import com.vulfox.input.TouchEvent;
+import com.vulfox.input.TouchEventQueue;
+import com.vulfox.math.Vector2fArena;
+import com.vulfox.render.DirtyRegion;
+import com.vulfox.render.DrawTarget;
+import com.vulfox.timing.Clock;
+import com.vulfox.util.FrameProfiler;
+
+/**
+ * One frame of the game: input, screen updates and drawing, timed by a
+ * {@link Clock}. The game thread runs it against the surface of the game view
+ * and the system clock, {@link HeadlessGameRunner} against a simulated clock
+ * and an optional off-screen target. Pacing between frames is left to the
+ * caller.
+ */
+public class GameLoop {
+
+	/**
+	 * Default number of screen updates per second when using accumulated time
+	 * steps
+	 */
+	public static final int DEFAULT_UPDATE_RATE = 60;
+
+	/**
+	 * Default maximum number of screen updates performed in a single frame
+	 */
+	public static final int DEFAULT_MAX_UPDATE_STEPS = 5;
+
+	/**
+	 * Screens to run
+	 */
+	private final ScreenManager mScreenManager;
+
+	/**
+	 * Time source
+	 */
+	private final Clock mClock;
+
+	/**
+	 * Touch events to handle at the start of a frame, null for none
+	 */
+	private final TouchEventQueue mTouchEventQueue;
+
+	/**
+	 * Indicates if the screens should be updated with a constant time step,
+	 * using an accumulator to decouple updating from drawing
+	 */
+	private boolean mAccumulatedTimeStep;
+
+	/**
+	 * Time between screen updates in nanoseconds when using accumulated time
+	 * steps
+	 */
+	private long mUpdateStepTime = Math.round(1000000000.0 / DEFAULT_UPDATE_RATE);
+
+	/**
+	 * Maximum number of screen updates performed in a single frame. Any time
+	 * beyond that is dropped so a slow device does not fall further and
+	 * further behind.
+	 */
+	private int mMaxUpdateSteps = DEFAULT_MAX_UPDATE_STEPS;
+
+	/**
+	 * Indicates if only the invalidated region of the screens should be
+	 * redrawn, skipping frames where nothing changed
+	 */
+	private boolean mDirtyRegionMode;
+
+	/**
+	 * Start time of the current frame
+	 */
+	private long mFrameStartTime;
+
+	/**
+	 * Update time not yet consumed when using accumulated time steps
+	 */
+	private long mAccumulator;
+
+	/**
+	 * Creates a loop for a screen manager
+	 * 
+	 * @param screenManager
+	 *            Screens to run
+	 * @param clock
+	 *            Time source
+	 * @param touchEventQueue
+	 *            Touch events to handle, or null
+	 */
+	public GameLoop(ScreenManager screenManager, Clock clock,
+			TouchEventQueue touchEventQueue) {
+		mScreenManager = screenManager;
+		mClock = clock;
+		mTouchEventQueue = touchEventQueue;
+		reset();
+	}
+
+	/**
+	 * Restarts the timing, so the time spent paused is not passed to the
+	 * screens, cancels the fingers that were down and redraws everything
+	 */
+	public void reset() {
+		mFrameStartTime = mClock.nanoTime();
+		mAccumulator = 0;
+		mScreenManager.cancelPointers();
+		mScreenManager.invalidate();
+	}
+
+	/**
+	 * Runs one frame starting now
+	 * 
+	 * @param drawTarget
+	 *            Where to draw the frame, or null to only update
+	 */
+	public void step(DrawTarget drawTarget) {
+		step(mClock.nanoTime(), drawTarget);
+	}
+
+	/**
+	 * Runs one frame. Call {@link #endFrame()} once the wait for the next
+	 * frame is over.
+	 * 
+	 * @param frameTime
+	 *            Start time of the frame, for example from a frame pacer
+	 * @param drawTarget
+	 *            Where to draw the frame, or null to only update
+	 */
+	public void step(long frameTime, DrawTarget drawTarget) {
+		FrameProfiler profiler = mScreenManager.getFrameProfiler();
+		long elapsedTime = frameTime - mFrameStartTime;
+		mFrameStartTime = frameTime;
+
+		profiler.beginFrame();
+
+		// Scratch vectors of the loop thread live for one frame
+		Vector2fArena.getFrameArena().reset();
+
+		// Screens pushed or popped since the last frame
+		mScreenManager.applyPendingOperations();
+		mScreenManager.trimResources();
+
+		if (mTouchEventQueue != null) {
+			profiler.begin(FrameProfiler.PHASE_INPUT);
+			TouchEvent touchEvent;
+			while ((touchEvent = mTouchEventQueue.peek()) != null) {
+				mScreenManager.handleInput(touchEvent);
+				mTouchEventQueue.remove();
+			}
+			profiler.end(FrameProfiler.PHASE_INPUT);
+		}
+
+		float interpolation = 1.0f;
+		if (mAccumulatedTimeStep) {
+			mAccumulator += elapsedTime;
+			long maxAccumulated = mUpdateStepTime * mMaxUpdateSteps;
+			if (mAccumulator > maxAccumulated) {
+				mAccumulator = maxAccumulated;
+			}
+
+			float timeStep = (float) (mUpdateStepTime / 1000000000d);
+			while (mAccumulator >= mUpdateStepTime) {
+				profiler.begin(FrameProfiler.PHASE_UPDATE);
+				mScreenManager.update(timeStep);
+				profiler.end(FrameProfiler.PHASE_UPDATE);
+				mAccumulator -= mUpdateStepTime;
+			}
+			interpolation = (float) mAccumulator / mUpdateStepTime;
+		} else {
+			float timeStep = (float) (elapsedTime / 1000000000d);
+			profiler.begin(FrameProfiler.PHASE_UPDATE);
+			mScreenManager.update(timeStep);
+			profiler.end(FrameProfiler.PHASE_UPDATE);
+		}
+
+		if (drawTarget != null) {
+			draw(drawTarget, interpolation);
+		}
+	}
+
+	/**
+	 * Ends the frame in the profiler, after the wait for the next frame
+	 */
+	public void endFrame() {
+		mScreenManager.getFrameProfiler().endFrame();
+	}
+
+	private void draw(DrawTarget drawTarget, float interpolation) {
+		FrameProfiler profiler = mScreenManager.getFrameProfiler();
+
+		Canvas canvas = null;
+		if (mDirtyRegionMode) {
+			DirtyRegion dirtyRegion = mScreenManager.getDirtyRegion();
+			if (dirtyRegion != null && !dirtyRegion.isEmpty()) {
+				profiler.begin(FrameProfiler.PHASE_LOCK_CANVAS);
+				canvas = drawTarget.lockCanvas(dirtyRegion);
+				profiler.end(FrameProfiler.PHASE_LOCK_CANVAS);
+			}
+		} else {
+			profiler.begin(FrameProfiler.PHASE_LOCK_CANVAS);
+			canvas = drawTarget.lockCanvas(null);
+			profiler.end(FrameProfiler.PHASE_LOCK_CANVAS);
+		}
+		if (canvas != null) {
+			mScreenManager.draw(canvas, interpolation);
+			profiler.begin(FrameProfiler.PHASE_UNLOCK_CANVAS);
+			drawTarget.unlockCanvasAndPost(canvas);
+			profiler.end(FrameProfiler.PHASE_UNLOCK_CANVAS);
+		}
+	}
+
+	/**
+	 * Returns the start time of the current frame
+	 * 
+	 * @return Time on the loop clock in nanoseconds
+	 */
+	public long getFrameStartTime() {
+		return mFrameStartTime;
+	}
+
+	public Clock getClock() {
+		return mClock;
+	}
+
+	public ScreenManager getScreenManager() {
+		return mScreenManager;
+	}
+
+	public boolean isAccumulatedTimeStep() {
+		return mAccumulatedTimeStep;
+	}
+
+	/**
+	 * Enables updating the screens with a constant time step. The screens are
+	 * updated zero or more times per frame and receive an interpolation
+	 * factor between the last two updates when drawing.
+	 * 
+	 * @param accumulatedTimeStep
+	 *            True to use accumulated time steps
+	 */
+	public void setAccumulatedTimeStep(boolean accumulatedTimeStep) {
+		mAccumulatedTimeStep = accumulatedTimeStep;
+	}
+
+	/**
+	 * Sets the number of screen updates per second when using accumulated
+	 * time steps
+	 * 
+	 * @param updatesPerSecond
+	 *            Update rate, at least one
+	 * @throws IllegalArgumentException
+	 *             If the rate is not positive
+	 */
+	public void setUpdateRate(int updatesPerSecond) {
+		if (updatesPerSecond <= 0) {
+			throw new IllegalArgumentException("Update rate must be positive: "
+					+ updatesPerSecond);
+		}
+		mUpdateStepTime = Math.round(1000000000.0 / updatesPerSecond);
+	}
+
+	public int getMaxUpdateSteps() {
+		return mMaxUpdateSteps;
+	}
+
+	/**
+	 * Sets how many screen updates may be performed in a single frame before
+	 * the remaining time is dropped
+	 * 
+	 * @param maxUpdateSteps
+	 *            Maximum number of updates per frame, at least one
+	 */
+	public void setMaxUpdateSteps(int maxUpdateSteps) {
+		mMaxUpdateSteps = Math.max(1, maxUpdateSteps);
+	}
+
+	public boolean isDirtyRegionMode() {
+		return mDirtyRegionMode;
+	}
+
+	/**
+	 * Enables redrawing only the regions that screens and components have
+	 * invalidated. Frames where nothing was invalidated are not drawn at all.
+	 * 
+	 * @param dirtyRegionMode
+	 *            True to only redraw invalidated regions
+	 */
+	public void setDirtyRegionMode(boolean dirtyRegionMode) {
+		mDirtyRegionMode = dirtyRegionMode;
+		mScreenManager.invalidate();
+	}
+}
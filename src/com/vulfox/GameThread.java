@@ -1,19 +1,31 @@
 package com.vulfox;
 
-import java.util.LinkedList;
-
 import android.content.Context;
-import android.graphics.Canvas;
+import android.os.Build;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
+import android.view.WindowManager;
+
+import com.vulfox.input.TouchEventQueue;
+import com.vulfox.render.SurfaceDrawTarget;
+import com.vulfox.timing.FramePacer;
+import com.vulfox.timing.SleepFramePacer;
+import com.vulfox.timing.SystemNanoClock;
+import com.vulfox.timing.VsyncFramePacer;
+import com.vulfox.util.FrameProfiler;
 
 public class GameThread extends Thread {
 
 	/**
-	 * Default frame delay time (30 fps)
+	 * Default target frame rate, rounded to a divisor of the display refresh
+	 * rate. The frame rate steps down from there when frames are too slow.
+	 */
+	private static final int DEFAULT_FRAME_RATE = 60;
+
+	/**
+	 * First API level with Choreographer
 	 */
-	private static final long DEFAULT_FRAME_TIME = (long) Math
-			.round(1000.0 / 45.0);
+	private static final int JELLY_BEAN = 16;
 
 	/**
 	 * Indicates if the thread loop should use fixed time updates
@@ -21,19 +33,26 @@ public class GameThread extends Thread {
 	private boolean mFixedTimeStep;
 
 	/**
-	 * Total frame time in a fixed time step loop
+	 * Decides when frames start in a fixed time step loop
+	 */
+	private FramePacer mFramePacer;
+
+	/**
+	 * Frame rate requested from the frame pacer, kept to set it on a new
+	 * pacer since the pacer only reports its current, possibly adapted, rate
 	 */
-	private long mFixedFrameTime = DEFAULT_FRAME_TIME;
+	private float mTargetFrameRate = DEFAULT_FRAME_RATE;
 
 	/**
-	 * Indicates if the activity is paused or not
+	 * Indicates if the activity is paused or not. Written under the thread
+	 * lock, read without it by the memory callbacks.
 	 */
-	private boolean mPaused;
+	private volatile boolean mPaused;
 
 	/**
-	 * Indicates if the activity still is active
+	 * Set by {@link #shutdown()} to end the loop for good
 	 */
-	private boolean mDone;
+	private volatile boolean mDone;
 
 	/**
 	 * Needed to load assets etc
@@ -66,9 +85,19 @@ public class GameThread extends Thread {
 	private ScreenManager mScreenManager;
 
 	/**
-	 * Holds any motion events that occurred between frames
+	 * Holds any touch events that occurred between frames
 	 */
-	private LinkedList<MotionEvent> mMotionEvents;
+	private TouchEventQueue mTouchEventQueue;
+
+	/**
+	 * Runs the frames
+	 */
+	private GameLoop mGameLoop;
+
+	/**
+	 * Draws the frames to the surface
+	 */
+	private SurfaceDrawTarget mDrawTarget;
 
 	/**
 	 * Creates the game thread that will be handling the screens
@@ -85,8 +114,35 @@ public class GameThread extends Thread {
 		mContext = context;
 		mSurfaceHolder = surfaceHolder;
 		mScreenManager = screenManager;
-		mMotionEvents = new LinkedList<MotionEvent>();
+		mTouchEventQueue = new TouchEventQueue();
+		mGameLoop = new GameLoop(screenManager, SystemNanoClock.getInstance(),
+				mTouchEventQueue);
+		mDrawTarget = new SurfaceDrawTarget(surfaceHolder);
 		mFixedTimeStep = true;
+		mFramePacer = createFramePacer(context);
+		mFramePacer.setTargetFrameRate(mTargetFrameRate);
+		updateFrameBudget();
+	}
+
+	/**
+	 * Creates a pacer following the display vsync where available, and one
+	 * that sleeps on older platforms
+	 * 
+	 * @param context
+	 * @return The pacer
+	 */
+	private static FramePacer createFramePacer(Context context) {
+		float refreshRate = 0;
+		WindowManager windowManager = (WindowManager) context
+				.getSystemService(Context.WINDOW_SERVICE);
+		if (windowManager != null) {
+			refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+		}
+
+		if (Build.VERSION.SDK_INT >= JELLY_BEAN) {
+			return new VsyncFramePacer(refreshRate);
+		}
+		return new SleepFramePacer(refreshRate);
 	}
 
 	/**
@@ -95,53 +151,56 @@ public class GameThread extends Thread {
 	@Override
 	public void run() {
 
-		Canvas canvas = null;
-		long startTime = System.nanoTime();
+		long nextFrameTime = 0;
+		mFramePacer.start();
+		mGameLoop.reset();
 		
 		while (!mDone) {
 
 			synchronized (this) {
 
-				while (mPaused || !mHasSurface) {
+				while (!mDone && (mPaused || !mHasSurface)) {
+					mFramePacer.stop();
 
 					try {
 						wait();
 					} catch (InterruptedException e) {
 					}
+					if (mDone) {
+						break;
+					}
 
-					startTime = System.nanoTime();
+					mFramePacer.start();
+					nextFrameTime = 0;
+					mGameLoop.reset();
+				}
+				if (mDone) {
+					break;
 				}
 
-				float timeStep = (float) ((System.nanoTime() - startTime) / 1000000000d);
-				startTime = System.nanoTime();
-
-//				for (MotionEvent motionEvent : mMotionEvents) {
-//					mScreenManager.handleInput(motionEvent);
-//				}
-//				mMotionEvents.clear();
-
-				mScreenManager.update(timeStep);
-
-				canvas = mSurfaceHolder.lockCanvas();
-				if (canvas != null) {
-					mScreenManager.draw(canvas);
-					mSurfaceHolder.unlockCanvasAndPost(canvas);
+				// Paced frames start at the time given by the pacer, which
+				// keeps the time steps steady
+				if (nextFrameTime != 0) {
+					mGameLoop.step(nextFrameTime, mDrawTarget);
+				} else {
+					mGameLoop.step(mDrawTarget);
 				}
+				nextFrameTime = 0;
 			}
 			
 			if (mFixedTimeStep) {
-				long frameTime = ((System.nanoTime() - startTime) / 1000000L);
-				long sleepTime = mFixedFrameTime - frameTime;
-				if (sleepTime > 0) {
-					try {
-						Thread.sleep(sleepTime);
-					} catch (InterruptedException e) {
-					}
-				}
+				FrameProfiler profiler = mScreenManager.getFrameProfiler();
+				profiler.begin(FrameProfiler.PHASE_SLEEP);
+				nextFrameTime = mFramePacer.waitForNextFrame(mGameLoop
+						.getFrameStartTime());
+				profiler.end(FrameProfiler.PHASE_SLEEP);
+				updateFrameBudget();
 			}
+
+			mGameLoop.endFrame();
 		}
-		
-		
+
+		mFramePacer.release();
 	}
 
 	/**
@@ -151,6 +210,18 @@ public class GameThread extends Thread {
 		mPaused = true;
 	}
 
+	/**
+	 * Ends the game loop for good, called when the activity is destroyed.
+	 * The thread finishes its current frame, releases the frame pacer and its
+	 * thread, and exits.
+	 */
+	public synchronized void shutdown() {
+		mDone = true;
+		// Wakes a wait for the next frame
+		mFramePacer.stop();
+		notify();
+	}
+
 	/**
 	 * Called when the activity is resuming execution
 	 */
@@ -160,16 +231,50 @@ public class GameThread extends Thread {
 	}
 
 	/**
-	 * Add a motion event that will be handled the next frame
+	 * Called when the system is low on memory. The resources of hidden
+	 * screens are released at the start of the next frame, or right away
+	 * while the game is paused since no frames run then. Does not wait for a
+	 * running frame.
+	 */
+	public void onLowMemory() {
+		mScreenManager.onLowMemory();
+		trimIfPaused();
+	}
+
+	/**
+	 * Called when the system asks the game to trim memory, see
+	 * {@link #onLowMemory()}
+	 * 
+	 * @param level
+	 *            Trim level passed by the system
+	 */
+	public void onTrimMemory(int level) {
+		mScreenManager.onTrimMemory(level);
+		trimIfPaused();
+	}
+
+	/**
+	 * Handles a trim request on the calling thread while the loop waits for
+	 * the game to resume. The lock is then only held by a frame that started
+	 * before the pause.
+	 */
+	private void trimIfPaused() {
+		if (mPaused) {
+			synchronized (this) {
+				mScreenManager.trimResources();
+			}
+		}
+	}
+
+	/**
+	 * Add a motion event that will be handled the next frame. Does not lock,
+	 * so the UI thread is never stalled by the game loop.
 	 * 
 	 * @param motionEvent
 	 *            A touch motion event
 	 */
-	public synchronized void onTouch(MotionEvent motionEvent) {
-		//mMotionEvents.addLast(MotionEvent.obtain(motionEvent));
-		if(mScreenManager.isInitialized()) {
-			mScreenManager.handleInput(motionEvent);
-		}
+	public void onTouch(MotionEvent motionEvent) {
+		mTouchEventQueue.offer(motionEvent);
 	}
 
 	/**
@@ -202,28 +307,174 @@ public class GameThread extends Thread {
 		if (!mScreenManager.isInitialized()) {
 			mScreenManager.initialize(mWidth, mHeight);
 		}
+		mScreenManager.invalidate();
 
 		notify();
 	}
 
+	/**
+	 * Returns the queue holding touch events between frames, mainly to read
+	 * its depth and overflow counters
+	 * 
+	 * @return The touch event queue
+	 */
+	public TouchEventQueue getTouchEventQueue() {
+		return mTouchEventQueue;
+	}
+
+	public boolean isDirtyRegionMode() {
+		return mGameLoop.isDirtyRegionMode();
+	}
+
+	/**
+	 * Enables redrawing only the regions that screens and components have
+	 * invalidated. Frames where nothing was invalidated are not drawn at all.
+	 * Suited for menus and other mostly static screens.
+	 * 
+	 * @param dirtyRegionMode
+	 *            True to only redraw invalidated regions
+	 */
+	public synchronized void setDirtyRegionMode(boolean dirtyRegionMode) {
+		mGameLoop.setDirtyRegionMode(dirtyRegionMode);
+	}
+
 	public boolean isFixedTimeStep() {
 		return mFixedTimeStep;
 	}
 
 	public void setFixedTimeStep(boolean fixedTimeStep) {
 		mFixedTimeStep = fixedTimeStep;
+		updateFrameBudget();
 	}
 
+	/**
+	 * Returns the time between frames at the current frame rate
+	 * 
+	 * @return Frame time in milliseconds
+	 */
 	public float getFixedFrameTime() {
-		return mFixedFrameTime;
+		return mFramePacer.getFrameInterval() / 1000000.0f;
 	}
 
+	/**
+	 * Sets the target frame time, rounded to a divisor of the display refresh
+	 * rate
+	 * 
+	 * @param fixedFrameTime
+	 *            Frame time in milliseconds
+	 */
 	public void setFixedFrameTime(long fixedFrameTime) {
-		mFixedFrameTime = fixedFrameTime;
+		mTargetFrameRate = 1000.0f / fixedFrameTime;
+		mFramePacer.setTargetFrameRate(mTargetFrameRate);
+		updateFrameBudget();
 	}
 
+	/**
+	 * Sets the target frame rate, rounded to a divisor of the display refresh
+	 * rate. On a 60 Hz display, 45 fps becomes 60 and 25 fps becomes 30.
+	 * 
+	 * @param fps
+	 *            Frames per second
+	 */
 	public void setFixedFPS(int fps) {
-		mFixedFrameTime = (long) Math.round(1000.0 / fps);
+		mTargetFrameRate = fps;
+		mFramePacer.setTargetFrameRate(mTargetFrameRate);
+		updateFrameBudget();
+	}
+
+	/**
+	 * Enables lowering the frame rate to the next divisor of the refresh rate
+	 * when frames are consistently over budget. Enabled by default.
+	 * 
+	 * @param adaptive
+	 *            True to adapt the frame rate
+	 */
+	public void setAdaptiveFrameRate(boolean adaptive) {
+		mFramePacer.setAdaptive(adaptive);
+		updateFrameBudget();
+	}
+
+	public FramePacer getFramePacer() {
+		return mFramePacer;
+	}
+
+	/**
+	 * Replaces the frame pacer. Must be called before the thread is started.
+	 * The new pacer gets the target frame rate and adaptive setting of the
+	 * current one.
+	 * 
+	 * @param framePacer
+	 */
+	public void setFramePacer(FramePacer framePacer) {
+		framePacer.setTargetFrameRate(mTargetFrameRate);
+		framePacer.setAdaptive(mFramePacer.isAdaptive());
+		mFramePacer.release();
+		mFramePacer = framePacer;
+		updateFrameBudget();
+	}
+
+	public boolean isAccumulatedTimeStep() {
+		return mGameLoop.isAccumulatedTimeStep();
+	}
+
+	/**
+	 * Enables updating the screens with a constant time step. The screens are
+	 * updated zero or more times per frame and receive an interpolation
+	 * factor between the last two updates when drawing.
+	 * 
+	 * @param accumulatedTimeStep
+	 *            True to use accumulated time steps
+	 */
+	public void setAccumulatedTimeStep(boolean accumulatedTimeStep) {
+		mGameLoop.setAccumulatedTimeStep(accumulatedTimeStep);
+	}
+
+	/**
+	 * Sets the number of screen updates per second when using accumulated
+	 * time steps
+	 * 
+	 * @param updatesPerSecond
+	 *            Update rate, at least one
+	 * @throws IllegalArgumentException
+	 *             If the rate is not positive
+	 */
+	public void setUpdateRate(int updatesPerSecond) {
+		mGameLoop.setUpdateRate(updatesPerSecond);
+	}
+
+	public int getMaxUpdateSteps() {
+		return mGameLoop.getMaxUpdateSteps();
+	}
+
+	/**
+	 * Sets how many screen updates may be performed in a single frame before
+	 * the remaining time is dropped
+	 * 
+	 * @param maxUpdateSteps
+	 *            Maximum number of updates per frame, at least one
+	 */
+	public void setMaxUpdateSteps(int maxUpdateSteps) {
+		mGameLoop.setMaxUpdateSteps(maxUpdateSteps);
+	}
+
+	/**
+	 * Returns the loop running the frames
+	 * 
+	 * @return The game loop
+	 */
+	public GameLoop getGameLoop() {
+		return mGameLoop;
+	}
+
+	/**
+	 * Lets the frame profiler count frames that take longer than the current
+	 * frame interval as dropped
+	 */
+	private void updateFrameBudget() {
+		if (mFixedTimeStep) {
+			mScreenManager.getFrameProfiler().setFrameBudget(
+					mFramePacer.getFrameInterval());
+		}
 	}
 
 }
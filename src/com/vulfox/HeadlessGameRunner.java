@@ -0,0 +1,180 @@
+package com.vulfox;
+
+import com.vulfox.render.DrawTarget;
+import com.vulfox.timing.SimulatedClock;
+import com.vulfox.timing.SimulatedFramePacer;
+import com.vulfox.util.FrameProfiler;
+
+/**
+ * Runs the screens of a game without a surface or game thread, on a
+ * simulated clock. Frames run back to back as fast as the machine allows,
+ * and every frame advances the clock by exactly one frame interval, so a run
+ * is deterministic and minutes of gameplay take seconds. Meant for
+ * simulating and benchmarking games on a plain JVM, with the Android classes
+ * the engine uses replaced by stubs.
+ */
+public class HeadlessGameRunner {
+
+	/**
+	 * Default simulated frame rate
+	 */
+	public static final float DEFAULT_FRAME_RATE = 60.0f;
+
+	/**
+	 * Screens to run
+	 */
+	private final ScreenManager mScreenManager;
+
+	/**
+	 * Simulated time
+	 */
+	private final SimulatedClock mClock = new SimulatedClock();
+
+	/**
+	 * Runs the frames
+	 */
+	private final GameLoop mGameLoop;
+
+	/**
+	 * Advances the clock between frames
+	 */
+	private SimulatedFramePacer mFramePacer;
+
+	/**
+	 * Where frames are drawn, null to only update
+	 */
+	private DrawTarget mDrawTarget;
+
+	/**
+	 * Number of frames run
+	 */
+	private long mFrameCount;
+
+	/**
+	 * Real time spent running frames in nanoseconds
+	 */
+	private long mWallTime;
+
+	/**
+	 * Creates a runner and initializes the screen manager if needed
+	 * 
+	 * @param screenManager
+	 *            Screens to run
+	 * @param width
+	 *            Simulated surface width
+	 * @param height
+	 *            Simulated surface height
+	 */
+	public HeadlessGameRunner(ScreenManager screenManager, int width, int height) {
+		mScreenManager = screenManager;
+		if (!screenManager.isInitialized()) {
+			screenManager.initialize(width, height);
+		}
+		mGameLoop = new GameLoop(screenManager, mClock, null);
+		setFrameRate(DEFAULT_FRAME_RATE);
+	}
+
+	/**
+	 * Sets the simulated frame rate, which is the time step passed to the
+	 * screens unless the loop uses accumulated time steps
+	 * 
+	 * @param framesPerSecond
+	 */
+	public void setFrameRate(float framesPerSecond) {
+		mFramePacer = new SimulatedFramePacer(mClock, framesPerSecond);
+		mScreenManager.getFrameProfiler().setFrameBudget(
+				mFramePacer.getFrameInterval());
+	}
+
+	/**
+	 * Sets where frames are drawn
+	 * 
+	 * @param drawTarget
+	 *            The target, or null to only update the screens
+	 */
+	public void setDrawTarget(DrawTarget drawTarget) {
+		mDrawTarget = drawTarget;
+	}
+
+	/**
+	 * Runs a number of frames
+	 * 
+	 * @param frames
+	 */
+	public void run(int frames) {
+		long wallStart = System.nanoTime();
+		for (int i = 0; i < frames; i++) {
+			// The first frame of a run starts one interval after the last
+			long frameTime = mFramePacer.waitForNextFrame(mGameLoop
+					.getFrameStartTime());
+			mGameLoop.step(frameTime, mDrawTarget);
+			mGameLoop.endFrame();
+		}
+		mFrameCount += frames;
+		mWallTime += System.nanoTime() - wallStart;
+	}
+
+	/**
+	 * Runs frames until a span of simulated time has passed
+	 * 
+	 * @param seconds
+	 *            Simulated seconds
+	 * @return Number of frames run
+	 */
+	public int runFor(float seconds) {
+		int frames = (int) Math.ceil(seconds * 1000000000.0
+				/ mFramePacer.getFrameInterval());
+		run(frames);
+		return frames;
+	}
+
+	/**
+	 * Returns the loop, to change its time step settings
+	 * 
+	 * @return The game loop
+	 */
+	public GameLoop getGameLoop() {
+		return mGameLoop;
+	}
+
+	public SimulatedClock getClock() {
+		return mClock;
+	}
+
+	/**
+	 * Returns the profiler of the screen manager. Its phases measure real
+	 * time, so it shows how long the frames took on this machine.
+	 * 
+	 * @return The frame profiler
+	 */
+	public FrameProfiler getFrameProfiler() {
+		return mScreenManager.getFrameProfiler();
+	}
+
+	/**
+	 * Returns the number of frames run
+	 * 
+	 * @return Frame count
+	 */
+	public long getFrameCount() {
+		return mFrameCount;
+	}
+
+	/**
+	 * Returns the real time spent running frames
+	 * 
+	 * @return Wall time in nanoseconds
+	 */
+	public long getWallTime() {
+		return mWallTime;
+	}
+
+	/**
+	 * Returns how much faster than real time the frames ran
+	 * 
+	 * @return Ratio of simulated to real time
+	 */
+	public float getSpeedup() {
+		return mWallTime == 0 ? 0 : (float) mClock.nanoTime() / mWallTime;
+	}
+}
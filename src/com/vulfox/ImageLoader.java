@@ -10,18 +10,38 @@ import android.graphics.BitmapFactory;
  * Helper class for loading images 
  */
 public class ImageLoader {
+
 	/**
-	 * Loads a bitmap from a resource ID
+	 * Shared bitmap cache, created on first use
+	 */
+	private static BitmapCache sCache;
+
+	/**
+	 * Loads a bitmap from a resource ID. Every call decodes a new bitmap that
+	 * is owned by the caller, use {@link #acquireFromResource(Context, int)}
+	 * to share cached bitmaps instead.
 	 * @param context Application context
 	 * @param resourceID Resource ID
 	 * @return The loaded bitmap
 	 */
 	public static Bitmap loadFromResource(Context context, int resourceID) {
+		return loadFromResource(context, resourceID, null);
+	}
+
+	/**
+	 * Loads a bitmap from a resource ID
+	 * @param context Application context
+	 * @param resourceID Resource ID
+	 * @param options Decode options or null for the defaults
+	 * @return The loaded bitmap
+	 */
+	public static Bitmap loadFromResource(Context context, int resourceID,
+			BitmapFactory.Options options) {
 		Bitmap bitmap = null;
 		if (context != null) {
 			InputStream is = context.getResources().openRawResource(resourceID);
 			try {
-				bitmap = BitmapFactory.decodeStream(is);
+				bitmap = BitmapFactory.decodeStream(is, null, options);
 			} finally {
 				try {
 					is.close();
@@ -32,4 +52,62 @@ public class ImageLoader {
 		}
 		return bitmap;
 	}
+
+	/**
+	 * Returns the shared bitmap cache. It is created with a budget of
+	 * {@link BitmapCache#DEFAULT_MEMORY_FRACTION} of the memory class.
+	 * @param context Application context
+	 * @return The bitmap cache
+	 */
+	public static synchronized BitmapCache getCache(Context context) {
+		if (sCache == null) {
+			sCache = new BitmapCache(BitmapCache.getMemoryClassBudget(context,
+					BitmapCache.DEFAULT_MEMORY_FRACTION));
+		}
+		return sCache;
+	}
+
+	/**
+	 * Sets the budget of the shared bitmap cache relative to the memory
+	 * available to the application
+	 * @param context Application context
+	 * @param fraction Fraction of the memory class, e.g. 0.25
+	 */
+	public static void setCacheMemoryFraction(Context context, float fraction) {
+		getCache(context).setMaxBytes(
+				BitmapCache.getMemoryClassBudget(context, fraction));
+	}
+
+	/**
+	 * Returns a shared bitmap from the cache, decoding it on the first call.
+	 * Must be matched by a call to {@link #release(Context, Bitmap)} and
+	 * must not be recycled by the caller.
+	 * @param context Application context
+	 * @param resourceID Resource ID
+	 * @return The bitmap
+	 */
+	public static Bitmap acquireFromResource(Context context, int resourceID) {
+		return getCache(context).acquire(context, resourceID, null);
+	}
+
+	/**
+	 * Returns a shared bitmap from the cache, decoding it on the first call
+	 * @param context Application context
+	 * @param resourceID Resource ID
+	 * @param options Decode options or null for the defaults
+	 * @return The bitmap
+	 */
+	public static Bitmap acquireFromResource(Context context, int resourceID,
+			BitmapFactory.Options options) {
+		return getCache(context).acquire(context, resourceID, options);
+	}
+
+	/**
+	 * Releases a bitmap returned by acquireFromResource
+	 * @param context Application context
+	 * @param bitmap The bitmap
+	 */
+	public static void release(Context context, Bitmap bitmap) {
+		getCache(context).release(bitmap);
+	}
 }
@@ -4,12 +4,38 @@ import java.util.ArrayList;
 import java.util.List;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.util.Log;
-import android.view.MotionEvent;
+
+import com.vulfox.ecs.World;
+import com.vulfox.input.PointerTracker;
+import com.vulfox.input.TouchEvent;
+import com.vulfox.render.Camera;
+import com.vulfox.render.DirtyRegion;
 
 public abstract class Screen {
 
+	/**
+	 * A covered screen is updated every frame like the top screen
+	 */
+	public static final int UPDATE_NORMAL = 0;
+
+	/**
+	 * A covered screen is updated once every few frames with the time that
+	 * has passed since its last update
+	 */
+	public static final int UPDATE_THROTTLED = 1;
+
+	/**
+	 * A covered screen is not updated
+	 */
+	public static final int UPDATE_FROZEN = 2;
+
+	/**
+	 * Default number of frames per update of a throttled screen
+	 */
+	public static final int DEFAULT_THROTTLE_DIVISOR = 4;
+
 	/**
 	 * Width of the draw surface
 	 */
@@ -36,7 +62,109 @@ public abstract class Screen {
 	private List<ScreenComponent> screenComponents = new ArrayList<ScreenComponent>();
 
 	/**
-	 * Called when the surface manager has been initialized
+	 * Spatial index of the screen components used for hit testing
+	 */
+	private ComponentGrid mComponentGrid = new ComponentGrid(
+			ComponentGrid.DEFAULT_CELL_SIZE);
+
+	/**
+	 * Components that received a down event, per pointer. A component receives
+	 * the move and up events of the pointers it captured, wherever they happen.
+	 */
+	private ScreenComponent[] mCapturedComponents = new ScreenComponent[PointerTracker.MAX_POINTERS];
+
+	/**
+	 * Pointer ids of the captured components
+	 */
+	private int[] mCapturePointerIds = new int[PointerTracker.MAX_POINTERS];
+
+	/**
+	 * Z order given to the next added component
+	 */
+	private int mNextZOrder;
+
+	/**
+	 * Area of the screen that has changed since it was last drawn
+	 */
+	private DirtyRegion mDirtyRegion = new DirtyRegion();
+
+	/**
+	 * Assets that are loaded before the screen is initialized, null until
+	 * declared
+	 */
+	private AssetManifest mAssetManifest;
+
+	/**
+	 * Indicates if the screen has been initialized
+	 */
+	private boolean mInitialized;
+
+	/**
+	 * Entities of the screen, null if the screen does not use entities
+	 */
+	private World mWorld;
+
+	/**
+	 * Camera the screen is drawn through, null to draw in surface pixels
+	 */
+	private Camera mCamera;
+
+	/**
+	 * Indicates if the screen covers everything below it
+	 */
+	private boolean mOpaque = true;
+
+	/**
+	 * How the screen is updated while another screen is on top of it
+	 */
+	private int mCoveredUpdatePolicy = UPDATE_FROZEN;
+
+	/**
+	 * Number of frames per update while covered and throttled
+	 */
+	private int mThrottleDivisor = DEFAULT_THROTTLE_DIVISOR;
+
+	/**
+	 * Frames since the last throttled update
+	 */
+	private int mThrottleFrames;
+
+	/**
+	 * Time since the last throttled update in seconds
+	 */
+	private float mThrottleTime;
+
+	/**
+	 * Indicates if the assets and heavy resources of the screen have been
+	 * released while it was hidden
+	 */
+	private boolean mResourcesReleased;
+
+	/**
+	 * Called when the screen is added to an initialized screen manager, before
+	 * its assets are loaded
+	 * 
+	 * @param width
+	 *            Width of the draw surface
+	 * @param height
+	 *            Height of the draw surface
+	 * @param context
+	 *            Application context
+	 */
+	final void attach(int width, int height, Context context,
+			ScreenManager screenManager) {
+		mWidth = width;
+		mHeight = height;
+		mContext = context;
+		mScreenManager = screenManager;
+		if (mCamera != null) {
+			mCamera.setSurfaceSize(width, height);
+		}
+	}
+
+	/**
+	 * Called when the surface manager has been initialized and the assets of
+	 * the screen have been loaded
 	 * 
 	 * @param width
 	 *            Width of the draw surface
@@ -52,7 +180,28 @@ public abstract class Screen {
 		mContext = context;
 		mScreenManager = screenManager;
 
+		synchronized (screenComponents) {
+			mComponentGrid.resize(width, height, screenComponents);
+		}
+
+		if (mCamera != null) {
+			mCamera.setSurfaceSize(width, height);
+		}
+
 		initialize();
+		mInitialized = true;
+		// Assets released while still loading have been loaded again
+		mResourcesReleased = false;
+		invalidate();
+	}
+
+	/**
+	 * Tells if the screen has been initialized
+	 * 
+	 * @return True if initialized
+	 */
+	public boolean isInitialized() {
+		return mInitialized;
 	}
 
 	/**
@@ -63,7 +212,141 @@ public abstract class Screen {
 	}
 
 	/**
-	 * Adds a screen component to the screen.
+	 * Is called once before the screen is initialized to declare the bitmaps
+	 * it needs. They are loaded on background threads and the screen is
+	 * initialized once they are all available through
+	 * {@link #getAsset(int)}. Until then {@link #drawLoading(Canvas, float)}
+	 * is drawn instead of the screen.
+	 * 
+	 * @param manifest
+	 *            Manifest to add the assets to
+	 */
+	protected void declareAssets(AssetManifest manifest) {
+
+	}
+
+	/**
+	 * Returns a bitmap declared in {@link #declareAssets(AssetManifest)}
+	 * 
+	 * @param resourceID
+	 *            Resource ID
+	 * @return The bitmap or null if it was not declared, failed to load or
+	 *         has been released
+	 */
+	protected Bitmap getAsset(int resourceID) {
+		return mAssetManifest == null ? null : mAssetManifest
+				.getBitmap(resourceID);
+	}
+
+	/**
+	 * Returns the asset manifest, declaring the assets on the first call
+	 * 
+	 * @return The asset manifest
+	 */
+	AssetManifest getAssetManifest() {
+		if (mAssetManifest == null) {
+			mAssetManifest = new AssetManifest();
+			declareAssets(mAssetManifest);
+		}
+		return mAssetManifest;
+	}
+
+	/**
+	 * Returns approximately how many bytes the screen holds. Counts the
+	 * declared assets and the component caches, such as rendered buttons, by
+	 * default. Override to add other heavy resources.
+	 * 
+	 * @return Size in bytes
+	 */
+	public long getResourceBytes() {
+		long bytes = mAssetManifest == null ? 0 : mAssetManifest.getByteCount();
+		synchronized (screenComponents) {
+			for (int i = 0; i < screenComponents.size(); i++) {
+				bytes += screenComponents.get(i).getCacheBytes();
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Tells if the resources of the screen have been released and not
+	 * reloaded yet
+	 * 
+	 * @return True if released
+	 */
+	public boolean isResourcesReleased() {
+		return mResourcesReleased;
+	}
+
+	/**
+	 * Is called when the screen is hidden and memory is low or the resource
+	 * budget of the screen manager is exceeded, right before the declared
+	 * assets are released. Release other heavy resources here. The screen is
+	 * not drawn until its resources have been reloaded.
+	 */
+	protected void onReleaseResources() {
+
+	}
+
+	/**
+	 * Is called when the screen becomes visible again after its resources
+	 * were released, once the declared assets have been loaded again on the
+	 * background threads
+	 */
+	protected void onReloadResources() {
+
+	}
+
+	/**
+	 * Releases the declared assets, component caches and heavy resources of
+	 * a hidden screen. A screen that is still loading only drops the assets
+	 * loaded so far, and is initialized once they are loaded again.
+	 * 
+	 * @param cache
+	 *            Cache the assets were loaded into
+	 */
+	final void releaseResources(BitmapCache cache) {
+		if (!mResourcesReleased) {
+			if (mInitialized) {
+				onReleaseResources();
+			}
+			synchronized (screenComponents) {
+				for (int i = 0; i < screenComponents.size(); i++) {
+					screenComponents.get(i).releaseCaches();
+				}
+			}
+			mResourcesReleased = true;
+		}
+		// Also cancels a load that was started before the screen was hidden
+		getAssetManifest().release(cache);
+	}
+
+	/**
+	 * Called by the screen manager once the released assets have been loaded
+	 * again
+	 */
+	final void resourcesReloaded() {
+		mResourcesReleased = false;
+		onReloadResources();
+		invalidate();
+	}
+
+	/**
+	 * Is called instead of draw while the declared assets are loading, or
+	 * reloading after they were released
+	 * 
+	 * @param canvas
+	 *            Canvas to draw to
+	 * @param progress
+	 *            Loaded fraction of the assets, between 0 and 1
+	 */
+	public void drawLoading(Canvas canvas, float progress) {
+
+	}
+
+	/**
+	 * Adds a screen component to the screen. Components added later are drawn
+	 * on top of and receive touches before earlier ones.
 	 * 
 	 * @param button
 	 */
@@ -73,15 +356,61 @@ public abstract class Screen {
 				screenComponents = new ArrayList<ScreenComponent>();
 			}
 			screenComponents.add(component);
+			component.setScreen(this, mNextZOrder++);
+			mComponentGrid.insert(component);
 		}
+		component.invalidate();
 	}
 
 	/**
-	 * Is called once for every motion event at the beginning of a frame
+	 * Called by a component after its position or size has changed
 	 * 
-	 * @param motionEvent
+	 * @param component
+	 */
+	void componentBoundsChanged(ScreenComponent component) {
+		synchronized (screenComponents) {
+			mComponentGrid.update(component);
+		}
+	}
+
+	/**
+	 * Marks the whole screen as needing to be redrawn
 	 */
-	public void handleInput(MotionEvent motionEvent) {
+	public void invalidate() {
+		mDirtyRegion.union(0, 0, mWidth, mHeight);
+	}
+
+	/**
+	 * Marks an area of the screen as needing to be redrawn. Only has an effect
+	 * when the game thread uses dirty region rendering, otherwise the whole
+	 * screen is redrawn every frame anyway.
+	 * 
+	 * @param left
+	 * @param top
+	 * @param right
+	 *            Exclusive right edge
+	 * @param bottom
+	 *            Exclusive bottom edge
+	 */
+	public void invalidate(int left, int top, int right, int bottom) {
+		mDirtyRegion.union(left, top, right, bottom);
+	}
+
+	/**
+	 * Returns the area of the screen that has changed since it was last drawn
+	 * 
+	 * @return The dirty region
+	 */
+	DirtyRegion getDirtyRegion() {
+		return mDirtyRegion;
+	}
+
+	/**
+	 * Is called once for every touch event at the beginning of a frame
+	 * 
+	 * @param touchEvent
+	 */
+	public void handleInput(TouchEvent touchEvent) {
 
 	}
 
@@ -89,14 +418,194 @@ public abstract class Screen {
 	 * Is called once ever frame right after handleInput
 	 * 
 	 * @param timeStep
-	 *            Time since last frame in milliseconds
+	 *            Time since last update in seconds
 	 */
 	public void update(float timeStep) {
 
 	}
 
 	/**
-	 * Is called once at the end of every frame
+	 * Updates the screen and then runs the systems of its world
+	 * 
+	 * @param timeStep
+	 *            Time since last update in seconds
+	 */
+	final void performUpdate(float timeStep) {
+		update(timeStep);
+		if (mWorld != null) {
+			mWorld.update(timeStep);
+		}
+	}
+
+	/**
+	 * Updates the screen while another screen is on top of it, according to
+	 * its covered update policy
+	 * 
+	 * @param timeStep
+	 *            Time since last update in seconds
+	 */
+	final void performCoveredUpdate(float timeStep) {
+		switch (mCoveredUpdatePolicy) {
+		case UPDATE_NORMAL:
+			performUpdate(timeStep);
+			break;
+		case UPDATE_THROTTLED:
+			mThrottleTime += timeStep;
+			if (++mThrottleFrames >= mThrottleDivisor) {
+				float throttledTime = mThrottleTime;
+				mThrottleFrames = 0;
+				mThrottleTime = 0.0f;
+				performUpdate(throttledTime);
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Called by the screen manager when the screen becomes the top screen,
+	 * either when it is pushed or when the screen above it is popped
+	 */
+	final void gainFocus() {
+		mThrottleFrames = 0;
+		mThrottleTime = 0.0f;
+		invalidate();
+		onFocusGained();
+	}
+
+	/**
+	 * Called by the screen manager when the screen stops being the top screen
+	 */
+	final void loseFocus() {
+		onFocusLost();
+	}
+
+	/**
+	 * Is called when the screen becomes the top screen and starts receiving
+	 * input. The screen keeps its state while covered or popped, so it is not
+	 * initialized again.
+	 */
+	protected void onFocusGained() {
+
+	}
+
+	/**
+	 * Is called when another screen is pushed on top of this one or this
+	 * screen is popped
+	 */
+	protected void onFocusLost() {
+
+	}
+
+	/**
+	 * Tells if the screen covers everything below it. Only the screens from
+	 * the topmost opaque screen and up are drawn.
+	 * 
+	 * @return True if opaque
+	 */
+	public boolean isOpaque() {
+		return mOpaque;
+	}
+
+	/**
+	 * Declares if the screen covers everything below it. Translucent screens,
+	 * such as pause menus and popups, are drawn on top of the screens below.
+	 * Screens are opaque by default.
+	 * 
+	 * @param opaque
+	 *            False to draw the screens below this one
+	 */
+	protected void setOpaque(boolean opaque) {
+		mOpaque = opaque;
+	}
+
+	public int getCoveredUpdatePolicy() {
+		return mCoveredUpdatePolicy;
+	}
+
+	/**
+	 * Sets how the screen is updated while another screen is on top of it.
+	 * Covered screens are frozen by default.
+	 * 
+	 * @param policy
+	 *            {@link #UPDATE_NORMAL}, {@link #UPDATE_THROTTLED} or
+	 *            {@link #UPDATE_FROZEN}
+	 */
+	protected void setCoveredUpdatePolicy(int policy) {
+		if (policy < UPDATE_NORMAL || policy > UPDATE_FROZEN) {
+			throw new IllegalArgumentException("Unknown update policy: "
+					+ policy);
+		}
+		mCoveredUpdatePolicy = policy;
+	}
+
+	public int getThrottleDivisor() {
+		return mThrottleDivisor;
+	}
+
+	/**
+	 * Sets how often a covered screen with the {@link #UPDATE_THROTTLED}
+	 * policy is updated
+	 * 
+	 * @param throttleDivisor
+	 *            Number of frames per update, at least one
+	 */
+	protected void setThrottleDivisor(int throttleDivisor) {
+		mThrottleDivisor = Math.max(1, throttleDivisor);
+	}
+
+	/**
+	 * Sets the entity world of the screen. Its systems are run after every
+	 * call to {@link #update(float)}.
+	 * 
+	 * @param world
+	 *            The world or null
+	 */
+	protected void setWorld(World world) {
+		mWorld = world;
+	}
+
+	/**
+	 * Returns the entity world of the screen
+	 * 
+	 * @return The world or null if the screen does not use entities
+	 */
+	public World getWorld() {
+		return mWorld;
+	}
+
+	/**
+	 * Sets the camera of the screen. While a camera is set,
+	 * {@link #draw(Canvas, float)} is called with the camera transform applied
+	 * and the canvas clipped to the viewport, and touch events carry world
+	 * coordinates in {@link TouchEvent#getWorldX()} and
+	 * {@link TouchEvent#getWorldY()}. Screen components are still drawn and hit
+	 * tested in surface pixels. Invalidate the screen after moving the camera
+	 * when the game thread uses dirty region rendering.
+	 * 
+	 * @param camera
+	 *            The camera or null
+	 */
+	protected void setCamera(Camera camera) {
+		mCamera = camera;
+		if (camera != null && mScreenManager != null) {
+			camera.setSurfaceSize(mWidth, mHeight);
+		}
+		invalidate();
+	}
+
+	/**
+	 * Returns the camera of the screen
+	 * 
+	 * @return The camera or null if the screen draws in surface pixels
+	 */
+	public Camera getCamera() {
+		return mCamera;
+	}
+
+	/**
+	 * Is called once at the end of every frame. When the game thread uses
+	 * dirty region rendering, the canvas is clipped to the invalidated area and
+	 * everything inside it has to be redrawn, including the background.
 	 * 
 	 * @param canvas
 	 *            Canvas to draw to
@@ -105,56 +614,114 @@ public abstract class Screen {
 
 	}
 
+	/**
+	 * Is called once at the end of every frame. When the game thread uses
+	 * accumulated time steps, several frames can be drawn between two updates
+	 * or several updates can happen before a frame. Override this method to
+	 * interpolate between the previous and the current update state. Calls
+	 * {@link #draw(Canvas)} by default.
+	 * 
+	 * @param canvas
+	 *            Canvas to draw to
+	 * @param interpolation
+	 *            Fraction of an update step, between 0 and 1, that has passed
+	 *            since the last update
+	 */
+	public void draw(Canvas canvas, float interpolation) {
+		draw(canvas);
+	}
+
+	/**
+	 * Draws the screen through its camera if it has one
+	 * 
+	 * @param canvas
+	 * @param interpolation
+	 */
+	final void performDraw(Canvas canvas, float interpolation) {
+		if (mCamera == null) {
+			draw(canvas, interpolation);
+			return;
+		}
+
+		int saveCount = mCamera.begin(canvas);
+		draw(canvas, interpolation);
+		mCamera.end(canvas, saveCount);
+	}
+
 	/**
 	 * If a screen component was touched execute the components handle method.
+	 * A down event goes to the topmost component under the touch, which then
+	 * captures the following move and up events of the same pointer. Every
+	 * pointer can capture its own component.
 	 * 
-	 * @param motionEvent
+	 * @param touchEvent
 	 * @return true if the event was consumed.
 	 */
-	public boolean handleComponentInput(MotionEvent motionEvent) {
+	public boolean handleComponentInput(TouchEvent touchEvent) {
 		boolean consumed = false;
+		float x = touchEvent.getX();
+		float y = touchEvent.getY();
+
 		synchronized (screenComponents) {
-			if (screenComponents != null) {
-				for (int i = 0; i < screenComponents.size(); i++) {
-					ScreenComponent screenComponent = screenComponents.get(i);
-					boolean insideConponent = false;
-					
-					//Check if touch was inside screenComponent bounds.
-					if (motionEvent.getX() > screenComponent.getPositionX() && 
-							motionEvent.getX() < screenComponent.getPositionX() + screenComponent.getWidth() &&
-							motionEvent.getY() > screenComponent.getPositionY() &&
-							motionEvent.getY() < screenComponent.getPositionY() + screenComponent.getHeight()) {
-							Log.d("INSIDE", "WE ARE INSIDE COMPONENT!");	
-							insideConponent = true;
-					} 
-					
-					//If we moved finger we need to update components states for example
-					//buttons need to get their untouched images if we touched a button 
-					//and then moved outside of it.
-					if (motionEvent.getAction() == MotionEvent.ACTION_MOVE) {
-						screenComponent.handleActionMove(motionEvent, insideConponent);
-					}
-					
-					//If we released finger we need to update components states for example
-					//buttons need to get their untouched images.
-					if (motionEvent.getAction() == MotionEvent.ACTION_UP) {
-						boolean tempConsumed = false;
-						tempConsumed = screenComponent.handleActionUp(motionEvent, insideConponent);
-						if (tempConsumed) {
-							consumed = true;
-						}
-					}
-					
-					//If we are inside component register the touch
-					if (motionEvent.getAction() == MotionEvent.ACTION_DOWN) {
-						screenComponent.handleActionDown(motionEvent, insideConponent);
+			int slot = getCaptureSlot(touchEvent.getPointerId());
+			ScreenComponent captured = slot < 0 ? null : mCapturedComponents[slot];
+
+			switch (touchEvent.getAction()) {
+			case TouchEvent.ACTION_DOWN:
+				if (slot >= 0) {
+					mCapturedComponents[slot] = null;
+				}
+				captured = mComponentGrid.hitTest(x, y);
+				if (captured != null) {
+					slot = getCaptureSlot(-1);
+					if (slot >= 0) {
+						mCapturedComponents[slot] = captured;
+						mCapturePointerIds[slot] = touchEvent.getPointerId();
 					}
+					captured.handleActionDown(touchEvent, true);
+				}
+				break;
+			case TouchEvent.ACTION_MOVE:
+				//Lets components such as buttons go back to their untouched
+				//state when the finger moves outside of them.
+				if (captured != null) {
+					captured.handleActionMove(touchEvent, captured.contains(x, y));
+				}
+				break;
+			case TouchEvent.ACTION_UP:
+				if (captured != null) {
+					consumed = captured.handleActionUp(touchEvent, captured.contains(x, y));
+					mCapturedComponents[slot] = null;
 				}
+				break;
+			case TouchEvent.ACTION_CANCEL:
+				if (captured != null) {
+					captured.handleActionUp(touchEvent, false);
+					mCapturedComponents[slot] = null;
+				}
+				break;
 			}
 		}
 		return consumed;
 	}
 
+	/**
+	 * Finds the capture slot of a pointer
+	 * 
+	 * @param pointerId
+	 *            Pointer id or -1 to find a free slot
+	 * @return Slot index or -1 if not found
+	 */
+	private int getCaptureSlot(int pointerId) {
+		for (int i = 0; i < mCapturedComponents.length; i++) {
+			boolean free = mCapturedComponents[i] == null;
+			if (pointerId < 0 ? free : !free && mCapturePointerIds[i] == pointerId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	public void drawComponents(Canvas canvas) {
 		synchronized (screenComponents) {
 			if (screenComponents != null) {
@@ -1,7 +1,8 @@
 package com.vulfox;
 
 import android.graphics.Canvas;
-import android.view.MotionEvent;
+
+import com.vulfox.input.TouchEvent;
 
 /**
  * Represents a component that can be present on a screen for example a button.
@@ -21,6 +22,18 @@ abstract class ScreenComponent {
 
 	/** The height of the component. */
 	private int height;
+
+	/** The screen the component has been added to, null if none. */
+	private Screen screen;
+
+	/** Drawing and hit testing order, higher is on top. */
+	private int zOrder;
+
+	/** The range of grid cells the component is stored in. */
+	private int cellLeft;
+	private int cellTop;
+	private int cellRight;
+	private int cellBottom;
 	
 	/**
 	 * Draws this component
@@ -29,27 +42,45 @@ abstract class ScreenComponent {
 	abstract void draw(Canvas canvas);
 
 	/**
-	 * Called when someone touches a component
+	 * Frees anything the component caches to draw faster, called when the
+	 * screen releases its resources while hidden. The caches must be created
+	 * again on the next draw.
+	 */
+	void releaseCaches() {
+	}
+
+	/**
+	 * Returns approximately how many bytes the caches of the component hold
+	 * @return Size in bytes
+	 */
+	long getCacheBytes() {
+		return 0;
+	}
+
+	/**
+	 * Called when someone touches a component. With several fingers on the
+	 * screen, every finger sends its own down, move and up events, told apart
+	 * by {@link TouchEvent#getPointerId()}.
 	 * @param insideConponent
-	 * @param motionEvent
+	 * @param touchEvent
 	 */
-	abstract void handleActionDown(MotionEvent motionEvent, boolean insideConponent);
+	abstract void handleActionDown(TouchEvent touchEvent, boolean insideConponent);
 
 	/**
 	 * 	Called when someone releases a component
 	 * @param insideConponent
-	 * @param motionEvent
+	 * @param touchEvent
 	 * @return true if event was consumed.
 	 */
-	abstract boolean handleActionUp(MotionEvent motionEvent, boolean insideConponent);
+	abstract boolean handleActionUp(TouchEvent touchEvent, boolean insideConponent);
 	
 	/**
 	 * Called when someone moves finger during touch.
 	 * @param insideConponent
-	 * @param motionEvent
+	 * @param touchEvent
 	 * @param insideConponent 
 	 */
-	abstract void handleActionMove(MotionEvent motionEvent, boolean insideConponent);
+	abstract void handleActionMove(TouchEvent touchEvent, boolean insideConponent);
 	
 	/**
 	 * @return the positionX
@@ -63,7 +94,11 @@ abstract class ScreenComponent {
 	 *            the positionX to set
 	 */
 	public void setPositionX(int positionX) {
-		this.positionX = positionX;
+		if (this.positionX != positionX) {
+			invalidate();
+			this.positionX = positionX;
+			boundsChanged();
+		}
 	}
 
 	/**
@@ -78,7 +113,11 @@ abstract class ScreenComponent {
 	 *            the positionY to set
 	 */
 	public void setPositionY(int positionY) {
-		this.positionY = positionY;
+		if (this.positionY != positionY) {
+			invalidate();
+			this.positionY = positionY;
+			boundsChanged();
+		}
 	}
 
 	/**
@@ -93,7 +132,11 @@ abstract class ScreenComponent {
 	 *            the width to set
 	 */
 	public void setWidth(int width) {
-		this.width = width;
+		if (this.width != width) {
+			invalidate();
+			this.width = width;
+			boundsChanged();
+		}
 	}
 
 	/**
@@ -108,7 +151,81 @@ abstract class ScreenComponent {
 	 *            the height to set
 	 */
 	public void setHeight(int height) {
-		this.height = height;
+		if (this.height != height) {
+			invalidate();
+			this.height = height;
+			boundsChanged();
+		}
+	}
+
+	/**
+	 * Marks the area covered by the component as needing to be redrawn. Should
+	 * be called whenever the appearance of the component changes.
+	 */
+	protected void invalidate() {
+		if (screen != null) {
+			screen.invalidate(positionX, positionY, positionX + width,
+					positionY + height);
+		}
+	}
+
+	/**
+	 * Tells if a point is inside the component
+	 * @param x
+	 * @param y
+	 * @return true if the point is inside
+	 */
+	boolean contains(float x, float y) {
+		return x >= positionX && x < positionX + width && y >= positionY
+				&& y < positionY + height;
+	}
+
+	/**
+	 * Redraws the component and keeps the hit testing grid up to date after
+	 * the position or size has changed
+	 */
+	private void boundsChanged() {
+		invalidate();
+		if (screen != null) {
+			screen.componentBoundsChanged(this);
+		}
+	}
+
+	/**
+	 * Called when the component is added to a screen
+	 * @param screen
+	 * @param zOrder
+	 */
+	void setScreen(Screen screen, int zOrder) {
+		this.screen = screen;
+		this.zOrder = zOrder;
+	}
+
+	int getZOrder() {
+		return zOrder;
+	}
+
+	void setCells(int left, int top, int right, int bottom) {
+		cellLeft = left;
+		cellTop = top;
+		cellRight = right;
+		cellBottom = bottom;
+	}
+
+	int getCellLeft() {
+		return cellLeft;
+	}
+
+	int getCellTop() {
+		return cellTop;
+	}
+
+	int getCellRight() {
+		return cellRight;
+	}
+
+	int getCellBottom() {
+		return cellBottom;
 	}
 
 }
@@ -1,10 +1,17 @@
 package com.vulfox;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.view.MotionEvent;
+
+import com.vulfox.input.PointerTracker;
+import com.vulfox.input.TouchEvent;
+import com.vulfox.math.Vector2f;
+import com.vulfox.render.Camera;
+import com.vulfox.render.DirtyRegion;
+import com.vulfox.util.FrameProfiler;
+import com.vulfox.util.FrameProfilerOverlay;
 
 public class ScreenManager {
 
@@ -13,11 +20,69 @@ public class ScreenManager {
 	 */
 	private Context mContext;
 	
+	/**
+	 * Pushes a screen on top of the stack
+	 */
+	private static final int OP_PUSH = 0;
+
+	/**
+	 * Pops the top screen
+	 */
+	private static final int OP_POP = 1;
+
+	/**
+	 * Removes a screen wherever it is in the stack
+	 */
+	private static final int OP_REMOVE = 2;
+
+	/**
+	 * Trim level from which hidden screens release their resources, the
+	 * value of ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+	 */
+	private static final int TRIM_MEMORY_RUNNING_LOW = 10;
+
+	/**
+	 * A change to the screen stack waiting for the next frame
+	 */
+	private static class PendingOperation {
+		int op;
+		Screen screen;
+
+		PendingOperation(int op, Screen screen) {
+			this.op = op;
+			this.screen = screen;
+		}
+	}
+
 	/**
 	 * List of all the screens that are present in the game
 	 * Used as a stack to keep track of the top screen 
 	 */
-	private LinkedList<Screen> mScreenList;
+	private ArrayList<Screen> mScreenList;
+
+	/**
+	 * Stack changes requested since the start of the frame. They are applied
+	 * before the next frame so the stack never changes while it is updated
+	 * or drawn.
+	 */
+	private ArrayList<PendingOperation> mPendingOperations;
+
+	/**
+	 * Union of the dirty regions of the visible screens
+	 */
+	private DirtyRegion mDirtyRegion;
+
+	/**
+	 * Number of bytes the screens may hold before hidden screens release
+	 * their resources, zero for no limit
+	 */
+	private long mResourceBudget;
+
+	/**
+	 * Set from the UI thread when the system is low on memory, handled at
+	 * the start of the next frame
+	 */
+	private volatile boolean mTrimRequested;
 
 	/**
 	 * Width of the draw surface
@@ -34,14 +99,43 @@ public class ScreenManager {
 	 */
 	private boolean mInitialized;
 
+	/**
+	 * Loads the assets of the screens in the background, created on first use
+	 */
+	private AssetLoader mAssetLoader;
+
+	/**
+	 * State of every finger touching the screen
+	 */
+	private PointerTracker mPointerTracker;
+
+	/**
+	 * Measures the time spent in the phases of a frame
+	 */
+	private FrameProfiler mFrameProfiler;
+
+	/**
+	 * Draws the profiler statistics on top of the screens, null when hidden
+	 */
+	private FrameProfilerOverlay mFrameProfilerOverlay;
+
+	/**
+	 * Scratch point used to map touches to world coordinates
+	 */
+	private Vector2f mTouchPoint = new Vector2f();
+
 	/**
 	 * Creates a new uninitialized screen manager
 	 * @param context Application context
 	 */
 	public ScreenManager(Context context) {
 		mContext = context;
-		mScreenList = new LinkedList<Screen>();
+		mScreenList = new ArrayList<Screen>();
+		mPendingOperations = new ArrayList<PendingOperation>();
+		mDirtyRegion = new DirtyRegion();
 		mInitialized = false;
+		mPointerTracker = new PointerTracker();
+		mFrameProfiler = new FrameProfiler();
 	}
 	
 	/**
@@ -64,7 +158,7 @@ public class ScreenManager {
 		mInitialized = true;
 
 		for (Screen screen : mScreenList) {
-			screen.initialize(mWidth, mHeight, mContext, this);
+			prepareScreen(screen);
 		}
 	}
 
@@ -72,60 +166,471 @@ public class ScreenManager {
 	 * Adds a screen to the top of the screen stack
 	 * @param screen A screen implementation
 	 */
-	public synchronized void addScreen(Screen screen) {
+	public void addScreen(Screen screen) {
+		pushScreen(screen);
+	}
+
+	/**
+	 * Pushes a screen on top of the screen stack. Once the manager is
+	 * initialized, the stack is changed at the start of the next frame. A
+	 * screen that has been popped before keeps its state and is not
+	 * initialized again.
+	 * @param screen A screen implementation
+	 */
+	public synchronized void pushScreen(Screen screen) {
+		request(OP_PUSH, screen);
+	}
+
+	/**
+	 * Pops the top screen at the start of the next frame. The popped screen
+	 * keeps its state and can be pushed again.
+	 */
+	public synchronized void popScreen() {
+		request(OP_POP, null);
+	}
+
+	/**
+	 * Replaces the top screen at the start of the next frame
+	 * @param screen The new top screen
+	 */
+	public synchronized void replaceScreen(Screen screen) {
+		request(OP_POP, null);
+		request(OP_PUSH, screen);
+	}
+
+	/**
+	 * Removes a screen from anywhere in the stack at the start of the next
+	 * frame
+	 * @param screen
+	 */
+	public synchronized void removeScreen(Screen screen) {
+		request(OP_REMOVE, screen);
+	}
+
+	/**
+	 * Applies the stack changes requested since the last frame. Called by the
+	 * game thread at the start of every frame.
+	 */
+	synchronized void applyPendingOperations() {
+		int count = mPendingOperations.size();
+		if (count == 0) {
+			return;
+		}
+
+		Screen oldTop = getTopScreen();
+		for (int i = 0; i < count; i++) {
+			PendingOperation operation = mPendingOperations.get(i);
+			apply(operation.op, operation.screen);
+		}
+		mPendingOperations.clear();
+		changeFocus(oldTop);
+		invalidate();
+	}
+
+	/**
+	 * Queues a stack change, or applies it right away if no frames are being
+	 * run yet
+	 */
+	private void request(int op, Screen screen) {
 		if (mInitialized) {
-			screen.initialize(mWidth, mHeight, mContext, this);
+			mPendingOperations.add(new PendingOperation(op, screen));
+		} else {
+			Screen oldTop = getTopScreen();
+			apply(op, screen);
+			changeFocus(oldTop);
 		}
+	}
 
-		mScreenList.addLast(screen);
+	/**
+	 * Tells the old and new top screen about a change of the top screen
+	 */
+	private void changeFocus(Screen oldTop) {
+		Screen newTop = getTopScreen();
+		if (newTop != oldTop) {
+			if (oldTop != null) {
+				oldTop.loseFocus();
+			}
+			if (newTop != null) {
+				newTop.gainFocus();
+			}
+		}
+	}
+
+	private void apply(int op, Screen screen) {
+		switch (op) {
+		case OP_PUSH:
+			if (mScreenList.remove(screen) || screen.isInitialized()) {
+				screen.invalidate();
+			} else if (mInitialized) {
+				prepareScreen(screen);
+			}
+			mScreenList.add(screen);
+			break;
+		case OP_POP:
+			if (mScreenList.size() > 0) {
+				mScreenList.remove(mScreenList.size() - 1);
+			}
+			break;
+		case OP_REMOVE:
+			mScreenList.remove(screen);
+			break;
+		}
+	}
+
+	/**
+	 * Returns the screen receiving input
+	 * @return The top screen or null if the stack is empty
+	 */
+	public Screen getTopScreen() {
+		int size = mScreenList.size();
+		return size == 0 ? null : mScreenList.get(size - 1);
+	}
+
+	/**
+	 * Returns the number of screens in the stack
+	 * @return Screen count
+	 */
+	public int getScreenCount() {
+		return mScreenList.size();
 	}
 
 	/**
-	 * Relays the motion event to the top screen 
-	 * @param motionEvent
+	 * Relays the touch event to the top screen 
+	 * @param touchEvent
 	 */
-	public void handleInput(MotionEvent motionEvent) {
+	public void handleInput(TouchEvent touchEvent) {
 		if(!mInitialized) {
 			return;
 		}
+
+		mPointerTracker.handleInput(touchEvent);
 		
-		if (mScreenList.size() > 0) {
-			Screen topScreen = mScreenList.getLast();
-			boolean eventConsumedByScreenComponent = topScreen.handleComponentInput(motionEvent);
+		Screen topScreen = getTopScreen();
+		if (topScreen != null) {
+			if (!ensureInitialized(topScreen)) {
+				return;
+			}
+			Camera camera = topScreen.getCamera();
+			if (camera != null) {
+				mTouchPoint.set(touchEvent.getX(), touchEvent.getY());
+				camera.screenToWorld(mTouchPoint);
+				touchEvent.setWorldPosition(mTouchPoint.getX(), mTouchPoint.getY());
+			}
+			boolean eventConsumedByScreenComponent = topScreen.handleComponentInput(touchEvent);
 			if (!eventConsumedByScreenComponent) {
-				topScreen.handleInput(motionEvent);
+				topScreen.handleInput(touchEvent);
 			}
 		}
 	}
 
 	/**
-	 * Updates the top screen
-	 * @param timeStep Time since the last frame in milliseconds
+	 * Updates the top screen, and the covered screens according to their
+	 * covered update policy
+	 * @param timeStep Time since the last update in seconds
 	 */
 	public void update(float timeStep) {
 		if(!mInitialized) {
 			return;
 		}
-		
-		if (mScreenList.size() > 0) {
-			Screen topScreen = mScreenList.getLast();
-			topScreen.update(timeStep);
+
+		int top = mScreenList.size() - 1;
+		for (int i = 0; i <= top; i++) {
+			Screen screen = mScreenList.get(i);
+			if (i < top && (screen.getCoveredUpdatePolicy() == Screen.UPDATE_FROZEN
+					|| screen.isResourcesReleased())) {
+				continue;
+			}
+			if (ensureInitialized(screen)) {
+				if (i == top) {
+					screen.performUpdate(timeStep);
+				} else {
+					screen.performCoveredUpdate(timeStep);
+				}
+			}
 		}
 	}
 
 	/**
-	 * Draws the top screen
+	 * Draws the visible screens
 	 * @param canvas Canvas to draw to
 	 */
 	public void draw(Canvas canvas) {
+		draw(canvas, 1.0f);
+	}
+
+	/**
+	 * Draws the visible screens, from the topmost opaque screen and up
+	 * @param canvas Canvas to draw to
+	 * @param interpolation Fraction of an update step that has passed since the last update
+	 */
+	public void draw(Canvas canvas, float interpolation) {
 		if(!mInitialized) {
 			return;
 		}
-		
-		if (mScreenList.size() > 0) {
-			Screen topScreen = mScreenList.getLast();
-			topScreen.draw(canvas);
-			topScreen.drawComponents(canvas);
+
+		int size = mScreenList.size();
+		for (int i = getFirstVisibleIndex(); i < size; i++) {
+			Screen screen = mScreenList.get(i);
+			if (ensureInitialized(screen)) {
+				mFrameProfiler.begin(FrameProfiler.PHASE_DRAW);
+				screen.performDraw(canvas, interpolation);
+				mFrameProfiler.end(FrameProfiler.PHASE_DRAW);
+
+				mFrameProfiler.begin(FrameProfiler.PHASE_DRAW_COMPONENTS);
+				screen.drawComponents(canvas);
+				mFrameProfiler.end(FrameProfiler.PHASE_DRAW_COMPONENTS);
+				screen.getDirtyRegion().clear();
+			} else {
+				// Keep redrawing while the progress changes
+				screen.drawLoading(canvas, screen.getAssetManifest().getProgress());
+			}
+		}
+
+		if (mFrameProfilerOverlay != null) {
+			mFrameProfilerOverlay.draw(canvas);
+		}
+	}
+
+	/**
+	 * Finds the topmost opaque screen, everything below it is covered
+	 * @return Index of the lowest visible screen
+	 */
+	private int getFirstVisibleIndex() {
+		for (int i = mScreenList.size() - 1; i > 0; i--) {
+			if (mScreenList.get(i).isOpaque()) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Gives a new screen the surface size and starts loading its assets. Screens
+	 * without assets are initialized right away.
+	 * @param screen
+	 */
+	private void prepareScreen(Screen screen) {
+		screen.attach(mWidth, mHeight, mContext, this);
+
+		AssetManifest manifest = screen.getAssetManifest();
+		if (manifest.size() == 0) {
+			screen.initialize(mWidth, mHeight, mContext, this);
+		} else if (!manifest.isRequested()) {
+			getAssetLoader().load(manifest);
+		}
+	}
+
+	/**
+	 * Initializes a screen once its assets have been loaded
+	 * @param screen
+	 * @return True if the screen is initialized
+	 */
+	private boolean ensureInitialized(Screen screen) {
+		if (screen.isInitialized()) {
+			return !screen.isResourcesReleased() || ensureReloaded(screen);
+		}
+
+		AssetManifest manifest = screen.getAssetManifest();
+		if (!manifest.isRequested()) {
+			// Released while hidden before it finished loading
+			getAssetLoader().load(manifest);
+		}
+		if (manifest.isLoaded()) {
+			screen.initialize(mWidth, mHeight, mContext, this);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Starts reloading the released assets of a screen and tells the screen
+	 * once they are loaded
+	 * @param screen
+	 * @return True if the screen has its resources again
+	 */
+	private boolean ensureReloaded(Screen screen) {
+		AssetManifest manifest = screen.getAssetManifest();
+		if (manifest.size() > 0 && !manifest.isRequested()) {
+			getAssetLoader().load(manifest);
+		}
+
+		if (manifest.size() == 0 || manifest.isLoaded()) {
+			screen.resourcesReloaded();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Asks hidden screens to release their resources and the bitmap cache to
+	 * empty at the start of the next frame. Does not block.
+	 * {@link GameThread#onLowMemory()} also handles the request right away
+	 * while the game is paused, since no frames run then.
+	 */
+	public void onLowMemory() {
+		mTrimRequested = true;
+	}
+
+	/**
+	 * Same as {@link #onLowMemory()} if the trim level is high enough
+	 * @param level Trim level passed by the system
+	 */
+	public void onTrimMemory(int level) {
+		if (level >= TRIM_MEMORY_RUNNING_LOW) {
+			mTrimRequested = true;
+		}
+	}
+
+	/**
+	 * Sets how many bytes the screens may hold. Once the budget is exceeded,
+	 * hidden screens release their resources, deepest first, until the
+	 * screens are within budget again.
+	 * @param resourceBudget Budget in bytes, zero for no limit
+	 */
+	public void setResourceBudget(long resourceBudget) {
+		mResourceBudget = resourceBudget;
+	}
+
+	public long getResourceBudget() {
+		return mResourceBudget;
+	}
+
+	/**
+	 * Returns approximately how many bytes all screens hold. Bitmaps shared
+	 * by several screens are counted once per screen.
+	 * @return Size in bytes
+	 */
+	public long getResourceBytes() {
+		long bytes = 0;
+		for (int i = 0; i < mScreenList.size(); i++) {
+			bytes += mScreenList.get(i).getResourceBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Releases the resources of hidden screens if the system is low on
+	 * memory or the resource budget is exceeded. Called by the game thread at
+	 * the start of every frame, and while paused when memory is low.
+	 */
+	synchronized void trimResources() {
+		if (mTrimRequested) {
+			mTrimRequested = false;
+			if (mInitialized) {
+				releaseHiddenResources(0);
+			}
+			ImageLoader.getCache(mContext).evictAll();
+		} else if (mInitialized && mResourceBudget > 0
+				&& getResourceBytes() > mResourceBudget) {
+			releaseHiddenResources(mResourceBudget);
+		}
+	}
+
+	/**
+	 * Releases the resources of hidden screens, deepest first, until the
+	 * screens hold at most the specified number of bytes
+	 * @param maxBytes
+	 */
+	private void releaseHiddenResources(long maxBytes) {
+		BitmapCache cache = ImageLoader.getCache(mContext);
+		int firstVisible = getFirstVisibleIndex();
+		for (int i = 0; i < firstVisible && getResourceBytes() > maxBytes; i++) {
+			Screen screen = mScreenList.get(i);
+			if (!screen.isResourcesReleased() || screen.getResourceBytes() > 0) {
+				screen.releaseResources(cache);
+			}
+		}
+	}
+
+	/**
+	 * Returns the loader used for screen assets
+	 * @return The asset loader
+	 */
+	public synchronized AssetLoader getAssetLoader() {
+		if (mAssetLoader == null) {
+			mAssetLoader = new AssetLoader(mContext, ImageLoader.getCache(mContext));
+		}
+		return mAssetLoader;
+	}
+
+	/**
+	 * Returns the state of every finger touching the screen. Screens can poll
+	 * it during update instead of handling single touch events.
+	 * @return The pointer tracker
+	 */
+	public PointerTracker getPointerTracker() {
+		return mPointerTracker;
+	}
+
+	/**
+	 * Cancels every finger still touching the screen, so components and
+	 * screens holding a pointer release it. Called when the game pauses or
+	 * loses its surface, since the lift of those fingers is never delivered.
+	 */
+	public void cancelPointers() {
+		for (int i = 0; i < PointerTracker.MAX_POINTERS; i++) {
+			if (mPointerTracker.getPointer(i).isActive()) {
+				handleInput(mPointerTracker.getCancelEvent(i));
+			}
+		}
+		mPointerTracker.reset();
+	}
+
+	/**
+	 * Returns the area of the top screen that has changed since it was last drawn
+	 * @return The dirty region, null if there is no screen to draw
+	 */
+	public DirtyRegion getDirtyRegion() {
+		if (!mInitialized || mScreenList.size() == 0) {
+			return null;
+		}
+
+		// Every visible screen is redrawn inside the union of their regions
+		DirtyRegion dirtyRegion = mDirtyRegion;
+		dirtyRegion.clear();
+		int size = mScreenList.size();
+		for (int i = getFirstVisibleIndex(); i < size; i++) {
+			dirtyRegion.union(mScreenList.get(i).getDirtyRegion());
+		}
+		if (mFrameProfilerOverlay != null) {
+			// The overlay changes every frame
+			dirtyRegion.union(0, 0, mWidth, mHeight);
+		}
+		dirtyRegion.clip(mWidth, mHeight);
+		return dirtyRegion;
+	}
+
+	/**
+	 * Marks the whole of every visible screen as needing to be redrawn
+	 */
+	public void invalidate() {
+		int size = mScreenList.size();
+		for (int i = getFirstVisibleIndex(); i < size; i++) {
+			mScreenList.get(i).invalidate();
+		}
+	}
+
+	/**
+	 * Returns the profiler measuring the phases of each frame
+	 * @return The frame profiler
+	 */
+	public FrameProfiler getFrameProfiler() {
+		return mFrameProfiler;
+	}
+
+	/**
+	 * Shows or hides the frame profiler statistics on top of the screens.
+	 * Showing the overlay also enables the profiler.
+	 * @param visible True to draw the overlay
+	 */
+	public void setFrameProfilerOverlayVisible(boolean visible) {
+		if (visible) {
+			mFrameProfiler.setEnabled(true);
+			if (mFrameProfilerOverlay == null) {
+				mFrameProfilerOverlay = new FrameProfilerOverlay(mFrameProfiler);
+			}
+		} else {
+			mFrameProfilerOverlay = null;
 		}
 	}
 }
@@ -0,0 +1,154 @@
+package com.vulfox.collision;
+
+/**
+ * Keeps the bounding boxes of the proxies and hands out proxy ids. Subclasses
+ * organize the proxies for fast pair finding through the create, move and
+ * destroy callbacks.
+ */
+abstract class AbstractBroadphase implements Broadphase {
+
+	/**
+	 * Bounding boxes as left, top, right, bottom per proxy
+	 */
+	protected float[] mBounds;
+
+	/**
+	 * Indicates if each proxy id is in use
+	 */
+	protected boolean[] mActive;
+
+	/**
+	 * Every proxy id in use is below this
+	 */
+	protected int mProxyLimit;
+
+	/**
+	 * Ids of destroyed proxies that can be reused
+	 */
+	private int[] mFreeIds;
+
+	/**
+	 * Number of reusable ids
+	 */
+	private int mFreeCount;
+
+	/**
+	 * Number of proxies
+	 */
+	private int mProxyCount;
+
+	protected AbstractBroadphase(int initialCapacity) {
+		initialCapacity = Math.max(1, initialCapacity);
+		mBounds = new float[initialCapacity * 4];
+		mActive = new boolean[initialCapacity];
+		mFreeIds = new int[initialCapacity];
+	}
+
+	public final int createProxy(float left, float top, float right,
+			float bottom) {
+		int proxy;
+		if (mFreeCount > 0) {
+			proxy = mFreeIds[--mFreeCount];
+		} else {
+			if (mProxyLimit == mActive.length) {
+				grow(mActive.length * 2);
+			}
+			proxy = mProxyLimit++;
+		}
+
+		setBounds(proxy, left, top, right, bottom);
+		mActive[proxy] = true;
+		mProxyCount++;
+		onCreate(proxy);
+		return proxy;
+	}
+
+	public final void moveProxy(int proxy, float left, float top, float right,
+			float bottom) {
+		setBounds(proxy, left, top, right, bottom);
+		onMove(proxy);
+	}
+
+	public final void destroyProxy(int proxy) {
+		if (!mActive[proxy]) {
+			return;
+		}
+		onDestroy(proxy);
+		mActive[proxy] = false;
+		mFreeIds[mFreeCount++] = proxy;
+		mProxyCount--;
+	}
+
+	public final int getProxyCount() {
+		return mProxyCount;
+	}
+
+	/**
+	 * Called after a proxy has been added
+	 */
+	protected abstract void onCreate(int proxy);
+
+	/**
+	 * Called after the bounds of a proxy have changed
+	 */
+	protected abstract void onMove(int proxy);
+
+	/**
+	 * Called before a proxy is removed
+	 */
+	protected abstract void onDestroy(int proxy);
+
+	/**
+	 * Called when the proxy arrays grow, subclasses grow their per proxy
+	 * arrays to the same capacity
+	 */
+	protected void onGrow(int capacity) {
+	}
+
+	/**
+	 * Tells if the bounding boxes of two proxies overlap
+	 */
+	protected final boolean overlaps(int a, int b) {
+		final float[] bounds = mBounds;
+		int i = a * 4;
+		int j = b * 4;
+		return bounds[i] <= bounds[j + 2] && bounds[j] <= bounds[i + 2]
+				&& bounds[i + 1] <= bounds[j + 3] && bounds[j + 1] <= bounds[i + 3];
+	}
+
+	/**
+	 * Tells if the bounding box of a proxy overlaps a region
+	 */
+	protected final boolean overlaps(int proxy, float left, float top,
+			float right, float bottom) {
+		final float[] bounds = mBounds;
+		int i = proxy * 4;
+		return bounds[i] <= right && left <= bounds[i + 2]
+				&& bounds[i + 1] <= bottom && top <= bounds[i + 3];
+	}
+
+	private void setBounds(int proxy, float left, float top, float right,
+			float bottom) {
+		int i = proxy * 4;
+		mBounds[i] = left;
+		mBounds[i + 1] = top;
+		mBounds[i + 2] = right;
+		mBounds[i + 3] = bottom;
+	}
+
+	private void grow(int capacity) {
+		float[] bounds = new float[capacity * 4];
+		System.arraycopy(mBounds, 0, bounds, 0, mBounds.length);
+		mBounds = bounds;
+
+		boolean[] active = new boolean[capacity];
+		System.arraycopy(mActive, 0, active, 0, mActive.length);
+		mActive = active;
+
+		int[] freeIds = new int[capacity];
+		System.arraycopy(mFreeIds, 0, freeIds, 0, mFreeCount);
+		mFreeIds = freeIds;
+
+		onGrow(capacity);
+	}
+}
@@ -0,0 +1,90 @@
+package com.vulfox.collision;
+
+/**
+ * Something that can collide: a shape at a position. Moving a body marks it
+ * so its broadphase proxy is updated on the next {@link CollisionWorld#update()}.
+ */
+public class Body {
+
+	/**
+	 * Collision shape
+	 */
+	private Shape mShape;
+
+	/**
+	 * Position of the shape
+	 */
+	private float mX;
+	private float mY;
+
+	/**
+	 * Game object the body belongs to
+	 */
+	private Object mUserData;
+
+	/**
+	 * Broadphase proxy, -1 when not added to a world
+	 */
+	int mProxy = -1;
+
+	/**
+	 * Indicates if the body moved since the proxy was updated
+	 */
+	boolean mMoved;
+
+	/**
+	 * Creates a body
+	 * 
+	 * @param shape
+	 *            Collision shape
+	 * @param x
+	 * @param y
+	 */
+	public Body(Shape shape, float x, float y) {
+		mShape = shape;
+		mX = x;
+		mY = y;
+	}
+
+	/**
+	 * Moves the body
+	 * 
+	 * @param x
+	 * @param y
+	 */
+	public void setPosition(float x, float y) {
+		mX = x;
+		mY = y;
+		mMoved = true;
+	}
+
+	/**
+	 * Changes the shape of the body
+	 * 
+	 * @param shape
+	 */
+	public void setShape(Shape shape) {
+		mShape = shape;
+		mMoved = true;
+	}
+
+	public Shape getShape() {
+		return mShape;
+	}
+
+	public float getX() {
+		return mX;
+	}
+
+	public float getY() {
+		return mY;
+	}
+
+	public Object getUserData() {
+		return mUserData;
+	}
+
+	public void setUserData(Object userData) {
+		mUserData = userData;
+	}
+}
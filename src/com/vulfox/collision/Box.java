@@ -0,0 +1,70 @@
+package com.vulfox.collision;
+
+/**
+ * Axis aligned box centered on the body position
+ */
+public class Box extends Shape {
+
+	/**
+	 * Half of the width and height
+	 */
+	private float mHalfWidth;
+	private float mHalfHeight;
+
+	/**
+	 * The box as a polygon, for tests against polygons
+	 */
+	private final Polygon mPolygon;
+
+	/**
+	 * Creates a box
+	 * 
+	 * @param width
+	 * @param height
+	 */
+	public Box(float width, float height) {
+		mPolygon = new Polygon(new float[8]);
+		setSize(width, height);
+	}
+
+	/**
+	 * Changes the size of the box
+	 * 
+	 * @param width
+	 * @param height
+	 */
+	public void setSize(float width, float height) {
+		mHalfWidth = width * 0.5f;
+		mHalfHeight = height * 0.5f;
+		mPolygon.setVertex(0, -mHalfWidth, -mHalfHeight);
+		mPolygon.setVertex(1, mHalfWidth, -mHalfHeight);
+		mPolygon.setVertex(2, mHalfWidth, mHalfHeight);
+		mPolygon.setVertex(3, -mHalfWidth, mHalfHeight);
+		mPolygon.updateNormals();
+	}
+
+	public float getHalfWidth() {
+		return mHalfWidth;
+	}
+
+	public float getHalfHeight() {
+		return mHalfHeight;
+	}
+
+	Polygon getPolygon() {
+		return mPolygon;
+	}
+
+	@Override
+	public int getType() {
+		return TYPE_BOX;
+	}
+
+	@Override
+	public void getBounds(float x, float y, float[] bounds) {
+		bounds[0] = x - mHalfWidth;
+		bounds[1] = y - mHalfHeight;
+		bounds[2] = x + mHalfWidth;
+		bounds[3] = y + mHalfHeight;
+	}
+}
@@ -0,0 +1,69 @@
+package com.vulfox.collision;
+
+/**
+ * Finds the pairs of bounding boxes that overlap, so exact tests only have
+ * to be done for those. Every box is a proxy identified by an int id, and is
+ * moved incrementally as its body moves.
+ * 
+ * Coordinates use the screen convention: top is smaller than bottom.
+ */
+public interface Broadphase {
+
+	/**
+	 * Adds a bounding box
+	 * 
+	 * @param left
+	 * @param top
+	 * @param right
+	 * @param bottom
+	 * @return Proxy id, ids of removed proxies are reused
+	 */
+	int createProxy(float left, float top, float right, float bottom);
+
+	/**
+	 * Changes the bounding box of a proxy
+	 * 
+	 * @param proxy
+	 *            Proxy id
+	 * @param left
+	 * @param top
+	 * @param right
+	 * @param bottom
+	 */
+	void moveProxy(int proxy, float left, float top, float right, float bottom);
+
+	/**
+	 * Removes a proxy
+	 * 
+	 * @param proxy
+	 *            Proxy id
+	 */
+	void destroyProxy(int proxy);
+
+	/**
+	 * Finds every pair of overlapping proxies. Each pair is reported once.
+	 * 
+	 * @param pairs
+	 *            Buffer that is cleared and filled with the pairs
+	 */
+	void findPairs(PairBuffer pairs);
+
+	/**
+	 * Finds the proxies overlapping a region
+	 * 
+	 * @param left
+	 * @param top
+	 * @param right
+	 * @param bottom
+	 * @param result
+	 *            Buffer that is cleared and filled with the proxy ids
+	 */
+	void query(float left, float top, float right, float bottom, IdBuffer result);
+
+	/**
+	 * Returns the number of proxies
+	 * 
+	 * @return Proxy count
+	 */
+	int getProxyCount();
+}
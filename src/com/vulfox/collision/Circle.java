@@ -0,0 +1,37 @@
+package com.vulfox.collision;
+
+/**
+ * Circle centered on the body position
+ */
+public class Circle extends Shape {
+
+	/**
+	 * Radius
+	 */
+	private float mRadius;
+
+	public Circle(float radius) {
+		mRadius = radius;
+	}
+
+	public float getRadius() {
+		return mRadius;
+	}
+
+	public void setRadius(float radius) {
+		mRadius = radius;
+	}
+
+	@Override
+	public int getType() {
+		return TYPE_CIRCLE;
+	}
+
+	@Override
+	public void getBounds(float x, float y, float[] bounds) {
+		bounds[0] = x - mRadius;
+		bounds[1] = y - mRadius;
+		bounds[2] = x + mRadius;
+		bounds[3] = y + mRadius;
+	}
+}
@@ -0,0 +1,271 @@
+package com.vulfox.collision;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a set of bodies in a broadphase and finds the contacts between them.
+ * Call {@link #update()} once per update after moving the bodies, then read
+ * the contacts. Contacts, pairs and query buffers are reused, so a steady
+ * state update does not allocate.
+ */
+public class CollisionWorld {
+
+	/**
+	 * Broadphase holding the body bounds
+	 */
+	private final Broadphase mBroadphase;
+
+	/**
+	 * Exact shape tests
+	 */
+	private final Narrowphase mNarrowphase = new Narrowphase();
+
+	/**
+	 * Bodies in the world
+	 */
+	private final ArrayList<Body> mBodies = new ArrayList<Body>();
+
+	/**
+	 * Bodies by proxy id
+	 */
+	private Body[] mBodiesByProxy = new Body[64];
+
+	/**
+	 * Overlapping proxy pairs of the last update
+	 */
+	private final PairBuffer mPairs = new PairBuffer();
+
+	/**
+	 * Proxies found by the last query
+	 */
+	private final IdBuffer mQueryResult = new IdBuffer();
+
+	/**
+	 * Contacts of the last update, reused between updates
+	 */
+	private Contact[] mContacts = new Contact[0];
+
+	/**
+	 * Number of contacts of the last update
+	 */
+	private int mContactCount;
+
+	/**
+	 * Scratch bounds
+	 */
+	private final float[] mBounds = new float[4];
+
+	/**
+	 * Scratch shape for region queries
+	 */
+	private final Box mRegion = new Box(1.0f, 1.0f);
+
+	/**
+	 * Creates an empty world
+	 * 
+	 * @param broadphase
+	 *            {@link SpatialHashBroadphase} or
+	 *            {@link SweepAndPruneBroadphase}
+	 */
+	public CollisionWorld(Broadphase broadphase) {
+		mBroadphase = broadphase;
+	}
+
+	/**
+	 * Adds a body
+	 * 
+	 * @param body
+	 */
+	public void addBody(Body body) {
+		if (body.mProxy >= 0) {
+			throw new IllegalStateException("Body is already in a world");
+		}
+
+		body.getShape().getBounds(body.getX(), body.getY(), mBounds);
+		int proxy = mBroadphase.createProxy(mBounds[0], mBounds[1], mBounds[2],
+				mBounds[3]);
+		if (proxy >= mBodiesByProxy.length) {
+			Body[] bodies = new Body[Math.max(proxy + 1, mBodiesByProxy.length * 2)];
+			System.arraycopy(mBodiesByProxy, 0, bodies, 0, mBodiesByProxy.length);
+			mBodiesByProxy = bodies;
+		}
+		mBodiesByProxy[proxy] = body;
+		body.mProxy = proxy;
+		body.mMoved = false;
+		mBodies.add(body);
+	}
+
+	/**
+	 * Removes a body
+	 * 
+	 * @param body
+	 */
+	public void removeBody(Body body) {
+		if (body.mProxy < 0 || mBodiesByProxy[body.mProxy] != body) {
+			return;
+		}
+
+		mBroadphase.destroyProxy(body.mProxy);
+		mBodiesByProxy[body.mProxy] = null;
+		body.mProxy = -1;
+		mBodies.remove(body);
+	}
+
+	/**
+	 * Updates the broadphase with the moved bodies and finds the contacts
+	 * 
+	 * @return Number of contacts
+	 */
+	public int update() {
+		for (int i = 0; i < mBodies.size(); i++) {
+			Body body = mBodies.get(i);
+			if (body.mMoved) {
+				body.mMoved = false;
+				body.getShape().getBounds(body.getX(), body.getY(), mBounds);
+				mBroadphase.moveProxy(body.mProxy, mBounds[0], mBounds[1],
+						mBounds[2], mBounds[3]);
+			}
+		}
+
+		mBroadphase.findPairs(mPairs);
+
+		mContactCount = 0;
+		for (int i = 0; i < mPairs.getCount(); i++) {
+			Body a = mBodiesByProxy[mPairs.getFirst(i)];
+			Body b = mBodiesByProxy[mPairs.getSecond(i)];
+			Contact contact = nextContact();
+			if (mNarrowphase.collide(a.getShape(), a.getX(), a.getY(),
+					b.getShape(), b.getX(), b.getY(), contact)) {
+				contact.setBodies(a, b);
+				mContactCount++;
+			}
+		}
+		return mContactCount;
+	}
+
+	/**
+	 * Returns the number of contacts found by the last update
+	 * 
+	 * @return Contact count
+	 */
+	public int getContactCount() {
+		return mContactCount;
+	}
+
+	/**
+	 * Returns a contact found by the last update. The contact is reused by the
+	 * next update.
+	 * 
+	 * @param index
+	 * @return The contact
+	 */
+	public Contact getContact(int index) {
+		return mContacts[index];
+	}
+
+	/**
+	 * Finds the bodies whose shapes overlap a rectangle
+	 * 
+	 * @param left
+	 * @param top
+	 * @param right
+	 * @param bottom
+	 * @param result
+	 *            List that is cleared and filled with the bodies
+	 */
+	public void queryRegion(float left, float top, float right, float bottom,
+			List<Body> result) {
+		result.clear();
+		mBroadphase.query(left, top, right, bottom, mQueryResult);
+
+		mRegion.setSize(right - left, bottom - top);
+		float centerX = (left + right) * 0.5f;
+		float centerY = (top + bottom) * 0.5f;
+		for (int i = 0; i < mQueryResult.getCount(); i++) {
+			Body body = mBodiesByProxy[mQueryResult.get(i)];
+			if (mNarrowphase.collide(mRegion, centerX, centerY,
+					body.getShape(), body.getX(), body.getY(), null)) {
+				result.add(body);
+			}
+		}
+	}
+
+	/**
+	 * Finds the first body hit by a ray
+	 * 
+	 * @param originX
+	 * @param originY
+	 * @param directionX
+	 * @param directionY
+	 * @param maxDistance
+	 *            Length of the ray
+	 * @param hit
+	 *            Receives the hit body, distance and point
+	 * @return True if a body was hit
+	 */
+	public boolean raycast(float originX, float originY, float directionX,
+			float directionY, float maxDistance, RaycastHit hit) {
+		float length = (float) Math.sqrt(directionX * directionX + directionY
+				* directionY);
+		hit.set(null, 0.0f, 0.0f, 0.0f);
+		if (length == 0.0f) {
+			return false;
+		}
+		directionX /= length;
+		directionY /= length;
+
+		float endX = originX + directionX * maxDistance;
+		float endY = originY + directionY * maxDistance;
+		mBroadphase.query(Math.min(originX, endX), Math.min(originY, endY),
+				Math.max(originX, endX), Math.max(originY, endY), mQueryResult);
+
+		Body closest = null;
+		float closestDistance = maxDistance;
+		for (int i = 0; i < mQueryResult.getCount(); i++) {
+			Body body = mBodiesByProxy[mQueryResult.get(i)];
+			float distance = mNarrowphase.raycast(body.getShape(), body.getX(),
+					body.getY(), originX, originY, directionX, directionY,
+					closestDistance);
+			if (distance >= 0.0f && (closest == null || distance < closestDistance)) {
+				closest = body;
+				closestDistance = distance;
+			}
+		}
+
+		if (closest == null) {
+			return false;
+		}
+		hit.set(closest, closestDistance, originX + directionX * closestDistance,
+				originY + directionY * closestDistance);
+		return true;
+	}
+
+	/**
+	 * Returns the number of bodies
+	 * 
+	 * @return Body count
+	 */
+	public int getBodyCount() {
+		return mBodies.size();
+	}
+
+	public Broadphase getBroadphase() {
+		return mBroadphase;
+	}
+
+	/**
+	 * Returns an unused contact, growing the contact array if needed
+	 */
+	private Contact nextContact() {
+		if (mContactCount == mContacts.length) {
+			Contact[] contacts = new Contact[Math.max(16, mContacts.length * 2)];
+			System.arraycopy(mContacts, 0, contacts, 0, mContacts.length);
+			for (int i = mContacts.length; i < contacts.length; i++) {
+				contacts[i] = new Contact();
+			}
+			mContacts = contacts;
+		}
+		return mContacts[mContactCount];
+	}
+}
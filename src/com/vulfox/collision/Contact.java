@@ -0,0 +1,56 @@
+package com.vulfox.collision;
+
+/**
+ * Result of an overlap test between two shapes: the direction and distance
+ * the second shape has to move to separate them
+ */
+public class Contact {
+
+	/**
+	 * Bodies in contact, null for contacts from direct shape tests
+	 */
+	private Body mBodyA;
+	private Body mBodyB;
+
+	/**
+	 * Unit normal pointing from the first to the second shape
+	 */
+	private float mNormalX;
+	private float mNormalY;
+
+	/**
+	 * Penetration depth along the normal
+	 */
+	private float mDepth;
+
+	public Body getBodyA() {
+		return mBodyA;
+	}
+
+	public Body getBodyB() {
+		return mBodyB;
+	}
+
+	public float getNormalX() {
+		return mNormalX;
+	}
+
+	public float getNormalY() {
+		return mNormalY;
+	}
+
+	public float getDepth() {
+		return mDepth;
+	}
+
+	void setBodies(Body bodyA, Body bodyB) {
+		mBodyA = bodyA;
+		mBodyB = bodyB;
+	}
+
+	void set(float normalX, float normalY, float depth) {
+		mNormalX = normalX;
+		mNormalY = normalY;
+		mDepth = depth;
+	}
+}
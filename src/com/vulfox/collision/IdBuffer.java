@@ -0,0 +1,53 @@
+package com.vulfox.collision;
+
+/**
+ * Reusable list of proxy ids returned by region queries
+ */
+public class IdBuffer {
+
+	/**
+	 * Ids
+	 */
+	private int[] mIds;
+
+	/**
+	 * Number of ids
+	 */
+	private int mCount;
+
+	/**
+	 * Creates an empty buffer
+	 */
+	public IdBuffer() {
+		mIds = new int[32];
+	}
+
+	/**
+	 * Adds an id
+	 * 
+	 * @param id
+	 */
+	public void add(int id) {
+		if (mCount == mIds.length) {
+			int[] ids = new int[mCount * 2];
+			System.arraycopy(mIds, 0, ids, 0, mCount);
+			mIds = ids;
+		}
+		mIds[mCount++] = id;
+	}
+
+	/**
+	 * Removes all ids
+	 */
+	public void clear() {
+		mCount = 0;
+	}
+
+	public int getCount() {
+		return mCount;
+	}
+
+	public int get(int index) {
+		return mIds[index];
+	}
+}
@@ -0,0 +1,400 @@
+package com.vulfox.collision;
+
+import com.vulfox.math.Vector2f;
+
+/**
+ * Exact overlap and ray tests between shapes. Polygons are tested with the
+ * separating axis theorem. The tests use scratch vectors kept in the
+ * instance, so an instance must only be used from one thread.
+ */
+public class Narrowphase {
+
+	/**
+	 * Scratch vectors
+	 */
+	private final Vector2f mAxis = new Vector2f();
+	private final Vector2f mOffset = new Vector2f();
+	private final Vector2f mPoint = new Vector2f();
+
+	/**
+	 * Projection interval written by project
+	 */
+	private float mMin;
+	private float mMax;
+
+	/**
+	 * Tests if two shapes overlap
+	 * 
+	 * @param a
+	 *            First shape
+	 * @param ax
+	 * @param ay
+	 * @param b
+	 *            Second shape
+	 * @param bx
+	 * @param by
+	 * @param contact
+	 *            Receives the normal and depth if the shapes overlap, may be
+	 *            null
+	 * @return True if the shapes overlap
+	 */
+	public boolean collide(Shape a, float ax, float ay, Shape b, float bx,
+			float by, Contact contact) {
+		int typeA = a.getType();
+		int typeB = b.getType();
+
+		if (typeA == Shape.TYPE_CIRCLE && typeB == Shape.TYPE_CIRCLE) {
+			return circleCircle((Circle) a, ax, ay, (Circle) b, bx, by, contact);
+		}
+		if (typeA == Shape.TYPE_BOX && typeB == Shape.TYPE_BOX) {
+			return boxBox((Box) a, ax, ay, (Box) b, bx, by, contact);
+		}
+		if (typeA == Shape.TYPE_BOX && typeB == Shape.TYPE_CIRCLE) {
+			return boxCircle((Box) a, ax, ay, (Circle) b, bx, by, contact, false);
+		}
+		if (typeA == Shape.TYPE_CIRCLE && typeB == Shape.TYPE_BOX) {
+			return boxCircle((Box) b, bx, by, (Circle) a, ax, ay, contact, true);
+		}
+		if (typeB == Shape.TYPE_CIRCLE) {
+			return polygonCircle(toPolygon(a), ax, ay, (Circle) b, bx, by,
+					contact, false);
+		}
+		if (typeA == Shape.TYPE_CIRCLE) {
+			return polygonCircle(toPolygon(b), bx, by, (Circle) a, ax, ay,
+					contact, true);
+		}
+		return polygonPolygon(toPolygon(a), ax, ay, toPolygon(b), bx, by, contact);
+	}
+
+	/**
+	 * Casts a ray against a shape
+	 * 
+	 * @param shape
+	 * @param x
+	 *            Shape position
+	 * @param y
+	 *            Shape position
+	 * @param originX
+	 * @param originY
+	 * @param directionX
+	 *            Unit direction
+	 * @param directionY
+	 *            Unit direction
+	 * @param maxDistance
+	 * @return Distance along the ray to the first hit, 0 if the origin is
+	 *         inside the shape, -1 if the ray misses
+	 */
+	public float raycast(Shape shape, float x, float y, float originX,
+			float originY, float directionX, float directionY, float maxDistance) {
+		switch (shape.getType()) {
+		case Shape.TYPE_CIRCLE:
+			return raycastCircle((Circle) shape, x, y, originX, originY,
+					directionX, directionY, maxDistance);
+		case Shape.TYPE_BOX:
+			return raycastBox((Box) shape, x, y, originX, originY, directionX,
+					directionY, maxDistance);
+		default:
+			return raycastPolygon((Polygon) shape, x, y, originX, originY,
+					directionX, directionY, maxDistance);
+		}
+	}
+
+	private boolean circleCircle(Circle a, float ax, float ay, Circle b,
+			float bx, float by, Contact contact) {
+		float dx = bx - ax;
+		float dy = by - ay;
+		float radius = a.getRadius() + b.getRadius();
+		float distanceSquared = dx * dx + dy * dy;
+		if (distanceSquared > radius * radius) {
+			return false;
+		}
+
+		if (contact != null) {
+			float distance = (float) Math.sqrt(distanceSquared);
+			if (distance > 0.0f) {
+				contact.set(dx / distance, dy / distance, radius - distance);
+			} else {
+				contact.set(1.0f, 0.0f, radius);
+			}
+		}
+		return true;
+	}
+
+	private boolean boxBox(Box a, float ax, float ay, Box b, float bx,
+			float by, Contact contact) {
+		float dx = bx - ax;
+		float dy = by - ay;
+		float overlapX = a.getHalfWidth() + b.getHalfWidth() - Math.abs(dx);
+		float overlapY = a.getHalfHeight() + b.getHalfHeight() - Math.abs(dy);
+		if (overlapX < 0.0f || overlapY < 0.0f) {
+			return false;
+		}
+
+		if (contact != null) {
+			if (overlapX < overlapY) {
+				contact.set(dx < 0.0f ? -1.0f : 1.0f, 0.0f, overlapX);
+			} else {
+				contact.set(0.0f, dy < 0.0f ? -1.0f : 1.0f, overlapY);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tests a box against a circle, flipping the normal if the circle is the
+	 * first shape of the original test
+	 */
+	private boolean boxCircle(Box box, float boxX, float boxY, Circle circle,
+			float circleX, float circleY, Contact contact, boolean flip) {
+		float dx = circleX - boxX;
+		float dy = circleY - boxY;
+		float halfWidth = box.getHalfWidth();
+		float halfHeight = box.getHalfHeight();
+		float closestX = Math.max(-halfWidth, Math.min(halfWidth, dx));
+		float closestY = Math.max(-halfHeight, Math.min(halfHeight, dy));
+		float radius = circle.getRadius();
+
+		float normalX;
+		float normalY;
+		float depth;
+		if (closestX == dx && closestY == dy) {
+			// Center inside the box, push out through the nearest side
+			float overlapX = halfWidth - Math.abs(dx);
+			float overlapY = halfHeight - Math.abs(dy);
+			if (overlapX < overlapY) {
+				normalX = dx < 0.0f ? -1.0f : 1.0f;
+				normalY = 0.0f;
+				depth = overlapX + radius;
+			} else {
+				normalX = 0.0f;
+				normalY = dy < 0.0f ? -1.0f : 1.0f;
+				depth = overlapY + radius;
+			}
+		} else {
+			float offsetX = dx - closestX;
+			float offsetY = dy - closestY;
+			float distanceSquared = offsetX * offsetX + offsetY * offsetY;
+			if (distanceSquared > radius * radius) {
+				return false;
+			}
+			float distance = (float) Math.sqrt(distanceSquared);
+			normalX = offsetX / distance;
+			normalY = offsetY / distance;
+			depth = radius - distance;
+		}
+
+		if (contact != null) {
+			if (flip) {
+				contact.set(-normalX, -normalY, depth);
+			} else {
+				contact.set(normalX, normalY, depth);
+			}
+		}
+		return true;
+	}
+
+	private boolean polygonPolygon(Polygon a, float ax, float ay, Polygon b,
+			float bx, float by, Contact contact) {
+		float minDepth = Float.MAX_VALUE;
+		float normalX = 0.0f;
+		float normalY = 0.0f;
+
+		for (int pass = 0; pass < 2; pass++) {
+			Polygon polygon = pass == 0 ? a : b;
+			for (int i = 0; i < polygon.getVertexCount(); i++) {
+				Vector2f axis = polygon.getNormal(i);
+				project(a, ax, ay, axis);
+				float minA = mMin;
+				float maxA = mMax;
+				project(b, bx, by, axis);
+				float depth = Math.min(maxA, mMax) - Math.max(minA, mMin);
+				if (depth < 0.0f) {
+					return false;
+				}
+				if (depth < minDepth) {
+					minDepth = depth;
+					normalX = axis.getX();
+					normalY = axis.getY();
+				}
+			}
+		}
+
+		if (contact != null) {
+			// Point the normal from a to b
+			if ((bx - ax) * normalX + (by - ay) * normalY < 0.0f) {
+				normalX = -normalX;
+				normalY = -normalY;
+			}
+			contact.set(normalX, normalY, minDepth);
+		}
+		return true;
+	}
+
+	/**
+	 * Tests a polygon against a circle with the polygon normals and the axis
+	 * from the closest vertex to the circle center
+	 */
+	private boolean polygonCircle(Polygon polygon, float px, float py,
+			Circle circle, float cx, float cy, Contact contact, boolean flip) {
+		float radius = circle.getRadius();
+		float minDepth = Float.MAX_VALUE;
+		float normalX = 0.0f;
+		float normalY = 0.0f;
+
+		mOffset.set(cx - px, cy - py);
+		float closestDistance = Float.MAX_VALUE;
+		int count = polygon.getVertexCount();
+		for (int i = 0; i < count; i++) {
+			mOffset.sub(polygon.getVertex(i), mPoint);
+			float distance = mPoint.getLengthSquared();
+			if (distance < closestDistance) {
+				closestDistance = distance;
+				mAxis.set(mPoint);
+			}
+		}
+
+		for (int i = 0; i <= count; i++) {
+			Vector2f axis;
+			if (i < count) {
+				axis = polygon.getNormal(i);
+			} else {
+				if (closestDistance == 0.0f) {
+					break;
+				}
+				mAxis.normalizeT();
+				axis = mAxis;
+			}
+
+			project(polygon, px, py, axis);
+			mPoint.set(cx, cy);
+			float center = mPoint.dot(axis);
+			float depth = Math.min(mMax, center + radius)
+					- Math.max(mMin, center - radius);
+			if (depth < 0.0f) {
+				return false;
+			}
+			if (depth < minDepth) {
+				minDepth = depth;
+				normalX = axis.getX();
+				normalY = axis.getY();
+			}
+		}
+
+		if (contact != null) {
+			if ((cx - px) * normalX + (cy - py) * normalY < 0.0f) {
+				normalX = -normalX;
+				normalY = -normalY;
+			}
+			if (flip) {
+				contact.set(-normalX, -normalY, minDepth);
+			} else {
+				contact.set(normalX, normalY, minDepth);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Projects a polygon at a position onto an axis, the interval is stored in
+	 * mMin and mMax
+	 */
+	private void project(Polygon polygon, float x, float y, Vector2f axis) {
+		float offset = x * axis.getX() + y * axis.getY();
+		float min = Float.MAX_VALUE;
+		float max = -Float.MAX_VALUE;
+		for (int i = 0; i < polygon.getVertexCount(); i++) {
+			float projection = polygon.getVertex(i).dot(axis);
+			min = Math.min(min, projection);
+			max = Math.max(max, projection);
+		}
+		mMin = min + offset;
+		mMax = max + offset;
+	}
+
+	private float raycastCircle(Circle circle, float x, float y,
+			float originX, float originY, float directionX, float directionY,
+			float maxDistance) {
+		float mx = originX - x;
+		float my = originY - y;
+		float radius = circle.getRadius();
+		float b = mx * directionX + my * directionY;
+		float c = mx * mx + my * my - radius * radius;
+		if (c > 0.0f && b > 0.0f) {
+			return -1.0f;
+		}
+		float discriminant = b * b - c;
+		if (discriminant < 0.0f) {
+			return -1.0f;
+		}
+		float distance = Math.max(0.0f, -b - (float) Math.sqrt(discriminant));
+		return distance <= maxDistance ? distance : -1.0f;
+	}
+
+	private float raycastBox(Box box, float x, float y, float originX,
+			float originY, float directionX, float directionY, float maxDistance) {
+		float enter = 0.0f;
+		float exit = maxDistance;
+		for (int axis = 0; axis < 2; axis++) {
+			float origin = axis == 0 ? originX - x : originY - y;
+			float direction = axis == 0 ? directionX : directionY;
+			float half = axis == 0 ? box.getHalfWidth() : box.getHalfHeight();
+			if (direction == 0.0f) {
+				if (origin < -half || origin > half) {
+					return -1.0f;
+				}
+			} else {
+				float near = (-half - origin) / direction;
+				float far = (half - origin) / direction;
+				if (near > far) {
+					float temp = near;
+					near = far;
+					far = temp;
+				}
+				enter = Math.max(enter, near);
+				exit = Math.min(exit, far);
+				if (enter > exit) {
+					return -1.0f;
+				}
+			}
+		}
+		return enter;
+	}
+
+	private float raycastPolygon(Polygon polygon, float x, float y,
+			float originX, float originY, float directionX, float directionY,
+			float maxDistance) {
+		float enter = 0.0f;
+		float exit = maxDistance;
+		for (int i = 0; i < polygon.getVertexCount(); i++) {
+			Vector2f normal = polygon.getNormal(i);
+			Vector2f vertex = polygon.getVertex(i);
+			float numerator = normal.getX() * (vertex.getX() + x - originX)
+					+ normal.getY() * (vertex.getY() + y - originY);
+			float denominator = normal.getX() * directionX + normal.getY()
+					* directionY;
+			if (denominator == 0.0f) {
+				if (numerator < 0.0f) {
+					return -1.0f;
+				}
+			} else {
+				float t = numerator / denominator;
+				if (denominator < 0.0f) {
+					enter = Math.max(enter, t);
+				} else {
+					exit = Math.min(exit, t);
+				}
+				if (enter > exit) {
+					return -1.0f;
+				}
+			}
+		}
+		return enter;
+	}
+
+	private static Polygon toPolygon(Shape shape) {
+		if (shape.getType() == Shape.TYPE_BOX) {
+			return ((Box) shape).getPolygon();
+		}
+		return (Polygon) shape;
+	}
+}
@@ -0,0 +1,81 @@
+package com.vulfox.collision;
+
+/**
+ * Reusable list of proxy pairs found by a broadphase. The buffer grows when
+ * needed and keeps its arrays when cleared, so filling it every frame does
+ * not allocate once it is large enough.
+ */
+public class PairBuffer {
+
+	/**
+	 * First and second proxy of each pair
+	 */
+	private int[] mFirst;
+	private int[] mSecond;
+
+	/**
+	 * Number of pairs
+	 */
+	private int mCount;
+
+	/**
+	 * Creates an empty buffer
+	 */
+	public PairBuffer() {
+		this(64);
+	}
+
+	/**
+	 * Creates an empty buffer
+	 * 
+	 * @param initialCapacity
+	 *            Number of pairs the buffer holds before growing
+	 */
+	public PairBuffer(int initialCapacity) {
+		initialCapacity = Math.max(1, initialCapacity);
+		mFirst = new int[initialCapacity];
+		mSecond = new int[initialCapacity];
+	}
+
+	/**
+	 * Adds a pair
+	 * 
+	 * @param first
+	 *            Proxy id
+	 * @param second
+	 *            Proxy id
+	 */
+	public void add(int first, int second) {
+		if (mCount == mFirst.length) {
+			int capacity = mCount * 2;
+			int[] grown = new int[capacity];
+			System.arraycopy(mFirst, 0, grown, 0, mCount);
+			mFirst = grown;
+			grown = new int[capacity];
+			System.arraycopy(mSecond, 0, grown, 0, mCount);
+			mSecond = grown;
+		}
+		mFirst[mCount] = first;
+		mSecond[mCount] = second;
+		mCount++;
+	}
+
+	/**
+	 * Removes all pairs
+	 */
+	public void clear() {
+		mCount = 0;
+	}
+
+	public int getCount() {
+		return mCount;
+	}
+
+	public int getFirst(int index) {
+		return mFirst[index];
+	}
+
+	public int getSecond(int index) {
+		return mSecond[index];
+	}
+}
@@ -0,0 +1,118 @@
+package com.vulfox.collision;
+
+import com.vulfox.math.Vector2f;
+
+/**
+ * Convex polygon with vertices relative to the body position. The vertices
+ * can be in either winding order, the edge normals are turned to point out
+ * of the polygon.
+ */
+public class Polygon extends Shape {
+
+	/**
+	 * Vertices relative to the body position
+	 */
+	private final Vector2f[] mVertices;
+
+	/**
+	 * Outward unit normal of the edge from each vertex to the next
+	 */
+	private final Vector2f[] mNormals;
+
+	/**
+	 * Creates a convex polygon
+	 * 
+	 * @param vertices
+	 *            x and y of each vertex, at least three vertices
+	 */
+	public Polygon(float[] vertices) {
+		int count = vertices.length / 2;
+		if (count < 3) {
+			throw new IllegalArgumentException("A polygon needs at least three vertices");
+		}
+		mVertices = new Vector2f[count];
+		mNormals = new Vector2f[count];
+		for (int i = 0; i < count; i++) {
+			mVertices[i] = new Vector2f(vertices[i * 2], vertices[i * 2 + 1]);
+			mNormals[i] = new Vector2f();
+		}
+		updateNormals();
+	}
+
+	/**
+	 * Moves a vertex, {@link #updateNormals()} must be called afterwards
+	 * 
+	 * @param index
+	 * @param x
+	 * @param y
+	 */
+	public void setVertex(int index, float x, float y) {
+		mVertices[index].set(x, y);
+	}
+
+	/**
+	 * Recalculates the edge normals after vertices have been moved
+	 */
+	public void updateNormals() {
+		int count = mVertices.length;
+		float centerX = 0.0f;
+		float centerY = 0.0f;
+		for (int i = 0; i < count; i++) {
+			centerX += mVertices[i].getX();
+			centerY += mVertices[i].getY();
+		}
+		centerX /= count;
+		centerY /= count;
+
+		for (int i = 0; i < count; i++) {
+			Vector2f vertex = mVertices[i];
+			Vector2f next = mVertices[(i + 1) % count];
+			Vector2f normal = mNormals[i];
+			next.sub(vertex, normal);
+			normal.perpT();
+			normal.normalizeT();
+
+			// Flip normals pointing towards the center
+			float toCenterX = centerX - vertex.getX();
+			float toCenterY = centerY - vertex.getY();
+			if (normal.getX() * toCenterX + normal.getY() * toCenterY > 0.0f) {
+				normal.invT();
+			}
+		}
+	}
+
+	public int getVertexCount() {
+		return mVertices.length;
+	}
+
+	public Vector2f getVertex(int index) {
+		return mVertices[index];
+	}
+
+	public Vector2f getNormal(int index) {
+		return mNormals[index];
+	}
+
+	@Override
+	public int getType() {
+		return TYPE_POLYGON;
+	}
+
+	@Override
+	public void getBounds(float x, float y, float[] bounds) {
+		float left = Float.MAX_VALUE;
+		float top = Float.MAX_VALUE;
+		float right = -Float.MAX_VALUE;
+		float bottom = -Float.MAX_VALUE;
+		for (Vector2f vertex : mVertices) {
+			left = Math.min(left, vertex.getX());
+			top = Math.min(top, vertex.getY());
+			right = Math.max(right, vertex.getX());
+			bottom = Math.max(bottom, vertex.getY());
+		}
+		bounds[0] = x + left;
+		bounds[1] = y + top;
+		bounds[2] = x + right;
+		bounds[3] = y + bottom;
+	}
+}
@@ -0,0 +1,46 @@
+package com.vulfox.collision;
+
+/**
+ * Result of a ray cast into a {@link CollisionWorld}
+ */
+public class RaycastHit {
+
+	/**
+	 * Body that was hit, null if nothing was hit
+	 */
+	private Body mBody;
+
+	/**
+	 * Distance along the ray
+	 */
+	private float mDistance;
+
+	/**
+	 * Point where the ray hit
+	 */
+	private float mX;
+	private float mY;
+
+	public Body getBody() {
+		return mBody;
+	}
+
+	public float getDistance() {
+		return mDistance;
+	}
+
+	public float getX() {
+		return mX;
+	}
+
+	public float getY() {
+		return mY;
+	}
+
+	void set(Body body, float distance, float x, float y) {
+		mBody = body;
+		mDistance = distance;
+		mX = x;
+		mY = y;
+	}
+}
@@ -0,0 +1,29 @@
+package com.vulfox.collision;
+
+/**
+ * Collision shape, defined around the position of the body it belongs to.
+ * Shapes do not rotate.
+ */
+public abstract class Shape {
+
+	public static final int TYPE_CIRCLE = 0;
+	public static final int TYPE_BOX = 1;
+	public static final int TYPE_POLYGON = 2;
+
+	/**
+	 * Returns the kind of shape
+	 * 
+	 * @return One of the TYPE constants
+	 */
+	public abstract int getType();
+
+	/**
+	 * Calculates the bounding box of the shape at a position
+	 * 
+	 * @param x
+	 * @param y
+	 * @param bounds
+	 *            Array receiving left, top, right and bottom
+	 */
+	public abstract void getBounds(float x, float y, float[] bounds);
+}
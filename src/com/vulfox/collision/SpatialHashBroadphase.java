@@ -0,0 +1,242 @@
+package com.vulfox.collision;
+
+/**
+ * Broadphase that hashes every proxy into the uniform grid cells it covers.
+ * Only proxies sharing a cell are compared, so finding pairs takes time
+ * proportional to the number of proxies when they are about the size of a
+ * cell. Moving a proxy only touches the hash table when it crosses a cell
+ * border.
+ * 
+ * The grid is unbounded, cells are mapped onto a fixed number of buckets.
+ * Very large proxies cover many cells and should be avoided.
+ */
+public class SpatialHashBroadphase extends AbstractBroadphase {
+
+	/**
+	 * Cell width and height
+	 */
+	private final float mCellSize;
+
+	/**
+	 * Proxies in each bucket
+	 */
+	private final int[][] mBuckets;
+
+	/**
+	 * Number of proxies in each bucket
+	 */
+	private final int[] mBucketCounts;
+
+	/**
+	 * Bucket count minus one, the bucket count is a power of two
+	 */
+	private final int mBucketMask;
+
+	/**
+	 * Cell range covered by each proxy as left, top, right, bottom cell
+	 */
+	private int[] mCells;
+
+	/**
+	 * Last visit of each proxy, used to report each proxy once per search
+	 */
+	private int[] mVisits;
+
+	/**
+	 * Id of the current search
+	 */
+	private int mVisit;
+
+	/**
+	 * Creates an empty broadphase with 4096 buckets
+	 * 
+	 * @param cellSize
+	 *            Cell width and height, about the size of a typical body
+	 */
+	public SpatialHashBroadphase(float cellSize) {
+		this(cellSize, 4096);
+	}
+
+	/**
+	 * Creates an empty broadphase
+	 * 
+	 * @param cellSize
+	 *            Cell width and height, about the size of a typical body
+	 * @param bucketCount
+	 *            Number of hash buckets, rounded up to a power of two
+	 */
+	public SpatialHashBroadphase(float cellSize, int bucketCount) {
+		super(64);
+		mCellSize = cellSize;
+		int buckets = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+		mBuckets = new int[buckets][];
+		mBucketCounts = new int[buckets];
+		mBucketMask = buckets - 1;
+		mCells = new int[mActive.length * 4];
+		mVisits = new int[mActive.length];
+	}
+
+	@Override
+	protected void onCreate(int proxy) {
+		computeCells(proxy, mCells);
+		insert(proxy);
+	}
+
+	@Override
+	protected void onMove(int proxy) {
+		int i = proxy * 4;
+		int left = cell(mBounds[i]);
+		int top = cell(mBounds[i + 1]);
+		int right = cell(mBounds[i + 2]);
+		int bottom = cell(mBounds[i + 3]);
+		if (left != mCells[i] || top != mCells[i + 1]
+				|| right != mCells[i + 2] || bottom != mCells[i + 3]) {
+			remove(proxy);
+			mCells[i] = left;
+			mCells[i + 1] = top;
+			mCells[i + 2] = right;
+			mCells[i + 3] = bottom;
+			insert(proxy);
+		}
+	}
+
+	@Override
+	protected void onDestroy(int proxy) {
+		remove(proxy);
+	}
+
+	@Override
+	protected void onGrow(int capacity) {
+		int[] cells = new int[capacity * 4];
+		System.arraycopy(mCells, 0, cells, 0, mCells.length);
+		mCells = cells;
+
+		int[] visits = new int[capacity];
+		System.arraycopy(mVisits, 0, visits, 0, mVisits.length);
+		mVisits = visits;
+	}
+
+	public void findPairs(PairBuffer pairs) {
+		pairs.clear();
+		for (int a = 0; a < mProxyLimit; a++) {
+			if (!mActive[a]) {
+				continue;
+			}
+
+			int visit = nextVisit();
+			int i = a * 4;
+			for (int y = mCells[i + 1]; y <= mCells[i + 3]; y++) {
+				for (int x = mCells[i]; x <= mCells[i + 2]; x++) {
+					int bucket = hash(x, y);
+					int[] proxies = mBuckets[bucket];
+					int count = mBucketCounts[bucket];
+					for (int k = 0; k < count; k++) {
+						int b = proxies[k];
+						if (b > a && mVisits[b] != visit) {
+							mVisits[b] = visit;
+							if (overlaps(a, b)) {
+								pairs.add(a, b);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	public void query(float left, float top, float right, float bottom,
+			IdBuffer result) {
+		result.clear();
+		int visit = nextVisit();
+		int cellRight = cell(right);
+		int cellBottom = cell(bottom);
+		for (int y = cell(top); y <= cellBottom; y++) {
+			for (int x = cell(left); x <= cellRight; x++) {
+				int bucket = hash(x, y);
+				int[] proxies = mBuckets[bucket];
+				int count = mBucketCounts[bucket];
+				for (int k = 0; k < count; k++) {
+					int proxy = proxies[k];
+					if (mVisits[proxy] != visit) {
+						mVisits[proxy] = visit;
+						if (overlaps(proxy, left, top, right, bottom)) {
+							result.add(proxy);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	public float getCellSize() {
+		return mCellSize;
+	}
+
+	private int nextVisit() {
+		mVisit++;
+		if (mVisit == 0) {
+			// Wrapped around, forget old visits
+			for (int i = 0; i < mVisits.length; i++) {
+				mVisits[i] = 0;
+			}
+			mVisit = 1;
+		}
+		return mVisit;
+	}
+
+	private void computeCells(int proxy, int[] cells) {
+		int i = proxy * 4;
+		cells[i] = cell(mBounds[i]);
+		cells[i + 1] = cell(mBounds[i + 1]);
+		cells[i + 2] = cell(mBounds[i + 2]);
+		cells[i + 3] = cell(mBounds[i + 3]);
+	}
+
+	private void insert(int proxy) {
+		int i = proxy * 4;
+		for (int y = mCells[i + 1]; y <= mCells[i + 3]; y++) {
+			for (int x = mCells[i]; x <= mCells[i + 2]; x++) {
+				int bucket = hash(x, y);
+				int[] proxies = mBuckets[bucket];
+				int count = mBucketCounts[bucket];
+				if (proxies == null) {
+					proxies = new int[4];
+					mBuckets[bucket] = proxies;
+				} else if (count == proxies.length) {
+					int[] grown = new int[count * 2];
+					System.arraycopy(proxies, 0, grown, 0, count);
+					proxies = grown;
+					mBuckets[bucket] = proxies;
+				}
+				proxies[count] = proxy;
+				mBucketCounts[bucket] = count + 1;
+			}
+		}
+	}
+
+	private void remove(int proxy) {
+		int i = proxy * 4;
+		for (int y = mCells[i + 1]; y <= mCells[i + 3]; y++) {
+			for (int x = mCells[i]; x <= mCells[i + 2]; x++) {
+				int bucket = hash(x, y);
+				int[] proxies = mBuckets[bucket];
+				int count = mBucketCounts[bucket];
+				for (int k = 0; k < count; k++) {
+					if (proxies[k] == proxy) {
+						proxies[k] = proxies[count - 1];
+						mBucketCounts[bucket] = count - 1;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private int cell(float coordinate) {
+		return (int) Math.floor(coordinate / mCellSize);
+	}
+
+	private int hash(int x, int y) {
+		return (x * 73856093 ^ y * 19349663) & mBucketMask;
+	}
+}
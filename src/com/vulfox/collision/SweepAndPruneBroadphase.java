@@ -0,0 +1,120 @@
+package com.vulfox.collision;
+
+/**
+ * Broadphase that keeps the proxies sorted by their left edge and sweeps
+ * along the x axis, comparing each proxy only with the proxies that start
+ * before it ends. The order is repaired with an insertion sort before every
+ * search, which is close to linear when bodies move a little per frame.
+ * 
+ * Works well for bodies of very different sizes, but degrades when many
+ * bodies are lined up vertically.
+ */
+public class SweepAndPruneBroadphase extends AbstractBroadphase {
+
+	/**
+	 * Proxies sorted by left edge, only exact after sorting
+	 */
+	private int[] mOrder;
+
+	/**
+	 * Number of proxies in the order
+	 */
+	private int mOrderCount;
+
+	/**
+	 * Creates an empty broadphase
+	 */
+	public SweepAndPruneBroadphase() {
+		super(64);
+		mOrder = new int[mActive.length];
+	}
+
+	@Override
+	protected void onCreate(int proxy) {
+		mOrder[mOrderCount++] = proxy;
+	}
+
+	@Override
+	protected void onMove(int proxy) {
+		// Sorted lazily
+	}
+
+	@Override
+	protected void onDestroy(int proxy) {
+		for (int i = 0; i < mOrderCount; i++) {
+			if (mOrder[i] == proxy) {
+				mOrderCount--;
+				System.arraycopy(mOrder, i + 1, mOrder, i, mOrderCount - i);
+				return;
+			}
+		}
+	}
+
+	@Override
+	protected void onGrow(int capacity) {
+		int[] order = new int[capacity];
+		System.arraycopy(mOrder, 0, order, 0, mOrderCount);
+		mOrder = order;
+	}
+
+	public void findPairs(PairBuffer pairs) {
+		pairs.clear();
+		sort();
+
+		final int[] order = mOrder;
+		final float[] bounds = mBounds;
+		final int count = mOrderCount;
+		for (int i = 0; i < count; i++) {
+			int a = order[i];
+			float right = bounds[a * 4 + 2];
+			for (int j = i + 1; j < count; j++) {
+				int b = order[j];
+				if (bounds[b * 4] > right) {
+					break;
+				}
+				if (overlaps(a, b)) {
+					if (a < b) {
+						pairs.add(a, b);
+					} else {
+						pairs.add(b, a);
+					}
+				}
+			}
+		}
+	}
+
+	public void query(float left, float top, float right, float bottom,
+			IdBuffer result) {
+		result.clear();
+		sort();
+
+		final int[] order = mOrder;
+		for (int i = 0; i < mOrderCount; i++) {
+			int proxy = order[i];
+			if (mBounds[proxy * 4] > right) {
+				break;
+			}
+			if (overlaps(proxy, left, top, right, bottom)) {
+				result.add(proxy);
+			}
+		}
+	}
+
+	/**
+	 * Restores the order by left edge with an insertion sort
+	 */
+	private void sort() {
+		final int[] order = mOrder;
+		final float[] bounds = mBounds;
+		for (int i = 1; i < mOrderCount; i++) {
+			int proxy = order[i];
+			float left = bounds[proxy * 4];
+			int j = i - 1;
+			while (j >= 0 && bounds[order[j] * 4] > left) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = proxy;
+		}
+	}
+}
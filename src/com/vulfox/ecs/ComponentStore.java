@@ -0,0 +1,197 @@
+package com.vulfox.ecs;
+
+/**
+ * Holds one kind of component for the entities that have it. The components
+ * are packed in dense arrays without holes, and a sparse array maps entity
+ * indices to positions in the dense arrays. Removing a component moves the
+ * last component into its place.
+ * 
+ * Subclasses store the component data in their own arrays, indexed by dense
+ * position, and keep them in step through {@link #resize(int)} and
+ * {@link #move(int, int)}.
+ */
+public abstract class ComponentStore {
+
+	/**
+	 * World the store belongs to
+	 */
+	protected final World mWorld;
+
+	/**
+	 * Dense position of each entity index, -1 for entities without the component
+	 */
+	private int[] mSparse;
+
+	/**
+	 * Entity of each dense position
+	 */
+	private int[] mDense;
+
+	/**
+	 * Number of components
+	 */
+	private int mSize;
+
+	/**
+	 * Creates an empty store and adds it to a world
+	 * 
+	 * @param world
+	 * @param initialCapacity
+	 *            Number of components the store holds before growing
+	 */
+	protected ComponentStore(World world, int initialCapacity) {
+		initialCapacity = Math.max(1, initialCapacity);
+		mWorld = world;
+		mSparse = new int[initialCapacity];
+		for (int i = 0; i < initialCapacity; i++) {
+			mSparse[i] = -1;
+		}
+		mDense = new int[initialCapacity];
+		world.addStore(this);
+	}
+
+	/**
+	 * Adds the component to an entity. Subclasses call this from their add
+	 * methods and initialize the data at the returned position.
+	 * 
+	 * @param entity
+	 * @return Dense position of the component
+	 * @throws IllegalArgumentException
+	 *             If the entity is not alive
+	 */
+	protected final int addEntity(int entity) {
+		if (!mWorld.isAlive(entity)) {
+			throw new IllegalArgumentException("Entity is not alive: " + entity);
+		}
+
+		int existing = indexOf(entity);
+		if (existing >= 0) {
+			return existing;
+		}
+
+		int entityIndex = World.getIndex(entity);
+		if (entityIndex >= mSparse.length) {
+			int length = mSparse.length;
+			int capacity = Math.max(length * 2, entityIndex + 1);
+			int[] sparse = new int[capacity];
+			System.arraycopy(mSparse, 0, sparse, 0, length);
+			for (int i = length; i < capacity; i++) {
+				sparse[i] = -1;
+			}
+			mSparse = sparse;
+		}
+
+		if (mSize == mDense.length) {
+			int capacity = mDense.length * 2;
+			int[] dense = new int[capacity];
+			System.arraycopy(mDense, 0, dense, 0, mSize);
+			mDense = dense;
+			resize(capacity);
+		}
+
+		int index = mSize++;
+		mDense[index] = entity;
+		mSparse[entityIndex] = index;
+		return index;
+	}
+
+	/**
+	 * Removes the component from an entity
+	 * 
+	 * @param entity
+	 * @return False if the entity did not have the component
+	 */
+	public final boolean remove(int entity) {
+		int index = indexOf(entity);
+		if (index < 0) {
+			return false;
+		}
+
+		int last = --mSize;
+		if (index != last) {
+			int movedEntity = mDense[last];
+			mDense[index] = movedEntity;
+			mSparse[World.getIndex(movedEntity)] = index;
+			move(last, index);
+		}
+		clear(last);
+		mSparse[World.getIndex(entity)] = -1;
+		return true;
+	}
+
+	/**
+	 * Tells if an entity has the component
+	 * 
+	 * @param entity
+	 * @return True if the entity has the component
+	 */
+	public final boolean has(int entity) {
+		return indexOf(entity) >= 0;
+	}
+
+	/**
+	 * Returns the dense position of an entity's component
+	 * 
+	 * @param entity
+	 * @return Position or -1 if the entity does not have the component
+	 */
+	public final int indexOf(int entity) {
+		if (entity < 0) {
+			return -1;
+		}
+		int entityIndex = World.getIndex(entity);
+		if (entityIndex >= mSparse.length) {
+			return -1;
+		}
+		int index = mSparse[entityIndex];
+		if (index < 0 || mDense[index] != entity) {
+			return -1;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the number of components
+	 * 
+	 * @return Component count
+	 */
+	public final int size() {
+		return mSize;
+	}
+
+	/**
+	 * Returns the entity owning the component at a dense position
+	 * 
+	 * @param index
+	 *            Dense position below {@link #size()}
+	 * @return The entity
+	 */
+	public final int getEntity(int index) {
+		return mDense[index];
+	}
+
+	/**
+	 * Grows the component data arrays
+	 * 
+	 * @param capacity
+	 *            New number of components the arrays must hold
+	 */
+	protected abstract void resize(int capacity);
+
+	/**
+	 * Copies component data from one dense position to another
+	 * 
+	 * @param from
+	 * @param to
+	 */
+	protected abstract void move(int from, int to);
+
+	/**
+	 * Clears the component data at a position that is no longer used, e.g.
+	 * to drop object references. Does nothing by default.
+	 * 
+	 * @param index
+	 */
+	protected void clear(int index) {
+	}
+}
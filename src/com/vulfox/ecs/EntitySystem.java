@@ -0,0 +1,31 @@
+package com.vulfox.ecs;
+
+/**
+ * Game logic that runs over the entities of a {@link World} every update.
+ * Systems usually iterate a {@link Query} or a single component store.
+ */
+public abstract class EntitySystem {
+
+	/**
+	 * Indicates if the system is run
+	 */
+	private boolean mEnabled = true;
+
+	/**
+	 * Is called once every update
+	 * 
+	 * @param world
+	 *            World the system is added to
+	 * @param timeStep
+	 *            Time since last update in seconds
+	 */
+	public abstract void update(World world, float timeStep);
+
+	public boolean isEnabled() {
+		return mEnabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		mEnabled = enabled;
+	}
+}
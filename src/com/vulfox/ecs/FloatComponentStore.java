@@ -0,0 +1,114 @@
+package com.vulfox.ecs;
+
+/**
+ * Component store for components made of a fixed number of floats, e.g. 2
+ * for a position. The floats of all components are packed in one array, the
+ * component at dense position i starts at i * stride. Systems can loop over
+ * {@link #getData()} directly.
+ */
+public class FloatComponentStore extends ComponentStore {
+
+	/**
+	 * Number of floats per component
+	 */
+	private final int mStride;
+
+	/**
+	 * Component data
+	 */
+	private float[] mData;
+
+	/**
+	 * Creates an empty store
+	 * 
+	 * @param world
+	 * @param stride
+	 *            Number of floats per component
+	 * @param initialCapacity
+	 *            Number of components the store holds before growing
+	 */
+	public FloatComponentStore(World world, int stride, int initialCapacity) {
+		super(world, initialCapacity);
+		mStride = stride;
+		mData = new float[Math.max(1, initialCapacity) * stride];
+	}
+
+	/**
+	 * Adds the component to an entity with all values set to 0. Adding it
+	 * again keeps the current values.
+	 * 
+	 * @param entity
+	 * @return Offset of the component in {@link #getData()}
+	 */
+	public int add(int entity) {
+		boolean added = !has(entity);
+		int offset = addEntity(entity) * mStride;
+		if (added) {
+			for (int i = 0; i < mStride; i++) {
+				mData[offset + i] = 0.0f;
+			}
+		}
+		return offset;
+	}
+
+	/**
+	 * Returns where an entity's component starts in {@link #getData()}
+	 * 
+	 * @param entity
+	 * @return Offset or -1 if the entity does not have the component
+	 */
+	public int getOffset(int entity) {
+		int index = indexOf(entity);
+		return index < 0 ? -1 : index * mStride;
+	}
+
+	/**
+	 * Returns a value of an entity's component
+	 * 
+	 * @param entity
+	 * @param field
+	 *            Index of the float within the component
+	 * @return The value
+	 */
+	public float get(int entity, int field) {
+		return mData[getOffset(entity) + field];
+	}
+
+	/**
+	 * Sets a value of an entity's component
+	 * 
+	 * @param entity
+	 * @param field
+	 *            Index of the float within the component
+	 * @param value
+	 */
+	public void set(int entity, int field, float value) {
+		mData[getOffset(entity) + field] = value;
+	}
+
+	/**
+	 * Returns the packed component data. The array is replaced when the
+	 * store grows, so it should not be kept across adds.
+	 * 
+	 * @return Component data
+	 */
+	public float[] getData() {
+		return mData;
+	}
+
+	public int getStride() {
+		return mStride;
+	}
+
+	@Override
+	protected void resize(int capacity) {
+		float[] data = new float[capacity * mStride];
+		System.arraycopy(mData, 0, data, 0, mData.length);
+		mData = data;
+	}
+
+	@Override
+	protected void move(int from, int to) {
+		System.arraycopy(mData, from * mStride, mData, to * mStride, mStride);
+	}
+}
@@ -0,0 +1,80 @@
+package com.vulfox.ecs;
+
+/**
+ * Component store for components that are objects, for data that does not
+ * fit in a {@link FloatComponentStore}
+ * 
+ * @param <T>
+ *            Component class
+ */
+public class ObjectComponentStore<T> extends ComponentStore {
+
+	/**
+	 * Components by dense position
+	 */
+	private Object[] mComponents;
+
+	/**
+	 * Creates an empty store
+	 * 
+	 * @param world
+	 * @param initialCapacity
+	 *            Number of components the store holds before growing
+	 */
+	public ObjectComponentStore(World world, int initialCapacity) {
+		super(world, initialCapacity);
+		mComponents = new Object[Math.max(1, initialCapacity)];
+	}
+
+	/**
+	 * Adds a component to an entity, replacing the component it had
+	 * 
+	 * @param entity
+	 * @param component
+	 */
+	public void add(int entity, T component) {
+		// Add first, the array may be replaced while adding
+		int index = addEntity(entity);
+		mComponents[index] = component;
+	}
+
+	/**
+	 * Returns an entity's component
+	 * 
+	 * @param entity
+	 * @return The component or null if the entity does not have one
+	 */
+	public T get(int entity) {
+		int index = indexOf(entity);
+		return index < 0 ? null : getAt(index);
+	}
+
+	/**
+	 * Returns the component at a dense position
+	 * 
+	 * @param index
+	 *            Dense position below {@link #size()}
+	 * @return The component
+	 */
+	@SuppressWarnings("unchecked")
+	public T getAt(int index) {
+		return (T) mComponents[index];
+	}
+
+	@Override
+	protected void resize(int capacity) {
+		Object[] components = new Object[capacity];
+		System.arraycopy(mComponents, 0, components, 0, mComponents.length);
+		mComponents = components;
+	}
+
+	@Override
+	protected void move(int from, int to) {
+		mComponents[to] = mComponents[from];
+	}
+
+	@Override
+	protected void clear(int index) {
+		mComponents[index] = null;
+	}
+}
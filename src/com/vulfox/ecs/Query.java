@@ -0,0 +1,91 @@
+package com.vulfox.ecs;
+
+/**
+ * Finds the entities that have all of a set of components. The query walks
+ * the smallest of the stores and checks the others, so its cost depends on
+ * the rarest component. Results are kept in a reused array.
+ */
+public class Query {
+
+	/**
+	 * Stores an entity must have a component in
+	 */
+	private final ComponentStore[] mStores;
+
+	/**
+	 * Matching entities of the last run
+	 */
+	private int[] mEntities = new int[64];
+
+	/**
+	 * Number of matching entities
+	 */
+	private int mCount;
+
+	/**
+	 * Creates a query
+	 * 
+	 * @param stores
+	 *            Stores an entity must have a component in
+	 */
+	public Query(ComponentStore... stores) {
+		if (stores.length == 0) {
+			throw new IllegalArgumentException("A query needs at least one store");
+		}
+		mStores = stores.clone();
+	}
+
+	/**
+	 * Finds the matching entities
+	 * 
+	 * @return Number of matching entities
+	 */
+	public int run() {
+		final ComponentStore[] stores = mStores;
+		ComponentStore smallest = stores[0];
+		for (int i = 1; i < stores.length; i++) {
+			if (stores[i].size() < smallest.size()) {
+				smallest = stores[i];
+			}
+		}
+
+		int size = smallest.size();
+		if (size > mEntities.length) {
+			mEntities = new int[Math.max(size, mEntities.length * 2)];
+		}
+
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			int entity = smallest.getEntity(i);
+			boolean match = true;
+			for (int j = 0; j < stores.length && match; j++) {
+				match = stores[j] == smallest || stores[j].has(entity);
+			}
+			if (match) {
+				mEntities[count++] = entity;
+			}
+		}
+		mCount = count;
+		return count;
+	}
+
+	/**
+	 * Returns the number of entities found by the last run
+	 * 
+	 * @return Entity count
+	 */
+	public int getCount() {
+		return mCount;
+	}
+
+	/**
+	 * Returns an entity found by the last run
+	 * 
+	 * @param index
+	 *            Index below {@link #getCount()}
+	 * @return The entity
+	 */
+	public int getEntity(int index) {
+		return mEntities[index];
+	}
+}
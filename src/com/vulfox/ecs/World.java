@@ -0,0 +1,284 @@
+package com.vulfox.ecs;
+
+import java.util.ArrayList;
+
+/**
+ * Owns the entities, component stores and systems of a game. An entity is an
+ * int made of a 20 bit index and an 11 bit generation. The index of a
+ * destroyed entity is reused, with a new generation, so stale ids held by
+ * game code are recognized as dead.
+ * 
+ * Creating and destroying entities only allocates when the world grows past
+ * its largest size so far.
+ */
+public class World {
+
+	/**
+	 * Id that never refers to an entity
+	 */
+	public static final int NULL_ENTITY = -1;
+
+	/**
+	 * Number of bits used for the entity index
+	 */
+	private static final int INDEX_BITS = 20;
+
+	/**
+	 * Mask of the entity index
+	 */
+	private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+	/**
+	 * Mask of the generation, kept at 11 bits so ids are never negative
+	 */
+	private static final int GENERATION_MASK = 0x7ff;
+
+	/**
+	 * Maximum number of entities alive at the same time
+	 */
+	public static final int MAX_ENTITIES = 1 << INDEX_BITS;
+
+	/**
+	 * Current generation of each index
+	 */
+	private int[] mGenerations;
+
+	/**
+	 * Indicates if the entity with each index is alive
+	 */
+	private boolean[] mAlive;
+
+	/**
+	 * Indices of destroyed entities that can be reused
+	 */
+	private int[] mFreeIndices;
+
+	/**
+	 * Number of reusable indices
+	 */
+	private int mFreeCount;
+
+	/**
+	 * Index given to the next entity when there are no reusable indices
+	 */
+	private int mNextIndex;
+
+	/**
+	 * Number of alive entities
+	 */
+	private int mEntityCount;
+
+	/**
+	 * Entities to destroy after the systems have run
+	 */
+	private int[] mDestroyQueue;
+
+	/**
+	 * Number of entities to destroy
+	 */
+	private int mDestroyQueueCount;
+
+	/**
+	 * Component stores of the world
+	 */
+	private ArrayList<ComponentStore> mStores = new ArrayList<ComponentStore>();
+
+	/**
+	 * Systems in the order they are run
+	 */
+	private ArrayList<EntitySystem> mSystems = new ArrayList<EntitySystem>();
+
+	/**
+	 * Creates an empty world
+	 */
+	public World() {
+		this(64);
+	}
+
+	/**
+	 * Creates an empty world
+	 * 
+	 * @param initialCapacity
+	 *            Number of entities the world holds before growing
+	 */
+	public World(int initialCapacity) {
+		initialCapacity = Math.max(1, initialCapacity);
+		mGenerations = new int[initialCapacity];
+		mAlive = new boolean[initialCapacity];
+		mFreeIndices = new int[initialCapacity];
+		mDestroyQueue = new int[16];
+	}
+
+	/**
+	 * Creates an entity
+	 * 
+	 * @return The entity id
+	 * @throws IllegalStateException
+	 *             If {@link #MAX_ENTITIES} are alive
+	 */
+	public int create() {
+		int index;
+		if (mFreeCount > 0) {
+			index = mFreeIndices[--mFreeCount];
+		} else {
+			if (mNextIndex == MAX_ENTITIES) {
+				throw new IllegalStateException("Too many entities");
+			}
+			if (mNextIndex == mGenerations.length) {
+				grow();
+			}
+			index = mNextIndex++;
+		}
+
+		mAlive[index] = true;
+		mEntityCount++;
+		return (mGenerations[index] << INDEX_BITS) | index;
+	}
+
+	/**
+	 * Destroys an entity and removes all its components
+	 * 
+	 * @param entity
+	 * @return False if the entity was not alive
+	 */
+	public boolean destroy(int entity) {
+		if (!isAlive(entity)) {
+			return false;
+		}
+
+		for (int i = 0; i < mStores.size(); i++) {
+			mStores.get(i).remove(entity);
+		}
+
+		int index = entity & INDEX_MASK;
+		mAlive[index] = false;
+		mGenerations[index] = (mGenerations[index] + 1) & GENERATION_MASK;
+		mFreeIndices[mFreeCount++] = index;
+		mEntityCount--;
+		return true;
+	}
+
+	/**
+	 * Destroys an entity once all systems have run. Systems should use this
+	 * instead of {@link #destroy(int)} while iterating over a component store
+	 * or query.
+	 * 
+	 * @param entity
+	 */
+	public void destroyLater(int entity) {
+		if (mDestroyQueueCount == mDestroyQueue.length) {
+			int[] queue = new int[mDestroyQueue.length * 2];
+			System.arraycopy(mDestroyQueue, 0, queue, 0, mDestroyQueueCount);
+			mDestroyQueue = queue;
+		}
+		mDestroyQueue[mDestroyQueueCount++] = entity;
+	}
+
+	/**
+	 * Tells if an entity id refers to a living entity
+	 * 
+	 * @param entity
+	 * @return True if alive
+	 */
+	public boolean isAlive(int entity) {
+		if (entity < 0) {
+			return false;
+		}
+		int index = entity & INDEX_MASK;
+		return index < mNextIndex && mAlive[index]
+				&& mGenerations[index] == entity >>> INDEX_BITS;
+	}
+
+	/**
+	 * Returns the index part of an entity id, unique among living entities
+	 * 
+	 * @param entity
+	 * @return Entity index
+	 */
+	public static int getIndex(int entity) {
+		return entity & INDEX_MASK;
+	}
+
+	/**
+	 * Returns the generation part of an entity id
+	 * 
+	 * @param entity
+	 * @return Entity generation
+	 */
+	public static int getGeneration(int entity) {
+		return entity >>> INDEX_BITS;
+	}
+
+	/**
+	 * Returns the number of living entities
+	 * 
+	 * @return Entity count
+	 */
+	public int getEntityCount() {
+		return mEntityCount;
+	}
+
+	/**
+	 * Adds a system, systems are run in the order they were added
+	 * 
+	 * @param system
+	 */
+	public void addSystem(EntitySystem system) {
+		mSystems.add(system);
+	}
+
+	/**
+	 * Removes a system
+	 * 
+	 * @param system
+	 */
+	public void removeSystem(EntitySystem system) {
+		mSystems.remove(system);
+	}
+
+	/**
+	 * Runs all enabled systems and then destroys the entities queued with
+	 * {@link #destroyLater(int)}
+	 * 
+	 * @param timeStep
+	 *            Time since last update in seconds
+	 */
+	public void update(float timeStep) {
+		for (int i = 0; i < mSystems.size(); i++) {
+			EntitySystem system = mSystems.get(i);
+			if (system.isEnabled()) {
+				system.update(this, timeStep);
+			}
+		}
+
+		for (int i = 0; i < mDestroyQueueCount; i++) {
+			destroy(mDestroyQueue[i]);
+		}
+		mDestroyQueueCount = 0;
+	}
+
+	/**
+	 * Called by the component stores when they are created
+	 * 
+	 * @param store
+	 */
+	void addStore(ComponentStore store) {
+		mStores.add(store);
+	}
+
+	private void grow() {
+		int capacity = Math.min(mGenerations.length * 2, MAX_ENTITIES);
+
+		int[] generations = new int[capacity];
+		System.arraycopy(mGenerations, 0, generations, 0, mGenerations.length);
+		mGenerations = generations;
+
+		boolean[] alive = new boolean[capacity];
+		System.arraycopy(mAlive, 0, alive, 0, mAlive.length);
+		mAlive = alive;
+
+		int[] freeIndices = new int[capacity];
+		System.arraycopy(mFreeIndices, 0, freeIndices, 0, mFreeCount);
+		mFreeIndices = freeIndices;
+	}
+}
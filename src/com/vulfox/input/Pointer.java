@@ -0,0 +1,121 @@
+package com.vulfox.input;
+
+/**
+ * State of one finger touching the screen, kept up to date in place by a
+ * {@link PointerTracker}
+ */
+public class Pointer {
+
+	/**
+	 * Indicates if the finger is touching the screen
+	 */
+	private boolean mActive;
+
+	/**
+	 * Id of the pointer, see {@link TouchEvent#getPointerId()}
+	 */
+	private int mId;
+
+	/**
+	 * Current x coordinate
+	 */
+	private float mX;
+
+	/**
+	 * Current y coordinate
+	 */
+	private float mY;
+
+	/**
+	 * X coordinate where the finger went down
+	 */
+	private float mStartX;
+
+	/**
+	 * Y coordinate where the finger went down
+	 */
+	private float mStartY;
+
+	/**
+	 * Time the finger went down in milliseconds
+	 */
+	private long mStartTime;
+
+	/**
+	 * Time of the last event in milliseconds
+	 */
+	private long mEventTime;
+
+	void down(TouchEvent touchEvent) {
+		mActive = true;
+		mId = touchEvent.getPointerId();
+		mX = mStartX = touchEvent.getX();
+		mY = mStartY = touchEvent.getY();
+		mStartTime = mEventTime = touchEvent.getEventTime();
+	}
+
+	void move(TouchEvent touchEvent) {
+		mX = touchEvent.getX();
+		mY = touchEvent.getY();
+		mEventTime = touchEvent.getEventTime();
+	}
+
+	void up(TouchEvent touchEvent) {
+		move(touchEvent);
+		mActive = false;
+	}
+
+	void cancel() {
+		mActive = false;
+	}
+
+	/**
+	 * Tells if the finger is touching the screen. The other values keep
+	 * describing the last touch after the finger has been lifted.
+	 * 
+	 * @return True if touching
+	 */
+	public boolean isActive() {
+		return mActive;
+	}
+
+	public int getId() {
+		return mId;
+	}
+
+	public float getX() {
+		return mX;
+	}
+
+	public float getY() {
+		return mY;
+	}
+
+	public float getStartX() {
+		return mStartX;
+	}
+
+	public float getStartY() {
+		return mStartY;
+	}
+
+	/**
+	 * Returns the time the finger went down
+	 * 
+	 * @return Time in milliseconds, same time base as
+	 *         {@link TouchEvent#getEventTime()}
+	 */
+	public long getStartTime() {
+		return mStartTime;
+	}
+
+	/**
+	 * Returns how long the finger has been touching the screen, measured up to
+	 * its last event
+	 * 
+	 * @return Duration in milliseconds
+	 */
+	public long getDuration() {
+		return mEventTime - mStartTime;
+	}
+}
@@ -0,0 +1,161 @@
+package com.vulfox.input;
+
+/**
+ * Keeps track of every finger touching the screen in a fixed array of
+ * {@link Pointer} slots, updated in place from the touch events. Lets screens
+ * poll the touch state during update instead of reacting to single events,
+ * which suits controls such as virtual joysticks.
+ */
+public class PointerTracker {
+
+	/**
+	 * Maximum number of simultaneously tracked fingers
+	 */
+	public static final int MAX_POINTERS = 10;
+
+	/**
+	 * Pointer slots. A slot keeps its index for as long as its finger touches
+	 * the screen.
+	 */
+	private final Pointer[] mPointers;
+
+	/**
+	 * Number of active pointers
+	 */
+	private int mActiveCount;
+
+	/**
+	 * Record reused by {@link #getCancelEvent(int)}
+	 */
+	private final TouchEvent mCancelEvent = new TouchEvent();
+
+	/**
+	 * Creates a tracker with no active pointers
+	 */
+	public PointerTracker() {
+		mPointers = new Pointer[MAX_POINTERS];
+		for (int i = 0; i < MAX_POINTERS; i++) {
+			mPointers[i] = new Pointer();
+		}
+	}
+
+	/**
+	 * Updates the pointer the event belongs to
+	 * 
+	 * @param touchEvent
+	 * @return The slot of the pointer or -1 if it is not tracked
+	 */
+	public int handleInput(TouchEvent touchEvent) {
+		int slot = getSlot(touchEvent.getPointerId());
+
+		switch (touchEvent.getAction()) {
+		case TouchEvent.ACTION_DOWN:
+			if (slot < 0) {
+				slot = getFreeSlot();
+				if (slot < 0) {
+					return -1;
+				}
+				mActiveCount++;
+			}
+			mPointers[slot].down(touchEvent);
+			break;
+		case TouchEvent.ACTION_MOVE:
+			if (slot >= 0) {
+				mPointers[slot].move(touchEvent);
+			}
+			break;
+		case TouchEvent.ACTION_UP:
+		case TouchEvent.ACTION_CANCEL:
+			if (slot >= 0) {
+				mPointers[slot].up(touchEvent);
+				mActiveCount--;
+			}
+			break;
+		}
+		return slot;
+	}
+
+	/**
+	 * Returns the slot of an active pointer
+	 * 
+	 * @param pointerId
+	 * @return Slot index or -1 if no active pointer has the id
+	 */
+	public int getSlot(int pointerId) {
+		for (int i = 0; i < MAX_POINTERS; i++) {
+			Pointer pointer = mPointers[i];
+			if (pointer.isActive() && pointer.getId() == pointerId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the pointer in a slot. Check {@link Pointer#isActive()} before
+	 * using its values.
+	 * 
+	 * @param slot
+	 *            Slot index between 0 and MAX_POINTERS - 1
+	 * @return The pointer
+	 */
+	public Pointer getPointer(int slot) {
+		return mPointers[slot];
+	}
+
+	/**
+	 * Returns the active pointer with the specified id
+	 * 
+	 * @param pointerId
+	 * @return The pointer or null
+	 */
+	public Pointer findPointer(int pointerId) {
+		int slot = getSlot(pointerId);
+		return slot < 0 ? null : mPointers[slot];
+	}
+
+	/**
+	 * Returns the number of fingers touching the screen
+	 * 
+	 * @return Active pointer count
+	 */
+	public int getActiveCount() {
+		return mActiveCount;
+	}
+
+	/**
+	 * Returns a cancel event for the pointer in a slot, at its last position.
+	 * Handling it releases whatever the pointer is holding. The record is
+	 * reused by the next call.
+	 * 
+	 * @param slot
+	 *            Slot index between 0 and MAX_POINTERS - 1
+	 * @return The cancel event
+	 */
+	public TouchEvent getCancelEvent(int slot) {
+		Pointer pointer = mPointers[slot];
+		mCancelEvent.set(TouchEvent.ACTION_CANCEL, pointer.getId(),
+				pointer.getX(), pointer.getY(),
+				pointer.getStartTime() + pointer.getDuration());
+		return mCancelEvent;
+	}
+
+	/**
+	 * Marks all pointers as lifted, for example when the game is paused
+	 */
+	public void reset() {
+		for (int i = 0; i < MAX_POINTERS; i++) {
+			mPointers[i].cancel();
+		}
+		mActiveCount = 0;
+	}
+
+	private int getFreeSlot() {
+		for (int i = 0; i < MAX_POINTERS; i++) {
+			if (!mPointers[i].isActive()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,166 @@
+package com.vulfox.input;
+
+import android.view.MotionEvent;
+
+/**
+ * A reusable touch event record. Instances are owned by a
+ * {@link TouchEventQueue} and are only valid until the event has been removed
+ * from the queue, so they should never be kept between frames.
+ */
+public class TouchEvent {
+
+	/**
+	 * A finger touched the screen. Sent for every finger, not only the first.
+	 */
+	public static final int ACTION_DOWN = MotionEvent.ACTION_DOWN;
+
+	/**
+	 * A finger was lifted from the screen. Sent for every finger, not only the
+	 * last.
+	 */
+	public static final int ACTION_UP = MotionEvent.ACTION_UP;
+
+	/**
+	 * A finger moved while touching the screen
+	 */
+	public static final int ACTION_MOVE = MotionEvent.ACTION_MOVE;
+
+	/**
+	 * The current gesture was aborted
+	 */
+	public static final int ACTION_CANCEL = MotionEvent.ACTION_CANCEL;
+
+	/**
+	 * Touch action, one of the ACTION constants
+	 */
+	private int mAction;
+
+	/**
+	 * Id of the pointer, stays the same while the finger touches the screen
+	 */
+	private int mPointerId;
+
+	/**
+	 * X coordinate of the touch
+	 */
+	private float mX;
+
+	/**
+	 * Y coordinate of the touch
+	 */
+	private float mY;
+
+	/**
+	 * X coordinate of the touch in the world of the screen camera
+	 */
+	private float mWorldX;
+
+	/**
+	 * Y coordinate of the touch in the world of the screen camera
+	 */
+	private float mWorldY;
+
+	/**
+	 * Time of the event in milliseconds, in the same time base as
+	 * {@link MotionEvent#getEventTime()}
+	 */
+	private long mEventTime;
+
+	/**
+	 * Sets the values of this record
+	 * 
+	 * @param action
+	 *            One of the ACTION constants
+	 * @param pointerId
+	 * @param x
+	 * @param y
+	 * @param eventTime
+	 */
+	void set(int action, int pointerId, float x, float y, long eventTime) {
+		mAction = action;
+		mPointerId = pointerId;
+		mX = x;
+		mY = y;
+		mWorldX = x;
+		mWorldY = y;
+		mEventTime = eventTime;
+	}
+
+	/**
+	 * Sets the world coordinates of the touch. Called by the screen manager
+	 * when the top screen has a camera.
+	 * 
+	 * @param x
+	 * @param y
+	 */
+	public void setWorldPosition(float x, float y) {
+		mWorldX = x;
+		mWorldY = y;
+	}
+
+	/**
+	 * Returns the touch action
+	 * 
+	 * @return One of the ACTION constants
+	 */
+	public int getAction() {
+		return mAction;
+	}
+
+	/**
+	 * Returns the id of the pointer that caused the event. Ids are reused once
+	 * a finger has been lifted.
+	 * 
+	 * @return Pointer id
+	 */
+	public int getPointerId() {
+		return mPointerId;
+	}
+
+	/**
+	 * Returns the x coordinate of the touch
+	 * 
+	 * @return x coordinate
+	 */
+	public float getX() {
+		return mX;
+	}
+
+	/**
+	 * Returns the y coordinate of the touch
+	 * 
+	 * @return y coordinate
+	 */
+	public float getY() {
+		return mY;
+	}
+
+	/**
+	 * Returns the x coordinate of the touch in world coordinates. Equal to
+	 * {@link #getX()} when the screen has no camera.
+	 * 
+	 * @return World x coordinate
+	 */
+	public float getWorldX() {
+		return mWorldX;
+	}
+
+	/**
+	 * Returns the y coordinate of the touch in world coordinates. Equal to
+	 * {@link #getY()} when the screen has no camera.
+	 * 
+	 * @return World y coordinate
+	 */
+	public float getWorldY() {
+		return mWorldY;
+	}
+
+	/**
+	 * Returns the time of the event
+	 * 
+	 * @return Event time in milliseconds
+	 */
+	public long getEventTime() {
+		return mEventTime;
+	}
+}
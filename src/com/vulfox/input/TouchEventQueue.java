@@ -0,0 +1,256 @@
+package com.vulfox.input;
+
+import android.view.MotionEvent;
+
+/**
+ * Single producer, single consumer ring buffer of touch events. The UI thread
+ * offers motion events without taking any locks and the game thread drains
+ * them at the beginning of a frame. All event records are allocated up front
+ * and reused, so no objects are created while the game is running.
+ * 
+ * Motion events are split into one record per pointer. Secondary pointers
+ * going down or up are reported as ordinary down and up events with their
+ * own pointer id, and components are captured per pointer id, see
+ * {@link com.vulfox.Screen#handleComponentInput(TouchEvent)}.
+ * 
+ * When the queue fills up, moves and downs are dropped, but the up or cancel
+ * of every pointer whose down was queued is never dropped: the queue keeps
+ * one record free for each pointer that is down. An up of a pointer whose
+ * down was dropped is dropped as well.
+ */
+public class TouchEventQueue {
+
+	/**
+	 * Default number of events that can be queued between two frames
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * Preallocated event records
+	 */
+	private final TouchEvent[] mEvents;
+
+	/**
+	 * Mask used to wrap indices, capacity is always a power of two
+	 */
+	private final int mMask;
+
+	/**
+	 * Index of the next event to read. Only written by the consumer.
+	 */
+	private volatile int mHead;
+
+	/**
+	 * Index of the next free record. Only written by the producer.
+	 */
+	private volatile int mTail;
+
+	/**
+	 * Highest pointer id the queue tracks, the Android limit
+	 */
+	private static final int MAX_POINTER_ID = 31;
+
+	/**
+	 * Bit per pointer id whose down has been queued and whose up or cancel
+	 * has not. Only used by the producer.
+	 */
+	private int mDownPointers;
+
+	/**
+	 * Number of bits set in mDownPointers, the records kept free for ups
+	 */
+	private int mReservedCount;
+
+	/**
+	 * Number of events dropped because the queue was full
+	 */
+	private volatile int mOverflowCount;
+
+	/**
+	 * Highest number of events that have been waiting in the queue
+	 */
+	private volatile int mMaxDepth;
+
+	/**
+	 * Creates a queue with the default capacity
+	 */
+	public TouchEventQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a queue that can hold at least the specified number of events
+	 * 
+	 * @param capacity
+	 *            Minimum capacity, rounded up to the next power of two
+	 */
+	public TouchEventQueue(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+
+		int size = 1;
+		while (size < capacity) {
+			size <<= 1;
+		}
+
+		mEvents = new TouchEvent[size];
+		for (int i = 0; i < size; i++) {
+			mEvents[i] = new TouchEvent();
+		}
+		mMask = size - 1;
+	}
+
+	/**
+	 * Copies a motion event into the queue. Must only be called from the
+	 * producer thread.
+	 * 
+	 * @param motionEvent
+	 *            A touch motion event
+	 * @return False if the queue was full and some of the event was dropped
+	 */
+	public boolean offer(MotionEvent motionEvent) {
+		int action = motionEvent.getAction();
+		int pointerIndex = (action & MotionEvent.ACTION_POINTER_INDEX_MASK) >> MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+		long eventTime = motionEvent.getEventTime();
+
+		boolean queued = true;
+		switch (action & MotionEvent.ACTION_MASK) {
+		case MotionEvent.ACTION_DOWN:
+		case MotionEvent.ACTION_POINTER_DOWN:
+			return offer(TouchEvent.ACTION_DOWN, motionEvent, pointerIndex,
+					eventTime);
+		case MotionEvent.ACTION_UP:
+		case MotionEvent.ACTION_POINTER_UP:
+			return offer(TouchEvent.ACTION_UP, motionEvent, pointerIndex,
+					eventTime);
+		case MotionEvent.ACTION_MOVE:
+			int pointerCount = motionEvent.getPointerCount();
+			for (int i = 0; i < pointerCount; i++) {
+				queued &= offer(TouchEvent.ACTION_MOVE, motionEvent, i,
+						eventTime);
+			}
+			return queued;
+		case MotionEvent.ACTION_CANCEL:
+			pointerCount = motionEvent.getPointerCount();
+			for (int i = 0; i < pointerCount; i++) {
+				queued &= offer(TouchEvent.ACTION_CANCEL, motionEvent, i,
+						eventTime);
+			}
+			return queued;
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Copies one pointer of a motion event into the next free record, unless
+	 * the record is needed for the up of a pointer that is down
+	 */
+	private boolean offer(int action, MotionEvent motionEvent,
+			int pointerIndex, long eventTime) {
+		int pointerId = motionEvent.getPointerId(pointerIndex);
+		int bit = pointerId >= 0 && pointerId <= MAX_POINTER_ID ? 1 << pointerId
+				: 0;
+		int tail = mTail;
+		int depth = tail - mHead;
+		int free = mEvents.length - depth;
+
+		if (action == TouchEvent.ACTION_UP || action == TouchEvent.ACTION_CANCEL) {
+			if ((mDownPointers & bit) != 0) {
+				// Always fits, a record was kept free for it
+				mDownPointers &= ~bit;
+				mReservedCount--;
+			} else if (bit != 0 || free <= mReservedCount) {
+				// The down was dropped, so the consumer never saw the pointer
+				mOverflowCount++;
+				return false;
+			}
+		} else if (action == TouchEvent.ACTION_DOWN
+				&& (mDownPointers & bit) == 0 && bit != 0) {
+			// Room for the down and for its up later
+			if (free < mReservedCount + 2) {
+				mOverflowCount++;
+				return false;
+			}
+			mDownPointers |= bit;
+			mReservedCount++;
+		} else if (free <= mReservedCount) {
+			mOverflowCount++;
+			return false;
+		}
+
+		mEvents[tail & mMask].set(action, pointerId,
+				motionEvent.getX(pointerIndex), motionEvent.getY(pointerIndex),
+				eventTime);
+		mTail = tail + 1;
+
+		if (depth + 1 > mMaxDepth) {
+			mMaxDepth = depth + 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the oldest event without removing it. The record stays valid
+	 * until {@link #remove()} is called. Must only be called from the
+	 * consumer thread.
+	 * 
+	 * @return The oldest event or null if the queue is empty
+	 */
+	public TouchEvent peek() {
+		int head = mHead;
+		if (head == mTail) {
+			return null;
+		}
+		return mEvents[head & mMask];
+	}
+
+	/**
+	 * Removes the oldest event and hands its record back to the producer.
+	 * Must only be called from the consumer thread.
+	 */
+	public void remove() {
+		int head = mHead;
+		if (head != mTail) {
+			mHead = head + 1;
+		}
+	}
+
+	/**
+	 * Returns the number of events currently waiting in the queue
+	 * 
+	 * @return Queue depth
+	 */
+	public int getDepth() {
+		return mTail - mHead;
+	}
+
+	/**
+	 * Returns the highest number of events that have been waiting at once
+	 * 
+	 * @return Maximum queue depth
+	 */
+	public int getMaxDepth() {
+		return mMaxDepth;
+	}
+
+	/**
+	 * Returns the number of events that were dropped because the queue was
+	 * full
+	 * 
+	 * @return Overflow count
+	 */
+	public int getOverflowCount() {
+		return mOverflowCount;
+	}
+
+	/**
+	 * Returns the number of events the queue can hold
+	 * 
+	 * @return Capacity
+	 */
+	public int getCapacity() {
+		return mEvents.length;
+	}
+}
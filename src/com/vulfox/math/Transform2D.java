@@ -0,0 +1,368 @@
+package com.vulfox.math;
+
+import android.graphics.Matrix;
+
+/**
+ * 2d affine transform, a 3x3 matrix with a fixed last row:
+ * 
+ * <pre>
+ * | a  c  tx |
+ * | b  d  ty |
+ * | 0  0  1  |
+ * </pre>
+ * 
+ * All operations work in place and nothing is allocated, except the value
+ * array created on the first conversion to or from an Android Matrix.
+ * Translate, rotate, scale and concat apply in the local space of the
+ * transform, like the same Canvas methods do.
+ */
+public class Transform2D {
+
+	/**
+	 * Matrix elements
+	 */
+	private float mA;
+	private float mB;
+	private float mC;
+	private float mD;
+	private float mTx;
+	private float mTy;
+
+	/**
+	 * Values exchanged with Android matrices, created on first use
+	 */
+	private float[] mValues;
+
+	/**
+	 * Constructs an identity transform
+	 */
+	public Transform2D() {
+		setIdentity();
+	}
+
+	/**
+	 * Constructs a copy of the specified transform
+	 * @param other
+	 */
+	public Transform2D(Transform2D other) {
+		set(other);
+	}
+
+	/**
+	 * Resets the transform to identity
+	 */
+	public void setIdentity() {
+		set(1.0f, 0.0f, 0.0f, 1.0f, 0.0f, 0.0f);
+	}
+
+	/**
+	 * Sets all matrix elements
+	 * @param a x scale
+	 * @param b y skew
+	 * @param c x skew
+	 * @param d y scale
+	 * @param tx x translation
+	 * @param ty y translation
+	 */
+	public void set(float a, float b, float c, float d, float tx, float ty) {
+		mA = a;
+		mB = b;
+		mC = c;
+		mD = d;
+		mTx = tx;
+		mTy = ty;
+	}
+
+	/**
+	 * Copies the specified transform
+	 * @param other
+	 */
+	public void set(Transform2D other) {
+		set(other.mA, other.mB, other.mC, other.mD, other.mTx, other.mTy);
+	}
+
+	/**
+	 * Sets the transform to translation, then rotation, then scale, the usual
+	 * transform of a sprite
+	 * @param x Position x
+	 * @param y Position y
+	 * @param rotation Rotation in radians
+	 * @param scaleX
+	 * @param scaleY
+	 */
+	public void setTransform(float x, float y, float rotation, float scaleX, float scaleY) {
+		float cos = (float) Math.cos(rotation);
+		float sin = (float) Math.sin(rotation);
+		set(cos * scaleX, sin * scaleX, -sin * scaleY, cos * scaleY, x, y);
+	}
+
+	/**
+	 * Translates in local space
+	 * @param x
+	 * @param y
+	 */
+	public void translate(float x, float y) {
+		mTx += mA * x + mC * y;
+		mTy += mB * x + mD * y;
+	}
+
+	/**
+	 * Rotates in local space
+	 * @param radians Angle, positive is clockwise on screen
+	 */
+	public void rotate(float radians) {
+		float cos = (float) Math.cos(radians);
+		float sin = (float) Math.sin(radians);
+		float a = mA * cos + mC * sin;
+		float b = mB * cos + mD * sin;
+		float c = mC * cos - mA * sin;
+		float d = mD * cos - mB * sin;
+		mA = a;
+		mB = b;
+		mC = c;
+		mD = d;
+	}
+
+	/**
+	 * Rotates around a point in local space
+	 * @param radians Angle, positive is clockwise on screen
+	 * @param x Pivot x
+	 * @param y Pivot y
+	 */
+	public void rotate(float radians, float x, float y) {
+		translate(x, y);
+		rotate(radians);
+		translate(-x, -y);
+	}
+
+	/**
+	 * Scales in local space
+	 * @param x
+	 * @param y
+	 */
+	public void scale(float x, float y) {
+		mA *= x;
+		mB *= x;
+		mC *= y;
+		mD *= y;
+	}
+
+	/**
+	 * Applies another transform in local space, this = this * other
+	 * @param other
+	 */
+	public void concat(Transform2D other) {
+		float a = mA * other.mA + mC * other.mB;
+		float b = mB * other.mA + mD * other.mB;
+		float c = mA * other.mC + mC * other.mD;
+		float d = mB * other.mC + mD * other.mD;
+		float tx = mA * other.mTx + mC * other.mTy + mTx;
+		float ty = mB * other.mTx + mD * other.mTy + mTy;
+		set(a, b, c, d, tx, ty);
+	}
+
+	/**
+	 * Applies another transform after this one, this = other * this
+	 * @param other
+	 */
+	public void postConcat(Transform2D other) {
+		float a = other.mA * mA + other.mC * mB;
+		float b = other.mB * mA + other.mD * mB;
+		float c = other.mA * mC + other.mC * mD;
+		float d = other.mB * mC + other.mD * mD;
+		float tx = other.mA * mTx + other.mC * mTy + other.mTx;
+		float ty = other.mB * mTx + other.mD * mTy + other.mTy;
+		set(a, b, c, d, tx, ty);
+	}
+
+	/**
+	 * Sets this transform to the product of two transforms, left * right.
+	 * Either may be this transform.
+	 * @param left
+	 * @param right
+	 */
+	public void setConcat(Transform2D left, Transform2D right) {
+		float a = left.mA * right.mA + left.mC * right.mB;
+		float b = left.mB * right.mA + left.mD * right.mB;
+		float c = left.mA * right.mC + left.mC * right.mD;
+		float d = left.mB * right.mC + left.mD * right.mD;
+		float tx = left.mA * right.mTx + left.mC * right.mTy + left.mTx;
+		float ty = left.mB * right.mTx + left.mD * right.mTy + left.mTy;
+		set(a, b, c, d, tx, ty);
+	}
+
+	/**
+	 * Gets the determinant of the linear part
+	 * @return The determinant, 0 if the transform cannot be inverted
+	 */
+	public float getDeterminant() {
+		return mA * mD - mB * mC;
+	}
+
+	/**
+	 * Inverts this transform
+	 * @return False if the transform cannot be inverted, it is then left unchanged
+	 */
+	public boolean invert() {
+		return invert(this);
+	}
+
+	/**
+	 * Stores the inverse of this transform in the specified Transform2D
+	 * @param result
+	 * @return False if the transform cannot be inverted, result is then left unchanged
+	 */
+	public boolean invert(Transform2D result) {
+		float determinant = getDeterminant();
+		if (determinant == 0.0f) {
+			return false;
+		}
+
+		float inv = 1.0f / determinant;
+		float a = mD * inv;
+		float b = -mB * inv;
+		float c = -mC * inv;
+		float d = mA * inv;
+		float tx = -(a * mTx + c * mTy);
+		float ty = -(b * mTx + d * mTy);
+		result.set(a, b, c, d, tx, ty);
+		return true;
+	}
+
+	/**
+	 * Transforms a point in place
+	 * @param point
+	 */
+	public void transform(Vector2f point) {
+		transform(point, point);
+	}
+
+	/**
+	 * Transforms a point and stores it in the specified Vector2f
+	 * @param point
+	 * @param result
+	 */
+	public void transform(Vector2f point, Vector2f result) {
+		float x = point.getX();
+		float y = point.getY();
+		result.set(mA * x + mC * y + mTx, mB * x + mD * y + mTy);
+	}
+
+	/**
+	 * Transforms a direction in place, ignoring the translation
+	 * @param vector
+	 */
+	public void transformVector(Vector2f vector) {
+		float x = vector.getX();
+		float y = vector.getY();
+		vector.set(mA * x + mC * y, mB * x + mD * y);
+	}
+
+	/**
+	 * Transforms points stored as x, y pairs. Source and destination may be
+	 * the same array.
+	 * @param src Source points
+	 * @param srcOffset Index of the first source x
+	 * @param dst Destination points
+	 * @param dstOffset Index of the first destination x
+	 * @param count Number of points
+	 */
+	public void transformPoints(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+		final float a = mA;
+		final float b = mB;
+		final float c = mC;
+		final float d = mD;
+		final float tx = mTx;
+		final float ty = mTy;
+		final int end = srcOffset + count * 2;
+		for (int i = srcOffset, j = dstOffset; i < end; i += 2, j += 2) {
+			float x = src[i];
+			float y = src[i + 1];
+			dst[j] = a * x + c * y + tx;
+			dst[j + 1] = b * x + d * y + ty;
+		}
+	}
+
+	/**
+	 * Transforms all points of a buffer in place
+	 * @param points
+	 * @param from First index
+	 * @param to Index after the last
+	 */
+	public void transformPoints(Vector2fBuffer points, int from, int to) {
+		final float[] xs = points.getXArray();
+		final float[] ys = points.getYArray();
+		final float a = mA;
+		final float b = mB;
+		final float c = mC;
+		final float d = mD;
+		final float tx = mTx;
+		final float ty = mTy;
+		for (int i = from; i < to; i++) {
+			float x = xs[i];
+			float y = ys[i];
+			xs[i] = a * x + c * y + tx;
+			ys[i] = b * x + d * y + ty;
+		}
+	}
+
+	/**
+	 * Copies this transform to an Android matrix, to be used when drawing
+	 * @param matrix
+	 */
+	public void toMatrix(Matrix matrix) {
+		float[] values = getValues();
+		values[Matrix.MSCALE_X] = mA;
+		values[Matrix.MSKEW_X] = mC;
+		values[Matrix.MTRANS_X] = mTx;
+		values[Matrix.MSKEW_Y] = mB;
+		values[Matrix.MSCALE_Y] = mD;
+		values[Matrix.MTRANS_Y] = mTy;
+		values[Matrix.MPERSP_0] = 0.0f;
+		values[Matrix.MPERSP_1] = 0.0f;
+		values[Matrix.MPERSP_2] = 1.0f;
+		matrix.setValues(values);
+	}
+
+	/**
+	 * Copies an Android matrix to this transform. Perspective is ignored.
+	 * @param matrix
+	 */
+	public void setMatrix(Matrix matrix) {
+		float[] values = getValues();
+		matrix.getValues(values);
+		set(values[Matrix.MSCALE_X], values[Matrix.MSKEW_Y], values[Matrix.MSKEW_X],
+				values[Matrix.MSCALE_Y], values[Matrix.MTRANS_X], values[Matrix.MTRANS_Y]);
+	}
+
+	public float getA() {
+		return mA;
+	}
+
+	public float getB() {
+		return mB;
+	}
+
+	public float getC() {
+		return mC;
+	}
+
+	public float getD() {
+		return mD;
+	}
+
+	public float getTranslateX() {
+		return mTx;
+	}
+
+	public float getTranslateY() {
+		return mTy;
+	}
+
+	private float[] getValues() {
+		if (mValues == null) {
+			mValues = new float[9];
+		}
+		return mValues;
+	}
+}
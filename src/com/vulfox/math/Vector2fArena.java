@@ -0,0 +1,225 @@
+package com.vulfox.math;
+
+/**
+ * Hands out scratch vectors from a preallocated block instead of creating
+ * new ones. Vectors do not have to be released: the whole arena is reset at
+ * once, and a vector must not be used after the reset that released it.
+ * 
+ * The frame arena returned by {@link #getFrameArena()} belongs to the
+ * calling thread and is reset by the game loop running on that thread at the
+ * start of every frame, so vectors from it live until the end of the frame.
+ * Loops on different threads, such as a game thread and a headless runner,
+ * have separate frame arenas. Nested scopes can give vectors back early with
+ * {@link #mark()} and {@link #reset(int)}.
+ * 
+ * In debug mode released vectors are set to NaN. Writing to an escaped
+ * vector is detected: the next reset, or handing the vector out again,
+ * throws an IllegalStateException. Reading an escaped vector is not
+ * detected, since that would need a check in every Vector2f accessor; it
+ * only gives NaN results.
+ * 
+ * An arena must only be used from one thread.
+ */
+public class Vector2fArena {
+
+	/**
+	 * Default number of preallocated vectors
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * Arena of each thread, reset by the game loop running on it every frame
+	 */
+	private static final ThreadLocal<Vector2fArena> sFrameArena = new ThreadLocal<Vector2fArena>() {
+		@Override
+		protected Vector2fArena initialValue() {
+			return new Vector2fArena(DEFAULT_CAPACITY);
+		}
+	};
+
+	/**
+	 * Preallocated vectors
+	 */
+	private Vector2f[] mVectors;
+
+	/**
+	 * Number of vectors handed out
+	 */
+	private int mTop;
+
+	/**
+	 * Largest number of vectors handed out at the same time
+	 */
+	private int mHighWaterMark;
+
+	/**
+	 * Indicates if released vectors are poisoned and checked
+	 */
+	private boolean mDebugEnabled;
+
+	/**
+	 * Creates an arena
+	 * @param capacity Number of preallocated vectors, the arena grows if more are needed
+	 */
+	public Vector2fArena(int capacity) {
+		mVectors = new Vector2f[Math.max(1, capacity)];
+		for (int i = 0; i < mVectors.length; i++) {
+			mVectors[i] = new Vector2f();
+		}
+	}
+
+	/**
+	 * Returns the arena of the calling thread, reset at the start of every
+	 * frame by the game loop running on it. Fetch it once per frame rather
+	 * than per vector.
+	 * @return The frame arena
+	 */
+	public static Vector2fArena getFrameArena() {
+		return sFrameArena.get();
+	}
+
+	/**
+	 * Returns a zero vector that is valid until the arena is reset
+	 * @return A scratch vector
+	 */
+	public Vector2f get() {
+		return get(0.0f, 0.0f);
+	}
+
+	/**
+	 * Returns a vector that is valid until the arena is reset
+	 * @param x
+	 * @param y
+	 * @return A scratch vector
+	 */
+	public Vector2f get(float x, float y) {
+		if (mTop == mVectors.length) {
+			grow();
+		}
+
+		Vector2f vector = mVectors[mTop++];
+		if (mTop > mHighWaterMark) {
+			mHighWaterMark = mTop;
+		}
+		if (mDebugEnabled && !isPoisoned(vector)) {
+			throw escaped(vector);
+		}
+		vector.set(x, y);
+		return vector;
+	}
+
+	/**
+	 * Returns a vector holding a copy of the specified Vector2f
+	 * @param other
+	 * @return A scratch vector
+	 */
+	public Vector2f get(Vector2f other) {
+		return get(other.getX(), other.getY());
+	}
+
+	/**
+	 * Marks the start of a scope
+	 * @return Mark to pass to {@link #reset(int)}
+	 */
+	public int mark() {
+		return mTop;
+	}
+
+	/**
+	 * Releases every vector handed out since a mark
+	 * @param mark Value returned by {@link #mark()}
+	 */
+	public void reset(int mark) {
+		if (mark < 0 || mark > mTop) {
+			throw new IllegalArgumentException("Invalid arena mark " + mark
+					+ ", top is " + mTop);
+		}
+		if (mDebugEnabled) {
+			// Vectors released earlier must still be poisoned
+			for (int i = mTop; i < mHighWaterMark; i++) {
+				if (!isPoisoned(mVectors[i])) {
+					throw escaped(mVectors[i]);
+				}
+			}
+			for (int i = mark; i < mTop; i++) {
+				poison(mVectors[i]);
+			}
+		}
+		mTop = mark;
+	}
+
+	/**
+	 * Releases every vector
+	 */
+	public void reset() {
+		reset(0);
+	}
+
+	/**
+	 * Turns poisoning and checking of released vectors on or off
+	 * @param enabled True in debug builds
+	 */
+	public void setDebugEnabled(boolean enabled) {
+		if (enabled && !mDebugEnabled) {
+			for (int i = mTop; i < mVectors.length; i++) {
+				poison(mVectors[i]);
+			}
+		}
+		mDebugEnabled = enabled;
+	}
+
+	public boolean isDebugEnabled() {
+		return mDebugEnabled;
+	}
+
+	/**
+	 * Returns the number of vectors handed out since the last reset
+	 * @return Used vector count
+	 */
+	public int getUsedCount() {
+		return mTop;
+	}
+
+	/**
+	 * Returns the number of vectors the arena holds without growing
+	 * @return Capacity
+	 */
+	public int getCapacity() {
+		return mVectors.length;
+	}
+
+	/**
+	 * Returns the largest number of vectors handed out at the same time, use
+	 * it to choose the capacity
+	 * @return High water mark
+	 */
+	public int getHighWaterMark() {
+		return mHighWaterMark;
+	}
+
+	private void grow() {
+		Vector2f[] vectors = new Vector2f[mVectors.length * 2];
+		System.arraycopy(mVectors, 0, vectors, 0, mVectors.length);
+		for (int i = mVectors.length; i < vectors.length; i++) {
+			vectors[i] = new Vector2f();
+			if (mDebugEnabled) {
+				poison(vectors[i]);
+			}
+		}
+		mVectors = vectors;
+	}
+
+	private static IllegalStateException escaped(Vector2f vector) {
+		return new IllegalStateException(
+				"Arena vector was written after it was released: "
+						+ vector.getX() + ", " + vector.getY());
+	}
+
+	private static void poison(Vector2f vector) {
+		vector.set(Float.NaN, Float.NaN);
+	}
+
+	private static boolean isPoisoned(Vector2f vector) {
+		return Float.isNaN(vector.getX()) && Float.isNaN(vector.getY());
+	}
+}
@@ -0,0 +1,461 @@
+package com.vulfox.math;
+
+/**
+ * A fixed capacity list of 2d vectors stored as two float arrays, one for the
+ * x and one for the y coordinates. Iterating over thousands of vectors this
+ * way touches contiguous memory and creates no garbage, unlike an array of
+ * {@link Vector2f}.
+ * 
+ * The bulk operations work on the index range [from, to). The arrays are
+ * exposed for loops that are not covered by the bulk operations, and a
+ * {@link Cursor} reads and writes single vectors without allocating.
+ */
+public class Vector2fBuffer {
+
+	/**
+	 * X coordinates
+	 */
+	private final float[] mX;
+
+	/**
+	 * Y coordinates
+	 */
+	private final float[] mY;
+
+	/**
+	 * Number of vectors in use
+	 */
+	private int mSize;
+
+	/**
+	 * Constructs an empty buffer
+	 * @param capacity Maximum number of vectors
+	 */
+	public Vector2fBuffer(int capacity) {
+		mX = new float[capacity];
+		mY = new float[capacity];
+	}
+
+	/**
+	 * Returns the maximum number of vectors
+	 * @return Capacity
+	 */
+	public int getCapacity() {
+		return mX.length;
+	}
+
+	/**
+	 * Returns the number of vectors in use
+	 * @return Size
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * Sets the number of vectors in use, e.g. to use the whole capacity
+	 * without adding vectors one by one
+	 * @param size
+	 */
+	public void setSize(int size) {
+		if (size < 0 || size > mX.length) {
+			throw new IndexOutOfBoundsException("Size " + size + ", capacity " + mX.length);
+		}
+		mSize = size;
+	}
+
+	/**
+	 * Removes all vectors
+	 */
+	public void clear() {
+		mSize = 0;
+	}
+
+	/**
+	 * Adds a vector at the end of the buffer
+	 * @param x
+	 * @param y
+	 * @return Index of the vector or -1 if the buffer is full
+	 */
+	public int add(float x, float y) {
+		if (mSize == mX.length) {
+			return -1;
+		}
+		mX[mSize] = x;
+		mY[mSize] = y;
+		return mSize++;
+	}
+
+	/**
+	 * Removes a vector by moving the last vector into its place
+	 * @param index
+	 */
+	public void removeSwap(int index) {
+		mSize--;
+		mX[index] = mX[mSize];
+		mY[index] = mY[mSize];
+	}
+
+	/**
+	 * Returns the x coordinate of a vector
+	 * @param index
+	 * @return x coordinate
+	 */
+	public float getX(int index) {
+		return mX[index];
+	}
+
+	/**
+	 * Returns the y coordinate of a vector
+	 * @param index
+	 * @return y coordinate
+	 */
+	public float getY(int index) {
+		return mY[index];
+	}
+
+	/**
+	 * Copies a vector to the specified Vector2f
+	 * @param index
+	 * @param result
+	 */
+	public void get(int index, Vector2f result) {
+		result.set(mX[index], mY[index]);
+	}
+
+	/**
+	 * Sets the x and y coordinates of a vector
+	 * @param index
+	 * @param x
+	 * @param y
+	 */
+	public void set(int index, float x, float y) {
+		mX[index] = x;
+		mY[index] = y;
+	}
+
+	/**
+	 * Copies the specified Vector2f to a vector
+	 * @param index
+	 * @param other
+	 */
+	public void set(int index, Vector2f other) {
+		mX[index] = other.getX();
+		mY[index] = other.getY();
+	}
+
+	/**
+	 * Returns the array of x coordinates. Writes are visible in the buffer.
+	 * @return x coordinates
+	 */
+	public float[] getXArray() {
+		return mX;
+	}
+
+	/**
+	 * Returns the array of y coordinates. Writes are visible in the buffer.
+	 * @return y coordinates
+	 */
+	public float[] getYArray() {
+		return mY;
+	}
+
+	/**
+	 * Sets all vectors in a range to the same value
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param x
+	 * @param y
+	 */
+	public void fill(int from, int to, float x, float y) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		for (int i = from; i < to; i++) {
+			xs[i] = x;
+			ys[i] = y;
+		}
+	}
+
+	/**
+	 * Adds the same offset to all vectors in a range
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param x
+	 * @param y
+	 */
+	public void add(int from, int to, float x, float y) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		for (int i = from; i < to; i++) {
+			xs[i] += x;
+			ys[i] += y;
+		}
+	}
+
+	/**
+	 * Adds the vectors of another buffer with the same indices to the vectors in a range
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param other
+	 */
+	public void add(int from, int to, Vector2fBuffer other) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		final float[] otherXs = other.mX;
+		final float[] otherYs = other.mY;
+		for (int i = from; i < to; i++) {
+			xs[i] += otherXs[i];
+			ys[i] += otherYs[i];
+		}
+	}
+
+	/**
+	 * Adds the vectors of another buffer multiplied by a scalar, e.g. to move
+	 * positions by velocity times time step
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param other
+	 * @param scalar
+	 */
+	public void addScaled(int from, int to, Vector2fBuffer other, float scalar) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		final float[] otherXs = other.mX;
+		final float[] otherYs = other.mY;
+		for (int i = from; i < to; i++) {
+			xs[i] += otherXs[i] * scalar;
+			ys[i] += otherYs[i] * scalar;
+		}
+	}
+
+	/**
+	 * Multiplies all vectors in a range with the specified scalar
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param scalar
+	 */
+	public void mul(int from, int to, float scalar) {
+		mul(from, to, scalar, scalar);
+	}
+
+	/**
+	 * Multiplies the x and y coordinates of all vectors in a range with separate scalars
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param scalarX
+	 * @param scalarY
+	 */
+	public void mul(int from, int to, float scalarX, float scalarY) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		for (int i = from; i < to; i++) {
+			xs[i] *= scalarX;
+			ys[i] *= scalarY;
+		}
+	}
+
+	/**
+	 * Normalizes all vectors in a range. Zero vectors are left unchanged.
+	 * @param from First index
+	 * @param to Index after the last
+	 */
+	public void normalize(int from, int to) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		for (int i = from; i < to; i++) {
+			float x = xs[i];
+			float y = ys[i];
+			float lengthSquared = x * x + y * y;
+			if (lengthSquared > 0.0f) {
+				float inv = 1.0f / (float) Math.sqrt(lengthSquared);
+				xs[i] = x * inv;
+				ys[i] = y * inv;
+			}
+		}
+	}
+
+	/**
+	 * Calculates the length squared of all vectors in a range
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param result Array to store the lengths in, starting at index from
+	 */
+	public void getLengthSquared(int from, int to, float[] result) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		for (int i = from; i < to; i++) {
+			float x = xs[i];
+			float y = ys[i];
+			result[i] = x * x + y * y;
+		}
+	}
+
+	/**
+	 * Moves all vectors in a range towards the vectors of another buffer with the same indices
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param target
+	 * @param t 0 keeps the vectors, 1 sets them to the target
+	 */
+	public void lerp(int from, int to, Vector2fBuffer target, float t) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		final float[] targetXs = target.mX;
+		final float[] targetYs = target.mY;
+		for (int i = from; i < to; i++) {
+			xs[i] += (targetXs[i] - xs[i]) * t;
+			ys[i] += (targetYs[i] - ys[i]) * t;
+		}
+	}
+
+	/**
+	 * Clamps the coordinates of all vectors in a range to a rectangle
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 */
+	public void clamp(int from, int to, float minX, float minY, float maxX, float maxY) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		for (int i = from; i < to; i++) {
+			float x = xs[i];
+			float y = ys[i];
+			xs[i] = x < minX ? minX : (x > maxX ? maxX : x);
+			ys[i] = y < minY ? minY : (y > maxY ? maxY : y);
+		}
+	}
+
+	/**
+	 * Shortens the vectors in a range that are longer than the specified length
+	 * @param from First index
+	 * @param to Index after the last
+	 * @param maxLength
+	 */
+	public void clampLength(int from, int to, float maxLength) {
+		final float[] xs = mX;
+		final float[] ys = mY;
+		final float maxLengthSquared = maxLength * maxLength;
+		for (int i = from; i < to; i++) {
+			float x = xs[i];
+			float y = ys[i];
+			float lengthSquared = x * x + y * y;
+			if (lengthSquared > maxLengthSquared) {
+				float scale = maxLength / (float) Math.sqrt(lengthSquared);
+				xs[i] = x * scale;
+				ys[i] = y * scale;
+			}
+		}
+	}
+
+	/**
+	 * Creates a cursor over this buffer. Create it once and move it with
+	 * {@link Cursor#moveTo(int)}.
+	 * @return A new cursor at index 0
+	 */
+	public Cursor cursor() {
+		return new Cursor(this);
+	}
+
+	/**
+	 * A movable view of one vector in a buffer
+	 */
+	public static class Cursor {
+
+		/**
+		 * Buffer the cursor points into
+		 */
+		private final Vector2fBuffer mBuffer;
+
+		/**
+		 * Index of the current vector
+		 */
+		private int mIndex;
+
+		Cursor(Vector2fBuffer buffer) {
+			mBuffer = buffer;
+		}
+
+		/**
+		 * Points the cursor at another vector
+		 * @param index
+		 * @return This cursor
+		 */
+		public Cursor moveTo(int index) {
+			mIndex = index;
+			return this;
+		}
+
+		public int getIndex() {
+			return mIndex;
+		}
+
+		public float getX() {
+			return mBuffer.mX[mIndex];
+		}
+
+		public float getY() {
+			return mBuffer.mY[mIndex];
+		}
+
+		public void setX(float x) {
+			mBuffer.mX[mIndex] = x;
+		}
+
+		public void setY(float y) {
+			mBuffer.mY[mIndex] = y;
+		}
+
+		public void set(float x, float y) {
+			mBuffer.mX[mIndex] = x;
+			mBuffer.mY[mIndex] = y;
+		}
+
+		/**
+		 * Adds to the current vector
+		 * @param x
+		 * @param y
+		 */
+		public void add(float x, float y) {
+			mBuffer.mX[mIndex] += x;
+			mBuffer.mY[mIndex] += y;
+		}
+
+		/**
+		 * Multiplies the current vector with the specified scalar
+		 * @param scalar
+		 */
+		public void mul(float scalar) {
+			mBuffer.mX[mIndex] *= scalar;
+			mBuffer.mY[mIndex] *= scalar;
+		}
+
+		/**
+		 * Gets the length of the current vector
+		 * @return
+		 */
+		public float getLength() {
+			return (float) Math.sqrt(getLengthSquared());
+		}
+
+		/**
+		 * Gets the length squared of the current vector
+		 * @return
+		 */
+		public float getLengthSquared() {
+			float x = mBuffer.mX[mIndex];
+			float y = mBuffer.mY[mIndex];
+			return x * x + y * y;
+		}
+
+		/**
+		 * Copies the current vector to the specified Vector2f
+		 * @param result
+		 */
+		public void get(Vector2f result) {
+			result.set(mBuffer.mX[mIndex], mBuffer.mY[mIndex]);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.vulfox.particles;
+
+/**
+ * Emission rate of an emitter over its duration, as a piecewise linear curve
+ * through a number of points. Time is normalized so 0 is the start and 1 the
+ * end of the emitter duration, the rate is in particles per second.
+ */
+public class EmissionCurve {
+
+	/**
+	 * Normalized times of the points in ascending order
+	 */
+	private final float[] mTimes;
+
+	/**
+	 * Emission rates at the points
+	 */
+	private final float[] mRates;
+
+	/**
+	 * Creates a curve through the specified points
+	 * 
+	 * @param times
+	 *            Normalized times between 0 and 1 in ascending order
+	 * @param rates
+	 *            Particles per second at each time
+	 */
+	public EmissionCurve(float[] times, float[] rates) {
+		if (times.length == 0 || times.length != rates.length) {
+			throw new IllegalArgumentException(
+					"Times and rates must be non empty and of equal length");
+		}
+		for (int i = 1; i < times.length; i++) {
+			if (times[i] < times[i - 1]) {
+				throw new IllegalArgumentException("Times must be ascending");
+			}
+		}
+		mTimes = times.clone();
+		mRates = rates.clone();
+	}
+
+	/**
+	 * Creates a curve with the same rate over the whole duration
+	 * 
+	 * @param rate
+	 *            Particles per second
+	 * @return The curve
+	 */
+	public static EmissionCurve constant(float rate) {
+		return new EmissionCurve(new float[] { 0.0f }, new float[] { rate });
+	}
+
+	/**
+	 * Creates a curve going linearly from one rate to another
+	 * 
+	 * @param startRate
+	 *            Particles per second at the start
+	 * @param endRate
+	 *            Particles per second at the end
+	 * @return The curve
+	 */
+	public static EmissionCurve linear(float startRate, float endRate) {
+		return new EmissionCurve(new float[] { 0.0f, 1.0f }, new float[] {
+				startRate, endRate });
+	}
+
+	/**
+	 * Returns the emission rate at a point in time. Times before the first and
+	 * after the last point get the rate of that point.
+	 * 
+	 * @param time
+	 *            Normalized time
+	 * @return Particles per second
+	 */
+	public float getRate(float time) {
+		final float[] times = mTimes;
+		if (time <= times[0]) {
+			return mRates[0];
+		}
+
+		int last = times.length - 1;
+		for (int i = 1; i <= last; i++) {
+			if (time < times[i]) {
+				float t = (time - times[i - 1]) / (times[i] - times[i - 1]);
+				return mRates[i - 1] + (mRates[i] - mRates[i - 1]) * t;
+			}
+		}
+		return mRates[last];
+	}
+}
@@ -0,0 +1,303 @@
+package com.vulfox.particles;
+
+/**
+ * Spawns particles into a {@link ParticleSystem}. Emitters are pooled by the
+ * system: get one with {@link ParticleSystem#obtainEmitter()}, configure it
+ * and it emits on every system update.
+ * 
+ * An emitter emits over its duration following its {@link EmissionCurve},
+ * and restarts if it is looping. Once a non looping emitter is finished it is
+ * returned to the pool automatically, unless auto release is turned off, and
+ * must not be used after that.
+ */
+public class ParticleEmitter {
+
+	/**
+	 * Position particles are emitted from
+	 */
+	private float mX;
+	private float mY;
+
+	/**
+	 * Emission rate over the duration, null to only emit bursts
+	 */
+	private EmissionCurve mEmissionCurve;
+
+	/**
+	 * Duration in seconds, 0 to emit forever
+	 */
+	private float mDuration;
+
+	/**
+	 * Indicates if the emitter restarts when its duration has passed
+	 */
+	private boolean mLooping;
+
+	/**
+	 * Indicates if the emitter is returned to the pool when finished
+	 */
+	private boolean mAutoRelease;
+
+	/**
+	 * Time since the emitter started in seconds
+	 */
+	private float mElapsed;
+
+	/**
+	 * Fraction of a particle accumulated from the emission rate
+	 */
+	private float mEmitAccumulator;
+
+	/**
+	 * Particles to emit on the next update
+	 */
+	private int mBurstCount;
+
+	/**
+	 * Indicates if the emitter is done emitting
+	 */
+	private boolean mFinished;
+
+	/**
+	 * Direction range of new particles in radians
+	 */
+	private float mMinAngle;
+	private float mMaxAngle;
+
+	/**
+	 * Speed range of new particles in pixels per second
+	 */
+	private float mMinSpeed;
+	private float mMaxSpeed;
+
+	/**
+	 * Lifetime range of new particles in seconds
+	 */
+	private float mMinLifetime;
+	private float mMaxLifetime;
+
+	/**
+	 * Size range of new particles in pixels
+	 */
+	private float mMinSize;
+	private float mMaxSize;
+
+	/**
+	 * Style of new particles
+	 */
+	private int mStyle;
+
+	ParticleEmitter() {
+		reset();
+	}
+
+	/**
+	 * Sets all settings to their defaults
+	 */
+	void reset() {
+		mX = 0.0f;
+		mY = 0.0f;
+		mEmissionCurve = null;
+		mDuration = 0.0f;
+		mLooping = false;
+		mAutoRelease = true;
+		mElapsed = 0.0f;
+		mEmitAccumulator = 0.0f;
+		mBurstCount = 0;
+		mFinished = false;
+		mMinAngle = 0.0f;
+		mMaxAngle = (float) (2.0 * Math.PI);
+		mMinSpeed = 0.0f;
+		mMaxSpeed = 0.0f;
+		mMinLifetime = 1.0f;
+		mMaxLifetime = 1.0f;
+		mMinSize = 1.0f;
+		mMaxSize = 1.0f;
+		mStyle = 0;
+	}
+
+	public void setPosition(float x, float y) {
+		mX = x;
+		mY = y;
+	}
+
+	public float getX() {
+		return mX;
+	}
+
+	public float getY() {
+		return mY;
+	}
+
+	/**
+	 * Sets the emission rate over the duration
+	 * 
+	 * @param emissionCurve
+	 *            The curve or null to only emit bursts, the emitter finishes
+	 *            once its bursts are emitted
+	 */
+	public void setEmissionCurve(EmissionCurve emissionCurve) {
+		mEmissionCurve = emissionCurve;
+	}
+
+	/**
+	 * Sets how long the emitter emits
+	 * 
+	 * @param duration
+	 *            Duration in seconds, 0 to emit until stopped
+	 * @param looping
+	 *            True to restart when the duration has passed
+	 */
+	public void setDuration(float duration, boolean looping) {
+		mDuration = duration;
+		mLooping = looping;
+	}
+
+	public void setAutoRelease(boolean autoRelease) {
+		mAutoRelease = autoRelease;
+	}
+
+	public boolean isAutoRelease() {
+		return mAutoRelease;
+	}
+
+	/**
+	 * Sets the direction range of new particles
+	 * 
+	 * @param minAngle
+	 *            Angle in radians, 0 points along the x axis
+	 * @param maxAngle
+	 *            Angle in radians
+	 */
+	public void setDirection(float minAngle, float maxAngle) {
+		mMinAngle = minAngle;
+		mMaxAngle = maxAngle;
+	}
+
+	/**
+	 * Sets the speed range of new particles
+	 * 
+	 * @param minSpeed
+	 *            Pixels per second
+	 * @param maxSpeed
+	 *            Pixels per second
+	 */
+	public void setSpeed(float minSpeed, float maxSpeed) {
+		mMinSpeed = minSpeed;
+		mMaxSpeed = maxSpeed;
+	}
+
+	/**
+	 * Sets the lifetime range of new particles
+	 * 
+	 * @param minLifetime
+	 *            Seconds
+	 * @param maxLifetime
+	 *            Seconds
+	 */
+	public void setLifetime(float minLifetime, float maxLifetime) {
+		mMinLifetime = minLifetime;
+		mMaxLifetime = maxLifetime;
+	}
+
+	/**
+	 * Sets the size range of new particles. Sprites are drawn this wide in
+	 * pixels and points are drawn this many times the style's point size.
+	 * 
+	 * @param minSize
+	 * @param maxSize
+	 */
+	public void setSize(float minSize, float maxSize) {
+		mMinSize = minSize;
+		mMaxSize = maxSize;
+	}
+
+	/**
+	 * Sets the style of new particles
+	 * 
+	 * @param style
+	 *            Style from {@link ParticleSystem#addStyle(int, float, boolean)}
+	 */
+	public void setStyle(int style) {
+		mStyle = style;
+	}
+
+	/**
+	 * Emits a number of particles at once on the next update
+	 * 
+	 * @param count
+	 */
+	public void burst(int count) {
+		mBurstCount += count;
+	}
+
+	/**
+	 * Stops emitting. Particles already emitted live on.
+	 */
+	public void stop() {
+		mFinished = true;
+	}
+
+	/**
+	 * Restarts the emitter from the beginning of its duration
+	 */
+	public void restart() {
+		mElapsed = 0.0f;
+		mEmitAccumulator = 0.0f;
+		mFinished = false;
+	}
+
+	public boolean isFinished() {
+		return mFinished && mBurstCount == 0;
+	}
+
+	/**
+	 * Emits the particles due during a time step
+	 * 
+	 * @param system
+	 *            System to emit into
+	 * @param timeStep
+	 *            Seconds
+	 */
+	void update(ParticleSystem system, float timeStep) {
+		while (mBurstCount > 0) {
+			mBurstCount--;
+			emit(system);
+		}
+
+		if (mEmissionCurve == null) {
+			// Bursts only, done once they have been emitted
+			mFinished = true;
+		}
+
+		if (mFinished) {
+			return;
+		}
+
+		float time = mDuration > 0.0f ? Math.min(mElapsed / mDuration, 1.0f) : 0.0f;
+		mEmitAccumulator += mEmissionCurve.getRate(time) * timeStep;
+		while (mEmitAccumulator >= 1.0f) {
+			mEmitAccumulator -= 1.0f;
+			emit(system);
+		}
+
+		mElapsed += timeStep;
+		if (mDuration > 0.0f && mElapsed >= mDuration) {
+			if (mLooping) {
+				mElapsed %= mDuration;
+			} else {
+				mFinished = true;
+			}
+		}
+	}
+
+	private void emit(ParticleSystem system) {
+		float angle = mMinAngle + (mMaxAngle - mMinAngle) * system.nextRandom();
+		float speed = mMinSpeed + (mMaxSpeed - mMinSpeed) * system.nextRandom();
+		float lifetime = mMinLifetime + (mMaxLifetime - mMinLifetime)
+				* system.nextRandom();
+		float size = mMinSize + (mMaxSize - mMinSize) * system.nextRandom();
+		system.emit(mX, mY, (float) Math.cos(angle) * speed,
+				(float) Math.sin(angle) * speed, lifetime, size, mStyle);
+	}
+}
@@ -0,0 +1,605 @@
+package com.vulfox.particles;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import com.vulfox.render.RenderCommandBuffer;
+import com.vulfox.render.Sprite;
+import com.vulfox.util.ObjectPool;
+
+/**
+ * A fixed number of particles stored in primitive arrays, one array per
+ * property. Dead particles are removed by moving the last particle into their
+ * place, so the live particles are always the first {@link #getCount()}
+ * entries.
+ * 
+ * Nothing is allocated after construction: emitters come from a pool and
+ * update and draw only touch preallocated arrays. When the system is full new
+ * particles are handled according to the overflow policy and counted.
+ * 
+ * Particles are drawn in batches, one drawPoints call per style, fade band
+ * and point width, or submitted as sprites to a {@link RenderCommandBuffer} which
+ * batches them by bitmap.
+ */
+public class ParticleSystem {
+
+	/**
+	 * New particles are dropped when the system is full
+	 */
+	public static final int OVERFLOW_DROP_NEW = 0;
+
+	/**
+	 * New particles replace the particle closest to the end of its life when
+	 * the system is full
+	 */
+	public static final int OVERFLOW_REPLACE_OLDEST = 1;
+
+	/**
+	 * Maximum number of styles
+	 */
+	public static final int MAX_STYLES = 16;
+
+	/**
+	 * Widest point drawn by {@link #draw(Canvas)} in pixels
+	 */
+	public static final int MAX_POINT_WIDTH = 16;
+
+	/**
+	 * Number of alpha levels fading particles are drawn with
+	 */
+	private static final int FADE_BANDS = 4;
+
+	/**
+	 * Particle properties, indexed by particle
+	 */
+	private final float[] mX;
+	private final float[] mY;
+	private final float[] mVelocityX;
+	private final float[] mVelocityY;
+	private final float[] mAge;
+	private final float[] mLifetime;
+	private final float[] mSize;
+	private final int[] mStyle;
+
+	/**
+	 * Number of live particles
+	 */
+	private int mCount;
+
+	/**
+	 * Emitters that are emitting
+	 */
+	private final ParticleEmitter[] mEmitters;
+
+	/**
+	 * Number of emitters that are emitting
+	 */
+	private int mEmitterCount;
+
+	/**
+	 * Pool of unused emitters
+	 */
+	private final ObjectPool<ParticleEmitter> mEmitterPool;
+
+	/**
+	 * Paints of the styles, indexed [style][fade band]
+	 */
+	private final Paint[][] mStylePaints = new Paint[MAX_STYLES][];
+
+	/**
+	 * Point width of a particle of size 1, per style
+	 */
+	private final float[] mStylePointSizes = new float[MAX_STYLES];
+
+	/**
+	 * Number of styles
+	 */
+	private int mStyleCount;
+
+	/**
+	 * Point coordinates grouped by style, fade band and point width while
+	 * drawing
+	 */
+	private final float[] mPoints;
+
+	/**
+	 * Number of points and write offsets of each style, fade band and point
+	 * width while drawing
+	 */
+	private final int[] mBandCounts = new int[MAX_STYLES * FADE_BANDS
+			* MAX_POINT_WIDTH];
+	private final int[] mBandOffsets = new int[MAX_STYLES * FADE_BANDS
+			* MAX_POINT_WIDTH];
+
+	/**
+	 * What happens to new particles when the system is full
+	 */
+	private int mOverflowPolicy = OVERFLOW_DROP_NEW;
+
+	/**
+	 * Number of particles dropped because the system was full
+	 */
+	private long mDroppedCount;
+
+	/**
+	 * Number of particles replaced because the system was full
+	 */
+	private long mReplacedCount;
+
+	/**
+	 * Number of emitter requests refused because all emitters were in use
+	 */
+	private long mEmitterOverflowCount;
+
+	/**
+	 * Acceleration applied to all particles in pixels per second squared
+	 */
+	private float mAccelerationX;
+	private float mAccelerationY;
+
+	/**
+	 * Fraction of velocity lost per second
+	 */
+	private float mDrag;
+
+	/**
+	 * State of the random number generator
+	 */
+	private int mRandomState = 0x2545f491;
+
+	/**
+	 * Creates an empty particle system with one default white style
+	 * 
+	 * @param capacity
+	 *            Maximum number of live particles
+	 * @param maxEmitters
+	 *            Maximum number of emitting emitters
+	 */
+	public ParticleSystem(int capacity, int maxEmitters) {
+		mX = new float[capacity];
+		mY = new float[capacity];
+		mVelocityX = new float[capacity];
+		mVelocityY = new float[capacity];
+		mAge = new float[capacity];
+		mLifetime = new float[capacity];
+		mSize = new float[capacity];
+		mStyle = new int[capacity];
+		mPoints = new float[capacity * 2];
+
+		mEmitters = new ParticleEmitter[maxEmitters];
+		mEmitterPool = new ObjectPool<ParticleEmitter>(maxEmitters) {
+			@Override
+			protected ParticleEmitter create() {
+				return new ParticleEmitter();
+			}
+
+			@Override
+			protected void reset(ParticleEmitter emitter) {
+				emitter.reset();
+			}
+		};
+		mEmitterPool.prewarm(maxEmitters);
+
+		addStyle(0xffffffff, 2.0f, true);
+	}
+
+	/**
+	 * Adds a style particles can be drawn with
+	 * 
+	 * @param color
+	 *            ARGB color
+	 * @param pointSize
+	 *            Width in pixels of the points drawn by {@link #draw(Canvas)}
+	 *            for particles of size 1. Particles are drawn this many times
+	 *            their size, rounded to whole pixels between 1 and
+	 *            {@link #MAX_POINT_WIDTH}.
+	 * @param fadeOut
+	 *            True to fade particles out over their lifetime
+	 * @return Style to pass to {@link ParticleEmitter#setStyle(int)}
+	 */
+	public int addStyle(int color, float pointSize, boolean fadeOut) {
+		if (mStyleCount == MAX_STYLES) {
+			throw new IllegalStateException("Too many particle styles");
+		}
+
+		Paint[] paints = new Paint[FADE_BANDS];
+		int alpha = color >>> 24;
+		for (int band = 0; band < FADE_BANDS; band++) {
+			Paint paint = new Paint();
+			paint.setColor(color);
+			if (fadeOut) {
+				paint.setAlpha(alpha * (band + 1) / FADE_BANDS);
+			}
+			paint.setStrokeCap(Paint.Cap.ROUND);
+			paints[band] = paint;
+		}
+		mStylePaints[mStyleCount] = paints;
+		mStylePointSizes[mStyleCount] = pointSize;
+		return mStyleCount++;
+	}
+
+	/**
+	 * Returns an unused emitter with default settings
+	 * 
+	 * @return The emitter or null if all emitters are in use
+	 */
+	public ParticleEmitter obtainEmitter() {
+		if (mEmitterCount == mEmitters.length) {
+			mEmitterOverflowCount++;
+			return null;
+		}
+
+		ParticleEmitter emitter = mEmitterPool.aquire();
+		mEmitters[mEmitterCount++] = emitter;
+		return emitter;
+	}
+
+	/**
+	 * Stops an emitter and returns it to the pool. Particles already emitted
+	 * live on.
+	 * 
+	 * @param emitter
+	 */
+	public void releaseEmitter(ParticleEmitter emitter) {
+		for (int i = 0; i < mEmitterCount; i++) {
+			if (mEmitters[i] == emitter) {
+				removeEmitter(i);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Adds a particle
+	 * 
+	 * @param x
+	 * @param y
+	 * @param velocityX
+	 *            Pixels per second
+	 * @param velocityY
+	 *            Pixels per second
+	 * @param lifetime
+	 *            Seconds
+	 * @param size
+	 *            Width of the sprite drawn by
+	 *            {@link #submit(RenderCommandBuffer, int, int, Sprite, int)} in
+	 *            pixels, and the scale of the style's point size
+	 * @param style
+	 *            Style from {@link #addStyle(int, float, boolean)}
+	 * @return Index of the particle or -1 if it was dropped
+	 * @throws IllegalArgumentException
+	 *             If the style has not been added
+	 */
+	public int emit(float x, float y, float velocityX, float velocityY,
+			float lifetime, float size, int style) {
+		if (style < 0 || style >= mStyleCount) {
+			throw new IllegalArgumentException("Unknown particle style: "
+					+ style);
+		}
+
+		int index;
+		if (mCount < mX.length) {
+			index = mCount++;
+		} else if (mOverflowPolicy == OVERFLOW_REPLACE_OLDEST && mCount > 0) {
+			index = findOldest();
+			mReplacedCount++;
+		} else {
+			mDroppedCount++;
+			return -1;
+		}
+
+		mX[index] = x;
+		mY[index] = y;
+		mVelocityX[index] = velocityX;
+		mVelocityY[index] = velocityY;
+		mAge[index] = 0.0f;
+		mLifetime[index] = lifetime;
+		mSize[index] = size;
+		mStyle[index] = style;
+		return index;
+	}
+
+	/**
+	 * Emits new particles, moves the live ones and removes the dead ones
+	 * 
+	 * @param timeStep
+	 *            Seconds
+	 */
+	public void update(float timeStep) {
+		for (int i = mEmitterCount - 1; i >= 0; i--) {
+			ParticleEmitter emitter = mEmitters[i];
+			emitter.update(this, timeStep);
+			if (emitter.isFinished() && emitter.isAutoRelease()) {
+				removeEmitter(i);
+			}
+		}
+
+		final float[] xs = mX;
+		final float[] ys = mY;
+		final float[] velocityXs = mVelocityX;
+		final float[] velocityYs = mVelocityY;
+		final float[] ages = mAge;
+		final float[] lifetimes = mLifetime;
+		final float accelerationX = mAccelerationX * timeStep;
+		final float accelerationY = mAccelerationY * timeStep;
+		final float damping = Math.max(0.0f, 1.0f - mDrag * timeStep);
+
+		int count = mCount;
+		int i = 0;
+		while (i < count) {
+			float age = ages[i] + timeStep;
+			if (age >= lifetimes[i]) {
+				count--;
+				moveParticle(count, i);
+				continue;
+			}
+
+			ages[i] = age;
+			float velocityX = (velocityXs[i] + accelerationX) * damping;
+			float velocityY = (velocityYs[i] + accelerationY) * damping;
+			velocityXs[i] = velocityX;
+			velocityYs[i] = velocityY;
+			xs[i] += velocityX * timeStep;
+			ys[i] += velocityY * timeStep;
+			i++;
+		}
+		mCount = count;
+	}
+
+	/**
+	 * Draws the particles as points with one drawPoints call per style, fade
+	 * band and point width
+	 * 
+	 * @param canvas
+	 *            Canvas to draw to
+	 */
+	public void draw(Canvas canvas) {
+		final int[] bandCounts = mBandCounts;
+		final int[] bandOffsets = mBandOffsets;
+		final int bandCount = mStyleCount * FADE_BANDS * MAX_POINT_WIDTH;
+		for (int band = 0; band < bandCount; band++) {
+			bandCounts[band] = 0;
+		}
+
+		for (int i = 0; i < mCount; i++) {
+			bandCounts[getBand(i)]++;
+		}
+
+		int offset = 0;
+		for (int band = 0; band < bandCount; band++) {
+			bandOffsets[band] = offset;
+			offset += bandCounts[band] * 2;
+		}
+
+		final float[] points = mPoints;
+		for (int i = 0; i < mCount; i++) {
+			int band = getBand(i);
+			int point = bandOffsets[band];
+			points[point] = mX[i];
+			points[point + 1] = mY[i];
+			bandOffsets[band] = point + 2;
+		}
+
+		for (int band = 0; band < bandCount; band++) {
+			int length = bandCounts[band] * 2;
+			if (length > 0) {
+				int fadeBand = band / MAX_POINT_WIDTH;
+				Paint paint = mStylePaints[fadeBand / FADE_BANDS][fadeBand
+						% FADE_BANDS];
+				paint.setStrokeWidth(band % MAX_POINT_WIDTH + 1);
+				canvas.drawPoints(points, bandOffsets[band] - length, length,
+						paint);
+			}
+		}
+	}
+
+	/**
+	 * Adds a command per particle drawing a sprite centered on the particle,
+	 * scaled so its width equals the particle size
+	 * 
+	 * @param buffer
+	 *            Command buffer
+	 * @param layer
+	 *            Draw layer
+	 * @param bitmapId
+	 *            Id the sprite's atlas page is registered with
+	 * @param sprite
+	 *            Sprite to draw
+	 * @param paintId
+	 *            Paint id or {@link RenderCommandBuffer#NO_PAINT}
+	 * @return Number of particles that did not fit in the buffer
+	 */
+	public int submit(RenderCommandBuffer buffer, int layer, int bitmapId,
+			Sprite sprite, int paintId) {
+		int left = sprite.getSource().left;
+		int top = sprite.getSource().top;
+		int right = sprite.getSource().right;
+		int bottom = sprite.getSource().bottom;
+		float aspect = (float) sprite.getHeight() / sprite.getWidth();
+
+		int dropped = 0;
+		for (int i = 0; i < mCount; i++) {
+			float halfWidth = mSize[i] * 0.5f;
+			float halfHeight = halfWidth * aspect;
+			if (!buffer.drawBitmap(layer, bitmapId, left, top, right, bottom,
+					mX[i] - halfWidth, mY[i] - halfHeight, mX[i] + halfWidth,
+					mY[i] + halfHeight, paintId)) {
+				dropped++;
+			}
+		}
+		return dropped;
+	}
+
+	/**
+	 * Removes all particles and releases all emitters
+	 */
+	public void clear() {
+		mCount = 0;
+		while (mEmitterCount > 0) {
+			removeEmitter(mEmitterCount - 1);
+		}
+	}
+
+	/**
+	 * Sets what happens to new particles when the system is full
+	 * 
+	 * @param overflowPolicy
+	 *            {@link #OVERFLOW_DROP_NEW} or {@link #OVERFLOW_REPLACE_OLDEST}
+	 */
+	public void setOverflowPolicy(int overflowPolicy) {
+		mOverflowPolicy = overflowPolicy;
+	}
+
+	public int getOverflowPolicy() {
+		return mOverflowPolicy;
+	}
+
+	/**
+	 * Sets the acceleration applied to all particles, e.g. gravity
+	 * 
+	 * @param accelerationX
+	 *            Pixels per second squared
+	 * @param accelerationY
+	 *            Pixels per second squared
+	 */
+	public void setAcceleration(float accelerationX, float accelerationY) {
+		mAccelerationX = accelerationX;
+		mAccelerationY = accelerationY;
+	}
+
+	/**
+	 * Sets the fraction of velocity particles lose per second
+	 * 
+	 * @param drag
+	 */
+	public void setDrag(float drag) {
+		mDrag = drag;
+	}
+
+	/**
+	 * Returns the number of live particles
+	 * 
+	 * @return Particle count
+	 */
+	public int getCount() {
+		return mCount;
+	}
+
+	public int getCapacity() {
+		return mX.length;
+	}
+
+	public float getX(int index) {
+		return mX[index];
+	}
+
+	public float getY(int index) {
+		return mY[index];
+	}
+
+	/**
+	 * Returns the number of emitters that are emitting
+	 * 
+	 * @return Emitter count
+	 */
+	public int getEmitterCount() {
+		return mEmitterCount;
+	}
+
+	/**
+	 * Returns the number of particles dropped because the system was full
+	 * 
+	 * @return Dropped count
+	 */
+	public long getDroppedCount() {
+		return mDroppedCount;
+	}
+
+	/**
+	 * Returns the number of live particles replaced because the system was
+	 * full
+	 * 
+	 * @return Replaced count
+	 */
+	public long getReplacedCount() {
+		return mReplacedCount;
+	}
+
+	/**
+	 * Returns the number of emitter requests refused because all emitters
+	 * were in use
+	 * 
+	 * @return Refused emitter count
+	 */
+	public long getEmitterOverflowCount() {
+		return mEmitterOverflowCount;
+	}
+
+	/**
+	 * Returns a random number between 0 and 1 from a xorshift generator
+	 */
+	float nextRandom() {
+		int x = mRandomState;
+		x ^= x << 13;
+		x ^= x >>> 17;
+		x ^= x << 5;
+		mRandomState = x;
+		return (x >>> 8) * (1.0f / (1 << 24));
+	}
+
+	/**
+	 * Returns the style, fade band and point width a particle is drawn with
+	 */
+	private int getBand(int index) {
+		int band = (int) ((1.0f - mAge[index] / mLifetime[index]) * FADE_BANDS);
+		if (band >= FADE_BANDS) {
+			band = FADE_BANDS - 1;
+		} else if (band < 0) {
+			band = 0;
+		}
+
+		int style = mStyle[index];
+		int width = (int) (mSize[index] * mStylePointSizes[style] + 0.5f);
+		if (width > MAX_POINT_WIDTH) {
+			width = MAX_POINT_WIDTH;
+		} else if (width < 1) {
+			width = 1;
+		}
+		return (style * FADE_BANDS + band) * MAX_POINT_WIDTH + width - 1;
+	}
+
+	/**
+	 * Returns the particle closest to the end of its life
+	 */
+	private int findOldest() {
+		int oldest = 0;
+		float oldestLifeLeft = Float.MAX_VALUE;
+		for (int i = 0; i < mCount; i++) {
+			float lifeLeft = mLifetime[i] - mAge[i];
+			if (lifeLeft < oldestLifeLeft) {
+				oldest = i;
+				oldestLifeLeft = lifeLeft;
+			}
+		}
+		return oldest;
+	}
+
+	private void moveParticle(int from, int to) {
+		mX[to] = mX[from];
+		mY[to] = mY[from];
+		mVelocityX[to] = mVelocityX[from];
+		mVelocityY[to] = mVelocityY[from];
+		mAge[to] = mAge[from];
+		mLifetime[to] = mLifetime[from];
+		mSize[to] = mSize[from];
+		mStyle[to] = mStyle[from];
+	}
+
+	private void removeEmitter(int index) {
+		ParticleEmitter emitter = mEmitters[index];
+		mEmitterCount--;
+		mEmitters[index] = mEmitters[mEmitterCount];
+		mEmitters[mEmitterCount] = null;
+		mEmitterPool.release(emitter);
+	}
+}
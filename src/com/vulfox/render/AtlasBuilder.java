@@ -0,0 +1,474 @@
+package com.vulfox.render;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.util.Log;
+
+import com.vulfox.ImageLoader;
+
+/**
+ * Packs a set of resource images into a {@link TextureAtlas}. The images are
+ * placed with a {@link SkylinePacker}, tallest first, and new pages are added
+ * when a page is full.
+ * 
+ * Packing is meant to be done once while loading. The result is stored in the
+ * application cache directory and reused by later builds with the same
+ * resources and settings, until the application version code changes.
+ */
+public class AtlasBuilder {
+
+	/**
+	 * Default page width and height in pixels
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 1024;
+
+	/**
+	 * Default number of transparent pixels around each image, keeps filtering
+	 * from bleeding neighbouring images into a sprite
+	 */
+	public static final int DEFAULT_PADDING = 1;
+
+	/**
+	 * Identifies an atlas index file
+	 */
+	private static final int CACHE_MAGIC = 0x56464154;
+
+	/**
+	 * Version of the index file format
+	 */
+	private static final int CACHE_FORMAT = 1;
+
+	private static final String TAG = "AtlasBuilder";
+
+	/**
+	 * Application context
+	 */
+	private Context mContext;
+
+	/**
+	 * Resources to pack, in the order they were added
+	 */
+	private ArrayList<Integer> mResourceIDs;
+
+	/**
+	 * Page size in pixels
+	 */
+	private int mPageWidth;
+	private int mPageHeight;
+
+	/**
+	 * Transparent pixels around each image
+	 */
+	private int mPadding;
+
+	/**
+	 * Sample size the images are decoded with
+	 */
+	private int mSampleSize;
+
+	/**
+	 * Indicates if the atlas is read from and written to the cache directory
+	 */
+	private boolean mDiskCacheEnabled;
+
+	/**
+	 * Creates a builder with the default page size
+	 * 
+	 * @param context
+	 *            Application context
+	 */
+	public AtlasBuilder(Context context) {
+		this(context, DEFAULT_PAGE_SIZE, DEFAULT_PAGE_SIZE);
+	}
+
+	/**
+	 * Creates a builder
+	 * 
+	 * @param context
+	 *            Application context
+	 * @param pageWidth
+	 *            Page width in pixels
+	 * @param pageHeight
+	 *            Page height in pixels
+	 */
+	public AtlasBuilder(Context context, int pageWidth, int pageHeight) {
+		mContext = context;
+		mResourceIDs = new ArrayList<Integer>();
+		mPageWidth = pageWidth;
+		mPageHeight = pageHeight;
+		mPadding = DEFAULT_PADDING;
+		mSampleSize = 1;
+		mDiskCacheEnabled = true;
+	}
+
+	/**
+	 * Adds a resource image to the atlas. Adding the same resource twice
+	 * packs it once.
+	 * 
+	 * @param resourceID
+	 *            Resource ID
+	 * @return This builder
+	 */
+	public AtlasBuilder add(int resourceID) {
+		if (!mResourceIDs.contains(resourceID)) {
+			mResourceIDs.add(resourceID);
+		}
+		return this;
+	}
+
+	public AtlasBuilder setPadding(int padding) {
+		mPadding = padding;
+		return this;
+	}
+
+	public AtlasBuilder setSampleSize(int sampleSize) {
+		mSampleSize = Math.max(1, sampleSize);
+		return this;
+	}
+
+	public AtlasBuilder setDiskCacheEnabled(boolean enabled) {
+		mDiskCacheEnabled = enabled;
+		return this;
+	}
+
+	/**
+	 * Reads the atlas from the cache directory, or packs it and writes it
+	 * there if there is no valid cached copy
+	 * 
+	 * @return The atlas
+	 * @throws IllegalArgumentException
+	 *             If an image cannot be decoded or is larger than a page
+	 */
+	public TextureAtlas build() {
+		if (mResourceIDs.isEmpty()) {
+			throw new IllegalArgumentException("No resources added");
+		}
+
+		int[] resourceIDs = new int[mResourceIDs.size()];
+		for (int i = 0; i < resourceIDs.length; i++) {
+			resourceIDs[i] = mResourceIDs.get(i);
+		}
+		Arrays.sort(resourceIDs);
+
+		int versionCode = getVersionCode();
+		File cacheDir = mDiskCacheEnabled ? mContext.getCacheDir() : null;
+		String cacheName = null;
+		if (cacheDir != null) {
+			cacheName = getCacheName(resourceIDs, versionCode);
+			TextureAtlas atlas = readCache(cacheDir, cacheName, resourceIDs,
+					versionCode);
+			if (atlas != null) {
+				return atlas;
+			}
+		}
+
+		TextureAtlas atlas = pack(resourceIDs);
+		if (cacheDir != null) {
+			writeCache(cacheDir, cacheName, atlas, versionCode);
+		}
+		return atlas;
+	}
+
+	/**
+	 * Decodes the images and packs them into new pages
+	 */
+	private TextureAtlas pack(int[] resourceIDs) {
+		final int count = resourceIDs.length;
+		final int[] widths = new int[count];
+		final int[] heights = new int[count];
+
+		// Only the sizes are needed to pack, the images are decoded one at a
+		// time while drawing the pages
+		BitmapFactory.Options boundsOptions = new BitmapFactory.Options();
+		boundsOptions.inJustDecodeBounds = true;
+		boundsOptions.inSampleSize = mSampleSize;
+		for (int i = 0; i < count; i++) {
+			try {
+				ImageLoader.loadFromResource(mContext, resourceIDs[i],
+						boundsOptions);
+			} catch (Resources.NotFoundException e) {
+				throw new IllegalArgumentException("Resource " + resourceIDs[i]
+						+ " not found");
+			}
+			widths[i] = boundsOptions.outWidth;
+			heights[i] = boundsOptions.outHeight;
+			if (widths[i] <= 0 || heights[i] <= 0) {
+				throw new IllegalArgumentException("Could not decode resource "
+						+ resourceIDs[i]);
+			}
+		}
+
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				if (heights[a] != heights[b]) {
+					return heights[b] - heights[a];
+				}
+				return widths[b] - widths[a];
+			}
+		});
+
+		ArrayList<SkylinePacker> packers = new ArrayList<SkylinePacker>();
+		int[] pages = new int[count];
+		int[] lefts = new int[count];
+		int[] tops = new int[count];
+		for (int i : order) {
+			int width = widths[i] + 2 * mPadding;
+			int height = heights[i] + 2 * mPadding;
+			if (width > mPageWidth || height > mPageHeight) {
+				throw new IllegalArgumentException("Resource " + resourceIDs[i]
+						+ " does not fit on a page");
+			}
+
+			int page = 0;
+			while (page < packers.size()
+					&& !packers.get(page).pack(width, height)) {
+				page++;
+			}
+			if (page == packers.size()) {
+				SkylinePacker packer = new SkylinePacker(mPageWidth, mPageHeight);
+				packer.pack(width, height);
+				packers.add(packer);
+			}
+
+			SkylinePacker packer = packers.get(page);
+			pages[i] = page;
+			lefts[i] = packer.getPackedX() + mPadding;
+			tops[i] = packer.getPackedY() + mPadding;
+		}
+
+		Bitmap[] pageBitmaps = new Bitmap[packers.size()];
+		Canvas[] canvases = new Canvas[packers.size()];
+		for (int page = 0; page < pageBitmaps.length; page++) {
+			// Pages only need to be as tall as their content
+			pageBitmaps[page] = Bitmap.createBitmap(mPageWidth, packers.get(page)
+					.getUsedHeight(), Bitmap.Config.ARGB_8888);
+			canvases[page] = new Canvas(pageBitmaps[page]);
+		}
+
+		BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inSampleSize = mSampleSize;
+		options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+		Sprite[] sprites = new Sprite[count];
+		for (int i = 0; i < count; i++) {
+			Bitmap bitmap = ImageLoader.loadFromResource(mContext,
+					resourceIDs[i], options);
+			if (bitmap == null) {
+				for (Bitmap pageBitmap : pageBitmaps) {
+					pageBitmap.recycle();
+				}
+				throw new IllegalArgumentException("Could not decode resource "
+						+ resourceIDs[i]);
+			}
+			canvases[pages[i]].drawBitmap(bitmap, lefts[i], tops[i], null);
+			bitmap.recycle();
+
+			sprites[i] = new Sprite(resourceIDs[i], pages[i],
+					pageBitmaps[pages[i]], lefts[i], tops[i], lefts[i]
+							+ widths[i], tops[i] + heights[i]);
+		}
+
+		return new TextureAtlas(pageBitmaps, sprites);
+	}
+
+	/**
+	 * Loads a cached atlas
+	 * 
+	 * @return The atlas or null if there is no valid cached copy
+	 */
+	private TextureAtlas readCache(File cacheDir, String cacheName,
+			int[] resourceIDs, int versionCode) {
+		File indexFile = new File(cacheDir, cacheName + ".idx");
+		if (!indexFile.exists()) {
+			return null;
+		}
+
+		Bitmap[] pages = null;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(indexFile)));
+			if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_FORMAT
+					|| in.readInt() != versionCode
+					|| in.readInt() != mPageWidth
+					|| in.readInt() != mPageHeight || in.readInt() != mPadding
+					|| in.readInt() != mSampleSize
+					|| in.readInt() != resourceIDs.length) {
+				return null;
+			}
+
+			int pageCount = in.readInt();
+			pages = new Bitmap[pageCount];
+			BitmapFactory.Options options = new BitmapFactory.Options();
+			options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+			for (int page = 0; page < pageCount; page++) {
+				pages[page] = BitmapFactory.decodeFile(new File(cacheDir,
+						cacheName + "-" + page + ".png").getPath(), options);
+				if (pages[page] == null) {
+					recycle(pages);
+					return null;
+				}
+			}
+
+			Sprite[] sprites = new Sprite[resourceIDs.length];
+			for (int i = 0; i < sprites.length; i++) {
+				int resourceID = in.readInt();
+				int page = in.readInt();
+				if (resourceID != resourceIDs[i] || page < 0
+						|| page >= pageCount) {
+					recycle(pages);
+					return null;
+				}
+				sprites[i] = new Sprite(resourceID, page, pages[page],
+						in.readInt(), in.readInt(), in.readInt(), in.readInt());
+			}
+			return new TextureAtlas(pages, sprites);
+		} catch (IOException e) {
+			Log.w(TAG, "Failed to read cached atlas " + cacheName, e);
+			recycle(pages);
+			return null;
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Stores an atlas in the cache directory. The index is written last so a
+	 * partly written atlas is never read back.
+	 */
+	private void writeCache(File cacheDir, String cacheName,
+			TextureAtlas atlas, int versionCode) {
+		File indexFile = new File(cacheDir, cacheName + ".idx");
+		File tempFile = new File(cacheDir, cacheName + ".tmp");
+		DataOutputStream out = null;
+		try {
+			for (int page = 0; page < atlas.getPageCount(); page++) {
+				OutputStream pageOut = new BufferedOutputStream(
+						new FileOutputStream(new File(cacheDir, cacheName + "-"
+								+ page + ".png")));
+				try {
+					if (!atlas.getPage(page).compress(Bitmap.CompressFormat.PNG,
+							100, pageOut)) {
+						throw new IOException("Failed to compress page " + page);
+					}
+				} finally {
+					close(pageOut);
+				}
+			}
+
+			out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(tempFile)));
+			out.writeInt(CACHE_MAGIC);
+			out.writeInt(CACHE_FORMAT);
+			out.writeInt(versionCode);
+			out.writeInt(mPageWidth);
+			out.writeInt(mPageHeight);
+			out.writeInt(mPadding);
+			out.writeInt(mSampleSize);
+			out.writeInt(atlas.getSpriteCount());
+			out.writeInt(atlas.getPageCount());
+			for (int i = 0; i < atlas.getSpriteCount(); i++) {
+				Sprite sprite = atlas.getSpriteAt(i);
+				out.writeInt(sprite.getResourceID());
+				out.writeInt(sprite.getPage());
+				out.writeInt(sprite.getSource().left);
+				out.writeInt(sprite.getSource().top);
+				out.writeInt(sprite.getSource().right);
+				out.writeInt(sprite.getSource().bottom);
+			}
+			out.close();
+			out = null;
+
+			if (!tempFile.renameTo(indexFile)) {
+				throw new IOException("Failed to rename " + tempFile);
+			}
+		} catch (IOException e) {
+			Log.w(TAG, "Failed to cache atlas " + cacheName, e);
+			close(out);
+			tempFile.delete();
+			indexFile.delete();
+		}
+	}
+
+	/**
+	 * Builds a file name from a hash of everything that affects the result,
+	 * the index file is checked against the same values when read
+	 */
+	private String getCacheName(int[] resourceIDs, int versionCode) {
+		long hash = 0xcbf29ce484222325L;
+		hash = (hash ^ versionCode) * 0x100000001b3L;
+		hash = (hash ^ mPageWidth) * 0x100000001b3L;
+		hash = (hash ^ mPageHeight) * 0x100000001b3L;
+		hash = (hash ^ mPadding) * 0x100000001b3L;
+		hash = (hash ^ mSampleSize) * 0x100000001b3L;
+		for (int resourceID : resourceIDs) {
+			hash = (hash ^ resourceID) * 0x100000001b3L;
+		}
+		return "atlas-" + Long.toHexString(hash);
+	}
+
+	/**
+	 * Returns the application version code, cached atlases are rebuilt when
+	 * it changes
+	 */
+	private int getVersionCode() {
+		try {
+			return mContext.getPackageManager().getPackageInfo(
+					mContext.getPackageName(), 0).versionCode;
+		} catch (PackageManager.NameNotFoundException e) {
+			return 0;
+		}
+	}
+
+	private static void recycle(Bitmap[] bitmaps) {
+		if (bitmaps == null) {
+			return;
+		}
+		for (Bitmap bitmap : bitmaps) {
+			if (bitmap != null) {
+				bitmap.recycle();
+			}
+		}
+	}
+
+	private static void close(InputStream in) {
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// Nothing to do
+			}
+		}
+	}
+
+	private static void close(OutputStream out) {
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// Nothing to do
+			}
+		}
+	}
+}
@@ -0,0 +1,379 @@
+package com.vulfox.render;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+
+import com.vulfox.math.Transform2D;
+import com.vulfox.math.Vector2f;
+
+/**
+ * Maps a world with a fixed virtual resolution onto the draw surface. The
+ * virtual area is scaled to the surface according to the scale mode, and the
+ * camera can pan, zoom and rotate over the world. At the default position,
+ * zoom and rotation, world coordinates are virtual pixels with the origin in
+ * the top left corner.
+ * 
+ * Objects can be tested against the visible part of the world before they
+ * are drawn, and touch positions are mapped back to world coordinates with
+ * the inverse transform.
+ */
+public class Camera {
+
+	/**
+	 * The whole virtual area is visible and keeps its aspect ratio, bars are
+	 * left on two sides when the aspect ratios differ
+	 */
+	public static final int SCALE_FIT = 0;
+
+	/**
+	 * The virtual area covers the whole surface and keeps its aspect ratio,
+	 * parts of it are cut off when the aspect ratios differ
+	 */
+	public static final int SCALE_FILL = 1;
+
+	/**
+	 * The virtual area is stretched to the surface
+	 */
+	public static final int SCALE_STRETCH = 2;
+
+	/**
+	 * Size of the virtual area
+	 */
+	private float mVirtualWidth;
+	private float mVirtualHeight;
+
+	/**
+	 * How the virtual area is mapped onto the surface
+	 */
+	private int mScaleMode;
+
+	/**
+	 * Size of the draw surface
+	 */
+	private int mSurfaceWidth;
+	private int mSurfaceHeight;
+
+	/**
+	 * World position shown in the center of the viewport
+	 */
+	private float mX;
+	private float mY;
+
+	/**
+	 * Zoom factor, 2 shows everything twice as big
+	 */
+	private float mZoom = 1.0f;
+
+	/**
+	 * Rotation in radians
+	 */
+	private float mRotation;
+
+	/**
+	 * Area of the surface the virtual area is drawn to
+	 */
+	private float mViewportLeft;
+	private float mViewportTop;
+	private float mViewportRight;
+	private float mViewportBottom;
+
+	/**
+	 * Bounding box of the visible part of the world
+	 */
+	private float mVisibleLeft;
+	private float mVisibleTop;
+	private float mVisibleRight;
+	private float mVisibleBottom;
+
+	/**
+	 * Transform from world to surface coordinates
+	 */
+	private final Transform2D mWorldToScreen = new Transform2D();
+
+	/**
+	 * Transform from surface to world coordinates
+	 */
+	private final Transform2D mScreenToWorld = new Transform2D();
+
+	/**
+	 * Android version of the world transform
+	 */
+	private final Matrix mMatrix = new Matrix();
+
+	/**
+	 * Scratch point
+	 */
+	private final Vector2f mPoint = new Vector2f();
+
+	/**
+	 * Indicates if the transforms need to be recalculated
+	 */
+	private boolean mDirty = true;
+
+	/**
+	 * Creates a camera centered on the virtual area
+	 * 
+	 * @param virtualWidth
+	 *            Width of the virtual area in world units
+	 * @param virtualHeight
+	 *            Height of the virtual area in world units
+	 * @param scaleMode
+	 *            {@link #SCALE_FIT}, {@link #SCALE_FILL} or
+	 *            {@link #SCALE_STRETCH}
+	 */
+	public Camera(float virtualWidth, float virtualHeight, int scaleMode) {
+		mVirtualWidth = virtualWidth;
+		mVirtualHeight = virtualHeight;
+		mScaleMode = scaleMode;
+		mX = virtualWidth * 0.5f;
+		mY = virtualHeight * 0.5f;
+		mSurfaceWidth = (int) virtualWidth;
+		mSurfaceHeight = (int) virtualHeight;
+	}
+
+	/**
+	 * Sets the size of the surface the camera draws to. Called by the screen
+	 * manager for the camera of a screen.
+	 * 
+	 * @param width
+	 * @param height
+	 */
+	public void setSurfaceSize(int width, int height) {
+		if (width != mSurfaceWidth || height != mSurfaceHeight) {
+			mSurfaceWidth = width;
+			mSurfaceHeight = height;
+			mDirty = true;
+		}
+	}
+
+	public void setScaleMode(int scaleMode) {
+		mScaleMode = scaleMode;
+		mDirty = true;
+	}
+
+	/**
+	 * Centers the view on a world position
+	 * 
+	 * @param x
+	 * @param y
+	 */
+	public void setPosition(float x, float y) {
+		mX = x;
+		mY = y;
+		mDirty = true;
+	}
+
+	/**
+	 * Moves the view by a world distance
+	 * 
+	 * @param dx
+	 * @param dy
+	 */
+	public void pan(float dx, float dy) {
+		setPosition(mX + dx, mY + dy);
+	}
+
+	public void setZoom(float zoom) {
+		mZoom = zoom;
+		mDirty = true;
+	}
+
+	/**
+	 * Rotates the view
+	 * 
+	 * @param rotation
+	 *            Angle in radians, positive turns the world counterclockwise
+	 *            on screen
+	 */
+	public void setRotation(float rotation) {
+		mRotation = rotation;
+		mDirty = true;
+	}
+
+	public float getX() {
+		return mX;
+	}
+
+	public float getY() {
+		return mY;
+	}
+
+	public float getZoom() {
+		return mZoom;
+	}
+
+	public float getRotation() {
+		return mRotation;
+	}
+
+	public float getVirtualWidth() {
+		return mVirtualWidth;
+	}
+
+	public float getVirtualHeight() {
+		return mVirtualHeight;
+	}
+
+	/**
+	 * Clips a canvas to the viewport and applies the world transform. Draw
+	 * the world in world coordinates afterwards and call
+	 * {@link #end(Canvas, int)} when done.
+	 * 
+	 * @param canvas
+	 * @return Save count to pass to end
+	 */
+	public int begin(Canvas canvas) {
+		update();
+		int saveCount = canvas.save();
+		canvas.clipRect(mViewportLeft, mViewportTop, mViewportRight,
+				mViewportBottom);
+		canvas.concat(mMatrix);
+		return saveCount;
+	}
+
+	/**
+	 * Restores the canvas state from before {@link #begin(Canvas)}
+	 * 
+	 * @param canvas
+	 * @param saveCount
+	 *            Value returned by begin
+	 */
+	public void end(Canvas canvas, int saveCount) {
+		canvas.restoreToCount(saveCount);
+	}
+
+	/**
+	 * Maps a surface position to the world in place
+	 * 
+	 * @param point
+	 */
+	public void screenToWorld(Vector2f point) {
+		update();
+		mScreenToWorld.transform(point);
+	}
+
+	/**
+	 * Maps a world position to the surface in place
+	 * 
+	 * @param point
+	 */
+	public void worldToScreen(Vector2f point) {
+		update();
+		mWorldToScreen.transform(point);
+	}
+
+	/**
+	 * Tells if a world rectangle may be visible. Cheap enough to call for
+	 * every object before drawing it.
+	 * 
+	 * @param left
+	 * @param top
+	 * @param right
+	 * @param bottom
+	 * @return False if the rectangle is certainly outside the view
+	 */
+	public boolean isVisible(float left, float top, float right, float bottom) {
+		update();
+		return left <= mVisibleRight && right >= mVisibleLeft
+				&& top <= mVisibleBottom && bottom >= mVisibleTop;
+	}
+
+	/**
+	 * Tells if a world circle may be visible
+	 * 
+	 * @param x
+	 * @param y
+	 * @param radius
+	 * @return False if the circle is certainly outside the view
+	 */
+	public boolean isVisible(float x, float y, float radius) {
+		return isVisible(x - radius, y - radius, x + radius, y + radius);
+	}
+
+	/**
+	 * Returns the transform from world to surface coordinates
+	 * 
+	 * @return The transform, must not be modified
+	 */
+	public Transform2D getWorldToScreen() {
+		update();
+		return mWorldToScreen;
+	}
+
+	/**
+	 * Returns the transform from surface to world coordinates
+	 * 
+	 * @return The transform, must not be modified
+	 */
+	public Transform2D getScreenToWorld() {
+		update();
+		return mScreenToWorld;
+	}
+
+	public float getVisibleLeft() {
+		update();
+		return mVisibleLeft;
+	}
+
+	public float getVisibleTop() {
+		update();
+		return mVisibleTop;
+	}
+
+	public float getVisibleRight() {
+		update();
+		return mVisibleRight;
+	}
+
+	public float getVisibleBottom() {
+		update();
+		return mVisibleBottom;
+	}
+
+	/**
+	 * Recalculates the viewport, transforms and visible bounds after a change
+	 */
+	private void update() {
+		if (!mDirty) {
+			return;
+		}
+		mDirty = false;
+
+		float scaleX = mSurfaceWidth / mVirtualWidth;
+		float scaleY = mSurfaceHeight / mVirtualHeight;
+		if (mScaleMode == SCALE_FIT) {
+			scaleX = scaleY = Math.min(scaleX, scaleY);
+		} else if (mScaleMode == SCALE_FILL) {
+			scaleX = scaleY = Math.max(scaleX, scaleY);
+		}
+
+		float viewportWidth = Math.min(mVirtualWidth * scaleX, mSurfaceWidth);
+		float viewportHeight = Math.min(mVirtualHeight * scaleY, mSurfaceHeight);
+		mViewportLeft = (mSurfaceWidth - viewportWidth) * 0.5f;
+		mViewportTop = (mSurfaceHeight - viewportHeight) * 0.5f;
+		mViewportRight = mViewportLeft + viewportWidth;
+		mViewportBottom = mViewportTop + viewportHeight;
+
+		mWorldToScreen.setIdentity();
+		mWorldToScreen.translate(mSurfaceWidth * 0.5f, mSurfaceHeight * 0.5f);
+		mWorldToScreen.scale(scaleX * mZoom, scaleY * mZoom);
+		mWorldToScreen.rotate(-mRotation);
+		mWorldToScreen.translate(-mX, -mY);
+		mWorldToScreen.invert(mScreenToWorld);
+		mWorldToScreen.toMatrix(mMatrix);
+
+		mVisibleLeft = Float.MAX_VALUE;
+		mVisibleTop = Float.MAX_VALUE;
+		mVisibleRight = -Float.MAX_VALUE;
+		mVisibleBottom = -Float.MAX_VALUE;
+		for (int corner = 0; corner < 4; corner++) {
+			mPoint.set(corner % 2 == 0 ? mViewportLeft : mViewportRight,
+					corner < 2 ? mViewportTop : mViewportBottom);
+			mScreenToWorld.transform(mPoint);
+			mVisibleLeft = Math.min(mVisibleLeft, mPoint.getX());
+			mVisibleTop = Math.min(mVisibleTop, mPoint.getY());
+			mVisibleRight = Math.max(mVisibleRight, mPoint.getX());
+			mVisibleBottom = Math.max(mVisibleBottom, mPoint.getY());
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.vulfox.render;
+
+import android.graphics.Canvas;
+
+/**
+ * Draws frames to a canvas of its own. Give it a canvas drawing into a
+ * bitmap to render off-screen, or a canvas subclass that records or counts
+ * the calls when running on a plain JVM.
+ */
+public class CanvasDrawTarget implements DrawTarget {
+
+	/**
+	 * Canvas every frame is drawn to
+	 */
+	private final Canvas mCanvas;
+
+	/**
+	 * Number of frames drawn
+	 */
+	private int mFrameCount;
+
+	public CanvasDrawTarget(Canvas canvas) {
+		mCanvas = canvas;
+	}
+
+	/**
+	 * Clips the canvas to the dirty region, the state is restored when the
+	 * frame is posted
+	 */
+	public Canvas lockCanvas(DirtyRegion dirtyRegion) {
+		mCanvas.save();
+		if (dirtyRegion != null) {
+			mCanvas.clipRect(dirtyRegion.getLeft(), dirtyRegion.getTop(),
+					dirtyRegion.getRight(), dirtyRegion.getBottom());
+		}
+		return mCanvas;
+	}
+
+	public void unlockCanvasAndPost(Canvas canvas) {
+		mCanvas.restore();
+		mFrameCount++;
+	}
+
+	public Canvas getCanvas() {
+		return mCanvas;
+	}
+
+	/**
+	 * Returns the number of frames drawn
+	 * 
+	 * @return Frame count
+	 */
+	public int getFrameCount() {
+		return mFrameCount;
+	}
+}
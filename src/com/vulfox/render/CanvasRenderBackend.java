@@ -0,0 +1,135 @@
+package com.vulfox.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Replays render commands to an Android canvas. Bitmaps and paints are
+ * registered once and referred to by the returned ids afterwards.
+ */
+public class CanvasRenderBackend implements RenderBackend {
+
+	/**
+	 * Registered bitmaps indexed by id
+	 */
+	private Bitmap[] mBitmaps = new Bitmap[16];
+
+	/**
+	 * Number of registered bitmaps
+	 */
+	private int mBitmapCount;
+
+	/**
+	 * Registered paints indexed by id
+	 */
+	private Paint[] mPaints = new Paint[16];
+
+	/**
+	 * Number of registered paints
+	 */
+	private int mPaintCount;
+
+	/**
+	 * Canvas the commands are drawn to
+	 */
+	private Canvas mCanvas;
+
+	/**
+	 * Reused source rectangle
+	 */
+	private Rect mSrc = new Rect();
+
+	/**
+	 * Reused destination rectangle
+	 */
+	private RectF mDst = new RectF();
+
+	/**
+	 * Registers a bitmap
+	 * 
+	 * @param bitmap
+	 * @return Id to use in render commands
+	 */
+	public int addBitmap(Bitmap bitmap) {
+		if (mBitmapCount == mBitmaps.length) {
+			Bitmap[] bitmaps = new Bitmap[mBitmaps.length * 2];
+			System.arraycopy(mBitmaps, 0, bitmaps, 0, mBitmapCount);
+			mBitmaps = bitmaps;
+		}
+		mBitmaps[mBitmapCount] = bitmap;
+		return mBitmapCount++;
+	}
+
+	/**
+	 * Replaces a registered bitmap, for example after it has been reloaded
+	 * 
+	 * @param bitmapId
+	 * @param bitmap
+	 */
+	public void setBitmap(int bitmapId, Bitmap bitmap) {
+		mBitmaps[bitmapId] = bitmap;
+	}
+
+	/**
+	 * Returns a registered bitmap
+	 * 
+	 * @param bitmapId
+	 * @return The bitmap
+	 */
+	public Bitmap getBitmap(int bitmapId) {
+		return mBitmaps[bitmapId];
+	}
+
+	/**
+	 * Registers a paint
+	 * 
+	 * @param paint
+	 * @return Id to use in render commands
+	 */
+	public int addPaint(Paint paint) {
+		if (mPaintCount == mPaints.length) {
+			Paint[] paints = new Paint[mPaints.length * 2];
+			System.arraycopy(mPaints, 0, paints, 0, mPaintCount);
+			mPaints = paints;
+		}
+		mPaints[mPaintCount] = paint;
+		return mPaintCount++;
+	}
+
+	/**
+	 * Returns a registered paint
+	 * 
+	 * @param paintId
+	 * @return The paint, null for NO_PAINT
+	 */
+	public Paint getPaint(int paintId) {
+		return paintId == RenderCommandBuffer.NO_PAINT ? null : mPaints[paintId];
+	}
+
+	/**
+	 * Sets the canvas to draw to, usually once per frame
+	 * 
+	 * @param canvas
+	 */
+	public void setCanvas(Canvas canvas) {
+		mCanvas = canvas;
+	}
+
+	@Override
+	public void drawBitmap(int bitmapId, int srcLeft, int srcTop,
+			int srcRight, int srcBottom, float dstLeft, float dstTop,
+			float dstRight, float dstBottom, int paintId) {
+		mSrc.set(srcLeft, srcTop, srcRight, srcBottom);
+		mDst.set(dstLeft, dstTop, dstRight, dstBottom);
+		mCanvas.drawBitmap(mBitmaps[bitmapId], mSrc, mDst, getPaint(paintId));
+	}
+
+	@Override
+	public void drawRect(float left, float top, float right, float bottom,
+			int paintId) {
+		mCanvas.drawRect(left, top, right, bottom, getPaint(paintId));
+	}
+}
@@ -0,0 +1,121 @@
+package com.vulfox.render;
+
+/**
+ * Bounding rectangle of the areas of a screen that need to be redrawn.
+ * Invalidated areas are merged into a single rectangle since that is what a
+ * surface can be locked with.
+ */
+public class DirtyRegion {
+
+	/**
+	 * Left edge of the region
+	 */
+	private int mLeft;
+
+	/**
+	 * Top edge of the region
+	 */
+	private int mTop;
+
+	/**
+	 * Right edge of the region, exclusive
+	 */
+	private int mRight;
+
+	/**
+	 * Bottom edge of the region, exclusive
+	 */
+	private int mBottom;
+
+	/**
+	 * Indicates if nothing needs to be redrawn
+	 */
+	private boolean mEmpty = true;
+
+	/**
+	 * Adds an area to the region
+	 * 
+	 * @param left
+	 * @param top
+	 * @param right
+	 *            Exclusive right edge
+	 * @param bottom
+	 *            Exclusive bottom edge
+	 */
+	public void union(int left, int top, int right, int bottom) {
+		if (left >= right || top >= bottom) {
+			return;
+		}
+
+		if (mEmpty) {
+			mLeft = left;
+			mTop = top;
+			mRight = right;
+			mBottom = bottom;
+			mEmpty = false;
+		} else {
+			mLeft = Math.min(mLeft, left);
+			mTop = Math.min(mTop, top);
+			mRight = Math.max(mRight, right);
+			mBottom = Math.max(mBottom, bottom);
+		}
+	}
+
+	/**
+	 * Adds another region to this one
+	 * 
+	 * @param other
+	 */
+	public void union(DirtyRegion other) {
+		if (!other.mEmpty) {
+			union(other.mLeft, other.mTop, other.mRight, other.mBottom);
+		}
+	}
+
+	/**
+	 * Limits the region to the specified bounds
+	 * 
+	 * @param width
+	 * @param height
+	 */
+	public void clip(int width, int height) {
+		if (mEmpty) {
+			return;
+		}
+
+		mLeft = Math.max(mLeft, 0);
+		mTop = Math.max(mTop, 0);
+		mRight = Math.min(mRight, width);
+		mBottom = Math.min(mBottom, height);
+		if (mLeft >= mRight || mTop >= mBottom) {
+			mEmpty = true;
+		}
+	}
+
+	/**
+	 * Marks everything as drawn
+	 */
+	public void clear() {
+		mEmpty = true;
+	}
+
+	public boolean isEmpty() {
+		return mEmpty;
+	}
+
+	public int getLeft() {
+		return mLeft;
+	}
+
+	public int getTop() {
+		return mTop;
+	}
+
+	public int getRight() {
+		return mRight;
+	}
+
+	public int getBottom() {
+		return mBottom;
+	}
+}
@@ -0,0 +1,27 @@
+package com.vulfox.render;
+
+import android.graphics.Canvas;
+
+/**
+ * Where the game loop draws its frames: the surface of the game view, or a
+ * canvas of its own when running headless
+ */
+public interface DrawTarget {
+
+	/**
+	 * Returns a canvas to draw a frame into
+	 * 
+	 * @param dirtyRegion
+	 *            Area that will be redrawn, or null for everything
+	 * @return The canvas, or null if the frame can not be drawn
+	 */
+	Canvas lockCanvas(DirtyRegion dirtyRegion);
+
+	/**
+	 * Finishes a frame started by {@link #lockCanvas(DirtyRegion)}
+	 * 
+	 * @param canvas
+	 *            The canvas returned by lockCanvas
+	 */
+	void unlockCanvasAndPost(Canvas canvas);
+}
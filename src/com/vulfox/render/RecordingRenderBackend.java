@@ -0,0 +1,170 @@
+package com.vulfox.render;
+
+/**
+ * Backend that records the replayed commands instead of drawing them, so
+ * command buffers can be tested and benchmarked without a device. Counts how
+ * often the bitmap and paint change between consecutive commands, which is
+ * what sorting is meant to reduce.
+ */
+public class RecordingRenderBackend implements RenderBackend {
+
+	/**
+	 * Opcode per replayed command
+	 */
+	private final int[] mOpcodes;
+
+	/**
+	 * Bitmap id per replayed command
+	 */
+	private final int[] mBitmapIds;
+
+	/**
+	 * Paint id per replayed command
+	 */
+	private final int[] mPaintIds;
+
+	/**
+	 * Destination rectangles, four values per replayed command
+	 */
+	private final float[] mDstRects;
+
+	/**
+	 * Number of replayed commands
+	 */
+	private int mCount;
+
+	/**
+	 * Number of times the bitmap differed from the previous bitmap command
+	 */
+	private int mBitmapChangeCount;
+
+	/**
+	 * Number of times the paint differed from the previous command
+	 */
+	private int mPaintChangeCount;
+
+	/**
+	 * Bitmap of the last bitmap command
+	 */
+	private int mLastBitmapId;
+
+	/**
+	 * Paint of the last command
+	 */
+	private int mLastPaintId;
+
+	/**
+	 * Creates a recording backend
+	 * 
+	 * @param capacity
+	 *            Maximum number of commands to record, further commands are
+	 *            only counted
+	 */
+	public RecordingRenderBackend(int capacity) {
+		mOpcodes = new int[capacity];
+		mBitmapIds = new int[capacity];
+		mPaintIds = new int[capacity];
+		mDstRects = new float[capacity * 4];
+		reset();
+	}
+
+	@Override
+	public void drawBitmap(int bitmapId, int srcLeft, int srcTop,
+			int srcRight, int srcBottom, float dstLeft, float dstTop,
+			float dstRight, float dstBottom, int paintId) {
+		if (bitmapId != mLastBitmapId) {
+			mBitmapChangeCount++;
+			mLastBitmapId = bitmapId;
+		}
+		record(RenderCommandBuffer.OP_BITMAP, bitmapId, dstLeft, dstTop,
+				dstRight, dstBottom, paintId);
+	}
+
+	@Override
+	public void drawRect(float left, float top, float right, float bottom,
+			int paintId) {
+		record(RenderCommandBuffer.OP_RECT, RenderCommandBuffer.NO_BITMAP,
+				left, top, right, bottom, paintId);
+	}
+
+	/**
+	 * Forgets all recorded commands and counters
+	 */
+	public void reset() {
+		mCount = 0;
+		mBitmapChangeCount = 0;
+		mPaintChangeCount = 0;
+		mLastBitmapId = Integer.MIN_VALUE;
+		mLastPaintId = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Returns the number of replayed commands
+	 * 
+	 * @return Command count
+	 */
+	public int getCount() {
+		return mCount;
+	}
+
+	public int getOpcode(int index) {
+		return mOpcodes[index];
+	}
+
+	public int getBitmapId(int index) {
+		return mBitmapIds[index];
+	}
+
+	public int getPaintId(int index) {
+		return mPaintIds[index];
+	}
+
+	public float getDstLeft(int index) {
+		return mDstRects[index * 4];
+	}
+
+	public float getDstTop(int index) {
+		return mDstRects[index * 4 + 1];
+	}
+
+	/**
+	 * Returns how many times a bitmap command used another bitmap than the
+	 * previous bitmap command
+	 * 
+	 * @return Bitmap change count
+	 */
+	public int getBitmapChangeCount() {
+		return mBitmapChangeCount;
+	}
+
+	/**
+	 * Returns how many times a command used another paint than the previous
+	 * command
+	 * 
+	 * @return Paint change count
+	 */
+	public int getPaintChangeCount() {
+		return mPaintChangeCount;
+	}
+
+	private void record(int opcode, int bitmapId, float left, float top,
+			float right, float bottom, int paintId) {
+		if (paintId != mLastPaintId) {
+			mPaintChangeCount++;
+			mLastPaintId = paintId;
+		}
+
+		int index = mCount++;
+		if (index >= mOpcodes.length) {
+			return;
+		}
+
+		mOpcodes[index] = opcode;
+		mBitmapIds[index] = bitmapId;
+		mPaintIds[index] = paintId;
+		mDstRects[index * 4] = left;
+		mDstRects[index * 4 + 1] = top;
+		mDstRects[index * 4 + 2] = right;
+		mDstRects[index * 4 + 3] = bottom;
+	}
+}
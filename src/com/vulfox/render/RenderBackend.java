@@ -0,0 +1,42 @@
+package com.vulfox.render;
+
+/**
+ * Target that a {@link RenderCommandBuffer} replays its commands to. Bitmaps
+ * and paints are referred to by integer ids that the backend resolves. A paint
+ * id of {@link RenderCommandBuffer#NO_PAINT} means the default paint.
+ */
+public interface RenderBackend {
+
+	/**
+	 * Draws a part of a bitmap scaled into a destination rectangle
+	 * 
+	 * @param bitmapId
+	 *            Id of the bitmap
+	 * @param srcLeft
+	 * @param srcTop
+	 * @param srcRight
+	 * @param srcBottom
+	 * @param dstLeft
+	 * @param dstTop
+	 * @param dstRight
+	 * @param dstBottom
+	 * @param paintId
+	 *            Id of the paint
+	 */
+	void drawBitmap(int bitmapId, int srcLeft, int srcTop, int srcRight,
+			int srcBottom, float dstLeft, float dstTop, float dstRight,
+			float dstBottom, int paintId);
+
+	/**
+	 * Draws a rectangle
+	 * 
+	 * @param left
+	 * @param top
+	 * @param right
+	 * @param bottom
+	 * @param paintId
+	 *            Id of the paint
+	 */
+	void drawRect(float left, float top, float right, float bottom,
+			int paintId);
+}
@@ -0,0 +1,388 @@
+package com.vulfox.render;
+
+/**
+ * Records draw calls into primitive arrays so they can be sorted by layer,
+ * bitmap and paint before being replayed to a {@link RenderBackend}. Sorting
+ * groups draws that share a bitmap and paint, which keeps state changes down
+ * when many sprites are drawn. The draw order is only guaranteed between
+ * layers, not within a layer.
+ * 
+ * The buffer has a fixed capacity and nothing is allocated while recording,
+ * sorting or replaying. Commands that do not fit are dropped and counted.
+ */
+public class RenderCommandBuffer {
+
+	/**
+	 * Opcode for drawing a part of a bitmap
+	 */
+	public static final int OP_BITMAP = 0;
+
+	/**
+	 * Opcode for drawing a rectangle
+	 */
+	public static final int OP_RECT = 1;
+
+	/**
+	 * Bitmap id used by commands that do not draw a bitmap
+	 */
+	public static final int NO_BITMAP = -1;
+
+	/**
+	 * Paint id meaning the default paint
+	 */
+	public static final int NO_PAINT = -1;
+
+	/**
+	 * Lowest allowed layer
+	 */
+	public static final int MIN_LAYER = -32768;
+
+	/**
+	 * Highest allowed layer
+	 */
+	public static final int MAX_LAYER = 32767;
+
+	/**
+	 * Highest allowed bitmap and paint id
+	 */
+	public static final int MAX_ID = 65534;
+
+	/**
+	 * Maximum capacity, limited by the 16 bits of the sort key used for the
+	 * command index
+	 */
+	public static final int MAX_CAPACITY = 65536;
+
+	/**
+	 * Number of values stored per command for the source rectangle
+	 */
+	private static final int SRC_STRIDE = 4;
+
+	/**
+	 * Number of values stored per command for the destination rectangle
+	 */
+	private static final int DST_STRIDE = 4;
+
+	/**
+	 * Below this size ranges are sorted with insertion sort
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	/**
+	 * Command opcodes
+	 */
+	private final int[] mOpcodes;
+
+	/**
+	 * Bitmap id per command
+	 */
+	private final int[] mBitmapIds;
+
+	/**
+	 * Paint id per command
+	 */
+	private final int[] mPaintIds;
+
+	/**
+	 * Source rectangles, four values per command
+	 */
+	private final int[] mSrcRects;
+
+	/**
+	 * Destination rectangles, four values per command
+	 */
+	private final float[] mDstRects;
+
+	/**
+	 * Sort keys, each holding layer, bitmap, paint and command index
+	 */
+	private final long[] mSortKeys;
+
+	/**
+	 * Number of recorded commands
+	 */
+	private int mCount;
+
+	/**
+	 * Indicates if the sort keys are in order
+	 */
+	private boolean mSorted;
+
+	/**
+	 * Number of commands dropped because the buffer was full
+	 */
+	private int mOverflowCount;
+
+	/**
+	 * Creates a command buffer
+	 * 
+	 * @param capacity
+	 *            Maximum number of commands per frame
+	 */
+	public RenderCommandBuffer(int capacity) {
+		if (capacity < 1 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Capacity must be between 1 and "
+					+ MAX_CAPACITY);
+		}
+
+		mOpcodes = new int[capacity];
+		mBitmapIds = new int[capacity];
+		mPaintIds = new int[capacity];
+		mSrcRects = new int[capacity * SRC_STRIDE];
+		mDstRects = new float[capacity * DST_STRIDE];
+		mSortKeys = new long[capacity];
+	}
+
+	/**
+	 * Records drawing a part of a bitmap scaled into a destination rectangle
+	 * 
+	 * @param layer
+	 *            Layer to draw in, higher layers are drawn on top
+	 * @param bitmapId
+	 *            Id of the bitmap
+	 * @param srcLeft
+	 * @param srcTop
+	 * @param srcRight
+	 * @param srcBottom
+	 * @param dstLeft
+	 * @param dstTop
+	 * @param dstRight
+	 * @param dstBottom
+	 * @param paintId
+	 *            Id of the paint or NO_PAINT
+	 * @return False if the buffer was full and the command was dropped
+	 */
+	public boolean drawBitmap(int layer, int bitmapId, int srcLeft,
+			int srcTop, int srcRight, int srcBottom, float dstLeft,
+			float dstTop, float dstRight, float dstBottom, int paintId) {
+		int index = add(OP_BITMAP, layer, bitmapId, paintId);
+		if (index < 0) {
+			return false;
+		}
+
+		int src = index * SRC_STRIDE;
+		mSrcRects[src] = srcLeft;
+		mSrcRects[src + 1] = srcTop;
+		mSrcRects[src + 2] = srcRight;
+		mSrcRects[src + 3] = srcBottom;
+		setDst(index, dstLeft, dstTop, dstRight, dstBottom);
+		return true;
+	}
+
+	/**
+	 * Records drawing a rectangle
+	 * 
+	 * @param layer
+	 *            Layer to draw in, higher layers are drawn on top
+	 * @param left
+	 * @param top
+	 * @param right
+	 * @param bottom
+	 * @param paintId
+	 *            Id of the paint or NO_PAINT
+	 * @return False if the buffer was full and the command was dropped
+	 */
+	public boolean drawRect(int layer, float left, float top, float right,
+			float bottom, int paintId) {
+		int index = add(OP_RECT, layer, NO_BITMAP, paintId);
+		if (index < 0) {
+			return false;
+		}
+
+		setDst(index, left, top, right, bottom);
+		return true;
+	}
+
+	/**
+	 * Sorts the recorded commands by layer, then bitmap, then paint. Commands
+	 * with equal state keep their recording order.
+	 */
+	public void sort() {
+		if (!mSorted) {
+			sort(mSortKeys, 0, mCount - 1);
+			mSorted = true;
+		}
+	}
+
+	/**
+	 * Replays the recorded commands to a backend, in sorted order if
+	 * {@link #sort()} has been called and in recording order otherwise
+	 * 
+	 * @param backend
+	 *            Backend to draw to
+	 */
+	public void replay(RenderBackend backend) {
+		for (int i = 0; i < mCount; i++) {
+			int index = (int) (mSortKeys[i] & 0xffff);
+			int dst = index * DST_STRIDE;
+
+			switch (mOpcodes[index]) {
+			case OP_BITMAP:
+				int src = index * SRC_STRIDE;
+				backend.drawBitmap(mBitmapIds[index], mSrcRects[src],
+						mSrcRects[src + 1], mSrcRects[src + 2],
+						mSrcRects[src + 3], mDstRects[dst],
+						mDstRects[dst + 1], mDstRects[dst + 2],
+						mDstRects[dst + 3], mPaintIds[index]);
+				break;
+			case OP_RECT:
+				backend.drawRect(mDstRects[dst], mDstRects[dst + 1],
+						mDstRects[dst + 2], mDstRects[dst + 3],
+						mPaintIds[index]);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Sorts and replays the recorded commands and clears the buffer
+	 * 
+	 * @param backend
+	 *            Backend to draw to
+	 */
+	public void flush(RenderBackend backend) {
+		sort();
+		replay(backend);
+		clear();
+	}
+
+	/**
+	 * Removes all recorded commands
+	 */
+	public void clear() {
+		mCount = 0;
+		mSorted = true;
+	}
+
+	/**
+	 * Returns the number of recorded commands
+	 * 
+	 * @return Command count
+	 */
+	public int getCount() {
+		return mCount;
+	}
+
+	/**
+	 * Returns the maximum number of commands
+	 * 
+	 * @return Capacity
+	 */
+	public int getCapacity() {
+		return mOpcodes.length;
+	}
+
+	/**
+	 * Returns the number of commands dropped because the buffer was full
+	 * 
+	 * @return Overflow count
+	 */
+	public int getOverflowCount() {
+		return mOverflowCount;
+	}
+
+	/**
+	 * Stores the state of a new command and returns its index, or -1 if the
+	 * buffer is full
+	 */
+	private int add(int opcode, int layer, int bitmapId, int paintId) {
+		if (mCount == mOpcodes.length) {
+			mOverflowCount++;
+			return -1;
+		}
+		if (layer < MIN_LAYER || layer > MAX_LAYER) {
+			throw new IllegalArgumentException("Layer out of range: " + layer);
+		}
+		if (bitmapId < NO_BITMAP || bitmapId > MAX_ID || paintId < NO_PAINT
+				|| paintId > MAX_ID) {
+			throw new IllegalArgumentException("Id out of range");
+		}
+
+		int index = mCount++;
+		mOpcodes[index] = opcode;
+		mBitmapIds[index] = bitmapId;
+		mPaintIds[index] = paintId;
+
+		// The signed layer fills the top 16 bits, so negative layers sort
+		// before positive ones. Ids are offset by one so NO_BITMAP and
+		// NO_PAINT sort first.
+		mSortKeys[index] = ((long) layer << 48)
+				| ((long) (bitmapId + 1) << 32) | ((long) (paintId + 1) << 16)
+				| index;
+		mSorted = index == 0 || mSorted && mSortKeys[index - 1] < mSortKeys[index];
+		return index;
+	}
+
+	/**
+	 * Stores the destination rectangle of a command
+	 */
+	private void setDst(int index, float left, float top, float right,
+			float bottom) {
+		int dst = index * DST_STRIDE;
+		mDstRects[dst] = left;
+		mDstRects[dst + 1] = top;
+		mDstRects[dst + 2] = right;
+		mDstRects[dst + 3] = bottom;
+	}
+
+	/**
+	 * Sorts a range of keys in place, inclusive on both ends. Keys are unique
+	 * since they contain the command index.
+	 */
+	private static void sort(long[] keys, int low, int high) {
+		while (high - low >= INSERTION_SORT_THRESHOLD) {
+			int middle = (low + high) >>> 1;
+			if (keys[middle] < keys[low]) {
+				swap(keys, middle, low);
+			}
+			if (keys[high] < keys[low]) {
+				swap(keys, high, low);
+			}
+			if (keys[high] < keys[middle]) {
+				swap(keys, high, middle);
+			}
+			long pivot = keys[middle];
+
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (keys[i] < pivot) {
+					i++;
+				}
+				while (keys[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(keys, i, j);
+					i++;
+					j--;
+				}
+			}
+
+			// Recurse into the smaller part to bound the stack depth
+			if (j - low < high - i) {
+				sort(keys, low, j);
+				low = i;
+			} else {
+				sort(keys, i, high);
+				high = j;
+			}
+		}
+
+		for (int i = low + 1; i <= high; i++) {
+			long key = keys[i];
+			int j = i - 1;
+			while (j >= low && keys[j] > key) {
+				keys[j + 1] = keys[j];
+				j--;
+			}
+			keys[j + 1] = key;
+		}
+	}
+
+	private static void swap(long[] keys, int a, int b) {
+		long temp = keys[a];
+		keys[a] = keys[b];
+		keys[b] = temp;
+	}
+}
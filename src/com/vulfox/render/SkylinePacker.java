@@ -0,0 +1,204 @@
+package com.vulfox.render;
+
+/**
+ * Packs rectangles into a fixed size area using the skyline bottom-left
+ * heuristic. The skyline is the outline of the top edges of the rectangles
+ * placed so far, and every new rectangle is placed where its top ends up
+ * lowest. Packing works best when rectangles are added tallest first.
+ */
+public class SkylinePacker {
+
+	/**
+	 * Width of the packing area
+	 */
+	private final int mWidth;
+
+	/**
+	 * Height of the packing area
+	 */
+	private final int mHeight;
+
+	/**
+	 * Left edge of each skyline segment, segments are sorted left to right
+	 * and cover the whole width
+	 */
+	private final int[] mSegmentX;
+
+	/**
+	 * Height of each skyline segment
+	 */
+	private final int[] mSegmentY;
+
+	/**
+	 * Width of each skyline segment
+	 */
+	private final int[] mSegmentWidth;
+
+	/**
+	 * Number of skyline segments
+	 */
+	private int mSegmentCount;
+
+	/**
+	 * Position of the last packed rectangle
+	 */
+	private int mPackedX;
+	private int mPackedY;
+
+	/**
+	 * Creates an empty packer
+	 * 
+	 * @param width
+	 *            Width of the packing area
+	 * @param height
+	 *            Height of the packing area
+	 */
+	public SkylinePacker(int width, int height) {
+		mWidth = width;
+		mHeight = height;
+		mSegmentX = new int[width + 1];
+		mSegmentY = new int[width + 1];
+		mSegmentWidth = new int[width + 1];
+		reset();
+	}
+
+	/**
+	 * Removes all packed rectangles
+	 */
+	public void reset() {
+		mSegmentX[0] = 0;
+		mSegmentY[0] = 0;
+		mSegmentWidth[0] = mWidth;
+		mSegmentCount = 1;
+	}
+
+	/**
+	 * Finds room for a rectangle. Its position can be read with
+	 * {@link #getPackedX()} and {@link #getPackedY()}.
+	 * 
+	 * @param width
+	 * @param height
+	 * @return False if the rectangle does not fit
+	 */
+	public boolean pack(int width, int height) {
+		int bestIndex = -1;
+		int bestY = Integer.MAX_VALUE;
+		int bestSegmentWidth = Integer.MAX_VALUE;
+
+		for (int i = 0; i < mSegmentCount; i++) {
+			int y = fit(i, width, height);
+			if (y >= 0
+					&& (y < bestY || y == bestY
+							&& mSegmentWidth[i] < bestSegmentWidth)) {
+				bestIndex = i;
+				bestY = y;
+				bestSegmentWidth = mSegmentWidth[i];
+			}
+		}
+
+		if (bestIndex < 0) {
+			return false;
+		}
+
+		mPackedX = mSegmentX[bestIndex];
+		mPackedY = bestY;
+		addSegment(bestIndex, mPackedX, bestY + height, width);
+		return true;
+	}
+
+	public int getPackedX() {
+		return mPackedX;
+	}
+
+	public int getPackedY() {
+		return mPackedY;
+	}
+
+	public int getWidth() {
+		return mWidth;
+	}
+
+	/**
+	 * Returns the height of the tallest point of the skyline, the area below
+	 * it contains every packed rectangle
+	 * 
+	 * @return Used height
+	 */
+	public int getUsedHeight() {
+		int usedHeight = 0;
+		for (int i = 0; i < mSegmentCount; i++) {
+			usedHeight = Math.max(usedHeight, mSegmentY[i]);
+		}
+		return usedHeight;
+	}
+
+	public int getHeight() {
+		return mHeight;
+	}
+
+	/**
+	 * Returns the y coordinate a rectangle would get if its left edge is
+	 * placed at the start of a segment, or -1 if it does not fit there
+	 */
+	private int fit(int index, int width, int height) {
+		if (mSegmentX[index] + width > mWidth) {
+			return -1;
+		}
+
+		int y = 0;
+		int widthLeft = width;
+		for (int i = index; widthLeft > 0; i++) {
+			y = Math.max(y, mSegmentY[i]);
+			if (y + height > mHeight) {
+				return -1;
+			}
+			widthLeft -= mSegmentWidth[i];
+		}
+		return y;
+	}
+
+	/**
+	 * Inserts a segment for the top of a new rectangle and trims the segments
+	 * it covers
+	 */
+	private void addSegment(int index, int x, int y, int width) {
+		System.arraycopy(mSegmentX, index, mSegmentX, index + 1, mSegmentCount - index);
+		System.arraycopy(mSegmentY, index, mSegmentY, index + 1, mSegmentCount - index);
+		System.arraycopy(mSegmentWidth, index, mSegmentWidth, index + 1, mSegmentCount - index);
+		mSegmentX[index] = x;
+		mSegmentY[index] = y;
+		mSegmentWidth[index] = width;
+		mSegmentCount++;
+
+		int right = x + width;
+		int i = index + 1;
+		while (i < mSegmentCount && mSegmentX[i] < right) {
+			int overlap = right - mSegmentX[i];
+			if (overlap >= mSegmentWidth[i]) {
+				removeSegment(i);
+			} else {
+				mSegmentX[i] += overlap;
+				mSegmentWidth[i] -= overlap;
+				break;
+			}
+		}
+
+		// Merge neighbours of equal height
+		for (i = 0; i < mSegmentCount - 1;) {
+			if (mSegmentY[i] == mSegmentY[i + 1]) {
+				mSegmentWidth[i] += mSegmentWidth[i + 1];
+				removeSegment(i + 1);
+			} else {
+				i++;
+			}
+		}
+	}
+
+	private void removeSegment(int index) {
+		int moved = mSegmentCount - index - 1;
+		System.arraycopy(mSegmentX, index + 1, mSegmentX, index, moved);
+		System.arraycopy(mSegmentY, index + 1, mSegmentY, index, moved);
+		System.arraycopy(mSegmentWidth, index + 1, mSegmentWidth, index, moved);
+		mSegmentCount--;
+	}
+}
@@ -0,0 +1,134 @@
+package com.vulfox.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * An image packed into a {@link TextureAtlas}: the atlas page it is on and
+ * where on the page it is. Drawing a sprite draws that part of the page.
+ */
+public class Sprite {
+
+	/**
+	 * Resource the image was decoded from
+	 */
+	private final int mResourceID;
+
+	/**
+	 * Index of the atlas page
+	 */
+	private final int mPage;
+
+	/**
+	 * Atlas page bitmap
+	 */
+	private final Bitmap mBitmap;
+
+	/**
+	 * Area of the page covered by the image
+	 */
+	private final Rect mSource;
+
+	/**
+	 * Reused destination rectangle
+	 */
+	private final RectF mDestination = new RectF();
+
+	Sprite(int resourceID, int page, Bitmap bitmap, int left, int top,
+			int right, int bottom) {
+		mResourceID = resourceID;
+		mPage = page;
+		mBitmap = bitmap;
+		mSource = new Rect(left, top, right, bottom);
+	}
+
+	/**
+	 * Draws the sprite at its original size
+	 * 
+	 * @param canvas
+	 *            Canvas to draw to
+	 * @param x
+	 *            Left edge
+	 * @param y
+	 *            Top edge
+	 * @param paint
+	 *            Paint or null
+	 */
+	public void draw(Canvas canvas, float x, float y, Paint paint) {
+		draw(canvas, x, y, x + getWidth(), y + getHeight(), paint);
+	}
+
+	/**
+	 * Draws the sprite scaled to a rectangle
+	 * 
+	 * @param canvas
+	 *            Canvas to draw to
+	 * @param left
+	 * @param top
+	 * @param right
+	 * @param bottom
+	 * @param paint
+	 *            Paint or null
+	 */
+	public void draw(Canvas canvas, float left, float top, float right,
+			float bottom, Paint paint) {
+		mDestination.set(left, top, right, bottom);
+		canvas.drawBitmap(mBitmap, mSource, mDestination, paint);
+	}
+
+	/**
+	 * Adds a command drawing the sprite to a command buffer
+	 * 
+	 * @param buffer
+	 *            Command buffer
+	 * @param layer
+	 *            Draw layer
+	 * @param bitmapId
+	 *            Id the atlas page is registered with
+	 * @param x
+	 *            Left edge
+	 * @param y
+	 *            Top edge
+	 * @param paintId
+	 *            Paint id or {@link RenderCommandBuffer#NO_PAINT}
+	 */
+	public void submit(RenderCommandBuffer buffer, int layer, int bitmapId,
+			float x, float y, int paintId) {
+		buffer.drawBitmap(layer, bitmapId, mSource.left, mSource.top,
+				mSource.right, mSource.bottom, x, y, x + getWidth(), y
+						+ getHeight(), paintId);
+	}
+
+	public int getResourceID() {
+		return mResourceID;
+	}
+
+	public int getPage() {
+		return mPage;
+	}
+
+	public Bitmap getBitmap() {
+		return mBitmap;
+	}
+
+	/**
+	 * Returns the area of the atlas page covered by the image. The rectangle
+	 * must not be modified.
+	 * 
+	 * @return Source rectangle
+	 */
+	public Rect getSource() {
+		return mSource;
+	}
+
+	public int getWidth() {
+		return mSource.right - mSource.left;
+	}
+
+	public int getHeight() {
+		return mSource.bottom - mSource.top;
+	}
+}
@@ -0,0 +1,39 @@
+package com.vulfox.render;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.SurfaceHolder;
+
+/**
+ * Draws frames to the surface of a surface view
+ */
+public class SurfaceDrawTarget implements DrawTarget {
+
+	/**
+	 * Surface to draw to
+	 */
+	private final SurfaceHolder mSurfaceHolder;
+
+	/**
+	 * Area of the surface locked for drawing a dirty region
+	 */
+	private final Rect mDirtyRect = new Rect();
+
+	public SurfaceDrawTarget(SurfaceHolder surfaceHolder) {
+		mSurfaceHolder = surfaceHolder;
+	}
+
+	public Canvas lockCanvas(DirtyRegion dirtyRegion) {
+		if (dirtyRegion == null) {
+			return mSurfaceHolder.lockCanvas();
+		}
+
+		mDirtyRect.set(dirtyRegion.getLeft(), dirtyRegion.getTop(),
+				dirtyRegion.getRight(), dirtyRegion.getBottom());
+		return mSurfaceHolder.lockCanvas(mDirtyRect);
+	}
+
+	public void unlockCanvasAndPost(Canvas canvas) {
+		mSurfaceHolder.unlockCanvasAndPost(canvas);
+	}
+}
@@ -0,0 +1,118 @@
+package com.vulfox.render;
+
+import android.graphics.Bitmap;
+
+/**
+ * A set of images packed into one or a few large bitmaps, created by an
+ * {@link AtlasBuilder}. Looking up a sprite does not allocate.
+ */
+public class TextureAtlas {
+
+	/**
+	 * Atlas bitmaps
+	 */
+	private final Bitmap[] mPages;
+
+	/**
+	 * Resource IDs of the sprites in ascending order
+	 */
+	private final int[] mResourceIDs;
+
+	/**
+	 * Sprites in the same order as the resource IDs
+	 */
+	private final Sprite[] mSprites;
+
+	/**
+	 * Creates an atlas
+	 * 
+	 * @param pages
+	 *            Atlas bitmaps
+	 * @param sprites
+	 *            Sprites sorted by resource ID
+	 */
+	TextureAtlas(Bitmap[] pages, Sprite[] sprites) {
+		mPages = pages;
+		mSprites = sprites;
+		mResourceIDs = new int[sprites.length];
+		for (int i = 0; i < sprites.length; i++) {
+			mResourceIDs[i] = sprites[i].getResourceID();
+		}
+	}
+
+	/**
+	 * Returns the sprite of a packed resource
+	 * 
+	 * @param resourceID
+	 *            Resource ID
+	 * @return The sprite or null if the resource is not in the atlas
+	 */
+	public Sprite getSprite(int resourceID) {
+		int low = 0;
+		int high = mResourceIDs.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int id = mResourceIDs[middle];
+			if (id < resourceID) {
+				low = middle + 1;
+			} else if (id > resourceID) {
+				high = middle - 1;
+			} else {
+				return mSprites[middle];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of sprites in the atlas
+	 * 
+	 * @return Sprite count
+	 */
+	public int getSpriteCount() {
+		return mSprites.length;
+	}
+
+	/**
+	 * Returns a sprite by index, sprites are ordered by resource ID
+	 * 
+	 * @param index
+	 * @return The sprite
+	 */
+	public Sprite getSpriteAt(int index) {
+		return mSprites[index];
+	}
+
+	public int getPageCount() {
+		return mPages.length;
+	}
+
+	public Bitmap getPage(int page) {
+		return mPages[page];
+	}
+
+	/**
+	 * Registers the atlas pages with a render backend. The pages get
+	 * consecutive ids, so the id of a sprite's page is the returned id plus
+	 * {@link Sprite#getPage()}.
+	 * 
+	 * @param backend
+	 * @return Id of the first page
+	 */
+	public int registerPages(CanvasRenderBackend backend) {
+		int firstId = backend.addBitmap(mPages[0]);
+		for (int i = 1; i < mPages.length; i++) {
+			backend.addBitmap(mPages[i]);
+		}
+		return firstId;
+	}
+
+	/**
+	 * Frees the atlas bitmaps. The sprites must not be drawn after this.
+	 */
+	public void recycle() {
+		for (Bitmap page : mPages) {
+			page.recycle();
+		}
+	}
+}
@@ -0,0 +1,342 @@
+package com.vulfox.text;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import com.vulfox.render.RenderCommandBuffer;
+
+/**
+ * Draws text from a {@link GlyphAtlas}. A string is first laid out into a
+ * batch of glyph quads and the whole batch is then drawn from the atlas page,
+ * either straight to a canvas or into a {@link RenderCommandBuffer} where the
+ * quads sort together with everything else using the page. Text is read
+ * from char arrays or character sequences such as {@link TextBuilder}, and
+ * nothing is allocated once the batch is large enough for the longest text.
+ * 
+ * Like {@link Canvas#drawText(String, float, float, Paint)}, the y
+ * coordinate is the baseline of the first line. Line breaks start a new
+ * line, and each line is aligned on its own.
+ */
+public class BitmapFontRenderer {
+
+	/**
+	 * Text starts at the x coordinate
+	 */
+	public static final int ALIGN_LEFT = 0;
+
+	/**
+	 * Text is centered on the x coordinate
+	 */
+	public static final int ALIGN_CENTER = 1;
+
+	/**
+	 * Text ends at the x coordinate
+	 */
+	public static final int ALIGN_RIGHT = 2;
+
+	/**
+	 * Number of values stored per quad
+	 */
+	private static final int QUAD_STRIDE = 4;
+
+	/**
+	 * Glyphs to draw
+	 */
+	private final GlyphAtlas mAtlas;
+
+	/**
+	 * Horizontal alignment, one of the ALIGN constants
+	 */
+	private int mAlign = ALIGN_LEFT;
+
+	/**
+	 * Size relative to the size the atlas was made with
+	 */
+	private float mScale = 1.0f;
+
+	/**
+	 * Destination rectangles of the laid out glyphs, four values per quad
+	 */
+	private float[] mQuads;
+
+	/**
+	 * Glyph index of each laid out quad
+	 */
+	private int[] mGlyphs;
+
+	/**
+	 * Reused source and destination rectangles
+	 */
+	private final Rect mSource = new Rect();
+	private final RectF mDestination = new RectF();
+
+	/**
+	 * Creates a renderer for an atlas
+	 * 
+	 * @param atlas
+	 *            The glyphs
+	 * @param capacity
+	 *            Number of glyphs that can be drawn in one call before the
+	 *            batch grows
+	 */
+	public BitmapFontRenderer(GlyphAtlas atlas, int capacity) {
+		mAtlas = atlas;
+		mQuads = new float[Math.max(1, capacity) * QUAD_STRIDE];
+		mGlyphs = new int[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Draws text to a canvas
+	 * 
+	 * @param canvas
+	 * @param text
+	 * @param x
+	 * @param y
+	 *            Baseline of the first line
+	 * @param paint
+	 *            Paint or null, for example with a color filter to tint the
+	 *            glyphs
+	 */
+	public void draw(Canvas canvas, CharSequence text, float x, float y,
+			Paint paint) {
+		if (text instanceof TextBuilder) {
+			TextBuilder builder = (TextBuilder) text;
+			draw(canvas, builder.getChars(), 0, builder.length(), x, y, paint);
+		} else {
+			drawBatch(canvas, layout(null, text, 0, text.length(), x, y), paint);
+		}
+	}
+
+	/**
+	 * Draws a part of a character array to a canvas
+	 * 
+	 * @param canvas
+	 * @param chars
+	 * @param offset
+	 *            First character
+	 * @param count
+	 *            Number of characters
+	 * @param x
+	 * @param y
+	 *            Baseline of the first line
+	 * @param paint
+	 *            Paint or null
+	 */
+	public void draw(Canvas canvas, char[] chars, int offset, int count,
+			float x, float y, Paint paint) {
+		drawBatch(canvas, layout(chars, null, offset, offset + count, x, y),
+				paint);
+	}
+
+	/**
+	 * Records text into a command buffer
+	 * 
+	 * @param buffer
+	 * @param layer
+	 *            Layer to draw in
+	 * @param bitmapId
+	 *            Id the atlas page is registered with
+	 * @param text
+	 * @param x
+	 * @param y
+	 *            Baseline of the first line
+	 * @param paintId
+	 *            Paint id or {@link RenderCommandBuffer#NO_PAINT}
+	 */
+	public void submit(RenderCommandBuffer buffer, int layer, int bitmapId,
+			CharSequence text, float x, float y, int paintId) {
+		int count;
+		if (text instanceof TextBuilder) {
+			TextBuilder builder = (TextBuilder) text;
+			count = layout(builder.getChars(), null, 0, builder.length(), x, y);
+		} else {
+			count = layout(null, text, 0, text.length(), x, y);
+		}
+
+		for (int i = 0; i < count; i++) {
+			int glyph = mGlyphs[i];
+			int q = i * QUAD_STRIDE;
+			buffer.drawBitmap(layer, bitmapId, mAtlas.getSourceLeft(glyph),
+					mAtlas.getSourceTop(glyph), mAtlas.getSourceRight(glyph),
+					mAtlas.getSourceBottom(glyph), mQuads[q], mQuads[q + 1],
+					mQuads[q + 2], mQuads[q + 3], paintId);
+		}
+	}
+
+	/**
+	 * Returns the width of the widest line of a text
+	 * 
+	 * @param text
+	 * @return Width in pixels
+	 */
+	public float measure(CharSequence text) {
+		if (text instanceof TextBuilder) {
+			TextBuilder builder = (TextBuilder) text;
+			return measure(builder.getChars(), null, 0, builder.length());
+		}
+		return measure(null, text, 0, text.length());
+	}
+
+	/**
+	 * Returns the width of the widest line of a part of a character array
+	 * 
+	 * @param chars
+	 * @param offset
+	 * @param count
+	 * @return Width in pixels
+	 */
+	public float measure(char[] chars, int offset, int count) {
+		return measure(chars, null, offset, offset + count);
+	}
+
+	/**
+	 * Returns the distance between two lines at the current scale
+	 * 
+	 * @return Line height in pixels
+	 */
+	public float getLineHeight() {
+		return mAtlas.getLineHeight() * mScale;
+	}
+
+	public int getAlign() {
+		return mAlign;
+	}
+
+	/**
+	 * Sets the horizontal alignment
+	 * 
+	 * @param align
+	 *            One of the ALIGN constants
+	 */
+	public void setAlign(int align) {
+		mAlign = align;
+	}
+
+	public float getScale() {
+		return mScale;
+	}
+
+	/**
+	 * Sets the size of the text relative to the size the atlas was made with
+	 * 
+	 * @param scale
+	 */
+	public void setScale(float scale) {
+		mScale = scale;
+	}
+
+	public GlyphAtlas getAtlas() {
+		return mAtlas;
+	}
+
+	/**
+	 * Draws the laid out quads
+	 */
+	private void drawBatch(Canvas canvas, int count, Paint paint) {
+		Bitmap page = mAtlas.getPage();
+		for (int i = 0; i < count; i++) {
+			int glyph = mGlyphs[i];
+			int q = i * QUAD_STRIDE;
+			mSource.set(mAtlas.getSourceLeft(glyph), mAtlas.getSourceTop(glyph),
+					mAtlas.getSourceRight(glyph), mAtlas.getSourceBottom(glyph));
+			mDestination.set(mQuads[q], mQuads[q + 1], mQuads[q + 2],
+					mQuads[q + 3]);
+			canvas.drawBitmap(page, mSource, mDestination, paint);
+		}
+	}
+
+	/**
+	 * Lays out text into the quad batch. The characters are read from the
+	 * array if it is not null and from the sequence otherwise.
+	 * 
+	 * @return Number of quads
+	 */
+	private int layout(char[] chars, CharSequence text, int start, int end,
+			float x, float y) {
+		ensureCapacity(end - start);
+
+		float top = y - mAtlas.getBase() * mScale;
+		float lineHeight = mAtlas.getLineHeight() * mScale;
+		int count = 0;
+		int lineStart = start;
+		while (lineStart <= end) {
+			int lineEnd = lineStart;
+			while (lineEnd < end && charAt(chars, text, lineEnd) != '\n') {
+				lineEnd++;
+			}
+
+			float penX = x;
+			if (mAlign != ALIGN_LEFT) {
+				float width = measureLine(chars, text, lineStart, lineEnd);
+				penX -= mAlign == ALIGN_CENTER ? width * 0.5f : width;
+			}
+
+			for (int i = lineStart; i < lineEnd; i++) {
+				int glyph = mAtlas.getGlyph(charAt(chars, text, i));
+				if (glyph < 0) {
+					continue;
+				}
+
+				int width = mAtlas.getSourceRight(glyph)
+						- mAtlas.getSourceLeft(glyph);
+				int height = mAtlas.getSourceBottom(glyph)
+						- mAtlas.getSourceTop(glyph);
+				if (width > 0 && height > 0) {
+					float left = penX + mAtlas.getOffsetX(glyph) * mScale;
+					float glyphTop = top + mAtlas.getOffsetY(glyph) * mScale;
+					int q = count * QUAD_STRIDE;
+					mQuads[q] = left;
+					mQuads[q + 1] = glyphTop;
+					mQuads[q + 2] = left + width * mScale;
+					mQuads[q + 3] = glyphTop + height * mScale;
+					mGlyphs[count++] = glyph;
+				}
+				penX += mAtlas.getAdvance(glyph) * mScale;
+			}
+
+			top += lineHeight;
+			lineStart = lineEnd + 1;
+		}
+		return count;
+	}
+
+	private float measure(char[] chars, CharSequence text, int start, int end) {
+		float width = 0;
+		int lineStart = start;
+		while (lineStart <= end) {
+			int lineEnd = lineStart;
+			while (lineEnd < end && charAt(chars, text, lineEnd) != '\n') {
+				lineEnd++;
+			}
+			width = Math.max(width, measureLine(chars, text, lineStart, lineEnd));
+			lineStart = lineEnd + 1;
+		}
+		return width;
+	}
+
+	private float measureLine(char[] chars, CharSequence text, int start,
+			int end) {
+		float width = 0;
+		for (int i = start; i < end; i++) {
+			int glyph = mAtlas.getGlyph(charAt(chars, text, i));
+			if (glyph >= 0) {
+				width += mAtlas.getAdvance(glyph);
+			}
+		}
+		return width * mScale;
+	}
+
+	private static char charAt(char[] chars, CharSequence text, int index) {
+		return chars != null ? chars[index] : text.charAt(index);
+	}
+
+	private void ensureCapacity(int count) {
+		if (count > mGlyphs.length) {
+			mGlyphs = new int[count];
+			mQuads = new float[count * QUAD_STRIDE];
+		}
+	}
+}
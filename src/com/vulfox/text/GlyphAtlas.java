@@ -0,0 +1,435 @@
+package com.vulfox.text;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import com.vulfox.render.SkylinePacker;
+
+/**
+ * A bitmap with every glyph of a font, and where each glyph is and how it is
+ * placed relative to the pen position. Atlases are baked at runtime from a
+ * {@link Typeface} or loaded from a bitmap font in the text format of
+ * AngelCode BMFont. Glyph placement is measured from the top of the line,
+ * like BMFont does.
+ */
+public class GlyphAtlas {
+
+	/**
+	 * Characters printable in ASCII, a good default for baking
+	 */
+	public static final String ASCII = " !\"#$%&'()*+,-./0123456789:;<=>?@"
+			+ "ABCDEFGHIJKLMNOPQRSTUVWXYZ[\\]^_`abcdefghijklmnopqrstuvwxyz{|}~";
+
+	/**
+	 * Largest page size tried when baking
+	 */
+	private static final int MAX_PAGE_SIZE = 2048;
+
+	/**
+	 * Empty pixels around every baked glyph, so filtering does not pick up
+	 * neighbours
+	 */
+	private static final int PADDING = 1;
+
+	/**
+	 * Number of values stored per glyph for the source rectangle
+	 */
+	private static final int SOURCE_STRIDE = 4;
+
+	/**
+	 * Characters below this value are looked up in a table
+	 */
+	private static final int TABLE_SIZE = 128;
+
+	/**
+	 * Bitmap holding the glyphs
+	 */
+	private final Bitmap mPage;
+
+	/**
+	 * Distance between two lines in pixels
+	 */
+	private final float mLineHeight;
+
+	/**
+	 * Distance from the top of a line to the baseline in pixels
+	 */
+	private final float mBase;
+
+	/**
+	 * Characters with a glyph, sorted
+	 */
+	private final char[] mChars;
+
+	/**
+	 * Source rectangles on the page, four values per glyph
+	 */
+	private final int[] mSource;
+
+	/**
+	 * Offsets from the pen position to the top left corner of each glyph,
+	 * two values per glyph
+	 */
+	private final float[] mOffsets;
+
+	/**
+	 * How far the pen moves after each glyph
+	 */
+	private final float[] mAdvances;
+
+	/**
+	 * Glyph index of the characters below TABLE_SIZE, -1 for none
+	 */
+	private final short[] mTable = new short[TABLE_SIZE];
+
+	/**
+	 * Glyph drawn for characters that are missing, -1 for none
+	 */
+	private final int mFallbackGlyph;
+
+	/**
+	 * Creates an atlas from glyph data sorted by character
+	 */
+	GlyphAtlas(Bitmap page, float lineHeight, float base, char[] chars,
+			int[] source, float[] offsets, float[] advances) {
+		mPage = page;
+		mLineHeight = lineHeight;
+		mBase = base;
+		mChars = chars;
+		mSource = source;
+		mOffsets = offsets;
+		mAdvances = advances;
+
+		Arrays.fill(mTable, (short) -1);
+		for (int i = 0; i < chars.length && chars[i] < TABLE_SIZE; i++) {
+			mTable[chars[i]] = (short) i;
+		}
+		mFallbackGlyph = findGlyph('?');
+	}
+
+	/**
+	 * Renders characters of a typeface into a new atlas
+	 * 
+	 * @param typeface
+	 *            Typeface or null for the default
+	 * @param textSize
+	 *            Text size in pixels
+	 * @param color
+	 *            Glyph color. Bake white and set a color filter on the paint
+	 *            to draw the same atlas in several colors.
+	 * @param characters
+	 *            Characters to include, for example {@link #ASCII}
+	 * @return The atlas
+	 */
+	public static GlyphAtlas bake(Typeface typeface, float textSize,
+			int color, CharSequence characters) {
+		Paint paint = new Paint();
+		paint.setAntiAlias(true);
+		paint.setTypeface(typeface);
+		paint.setTextSize(textSize);
+		paint.setColor(color);
+
+		char[] chars = getSortedChars(characters);
+		int count = chars.length;
+		float base = (float) Math.ceil(-paint.ascent());
+		float lineHeight = base + (float) Math.ceil(paint.descent());
+
+		int[] source = new int[count * SOURCE_STRIDE];
+		float[] offsets = new float[count * 2];
+		float[] advances = new float[count];
+		paint.getTextWidths(chars, 0, count, advances);
+
+		// Measure every glyph, the source rectangle temporarily holds its
+		// bounds relative to the pen position on the baseline
+		Rect bounds = new Rect();
+		for (int i = 0; i < count; i++) {
+			paint.getTextBounds(chars, i, 1, bounds);
+			int s = i * SOURCE_STRIDE;
+			source[s] = bounds.left;
+			source[s + 1] = bounds.top;
+			source[s + 2] = bounds.width();
+			source[s + 3] = bounds.height();
+			offsets[i * 2] = bounds.left;
+			offsets[i * 2 + 1] = base + bounds.top;
+		}
+
+		// Find the smallest page the glyphs fit on
+		int[] positions = new int[count * 2];
+		SkylinePacker packer = null;
+		for (int size = 128; packer == null; size *= 2) {
+			if (size > MAX_PAGE_SIZE) {
+				throw new IllegalArgumentException("Glyphs do not fit on a "
+						+ MAX_PAGE_SIZE + " pixel page");
+			}
+			packer = new SkylinePacker(size, size);
+			for (int i = 0; i < count && packer != null; i++) {
+				int width = source[i * SOURCE_STRIDE + 2];
+				int height = source[i * SOURCE_STRIDE + 3];
+				if (width == 0 || height == 0) {
+					continue;
+				}
+				if (packer.pack(width + PADDING * 2, height + PADDING * 2)) {
+					positions[i * 2] = packer.getPackedX() + PADDING;
+					positions[i * 2 + 1] = packer.getPackedY() + PADDING;
+				} else {
+					packer = null;
+				}
+			}
+		}
+
+		Bitmap page = Bitmap.createBitmap(packer.getWidth(),
+				Math.max(1, packer.getUsedHeight()), Bitmap.Config.ARGB_8888);
+		Canvas canvas = new Canvas(page);
+		for (int i = 0; i < count; i++) {
+			int s = i * SOURCE_STRIDE;
+			int left = source[s];
+			int top = source[s + 1];
+			int width = source[s + 2];
+			int height = source[s + 3];
+			int x = positions[i * 2];
+			int y = positions[i * 2 + 1];
+			if (width > 0 && height > 0) {
+				canvas.drawText(chars, i, 1, x - left, y - top, paint);
+			}
+			source[s] = x;
+			source[s + 1] = y;
+			source[s + 2] = x + width;
+			source[s + 3] = y + height;
+		}
+
+		return new GlyphAtlas(page, lineHeight, base, chars, source, offsets,
+				advances);
+	}
+
+	/**
+	 * Loads a bitmap font description in the BMFont text format. Only fonts
+	 * with a single page are supported. Kerning pairs are ignored.
+	 * 
+	 * @param description
+	 *            Stream with the .fnt file, closed when done
+	 * @param page
+	 *            The decoded page image
+	 * @return The atlas
+	 * @throws IOException
+	 *             If the description could not be read
+	 */
+	public static GlyphAtlas loadBMFont(InputStream description, Bitmap page)
+			throws IOException {
+		float lineHeight = 0;
+		float base = 0;
+		int count = 0;
+		int[] ids = new int[TABLE_SIZE];
+		int[] values = new int[TABLE_SIZE * 7];
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				description, "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("common ")) {
+					lineHeight = getValue(line, "lineHeight");
+					base = getValue(line, "base");
+					if (getValue(line, "pages") > 1) {
+						throw new IllegalArgumentException(
+								"Only single page fonts are supported");
+					}
+				} else if (line.startsWith("char ")) {
+					int id = getValue(line, "id");
+					if (id < 0 || id > Character.MAX_VALUE) {
+						continue;
+					}
+					if (count == ids.length) {
+						ids = grow(ids, count * 2);
+						values = grow(values, count * 2 * 7);
+					}
+					ids[count] = id;
+					int v = count * 7;
+					values[v] = getValue(line, "x");
+					values[v + 1] = getValue(line, "y");
+					values[v + 2] = getValue(line, "width");
+					values[v + 3] = getValue(line, "height");
+					values[v + 4] = getValue(line, "xoffset");
+					values[v + 5] = getValue(line, "yoffset");
+					values[v + 6] = getValue(line, "xadvance");
+					count++;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		// Sort by character, packing id and index into one value
+		long[] order = new long[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = ((long) ids[i] << 32) | i;
+		}
+		Arrays.sort(order);
+
+		char[] chars = new char[count];
+		int[] source = new int[count * SOURCE_STRIDE];
+		float[] offsets = new float[count * 2];
+		float[] advances = new float[count];
+		for (int i = 0; i < count; i++) {
+			int v = (int) order[i] * 7;
+			int s = i * SOURCE_STRIDE;
+			chars[i] = (char) (order[i] >>> 32);
+			source[s] = values[v];
+			source[s + 1] = values[v + 1];
+			source[s + 2] = values[v] + values[v + 2];
+			source[s + 3] = values[v + 1] + values[v + 3];
+			offsets[i * 2] = values[v + 4];
+			offsets[i * 2 + 1] = values[v + 5];
+			advances[i] = values[v + 6];
+		}
+
+		return new GlyphAtlas(page, lineHeight, base, chars, source, offsets,
+				advances);
+	}
+
+	/**
+	 * Returns the glyph of a character
+	 * 
+	 * @param c
+	 * @return Glyph index, the fallback glyph if the character is missing or
+	 *         -1 if there is no fallback glyph either
+	 */
+	public int getGlyph(char c) {
+		int glyph = c < TABLE_SIZE ? mTable[c] : findGlyph(c);
+		return glyph >= 0 ? glyph : mFallbackGlyph;
+	}
+
+	/**
+	 * Returns the number of glyphs
+	 * 
+	 * @return Glyph count
+	 */
+	public int getGlyphCount() {
+		return mChars.length;
+	}
+
+	public float getAdvance(int glyph) {
+		return mAdvances[glyph];
+	}
+
+	public float getOffsetX(int glyph) {
+		return mOffsets[glyph * 2];
+	}
+
+	public float getOffsetY(int glyph) {
+		return mOffsets[glyph * 2 + 1];
+	}
+
+	public int getSourceLeft(int glyph) {
+		return mSource[glyph * SOURCE_STRIDE];
+	}
+
+	public int getSourceTop(int glyph) {
+		return mSource[glyph * SOURCE_STRIDE + 1];
+	}
+
+	public int getSourceRight(int glyph) {
+		return mSource[glyph * SOURCE_STRIDE + 2];
+	}
+
+	public int getSourceBottom(int glyph) {
+		return mSource[glyph * SOURCE_STRIDE + 3];
+	}
+
+	public float getLineHeight() {
+		return mLineHeight;
+	}
+
+	/**
+	 * Returns the distance from the top of a line to the baseline
+	 * 
+	 * @return Base in pixels
+	 */
+	public float getBase() {
+		return mBase;
+	}
+
+	public Bitmap getPage() {
+		return mPage;
+	}
+
+	/**
+	 * Frees the page bitmap. The atlas must not be drawn after this.
+	 */
+	public void recycle() {
+		mPage.recycle();
+	}
+
+	private int findGlyph(char c) {
+		int index = Arrays.binarySearch(mChars, c);
+		return index >= 0 ? index : -1;
+	}
+
+	/**
+	 * Returns the unique characters of a sequence in order
+	 */
+	private static char[] getSortedChars(CharSequence characters) {
+		char[] chars = new char[characters.length()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = characters.charAt(i);
+		}
+		Arrays.sort(chars);
+
+		int count = 0;
+		for (int i = 0; i < chars.length; i++) {
+			if (count == 0 || chars[count - 1] != chars[i]) {
+				chars[count++] = chars[i];
+			}
+		}
+		char[] unique = new char[count];
+		System.arraycopy(chars, 0, unique, 0, count);
+		return unique;
+	}
+
+	/**
+	 * Copies an array into a larger one. Arrays.copyOf needs API level 9.
+	 */
+	private static int[] grow(int[] array, int length) {
+		int[] grown = new int[length];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * Reads an integer value from a line of a BMFont description
+	 * 
+	 * @return The value or 0 if it is missing
+	 */
+	private static int getValue(String line, String key) {
+		int start = 0;
+		while (true) {
+			start = line.indexOf(key + "=", start);
+			if (start < 0) {
+				return 0;
+			}
+			if (start == 0 || line.charAt(start - 1) == ' ') {
+				break;
+			}
+			start += key.length();
+		}
+
+		start += key.length() + 1;
+		int end = start;
+		while (end < line.length() && line.charAt(end) != ' ') {
+			end++;
+		}
+		try {
+			return Integer.parseInt(line.substring(start, end));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package com.vulfox.text;
+
+/**
+ * A reusable character buffer for text that changes every frame, such as
+ * scores, timers and frame rates. Numbers are formatted straight into the
+ * buffer, so building the text allocates nothing once the buffer is large
+ * enough. Clear and refill it every frame instead of creating strings.
+ */
+public class TextBuilder implements CharSequence {
+
+	/**
+	 * Digits of the lowest long, which can not be negated
+	 */
+	private static final String MIN_LONG = "-9223372036854775808";
+
+	/**
+	 * Highest number of decimals when appending floats
+	 */
+	public static final int MAX_DECIMALS = 9;
+
+	/**
+	 * Powers of ten up to MAX_DECIMALS
+	 */
+	private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L,
+			10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+
+	/**
+	 * The characters
+	 */
+	private char[] mChars;
+
+	/**
+	 * Number of characters in use
+	 */
+	private int mLength;
+
+	/**
+	 * Creates an empty builder
+	 * 
+	 * @param capacity
+	 *            Number of characters that fit before the buffer grows
+	 */
+	public TextBuilder(int capacity) {
+		mChars = new char[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Removes all characters
+	 * 
+	 * @return This builder
+	 */
+	public TextBuilder clear() {
+		mLength = 0;
+		return this;
+	}
+
+	public TextBuilder append(char c) {
+		ensureCapacity(mLength + 1);
+		mChars[mLength++] = c;
+		return this;
+	}
+
+	public TextBuilder append(CharSequence text) {
+		return append(text, 0, text.length());
+	}
+
+	/**
+	 * Appends a part of a character sequence
+	 * 
+	 * @param text
+	 * @param start
+	 *            First character
+	 * @param end
+	 *            Exclusive last character
+	 * @return This builder
+	 */
+	public TextBuilder append(CharSequence text, int start, int end) {
+		ensureCapacity(mLength + end - start);
+		if (text instanceof String) {
+			((String) text).getChars(start, end, mChars, mLength);
+			mLength += end - start;
+		} else {
+			for (int i = start; i < end; i++) {
+				mChars[mLength++] = text.charAt(i);
+			}
+		}
+		return this;
+	}
+
+	public TextBuilder append(char[] chars, int offset, int count) {
+		ensureCapacity(mLength + count);
+		System.arraycopy(chars, offset, mChars, mLength, count);
+		mLength += count;
+		return this;
+	}
+
+	public TextBuilder append(int value) {
+		return append((long) value);
+	}
+
+	public TextBuilder append(long value) {
+		return appendPadded(value, 1);
+	}
+
+	/**
+	 * Appends a number with leading zeros, for example 7 with two digits
+	 * gives "07"
+	 * 
+	 * @param value
+	 * @param minDigits
+	 *            Lowest number of digits, not counting the sign
+	 * @return This builder
+	 */
+	public TextBuilder appendPadded(long value, int minDigits) {
+		if (value == Long.MIN_VALUE) {
+			return append(MIN_LONG);
+		}
+		if (value < 0) {
+			append('-');
+			value = -value;
+		}
+
+		int digits = 1;
+		for (long rest = value / 10; rest > 0; rest /= 10) {
+			digits++;
+		}
+		digits = Math.max(digits, minDigits);
+
+		ensureCapacity(mLength + digits);
+		int end = mLength + digits;
+		for (int i = end - 1; i >= mLength; i--) {
+			mChars[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		mLength = end;
+		return this;
+	}
+
+	/**
+	 * Appends a number rounded to a fixed number of decimals. Values too
+	 * large to be scaled to that many decimals within a long get fewer
+	 * decimals.
+	 * 
+	 * @param value
+	 * @param decimals
+	 *            Number of decimals, at most {@link #MAX_DECIMALS}
+	 * @return This builder
+	 */
+	public TextBuilder append(float value, int decimals) {
+		if (value != value) {
+			return append("NaN");
+		}
+		if (Float.isInfinite(value)) {
+			return append(value > 0 ? "Infinity" : "-Infinity");
+		}
+
+		decimals = Math.max(0, Math.min(decimals, MAX_DECIMALS));
+		double magnitude = Math.abs((double) value);
+		while (decimals > 0 && magnitude * POWERS_OF_TEN[decimals] >= Long.MAX_VALUE) {
+			decimals--;
+		}
+		long scale = POWERS_OF_TEN[decimals];
+		long scaled = Math.round(magnitude * scale);
+		if (value < 0 && scaled != 0) {
+			append('-');
+		}
+
+		append(scaled / scale);
+		if (decimals > 0) {
+			append('.');
+			appendPadded(scaled % scale, decimals);
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the buffer holding the characters. Only the first
+	 * {@link #length()} characters are valid and the buffer is replaced when
+	 * it grows.
+	 * 
+	 * @return The character buffer
+	 */
+	public char[] getChars() {
+		return mChars;
+	}
+
+	/**
+	 * Shortens the text
+	 * 
+	 * @param length
+	 *            New length, at most the current length
+	 */
+	public void setLength(int length) {
+		if (length < 0 || length > mLength) {
+			throw new IndexOutOfBoundsException("Length " + length
+					+ " outside 0 to " + mLength);
+		}
+		mLength = length;
+	}
+
+	public int length() {
+		return mLength;
+	}
+
+	public char charAt(int index) {
+		if (index >= mLength) {
+			throw new IndexOutOfBoundsException("Index " + index
+					+ " outside length " + mLength);
+		}
+		return mChars[index];
+	}
+
+	/**
+	 * Returns a part of the text as a new string. Allocates, avoid calling it
+	 * every frame.
+	 */
+	public CharSequence subSequence(int start, int end) {
+		return new String(mChars, start, end - start);
+	}
+
+	/**
+	 * Returns the text as a new string. Allocates, avoid calling it every
+	 * frame.
+	 */
+	@Override
+	public String toString() {
+		return new String(mChars, 0, mLength);
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > mChars.length) {
+			char[] grown = new char[Math.max(capacity, mChars.length * 2)];
+			System.arraycopy(mChars, 0, grown, 0, mLength);
+			mChars = grown;
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package com.vulfox.timing;
+
+/**
+ * Keeps track of the refresh rate and frame rate divisor of a pacer and
+ * adapts the divisor to the measured frame times.
+ */
+public abstract class AbstractFramePacer implements FramePacer {
+
+	/**
+	 * Refresh rate assumed when the display does not report one
+	 */
+	public static final float DEFAULT_REFRESH_RATE = 60.0f;
+
+	/**
+	 * Highest divisor the adaptive frame rate steps down to
+	 */
+	public static final int MAX_ADAPTIVE_DIVISOR = 3;
+
+	/**
+	 * Number of frames measured before the divisor may change
+	 */
+	private static final int WINDOW_FRAMES = 60;
+
+	/**
+	 * Number of windows in a row with enough headroom before the frame rate
+	 * is raised, so it does not go back and forth
+	 */
+	private static final int STEP_UP_WINDOWS = 4;
+
+	/**
+	 * Fraction of the faster frame interval a frame may use for the frame
+	 * rate to be raised
+	 */
+	private static final float STEP_UP_HEADROOM = 0.75f;
+
+	/**
+	 * Time between display refreshes in nanoseconds
+	 */
+	private final long mRefreshInterval;
+
+	/**
+	 * Display refreshes per second
+	 */
+	private final float mRefreshRate;
+
+	/**
+	 * Divisor of the target frame rate, the lowest divisor used
+	 */
+	private int mTargetDivisor = 1;
+
+	/**
+	 * Current divisor
+	 */
+	private volatile int mDivisor = 1;
+
+	/**
+	 * Indicates if the divisor adapts to the frame times
+	 */
+	private boolean mAdaptive = true;
+
+	/**
+	 * Frames measured in the current window
+	 */
+	private int mWindowFrames;
+
+	/**
+	 * Frames in the current window that were over budget
+	 */
+	private int mOverBudgetFrames;
+
+	/**
+	 * Frames in the current window that would not fit the faster frame rate
+	 */
+	private int mSlowFrames;
+
+	/**
+	 * Windows in a row where every frame would fit the faster frame rate
+	 */
+	private int mFastWindows;
+
+	/**
+	 * Creates a pacer for a display
+	 * 
+	 * @param refreshRate
+	 *            Display refreshes per second, 0 or less for the default
+	 */
+	protected AbstractFramePacer(float refreshRate) {
+		mRefreshRate = refreshRate > 0 ? refreshRate : DEFAULT_REFRESH_RATE;
+		mRefreshInterval = Math.round(1000000000.0 / mRefreshRate);
+	}
+
+	public float getRefreshRate() {
+		return mRefreshRate;
+	}
+
+	public synchronized void setTargetFrameRate(float framesPerSecond) {
+		mTargetDivisor = Math.max(1, Math.round(mRefreshRate / framesPerSecond));
+		mDivisor = mTargetDivisor;
+		resetWindow();
+		mFastWindows = 0;
+	}
+
+	public int getRateDivisor() {
+		return mDivisor;
+	}
+
+	public long getFrameInterval() {
+		return mRefreshInterval * mDivisor;
+	}
+
+	public synchronized void setAdaptive(boolean adaptive) {
+		mAdaptive = adaptive;
+		if (!adaptive) {
+			mDivisor = mTargetDivisor;
+		}
+	}
+
+	public synchronized boolean isAdaptive() {
+		return mAdaptive;
+	}
+
+	/**
+	 * Returns the time between display refreshes
+	 * 
+	 * @return Refresh interval in nanoseconds
+	 */
+	protected long getRefreshInterval() {
+		return mRefreshInterval;
+	}
+
+	/**
+	 * Measures the work time of a frame and changes the divisor once a window
+	 * of frames has been measured. Steps down when more than half of the
+	 * window was over budget, and steps up after several windows where every
+	 * frame would have fit the faster frame rate with headroom to spare.
+	 * 
+	 * @param workTime
+	 *            Time the frame took before waiting, in nanoseconds
+	 */
+	protected synchronized void recordWorkTime(long workTime) {
+		if (!mAdaptive) {
+			return;
+		}
+
+		long interval = getFrameInterval();
+		if (workTime > interval) {
+			mOverBudgetFrames++;
+		}
+		if (workTime > (interval - mRefreshInterval) * STEP_UP_HEADROOM) {
+			mSlowFrames++;
+		}
+		if (++mWindowFrames < WINDOW_FRAMES) {
+			return;
+		}
+
+		if (mOverBudgetFrames * 2 > WINDOW_FRAMES
+				&& mDivisor < MAX_ADAPTIVE_DIVISOR) {
+			mDivisor++;
+			mFastWindows = 0;
+		} else if (mDivisor > mTargetDivisor && mSlowFrames == 0) {
+			if (++mFastWindows >= STEP_UP_WINDOWS) {
+				mDivisor--;
+				mFastWindows = 0;
+			}
+		} else {
+			mFastWindows = 0;
+		}
+		resetWindow();
+	}
+
+	private void resetWindow() {
+		mWindowFrames = 0;
+		mOverBudgetFrames = 0;
+		mSlowFrames = 0;
+	}
+}
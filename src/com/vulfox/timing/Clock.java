@@ -0,0 +1,17 @@
+package com.vulfox.timing;
+
+/**
+ * Source of the time the game loop runs on. The game thread uses the system
+ * clock, a headless run uses a {@link SimulatedClock} so a game can be run
+ * faster than real time with deterministic time steps.
+ */
+public interface Clock {
+
+	/**
+	 * Returns the current time. Only differences between two calls are
+	 * meaningful.
+	 * 
+	 * @return Time in nanoseconds
+	 */
+	long nanoTime();
+}
@@ -0,0 +1,79 @@
+package com.vulfox.timing;
+
+/**
+ * Decides when the game thread starts its next frame. Frame rates are
+ * divisors of the display refresh rate, so every frame is shown for the same
+ * number of refreshes. On a 60 Hz display that means 60, 30 or 20 frames per
+ * second.
+ */
+public interface FramePacer {
+
+	/**
+	 * Starts pacing, called when the game thread starts or resumes
+	 */
+	void start();
+
+	/**
+	 * Stops pacing while the game thread is paused. A thread waiting for the
+	 * next frame returns right away.
+	 */
+	void stop();
+
+	/**
+	 * Stops pacing for good and frees any threads used for it
+	 */
+	void release();
+
+	/**
+	 * Waits until the next frame should start
+	 * 
+	 * @param frameStartTime
+	 *            {@link System#nanoTime()} when the frame that just ended
+	 *            started, used to measure how long the frame took
+	 * @return Start time of the next frame in the {@link System#nanoTime()}
+	 *         time base. With vsync this is the time of the display refresh,
+	 *         which is steadier than the time the thread woke up.
+	 */
+	long waitForNextFrame(long frameStartTime);
+
+	/**
+	 * Returns the display refresh rate the frame rates are derived from
+	 * 
+	 * @return Refreshes per second
+	 */
+	float getRefreshRate();
+
+	/**
+	 * Sets the highest frame rate, rounded to the nearest divisor of the
+	 * refresh rate
+	 * 
+	 * @param framesPerSecond
+	 */
+	void setTargetFrameRate(float framesPerSecond);
+
+	/**
+	 * Returns the number of display refreshes per frame at the current frame
+	 * rate
+	 * 
+	 * @return Rate divisor, 1 for the full refresh rate
+	 */
+	int getRateDivisor();
+
+	/**
+	 * Returns the time between frames at the current frame rate
+	 * 
+	 * @return Frame interval in nanoseconds
+	 */
+	long getFrameInterval();
+
+	/**
+	 * Enables lowering the frame rate to the next divisor when frames are
+	 * consistently over budget, and raising it again once there is plenty of
+	 * headroom
+	 * 
+	 * @param adaptive
+	 */
+	void setAdaptive(boolean adaptive);
+
+	boolean isAdaptive();
+}
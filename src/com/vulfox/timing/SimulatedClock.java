@@ -0,0 +1,39 @@
+package com.vulfox.timing;
+
+/**
+ * Clock that only moves when it is advanced. Time starts at zero.
+ */
+public class SimulatedClock implements Clock {
+
+	/**
+	 * Current time in nanoseconds
+	 */
+	private long mTime;
+
+	public long nanoTime() {
+		return mTime;
+	}
+
+	/**
+	 * Moves the clock forward
+	 * 
+	 * @param nanos
+	 *            Time to add in nanoseconds, not negative
+	 */
+	public void advance(long nanos) {
+		if (nanos < 0) {
+			throw new IllegalArgumentException("Time can not go backwards");
+		}
+		mTime += nanos;
+	}
+
+	/**
+	 * Sets the current time
+	 * 
+	 * @param nanos
+	 *            Time in nanoseconds
+	 */
+	public void setTime(long nanos) {
+		mTime = nanos;
+	}
+}
@@ -0,0 +1,47 @@
+package com.vulfox.timing;
+
+/**
+ * Paces frames on a {@link SimulatedClock} by advancing it to the start of
+ * the next frame instead of waiting, so frames run back to back with
+ * simulated time steps of exactly one frame interval. The frame rate does
+ * not adapt, since the simulated work time is always zero.
+ */
+public class SimulatedFramePacer extends AbstractFramePacer {
+
+	/**
+	 * Clock advanced by the pacer
+	 */
+	private final SimulatedClock mClock;
+
+	/**
+	 * Creates a pacer for a simulated display
+	 * 
+	 * @param clock
+	 *            Clock to advance
+	 * @param refreshRate
+	 *            Simulated refreshes per second, 0 or less for the default
+	 */
+	public SimulatedFramePacer(SimulatedClock clock, float refreshRate) {
+		super(refreshRate);
+		mClock = clock;
+		setAdaptive(false);
+	}
+
+	public void start() {
+	}
+
+	public void stop() {
+	}
+
+	public void release() {
+	}
+
+	public long waitForNextFrame(long frameStartTime) {
+		long nextFrameTime = frameStartTime + getFrameInterval();
+		long now = mClock.nanoTime();
+		if (nextFrameTime > now) {
+			mClock.advance(nextFrameTime - now);
+		}
+		return mClock.nanoTime();
+	}
+}
@@ -0,0 +1,57 @@
+package com.vulfox.timing;
+
+/**
+ * Paces frames by sleeping until a deadline. Deadlines follow each other at
+ * the frame interval instead of being measured from the end of each frame,
+ * so sleep inaccuracy does not add up. Used where vsync timestamps are not
+ * available.
+ */
+public class SleepFramePacer extends AbstractFramePacer {
+
+	/**
+	 * Start time of the next frame, 0 until the first frame
+	 */
+	private long mNextFrameTime;
+
+	/**
+	 * Creates a sleeping pacer
+	 * 
+	 * @param refreshRate
+	 *            Display refreshes per second, 0 or less for the default
+	 */
+	public SleepFramePacer(float refreshRate) {
+		super(refreshRate);
+	}
+
+	public void start() {
+		mNextFrameTime = 0;
+	}
+
+	public void stop() {
+	}
+
+	public void release() {
+	}
+
+	public long waitForNextFrame(long frameStartTime) {
+		long now = System.nanoTime();
+		recordWorkTime(now - frameStartTime);
+
+		if (mNextFrameTime == 0) {
+			mNextFrameTime = frameStartTime;
+		}
+		mNextFrameTime += getFrameInterval();
+		if (mNextFrameTime < now) {
+			// Late, start right away instead of trying to catch up
+			mNextFrameTime = now;
+			return now;
+		}
+
+		long sleepTime = mNextFrameTime - now;
+		try {
+			Thread.sleep(sleepTime / 1000000L, (int) (sleepTime % 1000000L));
+		} catch (InterruptedException e) {
+		}
+		return mNextFrameTime;
+	}
+}
@@ -0,0 +1,21 @@
+package com.vulfox.timing;
+
+/**
+ * Clock reading {@link System#nanoTime()}, the time base of the frame pacers
+ * and of the Choreographer vsync timestamps
+ */
+public final class SystemNanoClock implements Clock {
+
+	private static final SystemNanoClock sInstance = new SystemNanoClock();
+
+	private SystemNanoClock() {
+	}
+
+	public static SystemNanoClock getInstance() {
+		return sInstance;
+	}
+
+	public long nanoTime() {
+		return System.nanoTime();
+	}
+}
@@ -0,0 +1,175 @@
+package com.vulfox.timing;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.Choreographer;
+
+/**
+ * Paces frames by the display vsync, using {@link Choreographer} callbacks on
+ * a thread of its own. The game thread waits for the number of vsyncs given
+ * by the rate divisor and then starts its frame at the vsync timestamp.
+ * Requires API level 16, check {@link android.os.Build.VERSION#SDK_INT}
+ * before creating one.
+ */
+public class VsyncFramePacer extends AbstractFramePacer {
+
+	/**
+	 * Longest wait for a vsync in milliseconds before giving up, in case the
+	 * display stops sending them
+	 */
+	private static final long VSYNC_TIMEOUT = 100;
+
+	/**
+	 * Thread receiving the Choreographer callbacks, started by the first
+	 * {@link #start()} and ended by {@link #release()}
+	 */
+	private HandlerThread mThread;
+
+	/**
+	 * Handler of the callback thread
+	 */
+	private Handler mHandler;
+
+	/**
+	 * Choreographer of the callback thread, created on that thread
+	 */
+	private Choreographer mChoreographer;
+
+	/**
+	 * Guards the vsync state
+	 */
+	private final Object mLock = new Object();
+
+	/**
+	 * Number of vsyncs received
+	 */
+	private long mVsyncCount;
+
+	/**
+	 * Time of the last vsync
+	 */
+	private long mVsyncTime;
+
+	/**
+	 * Vsync the current frame started at
+	 */
+	private long mFrameVsync;
+
+	/**
+	 * Indicates if callbacks should keep being posted
+	 */
+	private boolean mRunning;
+
+	/**
+	 * Indicates if a callback is posted
+	 */
+	private boolean mPosted;
+
+	/**
+	 * Counts vsyncs and wakes the game thread
+	 */
+	private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+		public void doFrame(long frameTimeNanos) {
+			synchronized (mLock) {
+				mVsyncCount++;
+				mVsyncTime = frameTimeNanos;
+				mLock.notifyAll();
+				if (mRunning) {
+					mChoreographer.postFrameCallback(this);
+				} else {
+					mPosted = false;
+				}
+			}
+		}
+	};
+
+	/**
+	 * Posts the first callback on the callback thread
+	 */
+	private final Runnable mStartCallbacks = new Runnable() {
+		public void run() {
+			synchronized (mLock) {
+				if (mChoreographer == null) {
+					mChoreographer = Choreographer.getInstance();
+				}
+				mChoreographer.postFrameCallback(mFrameCallback);
+			}
+		}
+	};
+
+	/**
+	 * Creates a vsync pacer. Its callback thread is started by the first
+	 * {@link #start()}, so a pacer that is never started holds no thread.
+	 * 
+	 * @param refreshRate
+	 *            Display refreshes per second, 0 or less for the default
+	 */
+	public VsyncFramePacer(float refreshRate) {
+		super(refreshRate);
+	}
+
+	public void start() {
+		synchronized (mLock) {
+			if (mThread == null) {
+				mThread = new HandlerThread("VsyncFramePacer");
+				mThread.start();
+				mHandler = new Handler(mThread.getLooper());
+				// Callbacks posted on the old thread died with it
+				mChoreographer = null;
+				mPosted = false;
+			}
+			mRunning = true;
+			mFrameVsync = mVsyncCount;
+			if (!mPosted) {
+				mPosted = true;
+				mHandler.post(mStartCallbacks);
+			}
+		}
+	}
+
+	public void stop() {
+		synchronized (mLock) {
+			mRunning = false;
+			mLock.notifyAll();
+		}
+	}
+
+	public void release() {
+		synchronized (mLock) {
+			mRunning = false;
+			mLock.notifyAll();
+			if (mThread != null) {
+				mThread.quit();
+				mThread = null;
+				mHandler = null;
+			}
+		}
+	}
+
+	public long waitForNextFrame(long frameStartTime) {
+		recordWorkTime(System.nanoTime() - frameStartTime);
+
+		synchronized (mLock) {
+			long targetVsync = mFrameVsync + getRateDivisor();
+			while (mRunning && mVsyncCount < targetVsync) {
+				long vsyncCount = mVsyncCount;
+				try {
+					mLock.wait(VSYNC_TIMEOUT);
+				} catch (InterruptedException e) {
+				}
+				if (mVsyncCount == vsyncCount) {
+					// No vsync arrived, the display may be off
+					return System.nanoTime();
+				}
+			}
+
+			if (!mRunning) {
+				return System.nanoTime();
+			}
+
+			// A late frame starts at the latest vsync instead of catching up
+			mFrameVsync = mVsyncCount;
+			return mVsyncTime;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.vulfox.util;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Base class of the object pools. Subclasses decide how released objects are
+ * stored and whether the pool can be shared between threads.
+ * 
+ * In debug mode the pool remembers every object it has handed out and throws
+ * an IllegalStateException when an object is released twice, or released
+ * without being acquired from the pool. Debug mode costs a map lookup per call
+ * and should be turned off in release builds.
+ * @param <E> Class to create a pool from
+ */
+public abstract class AbstractPool<E> {
+
+	/**
+	 * Default maximum number of released objects kept for reuse
+	 */
+	public static final int DEFAULT_MAX_RETAINED = 256;
+
+	/**
+	 * Debug mode of new pools
+	 */
+	private static volatile boolean sDefaultDebugEnabled;
+
+	/**
+	 * Objects that are acquired and not yet released, null when not in debug mode
+	 */
+	private volatile IdentityHashMap<E, Boolean> mDebugAcquired;
+
+	protected AbstractPool() {
+		// Not through setDebugEnabled, an override would run before the
+		// fields of the subclass are initialized
+		if (sDefaultDebugEnabled) {
+			mDebugAcquired = new IdentityHashMap<E, Boolean>();
+		}
+	}
+
+	/**
+	 * Sets the debug mode of pools created after this call, for example from
+	 * the debuggable flag of the application
+	 * @param enabled True to detect double releases
+	 */
+	public static void setDefaultDebugEnabled(boolean enabled) {
+		sDefaultDebugEnabled = enabled;
+	}
+
+	/**
+	 * Turns double release detection on or off. Objects acquired before
+	 * debug mode was turned on are not known to the pool, so this should be
+	 * called before the pool is used.
+	 * @param enabled True to detect double releases
+	 */
+	public void setDebugEnabled(boolean enabled) {
+		mDebugAcquired = enabled ? new IdentityHashMap<E, Boolean>() : null;
+	}
+
+	public boolean isDebugEnabled() {
+		return mDebugAcquired != null;
+	}
+
+	/**
+	 * Override to create a new instance of the pool object class
+	 * @return A new instance of E
+	 */
+	protected abstract E create();
+
+	/**
+	 * Override to reset an instance of a pool object class
+	 * @param poolObject Pool object to reset
+	 */
+	protected abstract void reset(E poolObject);
+
+	/**
+	 * Get an instance of the pool object class
+	 * @return An instance of the pool object class
+	 */
+	public abstract E aquire();
+
+	/**
+	 * Release an instance from the pool object class for later reuse
+	 * @param poolObject An instance from the pool object class that is no longer in use
+	 */
+	public abstract void release(E poolObject);
+
+	/**
+	 * Creates objects until the pool holds the specified number of released
+	 * objects or is full, so they do not have to be created during play
+	 * @param count Number of objects to keep ready
+	 */
+	public abstract void prewarm(int count);
+
+	/**
+	 * Returns the number of released objects waiting to be reused
+	 * @return Pooled object count
+	 */
+	public abstract int getPooledCount();
+
+	/**
+	 * Returns the maximum number of released objects kept for reuse. Objects
+	 * released into a full pool are left to the garbage collector.
+	 * @return Maximum pooled object count
+	 */
+	public abstract int getMaxRetained();
+
+	/**
+	 * Returns the number of calls to aquire
+	 * @return Acquire count
+	 */
+	public abstract long getAcquireCount();
+
+	/**
+	 * Returns the number of acquires served with a released object
+	 * @return Hit count
+	 */
+	public abstract long getHitCount();
+
+	/**
+	 * Returns the number of acquires that had to create an object
+	 * @return Miss count
+	 */
+	public abstract long getMissCount();
+
+	/**
+	 * Returns the largest number of objects that have been acquired and not
+	 * released at the same time
+	 * @return High water mark
+	 */
+	public abstract int getHighWaterMark();
+
+	/**
+	 * Returns the number of released objects that did not fit in the pool
+	 * @return Discard count
+	 */
+	public abstract long getDiscardCount();
+
+	/**
+	 * Records an object handed out by the pool when in debug mode
+	 * @param poolObject The acquired object
+	 */
+	protected final void debugAcquired(E poolObject) {
+		IdentityHashMap<E, Boolean> acquired = mDebugAcquired;
+		if (acquired != null) {
+			synchronized (acquired) {
+				acquired.put(poolObject, Boolean.TRUE);
+			}
+		}
+	}
+
+	/**
+	 * Checks that a released object is acquired when in debug mode
+	 * @param poolObject The released object
+	 */
+	protected final void debugReleased(E poolObject) {
+		IdentityHashMap<E, Boolean> acquired = mDebugAcquired;
+		if (acquired != null) {
+			synchronized (acquired) {
+				if (acquired.remove(poolObject) == null) {
+					throw new IllegalStateException(
+							"Object released twice or not acquired from this pool: "
+									+ poolObject);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.vulfox.util;
+
+/**
+ * Pool that limits the number of live objects, acquired and pooled together.
+ * When the limit is reached aquire returns null instead of creating an
+ * object, which keeps bursts from growing memory use. Like
+ * {@link ObjectPool} it must only be used from one thread.
+ * @param <E> Class to create a pool from
+ */
+public abstract class BoundedObjectPool<E> extends ObjectPool<E> {
+
+	/**
+	 * Maximum number of live objects
+	 */
+	private int mMaxLive;
+
+	/**
+	 * Number of acquires that returned null
+	 */
+	private long mExhaustedCount;
+
+	/**
+	 * Creates a bounded pool
+	 * @param maxLive Maximum number of objects the pool creates
+	 */
+	protected BoundedObjectPool(int maxLive) {
+		super(maxLive);
+		mMaxLive = maxLive;
+	}
+
+	/**
+	 * Get an instance of the pool object class
+	 * @return An instance of the pool object class or null if the limit of live objects is reached
+	 */
+	@Override
+	public E aquire() {
+		if (getPooledCount() == 0 && getAcquiredCount() >= mMaxLive) {
+			mExhaustedCount++;
+			return null;
+		}
+		return super.aquire();
+	}
+
+	/**
+	 * Returns the maximum number of live objects
+	 * @return Live object limit
+	 */
+	public int getMaxLive() {
+		return mMaxLive;
+	}
+
+	/**
+	 * Returns the number of acquires that returned null
+	 * @return Exhausted count
+	 */
+	public long getExhaustedCount() {
+		return mExhaustedCount;
+	}
+}
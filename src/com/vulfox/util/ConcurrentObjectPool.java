@@ -0,0 +1,170 @@
+package com.vulfox.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free pool that can be shared between threads, for example to hand
+ * objects from a loader thread to the game thread. Released objects are kept
+ * in a fixed array of slots that are claimed with compare and set, so no
+ * thread ever blocks and nothing is allocated after construction.
+ * @param <E> Class to create a pool from
+ */
+public abstract class ConcurrentObjectPool<E> extends AbstractPool<E> {
+
+	/**
+	 * Slots holding the released objects, null when empty
+	 */
+	private final AtomicReferenceArray<E> mSlots;
+
+	/**
+	 * Number of filled slots, may briefly be off while objects are moved
+	 */
+	private final AtomicInteger mPooledCount = new AtomicInteger();
+
+	/**
+	 * Number of objects acquired and not yet released
+	 */
+	private final AtomicInteger mAcquiredCount = new AtomicInteger();
+
+	/**
+	 * Statistics
+	 */
+	private final AtomicLong mAcquireCount = new AtomicLong();
+	private final AtomicLong mHitCount = new AtomicLong();
+	private final AtomicInteger mHighWaterMark = new AtomicInteger();
+	private final AtomicLong mDiscardCount = new AtomicLong();
+
+	/**
+	 * Creates a pool keeping at most {@link #DEFAULT_MAX_RETAINED} released objects
+	 */
+	protected ConcurrentObjectPool() {
+		this(DEFAULT_MAX_RETAINED);
+	}
+
+	/**
+	 * Creates a pool
+	 * @param maxRetained Maximum number of released objects kept for reuse
+	 */
+	protected ConcurrentObjectPool(int maxRetained) {
+		mSlots = new AtomicReferenceArray<E>(maxRetained);
+	}
+
+	/**
+	 * Get an instance of the pool object class
+	 * @return An instance of the pool object class
+	 */
+	@Override
+	public E aquire() {
+		mAcquireCount.incrementAndGet();
+
+		E poolObject = poll();
+		if (poolObject == null) {
+			poolObject = create();
+		} else {
+			mHitCount.incrementAndGet();
+		}
+
+		int acquired = mAcquiredCount.incrementAndGet();
+		int highWaterMark = mHighWaterMark.get();
+		while (acquired > highWaterMark
+				&& !mHighWaterMark.compareAndSet(highWaterMark, acquired)) {
+			highWaterMark = mHighWaterMark.get();
+		}
+		debugAcquired(poolObject);
+		return poolObject;
+	}
+
+	/**
+	 * Release an instance from the pool object class for later reuse
+	 * @param poolObject An instance from the pool object class that is no longer in use
+	 */
+	@Override
+	public void release(E poolObject) {
+		debugReleased(poolObject);
+		mAcquiredCount.decrementAndGet();
+		reset(poolObject);
+		if (!offer(poolObject)) {
+			mDiscardCount.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void prewarm(int count) {
+		count = Math.min(count, mSlots.length());
+		while (mPooledCount.get() < count) {
+			E poolObject = create();
+			reset(poolObject);
+			if (!offer(poolObject)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public int getPooledCount() {
+		return mPooledCount.get();
+	}
+
+	@Override
+	public int getMaxRetained() {
+		return mSlots.length();
+	}
+
+	@Override
+	public long getAcquireCount() {
+		return mAcquireCount.get();
+	}
+
+	@Override
+	public long getHitCount() {
+		return mHitCount.get();
+	}
+
+	@Override
+	public long getMissCount() {
+		return mAcquireCount.get() - mHitCount.get();
+	}
+
+	@Override
+	public int getHighWaterMark() {
+		return mHighWaterMark.get();
+	}
+
+	@Override
+	public long getDiscardCount() {
+		return mDiscardCount.get();
+	}
+
+	/**
+	 * Takes an object out of the first filled slot
+	 * @return A released object or null if the pool is empty
+	 */
+	private E poll() {
+		int length = mSlots.length();
+		for (int i = 0; i < length && mPooledCount.get() > 0; i++) {
+			E poolObject = mSlots.get(i);
+			if (poolObject != null && mSlots.compareAndSet(i, poolObject, null)) {
+				mPooledCount.decrementAndGet();
+				return poolObject;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Puts an object into the first empty slot
+	 * @return False if the pool is full
+	 */
+	private boolean offer(E poolObject) {
+		int length = mSlots.length();
+		for (int i = 0; i < length && mPooledCount.get() < length; i++) {
+			if (mSlots.get(i) == null && mSlots.compareAndSet(i, null, poolObject)) {
+				mPooledCount.incrementAndGet();
+				return true;
+			}
+		}
+		return false;
+	}
+}
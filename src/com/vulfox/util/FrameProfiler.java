@@ -0,0 +1,476 @@
+package com.vulfox.util;
+
+/**
+ * Measures how long each phase of a frame takes. Keeps the durations of the
+ * most recent frames in a ring buffer per phase together with a histogram of
+ * the same window, so percentiles can be read at any time. Nothing is
+ * allocated after construction.
+ * 
+ * All methods should be called from the game thread.
+ */
+public class FrameProfiler {
+
+	/**
+	 * Draining the touch event queue
+	 */
+	public static final int PHASE_INPUT = 0;
+
+	/**
+	 * Updating the screens, summed over all updates in the frame
+	 */
+	public static final int PHASE_UPDATE = 1;
+
+	/**
+	 * Drawing the screens
+	 */
+	public static final int PHASE_DRAW = 2;
+
+	/**
+	 * Drawing the screen components
+	 */
+	public static final int PHASE_DRAW_COMPONENTS = 3;
+
+	/**
+	 * Waiting for the surface canvas
+	 */
+	public static final int PHASE_LOCK_CANVAS = 4;
+
+	/**
+	 * Posting the canvas to the surface
+	 */
+	public static final int PHASE_UNLOCK_CANVAS = 5;
+
+	/**
+	 * Sleeping to keep a fixed frame rate
+	 */
+	public static final int PHASE_SLEEP = 6;
+
+	/**
+	 * The whole frame, from beginFrame to endFrame
+	 */
+	public static final int PHASE_FRAME = 7;
+
+	/**
+	 * Number of phases
+	 */
+	public static final int PHASE_COUNT = 8;
+
+	/**
+	 * Short display names of the phases
+	 */
+	private static final String[] PHASE_NAMES = { "input", "update", "draw",
+			"components", "lock", "unlock", "sleep", "frame" };
+
+	/**
+	 * Default number of frames kept in the history
+	 */
+	public static final int DEFAULT_HISTORY_SIZE = 256;
+
+	/**
+	 * Width of a histogram bucket in nanoseconds (0.1 ms)
+	 */
+	private static final long BUCKET_TIME = 100000L;
+
+	/**
+	 * Number of histogram buckets. The last bucket holds every sample longer
+	 * than 100 ms.
+	 */
+	private static final int BUCKET_COUNT = 1000;
+
+	/**
+	 * Default frame budget in nanoseconds (60 fps)
+	 */
+	private static final long DEFAULT_FRAME_BUDGET = 1000000000L / 60;
+
+	/**
+	 * Indicates if measurements are taken
+	 */
+	private boolean mEnabled;
+
+	/**
+	 * Indicates if a frame has been started and not yet ended
+	 */
+	private boolean mInFrame;
+
+	/**
+	 * Phase durations of the recent frames, indexed [phase][frame]
+	 */
+	private final long[][] mHistory;
+
+	/**
+	 * Histograms of the samples in the history, indexed [phase][bucket]
+	 */
+	private final int[][] mHistogram;
+
+	/**
+	 * Sum of the samples in the history per phase
+	 */
+	private final long[] mHistorySum;
+
+	/**
+	 * Start time of the phases that are being measured
+	 */
+	private final long[] mPhaseStart;
+
+	/**
+	 * Time spent in each phase during the current frame
+	 */
+	private final long[] mCurrentFrame;
+
+	/**
+	 * Start time of the current frame
+	 */
+	private long mFrameStart;
+
+	/**
+	 * History slot the next frame is written to
+	 */
+	private int mHistoryIndex;
+
+	/**
+	 * Number of valid frames in the history
+	 */
+	private int mHistoryCount;
+
+	/**
+	 * Frames that take longer than this, not counting sleep, are counted as
+	 * dropped
+	 */
+	private long mFrameBudget = DEFAULT_FRAME_BUDGET;
+
+	/**
+	 * Total number of profiled frames
+	 */
+	private long mFrameCount;
+
+	/**
+	 * Total number of frames that went over the frame budget
+	 */
+	private long mDroppedFrameCount;
+
+	/**
+	 * Creates a disabled profiler with the default history size
+	 */
+	public FrameProfiler() {
+		this(DEFAULT_HISTORY_SIZE);
+	}
+
+	/**
+	 * Creates a disabled profiler
+	 * 
+	 * @param historySize
+	 *            Number of frames the statistics are calculated over
+	 */
+	public FrameProfiler(int historySize) {
+		mHistory = new long[PHASE_COUNT][historySize];
+		mHistogram = new int[PHASE_COUNT][BUCKET_COUNT];
+		mHistorySum = new long[PHASE_COUNT];
+		mPhaseStart = new long[PHASE_COUNT];
+		mCurrentFrame = new long[PHASE_COUNT];
+	}
+
+	public boolean isEnabled() {
+		return mEnabled;
+	}
+
+	/**
+	 * Turns measuring on or off. The collected statistics are kept.
+	 * 
+	 * @param enabled
+	 */
+	public void setEnabled(boolean enabled) {
+		mEnabled = enabled;
+		mInFrame = false;
+	}
+
+	/**
+	 * Sets the time a frame may take, not counting sleep, before it is
+	 * counted as dropped
+	 * 
+	 * @param frameBudget
+	 *            Frame budget in nanoseconds
+	 */
+	public void setFrameBudget(long frameBudget) {
+		mFrameBudget = frameBudget;
+	}
+
+	public long getFrameBudget() {
+		return mFrameBudget;
+	}
+
+	/**
+	 * Marks the start of a frame
+	 */
+	public void beginFrame() {
+		if (!mEnabled) {
+			return;
+		}
+
+		for (int i = 0; i < PHASE_COUNT; i++) {
+			mCurrentFrame[i] = 0;
+		}
+		mInFrame = true;
+		mFrameStart = System.nanoTime();
+	}
+
+	/**
+	 * Marks the start of a phase. A phase can be measured several times per
+	 * frame, the durations are summed.
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 */
+	public void begin(int phase) {
+		if (!mInFrame) {
+			return;
+		}
+
+		mPhaseStart[phase] = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of a phase
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 */
+	public void end(int phase) {
+		if (!mInFrame) {
+			return;
+		}
+
+		mCurrentFrame[phase] += System.nanoTime() - mPhaseStart[phase];
+	}
+
+	/**
+	 * Marks the end of a frame and adds its phase durations to the history
+	 */
+	public void endFrame() {
+		if (!mInFrame) {
+			return;
+		}
+		mInFrame = false;
+
+		mCurrentFrame[PHASE_FRAME] = System.nanoTime() - mFrameStart;
+
+		int historySize = mHistory[0].length;
+		boolean full = mHistoryCount == historySize;
+		for (int phase = 0; phase < PHASE_COUNT; phase++) {
+			long[] history = mHistory[phase];
+			int[] histogram = mHistogram[phase];
+
+			if (full) {
+				long oldSample = history[mHistoryIndex];
+				histogram[bucketOf(oldSample)]--;
+				mHistorySum[phase] -= oldSample;
+			}
+
+			long sample = mCurrentFrame[phase];
+			history[mHistoryIndex] = sample;
+			histogram[bucketOf(sample)]++;
+			mHistorySum[phase] += sample;
+		}
+
+		mHistoryIndex = (mHistoryIndex + 1) % historySize;
+		if (!full) {
+			mHistoryCount++;
+		}
+
+		mFrameCount++;
+		if (mCurrentFrame[PHASE_FRAME] - mCurrentFrame[PHASE_SLEEP] > mFrameBudget) {
+			mDroppedFrameCount++;
+		}
+	}
+
+	/**
+	 * Forgets all collected statistics
+	 */
+	public void reset() {
+		for (int phase = 0; phase < PHASE_COUNT; phase++) {
+			int[] histogram = mHistogram[phase];
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				histogram[i] = 0;
+			}
+			mHistorySum[phase] = 0;
+		}
+		mHistoryIndex = 0;
+		mHistoryCount = 0;
+		mFrameCount = 0;
+		mDroppedFrameCount = 0;
+	}
+
+	/**
+	 * Returns the duration of a phase at the given percentile of the recent
+	 * frames. The result is rounded up to the histogram resolution of 0.1 ms.
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 * @param percentile
+	 *            Percentile between 0 and 1, e.g. 0.95
+	 * @return Duration in nanoseconds, 0 if nothing has been measured
+	 */
+	public long getPercentile(int phase, float percentile) {
+		if (mHistoryCount == 0) {
+			return 0;
+		}
+
+		int rank = (int) Math.ceil(percentile * mHistoryCount);
+		if (rank < 1) {
+			rank = 1;
+		}
+
+		int[] histogram = mHistogram[phase];
+		int count = 0;
+		for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+			count += histogram[i];
+			if (count >= rank) {
+				return (i + 1) * BUCKET_TIME;
+			}
+		}
+		return getMax(phase);
+	}
+
+	/**
+	 * Returns the median duration of a phase over the recent frames
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 * @return Duration in nanoseconds
+	 */
+	public long getP50(int phase) {
+		return getPercentile(phase, 0.5f);
+	}
+
+	/**
+	 * Returns the 95th percentile duration of a phase over the recent frames
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 * @return Duration in nanoseconds
+	 */
+	public long getP95(int phase) {
+		return getPercentile(phase, 0.95f);
+	}
+
+	/**
+	 * Returns the 99th percentile duration of a phase over the recent frames
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 * @return Duration in nanoseconds
+	 */
+	public long getP99(int phase) {
+		return getPercentile(phase, 0.99f);
+	}
+
+	/**
+	 * Returns the longest duration of a phase over the recent frames
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 * @return Duration in nanoseconds
+	 */
+	public long getMax(int phase) {
+		long[] history = mHistory[phase];
+		long max = 0;
+		for (int i = 0; i < mHistoryCount; i++) {
+			if (history[i] > max) {
+				max = history[i];
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the average duration of a phase over the recent frames
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 * @return Duration in nanoseconds
+	 */
+	public long getAverage(int phase) {
+		if (mHistoryCount == 0) {
+			return 0;
+		}
+		return mHistorySum[phase] / mHistoryCount;
+	}
+
+	/**
+	 * Returns the duration of a phase in a recent frame
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 * @param framesAgo
+	 *            0 for the last completed frame, 1 for the one before etc.
+	 * @return Duration in nanoseconds
+	 */
+	public long getSample(int phase, int framesAgo) {
+		int historySize = mHistory[0].length;
+		int index = (mHistoryIndex - 1 - framesAgo) % historySize;
+		if (index < 0) {
+			index += historySize;
+		}
+		return mHistory[phase][index];
+	}
+
+	/**
+	 * Returns the number of frames in the history
+	 * 
+	 * @return Number of frames the statistics are calculated over
+	 */
+	public int getHistoryCount() {
+		return mHistoryCount;
+	}
+
+	/**
+	 * Returns the maximum number of frames in the history
+	 * 
+	 * @return History size
+	 */
+	public int getHistorySize() {
+		return mHistory[0].length;
+	}
+
+	/**
+	 * Returns the total number of profiled frames
+	 * 
+	 * @return Frame count
+	 */
+	public long getFrameCount() {
+		return mFrameCount;
+	}
+
+	/**
+	 * Returns the total number of frames that went over the frame budget
+	 * 
+	 * @return Dropped frame count
+	 */
+	public long getDroppedFrameCount() {
+		return mDroppedFrameCount;
+	}
+
+	/**
+	 * Returns a short display name of a phase
+	 * 
+	 * @param phase
+	 *            One of the PHASE constants
+	 * @return Phase name
+	 */
+	public static String getPhaseName(int phase) {
+		return PHASE_NAMES[phase];
+	}
+
+	/**
+	 * Returns the histogram bucket a sample falls into
+	 */
+	private static int bucketOf(long sample) {
+		if (sample < 0) {
+			return 0;
+		}
+		long bucket = sample / BUCKET_TIME;
+		if (bucket >= BUCKET_COUNT) {
+			return BUCKET_COUNT - 1;
+		}
+		return (int) bucket;
+	}
+}
@@ -0,0 +1,169 @@
+package com.vulfox.util;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import com.vulfox.text.TextBuilder;
+
+/**
+ * Draws the statistics of a {@link FrameProfiler} on top of the screens: one
+ * row per phase with its p50, p95, p99 and max durations and a graph of the
+ * recent frame times. Everything is drawn from preallocated buffers.
+ */
+public class FrameProfilerOverlay {
+
+	/**
+	 * Height of a text row in pixels
+	 */
+	private static final float ROW_HEIGHT = 14.0f;
+
+	/**
+	 * Width of the overlay in pixels
+	 */
+	private static final float WIDTH = 300.0f;
+
+	/**
+	 * Height of the frame time graph in pixels
+	 */
+	private static final float GRAPH_HEIGHT = 60.0f;
+
+	/**
+	 * Horizontal positions of the value columns
+	 */
+	private static final float[] COLUMNS = { 80.0f, 135.0f, 190.0f, 245.0f };
+
+	/**
+	 * Column headers
+	 */
+	private static final String[] HEADERS = { "p50", "p95", "p99", "max" };
+
+	/**
+	 * Profiler to display
+	 */
+	private FrameProfiler mProfiler;
+
+	/**
+	 * Paints
+	 */
+	private Paint mBackgroundPaint;
+	private Paint mTextPaint;
+	private Paint mGraphPaint;
+	private Paint mBudgetPaint;
+
+	/**
+	 * Buffer numbers are formatted into
+	 */
+	private TextBuilder mText = new TextBuilder(32);
+
+	/**
+	 * Line segments of the frame time graph
+	 */
+	private float[] mGraphLines;
+
+	/**
+	 * Creates an overlay for the specified profiler
+	 * 
+	 * @param profiler
+	 *            Profiler to display
+	 */
+	public FrameProfilerOverlay(FrameProfiler profiler) {
+		mProfiler = profiler;
+		mGraphLines = new float[profiler.getHistorySize() * 4];
+
+		mBackgroundPaint = new Paint();
+		mBackgroundPaint.setColor(0xb0000000);
+
+		mTextPaint = new Paint();
+		mTextPaint.setColor(0xffffffff);
+		mTextPaint.setTextSize(ROW_HEIGHT - 2.0f);
+
+		mGraphPaint = new Paint();
+		mGraphPaint.setColor(0xff40ff40);
+
+		mBudgetPaint = new Paint();
+		mBudgetPaint.setColor(0xffff4040);
+	}
+
+	/**
+	 * Draws the overlay in the top left corner of the canvas
+	 * 
+	 * @param canvas
+	 *            Canvas to draw to
+	 */
+	public void draw(Canvas canvas) {
+		float rowsHeight = (FrameProfiler.PHASE_COUNT + 2) * ROW_HEIGHT;
+		canvas.drawRect(0.0f, 0.0f, WIDTH, rowsHeight + GRAPH_HEIGHT + 4.0f,
+				mBackgroundPaint);
+
+		float y = ROW_HEIGHT;
+		for (int column = 0; column < HEADERS.length; column++) {
+			canvas.drawText(HEADERS[column], COLUMNS[column], y, mTextPaint);
+		}
+
+		for (int phase = 0; phase < FrameProfiler.PHASE_COUNT; phase++) {
+			y += ROW_HEIGHT;
+			canvas.drawText(FrameProfiler.getPhaseName(phase), 4.0f, y,
+					mTextPaint);
+			drawMillis(canvas, mProfiler.getP50(phase), COLUMNS[0], y);
+			drawMillis(canvas, mProfiler.getP95(phase), COLUMNS[1], y);
+			drawMillis(canvas, mProfiler.getP99(phase), COLUMNS[2], y);
+			drawMillis(canvas, mProfiler.getMax(phase), COLUMNS[3], y);
+		}
+
+		y += ROW_HEIGHT;
+		canvas.drawText("dropped", 4.0f, y, mTextPaint);
+		mText.clear().append(mProfiler.getDroppedFrameCount()).append('/')
+				.append(mProfiler.getFrameCount());
+		canvas.drawText(mText.getChars(), 0, mText.length(), COLUMNS[0], y,
+				mTextPaint);
+
+		drawGraph(canvas, y + 4.0f);
+	}
+
+	/**
+	 * Draws the frame time history as a line graph, scaled so that twice the
+	 * frame budget fills the graph height
+	 */
+	private void drawGraph(Canvas canvas, float top) {
+		float bottom = top + GRAPH_HEIGHT;
+		float scale = GRAPH_HEIGHT / (2.0f * mProfiler.getFrameBudget());
+		int count = mProfiler.getHistoryCount();
+		int historySize = mProfiler.getHistorySize();
+		float step = WIDTH / historySize;
+
+		float budgetY = bottom - mProfiler.getFrameBudget() * scale;
+		canvas.drawLine(0.0f, budgetY, WIDTH, budgetY, mBudgetPaint);
+
+		int lines = 0;
+		float previousX = 0.0f;
+		float previousY = 0.0f;
+		for (int i = count - 1; i >= 0; i--) {
+			long frameTime = mProfiler.getSample(FrameProfiler.PHASE_FRAME, i)
+					- mProfiler.getSample(FrameProfiler.PHASE_SLEEP, i);
+			float x = (historySize - 1 - i) * step;
+			float sampleY = Math.max(top, bottom - frameTime * scale);
+			if (i < count - 1) {
+				mGraphLines[lines++] = previousX;
+				mGraphLines[lines++] = previousY;
+				mGraphLines[lines++] = x;
+				mGraphLines[lines++] = sampleY;
+			}
+			previousX = x;
+			previousY = sampleY;
+		}
+
+		if (lines > 0) {
+			canvas.drawLines(mGraphLines, 0, lines, mGraphPaint);
+		}
+	}
+
+	/**
+	 * Draws a duration in milliseconds with one decimal
+	 */
+	private void drawMillis(Canvas canvas, long nanos, float x, float y) {
+		long tenths = (nanos + 50000L) / 100000L;
+		mText.clear().append(tenths / 10).append('.')
+				.append((char) ('0' + tenths % 10));
+		canvas.drawText(mText.getChars(), 0, mText.length(), x, y, mTextPaint);
+	}
+}
@@ -1,49 +1,182 @@
 package com.vulfox.util;
 
-import java.util.Stack;
-
 /**
  * Extend this class to make a pool manager
  * You will have to handle releases of the object manually
+ * 
+ * The pool is not synchronized and must only be used from one thread, use
+ * {@link ConcurrentObjectPool} to share objects between threads.
  * @param <E> Class to create a pool from
  */
-public abstract class ObjectPool<E> {
+public abstract class ObjectPool<E> extends AbstractPool<E> {
 
 	/**
 	 * Holds the released objects
 	 */
-	private Stack<E> mPool = new Stack<E>();
+	private Object[] mPool;
+
+	/**
+	 * Number of released objects in the pool
+	 */
+	private int mPoolSize;
+
+	/**
+	 * Maximum number of released objects kept
+	 */
+	private int mMaxRetained;
+
+	/**
+	 * Number of objects acquired and not yet released
+	 */
+	private int mAcquiredCount;
+
+	/**
+	 * Statistics
+	 */
+	private long mAcquireCount;
+	private long mHitCount;
+	private int mHighWaterMark;
+	private long mDiscardCount;
 
 	/**
-	 * Override to create a new instance of the pool object class
-	 * @return A new instance of E
+	 * Creates a pool keeping at most {@link #DEFAULT_MAX_RETAINED} released objects
 	 */
-	protected abstract E create();
+	protected ObjectPool() {
+		this(DEFAULT_MAX_RETAINED);
+	}
 
 	/**
-	 * Override to reset an instance of a pool object class
-	 * @param poolObject Pool object to reset
+	 * Creates a pool
+	 * @param maxRetained Maximum number of released objects kept for reuse
 	 */
-	protected abstract void reset(E poolObject);
+	protected ObjectPool(int maxRetained) {
+		mMaxRetained = maxRetained;
+		mPool = new Object[Math.min(maxRetained, 16)];
+	}
 
 	/**
 	 * Get an instance of the pool object class
 	 * @return An instance of the pool object class
 	 */
+	@SuppressWarnings("unchecked")
+	@Override
 	public E aquire() {
-		if (mPool.isEmpty()) {
-			return create();
+		E poolObject;
+		mAcquireCount++;
+		if (mPoolSize == 0) {
+			poolObject = create();
+		} else {
+			mHitCount++;
+			mPoolSize--;
+			poolObject = (E) mPool[mPoolSize];
+			mPool[mPoolSize] = null;
+		}
+
+		mAcquiredCount++;
+		if (mAcquiredCount > mHighWaterMark) {
+			mHighWaterMark = mAcquiredCount;
 		}
-		return mPool.pop();
+		debugAcquired(poolObject);
+		return poolObject;
 	}
 
 	/**
 	 * Release an instance from the pool object class for later reuse
 	 * @param poolObject An instance from the pool object class that is no longer in use
 	 */
+	@Override
 	public void release(E poolObject) {
+		debugReleased(poolObject);
+		if (mAcquiredCount > 0) {
+			mAcquiredCount--;
+		}
 		reset(poolObject);
-		mPool.push(poolObject);
+		if (!push(poolObject)) {
+			mDiscardCount++;
+		}
+	}
+
+	@Override
+	public void prewarm(int count) {
+		count = Math.min(count, mMaxRetained);
+		while (mPoolSize < count) {
+			E poolObject = create();
+			reset(poolObject);
+			push(poolObject);
+		}
+	}
+
+	/**
+	 * Changes the maximum number of released objects kept, objects over the
+	 * new limit are dropped
+	 * @param maxRetained Maximum pooled object count
+	 */
+	public void setMaxRetained(int maxRetained) {
+		mMaxRetained = maxRetained;
+		while (mPoolSize > maxRetained) {
+			mPool[--mPoolSize] = null;
+		}
+	}
+
+	/**
+	 * Returns the number of objects acquired and not yet released
+	 * @return Acquired object count
+	 */
+	public int getAcquiredCount() {
+		return mAcquiredCount;
+	}
+
+	@Override
+	public int getPooledCount() {
+		return mPoolSize;
+	}
+
+	@Override
+	public int getMaxRetained() {
+		return mMaxRetained;
+	}
+
+	@Override
+	public long getAcquireCount() {
+		return mAcquireCount;
+	}
+
+	@Override
+	public long getHitCount() {
+		return mHitCount;
+	}
+
+	@Override
+	public long getMissCount() {
+		return mAcquireCount - mHitCount;
+	}
+
+	@Override
+	public int getHighWaterMark() {
+		return mHighWaterMark;
+	}
+
+	@Override
+	public long getDiscardCount() {
+		return mDiscardCount;
+	}
+
+	/**
+	 * Adds a released object to the pool if there is room
+	 * @return False if the pool is full
+	 */
+	private boolean push(E poolObject) {
+		if (mPoolSize >= mMaxRetained) {
+			return false;
+		}
+		if (mPoolSize == mPool.length) {
+			// A pool created with no room starts from an empty array
+			Object[] pool = new Object[Math.min(Math.max(mPool.length * 2, 1),
+					mMaxRetained)];
+			System.arraycopy(mPool, 0, pool, 0, mPoolSize);
+			mPool = pool;
+		}
+		mPool[mPoolSize++] = poolObject;
+		return true;
 	}
-	
 }
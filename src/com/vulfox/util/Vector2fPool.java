@@ -4,15 +4,14 @@ import com.vulfox.math.Vector2f;
 
 public class Vector2fPool extends ObjectPool<Vector2f> {
 
-	// Singleton implementation
+	// Singleton implementation, created when the class is loaded so
+	// getInstance is safe to call from any thread. The pool itself must only
+	// be used from the game thread.
 	
-	private static Vector2fPool mInstance = null;
+	private static final Vector2fPool sInstance = new Vector2fPool();
 
 	public static Vector2fPool getInstance() {
-		if (mInstance == null) {
-			mInstance = new Vector2fPool();
-		}
-		return mInstance;
+		return sInstance;
 	}
 
 	private Vector2fPool() {